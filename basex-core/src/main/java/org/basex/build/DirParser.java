@@ -4,13 +4,17 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
 import org.basex.core.MainOptions.MainParser;
+import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
+import org.basex.io.serial.*;
+import org.basex.query.value.node.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
@@ -18,6 +22,9 @@ import org.basex.util.list.*;
  * This class recursively scans files and directories and parses all
  * relevant files.
  *
+ * If {@link MainOptions#BUILDTHREADS} is greater than 1, resources are parsed in parallel into
+ * main-memory fragments, which are then passed on to the builder in their original order.
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
@@ -45,6 +52,13 @@ public final class DirParser extends Parser {
   private final boolean binaryParser;
   /** Archive name. */
   private final boolean archiveName;
+  /** Number of threads for parsing resources. */
+  private final int threads;
+  /** Resources that are parsed in parallel, in their original order. */
+  private final ArrayDeque<Fragment> fragments = new ArrayDeque<>();
+
+  /** Thread pool for parsing resources ({@code null} if resources are parsed sequentially). */
+  private ExecutorService pool;
 
   /** Last source. */
   private IO lastSrc;
@@ -75,6 +89,7 @@ public final class DirParser extends Parser {
     addBinary = options.get(MainOptions.ADDRAW);
     dtd = options.get(MainOptions.DTD);
     binaryParser = options.get(MainOptions.PARSER) == MainParser.RAW;
+    threads = options.get(MainOptions.BUILDTHREADS);
     filter = !isDir && !source.isArchive() ? null :
       Pattern.compile(IOFile.regex(options.get(MainOptions.CREATEFILTER)));
   }
@@ -83,7 +98,17 @@ public final class DirParser extends Parser {
   public void parse(final Builder build) throws IOException {
     build.meta.inputsize = 0;
     build.meta.original = original;
-    parse(build, source);
+    if(threads > 1 && !binaryParser) pool = Executors.newFixedThreadPool(threads);
+    try {
+      parse(build, source);
+      while(!fragments.isEmpty()) append(build);
+    } finally {
+      if(pool != null) {
+        pool.shutdownNow();
+        pool = null;
+      }
+      fragments.clear();
+    }
   }
 
   /**
@@ -176,6 +201,17 @@ public final class DirParser extends Parser {
     if(include ? binaryParser : addBinary) {
       // store input in binary format if binary parser was chosen, or if file was included otherwise
       builder.binary(targ + name, source);
+    } else if(include && pool != null) {
+      // parse input in parallel: cache streamed archive entries
+      IO in = source;
+      if(!(source instanceof IOFile || source instanceof IOContent)) {
+        in = new IOContent(source.read());
+        in.name(name);
+      }
+      final Parser prsr = Parser.singleParser(in, options, targ);
+      fragments.add(new Fragment(source.path(), pool.submit(() -> MemBuilder.build("", prsr))));
+      // limit number of pending fragments
+      if(fragments.size() > threads << 1) append(builder);
     } else if(include) {
       // store input as XML
       boolean ok = true;
@@ -213,6 +249,38 @@ public final class DirParser extends Parser {
     if(Prop.debug && (++resources & 0x3FF) == 0) Util.err(";");
   }
 
+  /**
+   * Waits for the next parsed fragment and adds its documents to the builder.
+   * @param builder builder instance
+   * @throws IOException I/O exception
+   */
+  private void append(final Builder builder) throws IOException {
+    final Fragment fragment = fragments.poll();
+    final MemData data;
+    try {
+      data = fragment.data.get();
+    } catch(final InterruptedException ex) {
+      throw new BaseXException(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof final IOException io) {
+        if(!skipCorrupt) throw io;
+        Util.debug(io);
+        skipped.add(fragment.path);
+        return;
+      }
+      if(th instanceof final RuntimeException re) throw re;
+      if(th instanceof final Error er) throw er;
+      throw Util.notExpected(th);
+    }
+    builder.checkStop();
+    final Serializer ser = new BuilderSerializer(builder);
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre += data.size(pre, Data.DOC)) {
+      ser.serialize(new DBNode(data, pre));
+    }
+  }
+
   @Override
   public String info() {
     final TokenBuilder tb = new TokenBuilder();
@@ -246,4 +314,11 @@ public final class DirParser extends Parser {
   public void close() throws IOException {
     if(parser != null) parser.close();
   }
+
+  /**
+   * Resource that is parsed in parallel.
+   * @param path path to the resource
+   * @param data parsed data
+   */
+  private record Fragment(String path, Future<MemData> data) { }
 }
@@ -92,6 +92,13 @@ public final class DiskBuilder extends Builder {
       }
       tmpFile.delete();
 
+      // compress heap files
+      if(meta.compresstexts) {
+        CompressedAccess.compress(meta.dbFile(DATATXT));
+        CompressedAccess.compress(meta.dbFile(DATAATV));
+        meta.compressed = true;
+      }
+
       // return database instance. build will be finalized when this instance is closed
       meta.dirty = true;
       return new DiskData(meta, elemNames, attrNames, path, nspaces);
@@ -8,6 +8,7 @@ import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.io.random.*;
+import org.basex.query.*;
 import org.basex.query.util.pkg.*;
 import org.basex.query.value.seq.*;
 import org.basex.server.*;
@@ -50,6 +51,8 @@ public final class Context {
   public final Stores stores;
   /** Cache. */
   public final Caches caches;
+  /** Compiled query plans. */
+  public final QueryCache queries;
 
   /** External objects (HTTP context, HTTP requests). */
   private final HashSet<Object> external;
@@ -119,6 +122,7 @@ public final class Context {
     jobs = ctx.jobs;
     stores = ctx.stores;
     caches = ctx.caches;
+    queries = ctx.queries;
     external = new HashSet<>(ctx.external);
   }
 
@@ -142,6 +146,7 @@ public final class Context {
     external = new HashSet<>();
     stores = new Stores(this);
     caches = new Caches(this);
+    queries = new QueryCache(soptions);
     client = null;
   }
 
@@ -169,6 +174,7 @@ public final class Context {
     if(closed) return;
     closed = true;
     stores.close();
+    queries.clear();
     jobs.close();
     sessions.close();
     datas.close();
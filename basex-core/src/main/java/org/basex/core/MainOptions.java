@@ -40,6 +40,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption SKIPCORRUPT = new BooleanOption("SKIPCORRUPT", false);
   /** Flag for adding remaining files as binary files. */
   public static final BooleanOption ADDRAW = new BooleanOption("ADDRAW", false);
+  /** Number of threads for parsing the files of a directory and building index structures. */
+  public static final NumberOption BUILDTHREADS = new NumberOption("BUILDTHREADS", 1);
   /** Define CSV parser options. */
   public static final OptionsOption<CsvParserOptions> CSVPARSER =
       new OptionsOption<>("CSVPARSER", new CsvParserOptions());
@@ -94,6 +96,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption TOKENINDEX = new BooleanOption("TOKENINDEX", false);
   /** Flag for creating a full-text index. */
   public static final BooleanOption FTINDEX = new BooleanOption("FTINDEX", false);
+  /** Flag for creating a trigram index. */
+  public static final BooleanOption TRIGRAMINDEX = new BooleanOption("TRIGRAMINDEX", false);
 
   /** Text index: names to include. */
   public static final NamesOption TEXTINCLUDE = new NamesOption("TEXTINCLUDE", "");
@@ -103,6 +107,10 @@ public final class MainOptions extends Options {
   public static final NamesOption TOKENINCLUDE = new NamesOption("TOKENINCLUDE", "");
   /** Full-text index: names to include. */
   public static final NamesOption FTINCLUDE = new NamesOption("FTINCLUDE", "");
+  /** Numeric columns: names of elements and attributes to include. */
+  public static final NamesOption COLUMNINCLUDE = new NamesOption("COLUMNINCLUDE", "");
+  /** Composite indexes: definitions, separated by semicolons. */
+  public static final StringOption COMPOSITEINDEX = new StringOption("COMPOSITEINDEX", "");
 
   /** Maximum length of index entries. */
   public static final NumberOption MAXLEN = new NumberOption("MAXLEN", 96);
@@ -112,6 +120,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption UPDINDEX = new BooleanOption("UPDINDEX", false);
   /** Flag for automatic index updates. */
   public static final BooleanOption AUTOOPTIMIZE = new BooleanOption("AUTOOPTIMIZE", false);
+  /** Flag for compressing texts and attribute values in blocks. */
+  public static final BooleanOption COMPRESSTEXTS = new BooleanOption("COMPRESSTEXTS", false);
   /** Index split size. */
   public static final NumberOption SPLITSIZE = new NumberOption("SPLITSIZE", 0);
 
@@ -140,6 +150,8 @@ public final class MainOptions extends Options {
   public static final NumberOption UNROLLLIMIT = new NumberOption("UNROLLLIMIT", 5);
   /** Flag for tail-call optimization. */
   public static final NumberOption TAILCALLS = new NumberOption("TAILCALLS", 256);
+  /** Number of tuples (not bytes) buffered by order by before spilling to disk (0: never spill). */
+  public static final NumberOption SORTSPILL = new NumberOption("SORTSPILL", 0);
   /** Look up documents in databases. */
   public static final BooleanOption WITHDB = new BooleanOption("WITHDB", true);
   /** Favor global database when opening resources. */
@@ -182,6 +194,12 @@ public final class MainOptions extends Options {
 
   /** Flushes the database after each update. */
   public static final BooleanOption AUTOFLUSH = new BooleanOption("AUTOFLUSH", true);
+  /** Logs updates in a write-ahead journal. */
+  public static final BooleanOption JOURNAL = new BooleanOption("JOURNAL", false);
+  /** Percentage of unused space in database files that triggers a background compaction. */
+  public static final NumberOption AUTOCOMPACT = new NumberOption("AUTOCOMPACT", 0);
+  /** Maximum number of megabytes per second written by a background compaction. */
+  public static final NumberOption COMPACTRATE = new NumberOption("COMPACTRATE", 16);
   /** Writes original files back after updates. */
   public static final BooleanOption WRITEBACK = new BooleanOption("WRITEBACK", false);
   /** Maximum number of index occurrences to print. */
@@ -192,7 +210,8 @@ public final class MainOptions extends Options {
   /** Indexing options. */
   public static final Option<?>[] INDEXING = { MAXCATS, MAXLEN, SPLITSIZE, LANGUAGE, STOPWORDS,
     TEXTINDEX, ATTRINDEX, TOKENINDEX, FTINDEX, TEXTINCLUDE, ATTRINCLUDE, TOKENINCLUDE, FTINCLUDE,
-    STEMMING, CASESENS, DIACRITICS, UPDINDEX, AUTOOPTIMIZE };
+    COLUMNINCLUDE, COMPOSITEINDEX, TRIGRAMINDEX, STEMMING, CASESENS, DIACRITICS, UPDINDEX,
+    AUTOOPTIMIZE, COMPRESSTEXTS };
 
   /** Mapping of XML parsing options. */
   private static final Map<String, Option<?>> XMLPARSINGMAP = new HashMap<>();
@@ -212,7 +231,7 @@ public final class MainOptions extends Options {
   private static final Option<?>[] XMLPARSING = XMLPARSINGMAP.values().toArray(Option[]::new);
   /** Extended parsing options. */
   public static final Option<?>[] EXTPARSING = { CREATEFILTER, ADDARCHIVES, ARCHIVENAME,
-      SKIPCORRUPT, ADDRAW, ADDCACHE, CSVPARSER, JSONPARSER, HTMLPARSER, PARSER };
+      SKIPCORRUPT, ADDRAW, BUILDTHREADS, ADDCACHE, CSVPARSER, JSONPARSER, HTMLPARSER, PARSER };
   /** All parsing options. */
   public static final Option<?>[] PARSING = Stream.concat(Stream.of(XMLPARSING),
       Stream.of(EXTPARSING)).toArray(Option<?>[]::new);
@@ -39,6 +39,12 @@ public final class StaticOptions extends Options {
   public static final NumberOption CACHEMAX = new NumberOption("CACHEMAX", 65536);
   /** Lifetime (seconds) of cache entries. */
   public static final NumberOption CACHETTL = new NumberOption("CACHETTL", 86400);
+  /** Maximum number of cached query plans (0: no caching). */
+  public static final NumberOption QUERYCACHE = new NumberOption("QUERYCACHE", 0);
+  /** Memory-mapped access to database files. */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
+  /** Number of buffered pages per database file. */
+  public static final NumberOption BUFFERS = new NumberOption("BUFFERS", 16);
 
   /** Comment: written to the options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -139,6 +145,8 @@ public final class StaticOptions extends Options {
     // assigns static variables and system properties
     Prop.language = get(LANG);
     Prop.debug = get(DEBUG);
+    Prop.mmap = get(MMAP);
+    Prop.buffers = get(BUFFERS);
     final String ph = get(PROXYHOST);
     if(!ph.isEmpty()) {
       Prop.setSystem("http.proxyHost", ph);
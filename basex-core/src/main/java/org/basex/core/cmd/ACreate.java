@@ -95,7 +95,7 @@ public abstract class ACreate extends Command {
     } finally {
       try {
         // finish update, remove locks
-        Optimize.finish(data);
+        Optimize.finish(data, context);
         if(lock) data.finishUpdate(options);
       } catch(final IOException ex) {
         // do not overwrite existing error if something goes wrong
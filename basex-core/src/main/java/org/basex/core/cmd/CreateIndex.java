@@ -3,6 +3,8 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.parse.*;
@@ -80,10 +82,15 @@ public final class CreateIndex extends ACreate {
    * @throws IOException I/O exception
    */
   static void create(final Data data, final ACreate cmd) throws IOException {
-    if(data.meta.createtext) create(IndexType.TEXT, data, cmd);
-    if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, cmd);
-    if(data.meta.createtoken) create(IndexType.TOKEN, data, cmd);
-    if(data.meta.createft) create(IndexType.FULLTEXT, data, cmd);
+    final ArrayList<IndexType> types = new ArrayList<>(4);
+    if(data.meta.createtext) types.add(IndexType.TEXT);
+    if(data.meta.createattr) types.add(IndexType.ATTRIBUTE);
+    if(data.meta.createtoken) types.add(IndexType.TOKEN);
+    if(data.meta.createft) types.add(IndexType.FULLTEXT);
+    create(types, data, cmd);
+    data.createColumns();
+    data.createComposites();
+    data.createTrigrams();
   }
 
   /**
@@ -94,8 +101,44 @@ public final class CreateIndex extends ACreate {
    * @throws IOException I/O exception
    */
   static void create(final IndexType type, final Data data, final ACreate cmd) throws IOException {
-    DropIndex.drop(type, data);
-    data.createIndex(type, cmd);
-    data.meta.index(type, true);
+    final ArrayList<IndexType> types = new ArrayList<>(1);
+    types.add(type);
+    create(types, data, cmd);
+  }
+
+  /**
+   * Builds the specified indexes. If {@link MainOptions#BUILDTHREADS} is greater than 1,
+   * the indexes of a disk-based database are built concurrently.
+   * @param types indexes to be built
+   * @param data data reference
+   * @param cmd calling command (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  static void create(final ArrayList<IndexType> types, final Data data, final ACreate cmd)
+      throws IOException {
+
+    for(final IndexType type : types) DropIndex.drop(type, data);
+
+    final Context ctx = cmd != null ? cmd.jc().context : null;
+    final int threads = ctx == null || data.inMemory() ? 1 :
+      Math.min(types.size(), ctx.options.get(MainOptions.BUILDTHREADS));
+    if(threads > 1) {
+      final ExecutorService pool = Executors.newFixedThreadPool(threads);
+      try {
+        final ArrayList<Future<?>> futures = new ArrayList<>(types.size());
+        for(final IndexType type : types) {
+          futures.add(pool.submit(() -> {
+            data.createIndex(type, cmd);
+            return null;
+          }));
+        }
+        IndexBuilder.await(futures);
+      } finally {
+        pool.shutdownNow();
+      }
+    } else {
+      for(final IndexType type : types) data.createIndex(type, cmd);
+    }
+    for(final IndexType type : types) data.meta.index(type, true);
   }
 }
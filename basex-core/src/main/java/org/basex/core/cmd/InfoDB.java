@@ -3,6 +3,7 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.locks.*;
 import org.basex.core.parse.*;
@@ -27,7 +28,16 @@ public final class InfoDB extends AInfo {
 
   @Override
   protected boolean run() throws IOException {
-    out.print(db(context.data().meta, false, true));
+    final Data data = context.data();
+    out.print(db(data.meta, false, true));
+
+    // times needed for loading the database structures
+    final Map<String, Long> loads = data.loads();
+    if(!loads.isEmpty()) {
+      final TokenBuilder tb = new TokenBuilder().add(NL).addExt("%" + NL, TIME_REQUIRED);
+      loads.forEach((name, time) -> info(tb, name, Performance.formatNano(time)));
+      out.print(tb.toString());
+    }
     return true;
   }
 
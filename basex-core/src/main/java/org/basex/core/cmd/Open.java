@@ -1,6 +1,7 @@
 package org.basex.core.cmd;
 
 import static org.basex.core.Text.*;
+import static org.basex.data.DataText.*;
 
 import java.io.*;
 
@@ -8,6 +9,7 @@ import org.basex.core.*;
 import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
+import org.basex.io.random.*;
 import org.basex.query.value.seq.*;
 
 /**
@@ -96,8 +98,15 @@ public final class Open extends Command {
           return null;
         }
 
-        // do not open a database that is currently updated
+        // complete interrupted file replacements, and restore database files from the journal
+        // of a database that was not properly closed
         final MetaData meta = new MetaData(name, options, context.soptions);
+        if((meta.dbFile(DATASWP).exists() || meta.dbFile(DATAJRN).exists()) &&
+            !TableDiskAccess.locked(name, context)) {
+          FileSwap.recover(meta);
+          Journal.replay(meta);
+        }
+        // do not open a database that is currently updated
         if(meta.updateFile().exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
 
         // open database
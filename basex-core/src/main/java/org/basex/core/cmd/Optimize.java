@@ -3,6 +3,7 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
@@ -68,15 +69,18 @@ public final class Optimize extends ACreate {
   /**
    * Optimizes a database after updates.
    * @param data data
+   * @param ctx database context
    * @throws IOException I/O Exception
    */
-  public static void finish(final Data data) throws IOException {
+  public static void finish(final Data data, final Context ctx) throws IOException {
     // do nothing if database has been closed
     if(data.closed()) return;
     // GH-676: optimize database and rebuild index structures if ID has turned negative
     if(data.meta.lastid < data.meta.size - 1) optimizeIds(data);
     // GH-1035: auto-optimize database
     if(data.meta.autooptimize) optimize(data, null);
+    // reclaim unused space in the background
+    Compaction.schedule(data, ctx);
   }
 
   /**
@@ -154,28 +158,38 @@ public final class Optimize extends ACreate {
     }
 
     // rebuild value indexes
-    optimize(IndexType.TEXT, data, meta.createtext, enforceText, cmd);
-    optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, cmd);
-    optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, cmd);
-    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, cmd);
+    final ArrayList<IndexType> types = new ArrayList<>(4);
+    optimize(IndexType.TEXT, data, meta.createtext, enforceText, types);
+    optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, types);
+    optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, types);
+    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, types);
+    CreateIndex.create(types, data, cmd);
+
+    // recreate or drop numeric columns
+    if(meta.columns == meta.columninclude.isEmpty()) data.createColumns();
+    // recreate or drop composite indexes
+    if(meta.composites == meta.compositeindex.isEmpty()) data.createComposites();
+    // recreate or drop trigram index
+    if(meta.trigramindex != meta.createtrigram) data.createTrigrams();
   }
 
   /**
-   * Creates or deletes the specified index if the old and new state is different.
+   * Deletes the specified index or schedules it for creation if the old and new state is
+   * different.
    * @param type index type
    * @param data data reference
    * @param create new flag
    * @param enforce enforce operation
-   * @param cmd calling command instance
+   * @param types indexes to be created
    * @throws IOException I/O exception
    */
   private static void optimize(final IndexType type, final Data data, final boolean create,
-      final boolean enforce, final Optimize cmd) throws IOException {
+      final boolean enforce, final ArrayList<IndexType> types) throws IOException {
 
     // check if flags have changed
     if(create == data.meta.index(type) && !enforce) return;
     // create or drop index
-    if(create) CreateIndex.create(type, data, cmd);
+    if(create) types.add(type);
     else DropIndex.drop(type, data);
   }
 
@@ -193,9 +207,10 @@ public final class Optimize extends ACreate {
 
     if(data.meta.updindex) {
       data.idmap = new IdPreMap(md.lastid);
-      if(data.meta.textindex) optimize(IndexType.TEXT, data, true, true, null);
-      if(data.meta.attrindex) optimize(IndexType.ATTRIBUTE, data, true, true, null);
-      if(data.meta.tokenindex) optimize(IndexType.TOKEN, data, true, true, null);
+      if(data.meta.textindex) CreateIndex.create(IndexType.TEXT, data, null);
+      if(data.meta.attrindex) CreateIndex.create(IndexType.ATTRIBUTE, data, null);
+      if(data.meta.tokenindex) CreateIndex.create(IndexType.TOKEN, data, null);
+      if(data.meta.ftindex) CreateIndex.create(IndexType.FULLTEXT, data, null);
     }
   }
 }
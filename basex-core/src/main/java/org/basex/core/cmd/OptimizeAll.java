@@ -97,6 +97,9 @@ public final class OptimizeAll extends ACreate {
     options.set(MainOptions.ATTRINCLUDE, ometa.attrinclude);
     options.set(MainOptions.TOKENINCLUDE, ometa.tokeninclude);
     options.set(MainOptions.FTINCLUDE, ometa.ftinclude);
+    options.set(MainOptions.COLUMNINCLUDE, ometa.columninclude);
+    options.set(MainOptions.COMPOSITEINDEX, ometa.compositeindex);
+    options.set(MainOptions.TRIGRAMINDEX, ometa.createtrigram);
     // adopt original full-text index options
     options.set(MainOptions.STEMMING, ometa.stemming);
     options.set(MainOptions.CASESENS, ometa.casesens);
@@ -129,6 +132,7 @@ public final class OptimizeAll extends ACreate {
     nmeta.createattr = ometa.createattr;
     nmeta.createtoken = ometa.createtoken;
     nmeta.createft = ometa.createft;
+    nmeta.createtrigram = ometa.createtrigram;
     nmeta.original = ometa.original;
     nmeta.inputsize = ometa.inputsize;
     nmeta.time = ometa.time;
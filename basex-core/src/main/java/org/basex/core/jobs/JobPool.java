@@ -129,6 +129,20 @@ public final class JobPool {
     return scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
   }
 
+  /**
+   * Runs a background task in a separate thread after the specified delay.
+   * The task will be discarded if the pool has been closed.
+   * @param task task
+   * @param delay delay (ms)
+   */
+  public void background(final Runnable task, final long delay) {
+    try {
+      schedule(() -> pool.execute(task), delay);
+    } catch(final RejectedExecutionException ex) {
+      Util.debug(ex);
+    }
+  }
+
   /**
    * Discards a result after the timeout.
    * @param job job
@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.*;
 
 import org.basex.core.*;
@@ -66,6 +67,8 @@ public final class Locking {
   private int localWriters;
   /** Number of running global readers. */
   private int globalReaders;
+  /** Number of completed jobs with write locks. */
+  private final AtomicLong modifications = new AtomicLong();
 
   /**
    * Constructor.
@@ -155,6 +158,8 @@ public final class Locking {
     final Locks locks = locked.remove(id);
     final LockList reads = locks.reads, writes = locks.writes;
     final boolean lock = reads.locking() || writes.locking();
+    // count writing jobs before other jobs can access the released resources
+    if(writes.locking()) modifications.incrementAndGet();
 
     // release all local locks
     for(final String string : reads) unpin(string).readLock().unlock();
@@ -189,6 +194,14 @@ public final class Locking {
     if(lock) queue.release();
   }
 
+  /**
+   * Returns the number of completed jobs with write locks.
+   * @return number of modifications
+   */
+  public long modifications() {
+    return modifications.get();
+  }
+
   /**
    * Returns the locks currently held by the calling thread.
    * @return locks, or {@code null} if the thread holds no locks
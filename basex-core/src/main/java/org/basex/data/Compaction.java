@@ -0,0 +1,174 @@
+package org.basex.data;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.core.jobs.*;
+import org.basex.core.users.*;
+import org.basex.util.*;
+
+/**
+ * Background compaction of a disk database. If the ratio of unused space in the table and the
+ * heap files exceeds {@link MainOptions#AUTOCOMPACT}, compacted copies of the files are written
+ * with a read lock on the database, and at a rate limited by {@link MainOptions#COMPACTRATE}.
+ * The original files are then replaced with a write lock. If the database has been updated in
+ * the meantime, the copies are discarded, and a new compaction is scheduled.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class Compaction extends Job implements Runnable {
+  /** Delay before a compaction is started (ms). */
+  private static final long DELAY = 1000;
+  /** Databases for which a compaction has been scheduled. */
+  private static final Set<Data> SCHEDULED = ConcurrentHashMap.newKeySet();
+
+  /** Data reference. */
+  private final DiskData data;
+  /** Database context. */
+  private final Context context;
+  /** Maximum number of bytes written per second ({@code 0}: unlimited). */
+  private final long rate;
+  /** Indicates if the database files are to be replaced. */
+  private boolean write;
+  /** Number of updates at the time the copies were written. */
+  private int updates;
+  /** Start time of the copy phase (ns). */
+  private long start;
+
+  /**
+   * Constructor.
+   * @param data data reference
+   * @param ctx database context
+   */
+  private Compaction(final DiskData data, final Context ctx) {
+    this.data = data;
+    context = new Context(ctx);
+    context.user(ctx.users.get(UserText.ADMIN));
+    rate = (long) context.options.get(MainOptions.COMPACTRATE) << 20;
+  }
+
+  /**
+   * Schedules the compaction of a database if it has not been scheduled yet.
+   * @param data data reference
+   * @param ctx database context
+   */
+  public static void schedule(final Data data, final Context ctx) {
+    if(data instanceof final DiskData dd && ctx.options.get(MainOptions.AUTOCOMPACT) > 0 &&
+        SCHEDULED.add(dd)) ctx.jobs.background(new Compaction(dd, ctx), DELAY);
+  }
+
+  @Override
+  public void run() {
+    updates = data.updates();
+    try {
+      if(copy()) {
+        // the replacement itself is counted as update
+        if(replace()) updates++;
+        else data.discard();
+      }
+    } catch(final JobException ex) {
+      Util.debug(ex);
+      data.discard();
+    } catch(final IOException ex) {
+      Util.errln(ex);
+      data.discard();
+    } finally {
+      SCHEDULED.remove(data);
+      // schedule new compaction if database has been updated in the meantime
+      if(updates != data.updates() && !data.closed()) schedule(data, context);
+    }
+  }
+
+  /**
+   * Writes compacted copies of the database files if the ratio of unused space is large enough.
+   * @return {@code true} if the copies were written
+   * @throws IOException I/O exception
+   */
+  private boolean copy() throws IOException {
+    write = false;
+    register(context);
+    try {
+      if(!pin()) return false;
+      try {
+        updates = data.updates();
+        if(data.unused() * 100 < context.options.get(MainOptions.AUTOCOMPACT)) return false;
+        start = System.nanoTime();
+        data.compact(this);
+        return true;
+      } finally {
+        unpin();
+      }
+    } finally {
+      unregister(context);
+    }
+  }
+
+  /**
+   * Replaces the database files with the compacted copies.
+   * @return {@code true} if the files were replaced
+   * @throws IOException I/O exception
+   */
+  private boolean replace() throws IOException {
+    write = true;
+    register(context);
+    try {
+      if(!pin()) return false;
+      try {
+        // skip replacement if the database has been updated in the meantime
+        if(data.updates() != updates) return false;
+        data.startUpdate(context.options);
+        try {
+          data.swap();
+        } finally {
+          data.finishUpdate(context.options);
+        }
+        return true;
+      } finally {
+        unpin();
+      }
+    } finally {
+      unregister(context);
+    }
+  }
+
+  /**
+   * Pins the database if it is still opened.
+   * @return success flag
+   */
+  private boolean pin() {
+    synchronized(context.datas) {
+      if(data.closed() || context.datas.pins(data.meta.name) == 0) return false;
+      context.datas.pin(data);
+      return true;
+    }
+  }
+
+  /**
+   * Unpins the database. The database will be closed if it is not pinned anymore.
+   */
+  private void unpin() {
+    synchronized(context.datas) {
+      context.datas.unpin(data);
+    }
+  }
+
+  /**
+   * Checks if the job has been stopped, and delays the writing of the copies if the maximum
+   * rate has been exceeded.
+   * @param written number of bytes written so far
+   */
+  void throttle(final long written) {
+    checkStop();
+    if(rate == 0) return;
+    final long delay = written * 1000 / rate - (System.nanoTime() - start) / 1000000;
+    if(delay > 0) Performance.sleep(delay);
+  }
+
+  @Override
+  public void addLocks() {
+    (write ? jc().locks.writes : jc().locks.reads).add(data.meta.name);
+  }
+}
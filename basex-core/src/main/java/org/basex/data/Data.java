@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.atomic.*;
+import java.util.function.*;
 
 import org.basex.core.*;
 import org.basex.index.*;
@@ -98,14 +99,14 @@ public abstract class Data {
   public Namespaces nspaces;
   /** Path index, created on demand (can be {@code null}). */
   PathIndex paths;
-  /** Text index. */
-  public ValueIndex textIndex;
-  /** Attribute value index. */
-  public ValueIndex attrIndex;
-  /** Token index. */
-  public ValueIndex tokenIndex;
-  /** Full-text index. */
-  public ValueIndex ftIndex;
+  /** Text index (can be {@code null} if it has not been opened yet). */
+  public volatile ValueIndex textIndex;
+  /** Attribute value index (can be {@code null} if it has not been opened yet). */
+  public volatile ValueIndex attrIndex;
+  /** Token index (can be {@code null} if it has not been opened yet). */
+  public volatile ValueIndex tokenIndex;
+  /** Full-text index (can be {@code null} if it has not been opened yet). */
+  public volatile ValueIndex ftIndex;
 
   /** Indicates if distances are to be updated. */
   public boolean updateDists = true;
@@ -116,6 +117,8 @@ public abstract class Data {
   protected TableAccess table;
   /** Closed flag. */
   protected boolean closed;
+  /** Times needed for loading the database structures (in nanoseconds). */
+  private final Map<String, Long> loads = new LinkedHashMap<>();
 
   /**
    * Default constructor.
@@ -155,6 +158,36 @@ public abstract class Data {
    */
   public abstract void dropIndex(IndexType type) throws BaseXException;
 
+  /**
+   * Creates or drops the numeric columns, depending on {@link MetaData#columninclude}.
+   * @throws IOException I/O exception
+   */
+  public abstract void createColumns() throws IOException;
+
+  /**
+   * Creates or drops the composite indexes, depending on {@link MetaData#compositeindex}.
+   * @throws IOException I/O exception
+   */
+  public abstract void createComposites() throws IOException;
+
+  /**
+   * Returns the composite indexes.
+   * @return composite indexes, or {@code null} if they do not exist
+   */
+  public abstract Composites composites();
+
+  /**
+   * Creates or drops the trigram index, depending on {@link MetaData#createtrigram}.
+   * @throws IOException I/O exception
+   */
+  public abstract void createTrigrams() throws IOException;
+
+  /**
+   * Returns the trigram index.
+   * @return trigram index, or {@code null} if it does not exist
+   */
+  public abstract Trigrams trigrams();
+
   /**
    * Starts an update operation: writes a file to disk to indicate that an update is going on,
    * and exclusively locks the table file.
@@ -222,14 +255,66 @@ public abstract class Data {
     return switch(type) {
       case ELEMNAME  -> elemNames;
       case ATTRNAME  -> attrNames;
+      case PATH      -> paths();
+      default        -> valueIndex(type);
+    };
+  }
+
+  /**
+   * Returns a value index. Existing indexes that have not been accessed yet are opened.
+   * @param type index type ({@link IndexType#TEXT}, {@link IndexType#ATTRIBUTE},
+   *   {@link IndexType#TOKEN} or {@link IndexType#FULLTEXT})
+   * @return index, or {@code null} if it does not exist
+   */
+  public final ValueIndex valueIndex(final IndexType type) {
+    final ValueIndex index = opened(type);
+    return index != null || !meta.index(type) ? index : open(type);
+  }
+
+  /**
+   * Returns a value index if it has already been opened.
+   * @param type index type
+   * @return index, or {@code null}
+   */
+  protected final ValueIndex opened(final IndexType type) {
+    return switch(type) {
       case TEXT      -> textIndex;
       case ATTRIBUTE -> attrIndex;
       case TOKEN     -> tokenIndex;
       case FULLTEXT  -> ftIndex;
-      case PATH      -> paths();
+      default        -> throw Util.notExpected();
     };
   }
 
+  /**
+   * Opens an existing value index.
+   * @param type index type
+   * @return index (can be {@code null})
+   */
+  protected abstract ValueIndex open(IndexType type);
+
+  /**
+   * Registers the time needed for loading a database structure.
+   * @param name name of the structure
+   * @param start start time (see {@link System#nanoTime()})
+   */
+  public final void loaded(final String name, final long start) {
+    final long time = System.nanoTime() - start;
+    synchronized(loads) {
+      loads.merge(name, time, Long::sum);
+    }
+  }
+
+  /**
+   * Returns the times needed for loading the database structures.
+   * @return map with names of structures and times (in nanoseconds)
+   */
+  public final Map<String, Long> loads() {
+    synchronized(loads) {
+      return new LinkedHashMap<>(loads);
+    }
+  }
+
   /**
    * Returns an atomized content for any node kind.
    * The atomized value can be an attribute value or XML content.
@@ -544,32 +629,37 @@ public abstract class Data {
       if(kind == ATTR) {
         // delete old values from attribute indexes
         if(meta.updindex) {
-          if(meta.attrindex) attrIndex.delete(new ValueCache(pre, IndexType.ATTRIBUTE, this));
-          if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, IndexType.TOKEN, this));
+          update(IndexType.ATTRIBUTE, false, t -> new ValueCache(pre, t, this));
+          update(IndexType.TOKEN, false, t -> new ValueCache(pre, t, this));
         }
         table.write1(pre, 11, uriId);
         table.write2(pre, 1, attrNames.put(name));
         if(nsFlag) table.write2(nsPre, 1, 1 << 15 | nameId(nsPre));
         // add new values to attribute indexes
         if(meta.updindex) {
-          if(meta.attrindex) attrIndex.add(new ValueCache(pre, IndexType.ATTRIBUTE, this));
-          if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, IndexType.TOKEN, this));
+          update(IndexType.ATTRIBUTE, true, t -> new ValueCache(pre, t, this));
+          update(IndexType.TOKEN, true, t -> new ValueCache(pre, t, this));
         }
       } else {
         // update element name
         final IntList pres = new IntList();
-        // update text index
-        if(meta.updindex && meta.textindex) {
+        // update text and full-text index
+        final boolean text = meta.updindex && meta.textindex, ft = meta.updindex && meta.ftindex;
+        if(text || ft) {
           final int last = pre + size;
           for(int curr = pre + attSize(pre, kind); curr < last; curr += size(curr, kind(curr))) {
             if(kind(curr) == TEXT) pres.add(curr);
           }
-          textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(text) update(IndexType.TEXT, false, t -> new ValueCache(pres, t, this));
+          if(ft) update(IndexType.FULLTEXT, false, t -> new ValueCache(pres, t, this));
         }
         table.write1(pre, 3, uriId);
         final int nameId = elemNames.put(name);
         table.write2(nsPre, 1, (nsFlag || nsFlag(nsPre) ? 1 << 15 : 0) | nameId);
-        if(!pres.isEmpty()) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+        if(!pres.isEmpty()) {
+          if(text) update(IndexType.TEXT, true, t -> new ValueCache(pres, t, this));
+          if(ft) update(IndexType.FULLTEXT, true, t -> new ValueCache(pres, t, this));
+        }
       }
     }
   }
@@ -1092,9 +1182,10 @@ public abstract class Data {
   protected final void indexDelete(final int pre, final int id, final int size) {
     if(id != -1) resources.delete(pre, size);
     if(meta.updindex) {
-      if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
-      if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
-      if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, size, IndexType.TOKEN, this));
+      update(IndexType.TEXT, false, t -> new ValueCache(pre, size, t, this));
+      update(IndexType.ATTRIBUTE, false, t -> new ValueCache(pre, size, t, this));
+      update(IndexType.TOKEN, false, t -> new ValueCache(pre, size, t, this));
+      update(IndexType.FULLTEXT, false, t -> new ValueCache(pre, size, t, this));
       if(id != -1) idmap.delete(pre, id, -size);
     }
   }
@@ -1110,9 +1201,25 @@ public abstract class Data {
     if(id != -1) resources.insert(pre, clip);
     if(meta.updindex) {
       if(id != -1) idmap.insert(pre, id, size);
-      if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
-      if(meta.attrindex) attrIndex.add(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
-      if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, size, IndexType.TOKEN, this));
+      update(IndexType.TEXT, true, t -> new ValueCache(pre, size, t, this));
+      update(IndexType.ATTRIBUTE, true, t -> new ValueCache(pre, size, t, this));
+      update(IndexType.TOKEN, true, t -> new ValueCache(pre, size, t, this));
+      update(IndexType.FULLTEXT, true, t -> new ValueCache(pre, size, t, this));
+    }
+  }
+
+  /**
+   * Adds entries to or deletes entries from a value index if it exists.
+   * @param type index type
+   * @param add add or delete entries
+   * @param values function that creates the value cache for the index type
+   */
+  private void update(final IndexType type, final boolean add,
+      final Function<IndexType, ValueCache> values) {
+    final ValueIndex index = meta.index(type) ? valueIndex(type) : null;
+    if(index != null) {
+      if(add) index.add(values.apply(type));
+      else index.delete(values.apply(type));
     }
   }
 
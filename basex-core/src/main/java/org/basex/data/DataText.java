@@ -12,9 +12,9 @@ public interface DataText {
   // META DATA ====================================================================================
 
   /** Database version; older version cannot open these instances. */
-  String STORAGE = "9.0.1";
+  String STORAGE = "13.0";
   /** Index version; older version cannot open indexes of these instances. */
-  String ISTORAGE = "8.6";
+  String ISTORAGE = "13.0";
 
   /** Database version. */
   String DBSTR = "STORAGE";
@@ -34,6 +34,20 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** Block compression of texts and attribute values. */
+  String DBCMPTXT = "CMPTXT";
+  /** Compressed heap files. */
+  String DBCMPHEAP = "CMPHEAP";
+  /** Numeric columns. */
+  String DBCOLS = "COLUMNS";
+  /** Numeric columns: names. */
+  String DBCOLINC = "COLINC";
+  /** Composite indexes. */
+  String DBCMPS = "COMPOSITES";
+  /** Composite indexes: definitions. */
+  String DBCMPIDX = "CMPINDEX";
+  /** Trigram index. */
+  String DBTRGIDX = "TRGINDEX";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
@@ -42,6 +56,8 @@ public interface DataText {
   String DBTOKIDX = "TOKINDEX";
   /** Full-text index. */
   String DBFTXIDX = "FTXINDEX";
+  /** Updatable full-text index. */
+  String DBFTXUPD = "FTXUPD";
   /** Text index: names. */
   String DBTXTINC = "TXTINC";
   /** Attribute index: names. */
@@ -80,6 +96,8 @@ public interface DataText {
   String DBCRTTOK = "CRTTOK";
   /** Recreate full-text index. */
   String DBCRTFTX = "CRTFTX";
+  /** Recreate trigram index. */
+  String DBCRTTRG = "CRTTRG";
 
   /** Tags. */
   String DBTAGS = "TAGS";
@@ -114,6 +132,16 @@ public interface DataText {
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - Write-ahead journal. */
+  String DATAJRN = "jrn";
+  /** Database - Pending file replacements. */
+  String DATASWP = "swp";
+  /** Numeric columns. */
+  String DATACOL = "col";
+  /** Composite indexes. */
+  String DATACMP = "cmp";
+  /** Trigram index. */
+  String DATATRG = "trg";
 
   // TABLE SERIALIZATION ==========================================================================
 
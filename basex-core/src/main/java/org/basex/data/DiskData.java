@@ -16,9 +16,11 @@ import org.basex.index.path.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
 /**
  * This class stores and organizes the database table and the index structures
@@ -47,18 +49,54 @@ import org.basex.util.*;
  *   - NOT COMPRESSED: return external text unchanged
  * </pre>
  *
+ * If {@link MetaData#compressed} is set, the heap files are compressed in blocks, and texts are
+ * read via {@link CompressedAccess}. The files will be decompressed before they are updated.
+ *
+ * If {@link MainOptions#JOURNAL} is enabled, updates are logged in a write-ahead {@link Journal}:
+ * instead of flushing all buffers, a single journal commit is written after each update.
+ * The database files are only written when a checkpoint is performed.
+ *
+ * Space of deleted table entries and heap entries is reclaimed by a {@link Compaction},
+ * which replaces the table and the heap files with compacted copies.
+ * Files are replaced via {@link FileSwap}, so that a crash cannot leave mixed files behind.
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  * @author Tim Petrowsky
  */
 public final class DiskData extends Data {
-  /** Texts access file. */
+  /** Prefix of the database files written by a compaction. */
+  private static final String COMPACTED = "c";
+  /** Prefix of the database files written by a decompression. */
+  private static final String DECOMPRESSED = "d";
+  /** Database files that are replaced by a compaction. */
+  private static final String[] COMPACTABLE = { DATATBL, DATATBL + 'i', DATATXT, DATAATV };
+
+  /** Texts access file ({@code null} if heap files are compressed). */
   private DataAccess texts;
-  /** Values access file. */
+  /** Values access file ({@code null} if heap files are compressed). */
   private DataAccess values;
+  /** Compressed texts ({@code null} if heap files are not compressed). */
+  private CompressedAccess ctexts;
+  /** Compressed values ({@code null} if heap files are not compressed). */
+  private CompressedAccess cvalues;
+  /** Numeric columns ({@code null} if no columns exist or if they have not been opened yet). */
+  private volatile Columns columns;
+  /** Composite indexes ({@code null} if they do not exist or have not been opened yet). */
+  private volatile Composites composites;
+  /** Trigram index ({@code null} if it does not exist or has not been opened yet). */
+  private volatile Trigrams trigrams;
+  /** Write-ahead journal ({@code null} if updates are not journaled). */
+  private Journal journal;
+  /** Indicates if a checkpoint will be performed after the current update. */
+  private boolean checkpoint;
+  /** Number of updates since the database was opened. */
+  private volatile int updates;
 
   /**
    * Default constructor, called from {@link Open#open}.
+   * Value indexes, numeric columns, composite indexes and the trigram index are opened
+   * when they are accessed for the first time.
    * @param meta meta data
    * @throws IOException I/O Exception
    */
@@ -70,6 +108,7 @@ public final class DiskData extends Data {
       while(true) {
         final String k = string(in.readToken());
         if(k.isEmpty()) break;
+        final long start = System.nanoTime();
         switch(k) {
           case DBTAGS -> elemNames = new Names(in, meta);
           case DBATTS -> attrNames = new Names(in, meta);
@@ -77,22 +116,15 @@ public final class DiskData extends Data {
           case DBNS   -> nspaces = new Namespaces(in);
           case DBDOCS -> resources.read(in);
         }
+        loaded(k, start);
       }
     }
 
-    // open data and indexes
+    // open table and heap files
+    final long start = System.nanoTime();
     init();
-    if(meta.updindex) {
-      idmap = new IdPreMap(meta.dbFile(DATAIDP));
-      if(meta.textindex) textIndex = new UpdatableDiskValues(this, IndexType.TEXT);
-      if(meta.attrindex) attrIndex = new UpdatableDiskValues(this, IndexType.ATTRIBUTE);
-      if(meta.tokenindex) tokenIndex = new UpdatableDiskValues(this, IndexType.TOKEN);
-    } else {
-      if(meta.textindex) textIndex = new DiskValues(this, IndexType.TEXT);
-      if(meta.attrindex) attrIndex = new DiskValues(this, IndexType.ATTRIBUTE);
-      if(meta.tokenindex) tokenIndex = new DiskValues(this, IndexType.TOKEN);
-    }
-    if(meta.ftindex) ftIndex = new FTIndex(this);
+    if(meta.updindex) idmap = new IdPreMap(meta.dbFile(DATAIDP));
+    loaded("TABLE", start);
   }
 
   /**
@@ -123,6 +155,40 @@ public final class DiskData extends Data {
    */
   private void init() throws IOException {
     table = new TableDiskAccess(meta, false);
+    if(meta.compressed) {
+      ctexts = new CompressedAccess(meta.dbFile(DATATXT));
+      cvalues = new CompressedAccess(meta.dbFile(DATAATV));
+    } else {
+      texts = new DataAccess(meta.dbFile(DATATXT));
+      values = new DataAccess(meta.dbFile(DATAATV));
+    }
+  }
+
+  /**
+   * Decompresses the heap files and opens them for updates.
+   * @throws IOException I/O exception
+   */
+  private void decompress() throws IOException {
+    // write decompressed copies and the updated meta data, replace all files in a single step
+    final FileSwap swap = new FileSwap(meta);
+    for(final String name : new String[] { DATATXT, DATAATV }) {
+      CompressedAccess.decompress(meta.dbFile(name), meta.dbFile(DECOMPRESSED + name));
+      swap.replace(DECOMPRESSED + name, name);
+    }
+    meta.compressed = false;
+    try(DataOutput out = new DataOutput(meta.dbFile(DECOMPRESSED + DATAINF))) {
+      write(out);
+    } catch(final IOException ex) {
+      meta.compressed = true;
+      throw ex;
+    }
+    swap.replace(DECOMPRESSED + DATAINF, DATAINF);
+
+    ctexts.close();
+    cvalues.close();
+    ctexts = null;
+    cvalues = null;
+    swap.commit();
     texts = new DataAccess(meta.dbFile(DATATXT));
     values = new DataAccess(meta.dbFile(DATAATV));
   }
@@ -135,24 +201,33 @@ public final class DiskData extends Data {
     if(!meta.dirty) return;
 
     try(DataOutput out = new DataOutput(meta.dbFile(DATAINF))) {
-      meta.write(out);
-      out.writeToken(token(DBTAGS));
-      elemNames.write(out);
-      out.writeToken(token(DBATTS));
-      attrNames.write(out);
-      out.writeToken(token(DBPATH));
-      paths.write(out);
-      out.writeToken(token(DBNS));
-      nspaces.write(out);
-      out.writeToken(token(DBDOCS));
-      resources.write(out);
-      out.write(0);
+      write(out);
     }
     // file may be missing if flag was just enabled
     if(meta.updindex && idmap != null) idmap.write(meta.dbFile(DATAIDP));
     meta.dirty = false;
   }
 
+  /**
+   * Writes all meta data to the specified output.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void write(final DataOutput out) throws IOException {
+    meta.write(out);
+    out.writeToken(token(DBTAGS));
+    elemNames.write(out);
+    out.writeToken(token(DBATTS));
+    attrNames.write(out);
+    out.writeToken(token(DBPATH));
+    paths.write(out);
+    out.writeToken(token(DBNS));
+    nspaces.write(out);
+    out.writeToken(token(DBDOCS));
+    resources.write(out);
+    out.write(0);
+  }
+
   @Override
   public synchronized void close() {
     if(closed) return;
@@ -160,12 +235,29 @@ public final class DiskData extends Data {
     try {
       write();
       table.close();
-      texts.close();
-      values.close();
+      if(meta.compressed) {
+        ctexts.close();
+        cvalues.close();
+      } else {
+        texts.close();
+        values.close();
+      }
       close(IndexType.TEXT);
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
       close(IndexType.FULLTEXT);
+      // delete numeric columns that have been invalidated by updates
+      if(!meta.columns) meta.dbFile(DATACOL).delete();
+      // delete composite indexes that have been invalidated by updates
+      if(!meta.composites) meta.dbFile(DATACMP).delete();
+      // delete trigram index that has been invalidated by updates
+      if(!meta.trigramindex) meta.dbFile(DATATRG).delete();
+      // all files have been written: delete journal
+      if(journal != null) {
+        journal.reset();
+        journal.close();
+        journal = null;
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -177,7 +269,7 @@ public final class DiskData extends Data {
    */
   private synchronized void close(final IndexType type) {
     // close index and invalidate reference
-    final Index index = index(type);
+    final Index index = opened(type);
     if(index != null) {
       index.close();
       set(type, null);
@@ -186,6 +278,7 @@ public final class DiskData extends Data {
 
   @Override
   public void createIndex(final IndexType type, final Command cmd) throws IOException {
+    suspend();
     // close existing index
     close(type);
     final IndexBuilder ib = switch(type) {
@@ -197,23 +290,71 @@ public final class DiskData extends Data {
       if(cmd != null) cmd.pushJob(ib);
       set(type, ib.build());
     } finally {
-      if(cmd != null) cmd.popJob();
+      if(cmd != null) cmd.popJob(ib);
     }
   }
 
   @Override
   public void dropIndex(final IndexType type) throws BaseXException {
+    try {
+      suspend();
+    } catch(final IOException ex) {
+      throw new BaseXException(ex);
+    }
     close(type);
-    final Index index = index(type);
+    final Index index = opened(type);
     if(index != null && !index.drop()) throw new BaseXException(INDEX_NOT_DROPPED_X, type);
   }
 
+  @Override
+  protected synchronized ValueIndex open(final IndexType type) {
+    // check if index has been opened by another thread
+    final ValueIndex opened = opened(type);
+    if(opened != null || !meta.index(type)) return opened;
+
+    final long start = System.nanoTime();
+    final ValueIndex index;
+    try {
+      if(type == IndexType.FULLTEXT) {
+        index = new FTIndex(this);
+      } else if(meta.updindex) {
+        final UpdatableDiskValues udv = new UpdatableDiskValues(this, type);
+        if(journal != null && !checkpoint) udv.journal(journal);
+        index = udv;
+      } else {
+        index = new DiskValues(this, type);
+      }
+    } catch(final IOException ex) {
+      meta.index(type, false);
+      unavailable(type.toString(), ex);
+      return null;
+    }
+    switch(type) {
+      case TEXT      -> textIndex = index;
+      case ATTRIBUTE -> attrIndex = index;
+      case TOKEN     -> tokenIndex = index;
+      default        -> ftIndex = index;
+    }
+    loaded(type.toString(), start);
+    return index;
+  }
+
+  /**
+   * Reports an index that could not be opened. The index has been switched off: queries will be
+   * evaluated without the index, and it can be recreated by optimizing the database.
+   * @param name name of the index
+   * @param ex exception
+   */
+  private void unavailable(final String name, final IOException ex) {
+    Util.errln("Database '%': % index could not be opened (%).", meta.name, name, ex);
+  }
+
   /**
    * Assigns the specified index.
    * @param type index to be opened
    * @param index index instance
    */
-  private void set(final IndexType type, final ValueIndex index) {
+  private synchronized void set(final IndexType type, final ValueIndex index) {
     meta.dirty = true;
     switch(type) {
       case TEXT      -> textIndex = index;
@@ -224,10 +365,146 @@ public final class DiskData extends Data {
     }
   }
 
+  @Override
+  public void createColumns() throws IOException {
+    suspend();
+    final IOFile file = meta.dbFile(DATACOL);
+    columns = null;
+    meta.columns = false;
+    meta.dirty = true;
+    file.delete();
+    if(meta.columninclude.isEmpty()) return;
+
+    // collect numeric values of the included elements and attributes
+    final IndexNames names = new IndexNames(meta.columninclude, this);
+    final IntList pres = new IntList();
+    final LongList itrs = new LongList();
+    final DoubleList dbls = new DoubleList();
+    final int size = meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = kind(pre);
+      final boolean text = kind == TEXT;
+      if(!text && kind != ATTR) continue;
+      // skip inlined values (they can be retrieved from the table)
+      final long value = textRef(pre);
+      if(Inline.inlined(value) || text && kind(parent(pre, kind)) != ELEM ||
+          !names.contains(pre, text)) continue;
+
+      final byte[] token = txt(value, text);
+      final double d = toDouble(token);
+      if(!Double.isNaN(d)) {
+        pres.add(pre);
+        itrs.add(toLong(token));
+        dbls.add(d);
+      }
+    }
+    final Columns cols = new Columns(pres, itrs, dbls);
+    cols.write(file);
+    columns = cols;
+    meta.columns = true;
+  }
+
+  @Override
+  public void createComposites() throws IOException {
+    suspend();
+    final IOFile file = meta.dbFile(DATACMP);
+    composites = null;
+    meta.composites = false;
+    meta.dirty = true;
+    file.delete();
+    if(meta.compositeindex.isEmpty()) return;
+
+    final Composites cmps = new Composites(meta.compositeindex, this);
+    cmps.write(file);
+    composites = cmps;
+    meta.composites = true;
+  }
+
+  @Override
+  public Composites composites() {
+    if(!meta.composites) return null;
+    Composites cmps = composites;
+    if(cmps == null) {
+      synchronized(this) {
+        cmps = composites;
+        if(cmps == null) {
+          final long start = System.nanoTime();
+          try {
+            cmps = new Composites(meta.dbFile(DATACMP));
+          } catch(final IOException ex) {
+            meta.composites = false;
+            unavailable("COMPOSITES", ex);
+            return null;
+          }
+          composites = cmps;
+          loaded("COMPOSITES", start);
+        }
+      }
+    }
+    return cmps;
+  }
+
+  @Override
+  public void createTrigrams() throws IOException {
+    suspend();
+    final IOFile file = meta.dbFile(DATATRG);
+    trigrams = null;
+    meta.trigramindex = false;
+    meta.dirty = true;
+    file.delete();
+    if(!meta.createtrigram) return;
+
+    final Trigrams trgs = new Trigrams(this);
+    trgs.write(file);
+    trigrams = trgs;
+    meta.trigramindex = true;
+  }
+
+  @Override
+  public Trigrams trigrams() {
+    if(!meta.trigramindex) return null;
+    Trigrams trgs = trigrams;
+    if(trgs == null) {
+      synchronized(this) {
+        trgs = trigrams;
+        if(trgs == null) {
+          final long start = System.nanoTime();
+          try {
+            trgs = new Trigrams(meta.dbFile(DATATRG));
+          } catch(final IOException ex) {
+            meta.trigramindex = false;
+            unavailable("TRIGRAMS", ex);
+            return null;
+          }
+          trigrams = trgs;
+          loaded("TRIGRAMS", start);
+        }
+      }
+    }
+    return trgs;
+  }
+
   @Override
   public void startUpdate(final MainOptions opts) throws BaseXException {
     if(!table.lock(true)) throw new BaseXException(DB_PINNED_X, meta.name);
-    if(opts.get(MainOptions.AUTOFLUSH)) {
+    updates++;
+    try {
+      if(meta.compressed) decompress();
+      if(opts.get(MainOptions.JOURNAL)) {
+        if(journal == null) {
+          journal = new Journal(meta);
+          checkpoint(true);
+        }
+      } else if(journal != null) {
+        checkpoint(false);
+        journal.close();
+        journal = null;
+      }
+    } catch(final IOException ex) {
+      table.lock(false);
+      throw new BaseXException(ex);
+    }
+    if(journal == null && opts.get(MainOptions.AUTOFLUSH)) {
       final IOFile upd = meta.updateFile();
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
       if(!upd.touch()) throw Util.notExpected("%: could not create lock file.", meta.name);
@@ -239,32 +516,218 @@ public final class DiskData extends Data {
     // OPTIMIZE ALL will close the database before this function is called
     if(closed) return;
 
-    // remove updating file
-    final boolean auto = opts.get(MainOptions.AUTOFLUSH);
-    if(auto) {
-      final IOFile upd = meta.updateFile();
-      if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
-      if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
+    if(journal != null) {
+      try {
+        if(checkpoint) {
+          checkpoint(true);
+        } else {
+          commit();
+          if(journal.size() > Journal.MAXSIZE) checkpoint(true);
+        }
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    } else {
+      // remove updating file
+      final boolean auto = opts.get(MainOptions.AUTOFLUSH);
+      if(auto) {
+        final IOFile upd = meta.updateFile();
+        if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
+        if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
+      }
+      flush(auto);
     }
-
-    flush(auto);
     if(!table.lock(false)) throw Util.notExpected("Database '%': could not unlock.", meta.name);
   }
 
   @Override
   public synchronized void flush(final boolean all) {
     try {
-      table.flush(all);
-      if(all) {
-        write();
+      if(all && journal != null) checkpoint(true);
+      else write(all);
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Writes buffered data to disk.
+   * @param all flush all data (including meta data, heap files and indexes)
+   * @throws IOException I/O exception
+   */
+  private void write(final boolean all) throws IOException {
+    table.flush(all);
+    if(all) {
+      write();
+      if(!meta.compressed) {
         texts.flush();
         values.flush();
-        if(textIndex != null) textIndex.flush();
-        if(attrIndex != null) attrIndex.flush();
       }
-    } catch(final IOException ex) {
-      Util.stack(ex);
+      if(textIndex != null) textIndex.flush();
+      if(attrIndex != null) attrIndex.flush();
+      if(tokenIndex != null) tokenIndex.flush();
+      if(ftIndex != null) ftIndex.flush();
+    }
+  }
+
+  /**
+   * Performs a checkpoint: writes all data to disk and empties the journal.
+   * @param attach attach the database files to the journal; if {@code false}, updates will be
+   *   written without journaling until the next checkpoint
+   * @throws IOException I/O exception
+   */
+  private void checkpoint(final boolean attach) throws IOException {
+    write(true);
+    journal.reset();
+    final Journal jrn = attach ? journal : null;
+    ((TableDiskAccess) table).journal(jrn);
+    texts.journal(jrn, DATATXT);
+    values.journal(jrn, DATAATV);
+    for(final ValueIndex index : new ValueIndex[] { textIndex, attrIndex, tokenIndex }) {
+      if(index instanceof final UpdatableDiskValues udv) udv.journal(jrn);
     }
+    checkpoint = false;
+  }
+
+  /**
+   * Suspends journaling until the end of the current update. Called before files are
+   * created or deleted that are not covered by the journal.
+   * @throws IOException I/O exception
+   */
+  private synchronized void suspend() throws IOException {
+    if(journal != null && !checkpoint) {
+      checkpoint(false);
+      checkpoint = true;
+    }
+  }
+
+  /**
+   * Logs all updates since the last commit in the journal and synchronizes it to disk.
+   * @throws IOException I/O exception
+   */
+  private void commit() throws IOException {
+    ((TableDiskAccess) table).commit();
+    texts.commit();
+    values.commit();
+    for(final ValueIndex index : new ValueIndex[] { textIndex, attrIndex, tokenIndex }) {
+      if(index instanceof final UpdatableDiskValues udv) udv.commit();
+    }
+    if(ftIndex instanceof final FTIndex fti) fti.commit(journal);
+    if(meta.dirty) {
+      // meta data will be written to disk with the next checkpoint
+      ArrayOutput ao = new ArrayOutput();
+      try(DataOutput out = new DataOutput(ao)) {
+        write(out);
+      }
+      journal.file(DATAINF, ao.finish());
+      if(meta.updindex && idmap != null) {
+        ao = new ArrayOutput();
+        try(DataOutput out = new DataOutput(ao)) {
+          idmap.write(out);
+        }
+        journal.file(DATAIDP, ao.finish());
+      }
+    }
+    journal.commit();
+  }
+
+  // COMPACTION ===================================================================================
+
+  /**
+   * Returns the number of updates since the database was opened.
+   * @return number of updates
+   */
+  int updates() {
+    return updates;
+  }
+
+  /**
+   * Returns the ratio of unused space in the table and the heap files. Space is left unused if
+   * table pages are split, and if entries in the heap files are deleted or replaced.
+   * @return ratio (between {@code 0} and {@code 1})
+   */
+  double unused() {
+    // heap files will be decompressed with the next update
+    if(meta.compressed) return 0;
+
+    final int size = meta.size;
+    long used = (long) size << IO.NODEPOWER;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = kind(pre);
+      if(kind == ELEM) continue;
+      final long ref = textRef(pre);
+      if(Inline.inlined(ref)) continue;
+      final int length = num(ref & Compress.COMPRESS - 1, kind != ATTR);
+      used += Num.length(length) + length;
+    }
+    final long total = ((TableDiskAccess) table).length() + texts.length() + values.length();
+    return total == 0 ? 0 : Math.max(0, 1 - (double) used / total);
+  }
+
+  /**
+   * Writes compacted copies of the table and the heap files, which only contain the entries that
+   * are currently referenced. Must be called with a read lock on the database.
+   * @param job compaction job
+   * @throws IOException I/O exception
+   */
+  void compact(final Compaction job) throws IOException {
+    try(DataOutput tout = new DataOutput(new TableOutput(meta, COMPACTED + DATATBL));
+        DataOutput xout = new DataOutput(meta.dbFile(COMPACTED + DATATXT));
+        DataOutput vout = new DataOutput(meta.dbFile(COMPACTED + DATAATV))) {
+      final int size = meta.size;
+      for(int pre = 0; pre < size; pre++) {
+        if((pre & 0xFFF) == 0) job.throttle(tout.size() + xout.size() + vout.size());
+
+        final int kind = kind(pre);
+        long ref = textRef(pre);
+        if(kind != ELEM && !Inline.inlined(ref)) {
+          // copy referenced entry to the new heap file, preserve compression flag
+          final boolean text = kind != ATTR;
+          final DataOutput out = text ? xout : vout;
+          final long offset = out.size();
+          out.writeToken((text ? texts : values).readTokenAt(ref & Compress.COMPRESS - 1));
+          ref = ref & Compress.COMPRESS | offset;
+        }
+        tout.write1(table.read1(pre, 0));
+        tout.write2(table.read2(pre, 1));
+        tout.write5(ref);
+        tout.write4(table.read4(pre, 8));
+        tout.write4(table.read4(pre, 12));
+      }
+    } catch(final IOException | RuntimeException ex) {
+      discard();
+      throw ex;
+    }
+  }
+
+  /**
+   * Replaces the table and the heap files with their compacted copies.
+   * Must be called within an update.
+   * @throws IOException I/O exception
+   */
+  synchronized void swap() throws IOException {
+    for(final String name : COMPACTABLE) {
+      if(!meta.dbFile(COMPACTED + name).exists()) throw new FileNotFoundException(name);
+    }
+    // write all buffered data, suspend journaling until the end of the update
+    suspend();
+    table.close();
+    texts.close();
+    values.close();
+    // replace all files in a single step (completed when the database is opened after a crash)
+    final FileSwap swap = new FileSwap(meta);
+    for(final String name : COMPACTABLE) swap.replace(COMPACTED + name, name);
+    swap.commit();
+    table = new TableDiskAccess(meta, true);
+    texts = new DataAccess(meta.dbFile(DATATXT));
+    values = new DataAccess(meta.dbFile(DATAATV));
+  }
+
+  /**
+   * Deletes compacted copies of the table and the heap files.
+   */
+  void discard() {
+    for(final String name : COMPACTABLE) meta.dbFile(COMPACTED + name).delete();
   }
 
   @Override
@@ -276,13 +739,53 @@ public final class DiskData extends Data {
   @Override
   public long textItr(final int pre, final boolean text) {
     final long value = textRef(pre);
-    return Inline.inlined(value) ? Inline.unpackLong(value) : toLong(txt(value, text));
+    if(Inline.inlined(value)) return Inline.unpackLong(value);
+    final int c = column(pre);
+    return c >= 0 ? columns().itr(c) : toLong(txt(value, text));
   }
 
   @Override
   public double textDbl(final int pre, final boolean text) {
     final long value = textRef(pre);
-    return Inline.inlined(value) ? Inline.unpackDouble(value) : toDouble(txt(value, text));
+    if(Inline.inlined(value)) return Inline.unpackDouble(value);
+    final int c = column(pre);
+    return c >= 0 ? columns().dbl(c) : toDouble(txt(value, text));
+  }
+
+  /**
+   * Returns the offset of a numeric column entry.
+   * @param pre PRE value
+   * @return offset, or a negative value if no entry exists
+   */
+  private int column(final int pre) {
+    final Columns cols = meta.columns ? columns() : null;
+    return cols != null ? cols.index(pre) : -1;
+  }
+
+  /**
+   * Returns the numeric columns. The columns are opened when they are accessed for the first time.
+   * @return columns ({@code null} if they could not be opened)
+   */
+  private Columns columns() {
+    Columns cols = columns;
+    if(cols == null) {
+      synchronized(this) {
+        cols = columns;
+        if(cols == null) {
+          final long start = System.nanoTime();
+          try {
+            cols = new Columns(meta.dbFile(DATACOL));
+          } catch(final IOException ex) {
+            meta.columns = false;
+            unavailable("COLUMNS", ex);
+            return null;
+          }
+          columns = cols;
+          loaded("COLUMNS", start);
+        }
+      }
+    }
+    return cols;
   }
 
   @Override
@@ -290,10 +793,10 @@ public final class DiskData extends Data {
     final long value = textRef(pre);
     if(Inline.inlined(value)) return Inline.unpackLength(value);
 
-    final DataAccess da = text ? texts : values;
-    final int l = da.readNum(value & Compress.COMPRESS - 1);
+    final long pos = value & Compress.COMPRESS - 1;
+    final int l = num(pos, text);
     // if text is compressed, read number of compressed bytes
-    return Compress.compressed(value) ? da.readNum() : l;
+    return Compress.compressed(value) ? num(pos + Num.length(l), text) : l;
   }
 
   /**
@@ -303,10 +806,23 @@ public final class DiskData extends Data {
    * @return text
    */
   private byte[] txt(final long offset, final boolean text) {
-    final byte[] txt = (text ? texts : values).readToken(offset & Compress.COMPRESS - 1);
+    final long pos = offset & Compress.COMPRESS - 1;
+    final byte[] txt = meta.compressed ? (text ? ctexts : cvalues).readTokenAt(pos) :
+      (text ? texts : values).readTokenAt(pos);
     return Compress.compressed(offset) ? Compress.unpack(txt) : txt;
   }
 
+  /**
+   * Returns a number from a heap file.
+   * @param pos position
+   * @param text text or attribute flag
+   * @return number
+   */
+  private int num(final long pos, final boolean text) {
+    return meta.compressed ? (text ? ctexts : cvalues).readNumAt(pos) :
+      (text ? texts : values).readNumAt(pos);
+  }
+
   @Override
   public boolean inMemory() {
     return false;
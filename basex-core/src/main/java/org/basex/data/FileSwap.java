@@ -0,0 +1,169 @@
+package org.basex.data;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Replaces multiple database files in a single step.
+ *
+ * The new files are written with temporary names first. When the replacement is committed,
+ * the temporary files are synchronized to disk, and a swap file with the names of all source and
+ * target files is written and atomically renamed. Next, all files are atomically moved to their
+ * targets, and the swap file is deleted.
+ *
+ * If a database is opened, {@link #recover(MetaData)} completes a committed replacement that has
+ * been interrupted. If the swap file does not exist, the original files are left unchanged.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class FileSwap {
+  /** Meta data. */
+  private final MetaData meta;
+  /** Names of the source files (empty strings: delete target). */
+  private final StringList sources = new StringList();
+  /** Names of the target files. */
+  private final StringList targets = new StringList();
+
+  /**
+   * Constructor.
+   * @param meta meta data
+   */
+  public FileSwap(final MetaData meta) {
+    this.meta = meta;
+  }
+
+  /**
+   * Registers a file that will replace another file.
+   * @param source name of the new file
+   * @param target name of the file to be replaced
+   * @return self reference
+   */
+  public FileSwap replace(final String source, final String target) {
+    sources.add(source);
+    targets.add(target);
+    return this;
+  }
+
+  /**
+   * Registers a file that will be deleted.
+   * @param target name of the file to be deleted
+   * @return self reference
+   */
+  public FileSwap delete(final String target) {
+    return replace("", target);
+  }
+
+  /**
+   * Commits the replacement and moves all files to their targets.
+   * @throws IOException I/O exception
+   */
+  public void commit() throws IOException {
+    write();
+    apply(meta);
+  }
+
+  /**
+   * Completes a replacement that has been interrupted. Called before a database is opened.
+   * @param meta meta data
+   * @return {@code true} if a replacement was completed
+   * @throws IOException I/O exception
+   */
+  public static boolean recover(final MetaData meta) throws IOException {
+    // uncommitted replacement: original files are unchanged
+    pending(meta).delete();
+    if(!meta.dbFile(DATASWP).exists()) return false;
+    apply(meta);
+    return true;
+  }
+
+  /**
+   * Synchronizes the source files to disk and writes the swap file.
+   * From now on, the replacement will be completed when the database is opened.
+   * @throws IOException I/O exception
+   */
+  void write() throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
+      final int size = targets.size();
+      out.writeNum(size);
+      for(int s = 0; s < size; s++) {
+        final String source = sources.get(s);
+        if(!source.isEmpty()) sync(meta.dbFile(source), false);
+        out.writeToken(token(source));
+        out.writeToken(token(targets.get(s)));
+      }
+    }
+    final IOFile pending = pending(meta);
+    try(FileChannel fc = FileChannel.open(pending.file().toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      final ByteBuffer bb = ByteBuffer.wrap(ao.finish());
+      while(bb.hasRemaining()) fc.write(bb);
+      fc.force(true);
+    }
+    final IOFile swap = meta.dbFile(DATASWP);
+    pending.moveAtomic(swap);
+    sync(swap.parent(), true);
+  }
+
+  /**
+   * Moves all files of a committed replacement to their targets and deletes the swap file.
+   * Files that have already been moved are skipped.
+   * @param meta meta data
+   * @throws IOException I/O exception
+   */
+  static void apply(final MetaData meta) throws IOException {
+    final IOFile swap = meta.dbFile(DATASWP);
+    try(DataInput in = new DataInput(swap)) {
+      for(int n = in.readNum(); --n >= 0;) {
+        final String source = string(in.readToken());
+        final IOFile target = meta.dbFile(string(in.readToken()));
+        if(source.isEmpty()) {
+          if(!target.delete()) throw new IOException("File could not be deleted: " + target);
+        } else {
+          final IOFile file = meta.dbFile(source);
+          if(file.exists()) file.moveAtomic(target);
+        }
+      }
+    }
+    sync(swap.parent(), true);
+    if(!swap.delete()) throw new IOException("Swap file could not be deleted: " + swap);
+  }
+
+  /**
+   * Returns the swap file that is written before a replacement is committed.
+   * @param meta meta data
+   * @return file
+   */
+  private static IOFile pending(final MetaData meta) {
+    return new IOFile(meta.dbFile(DATASWP).path() + IO.TMPSUFFIX);
+  }
+
+  /**
+   * Synchronizes a file or directory to disk.
+   * @param file file or directory
+   * @param dir directory flag (directories cannot be synchronized on all platforms)
+   * @throws IOException I/O exception
+   */
+  private static void sync(final IOFile file, final boolean dir) throws IOException {
+    try(FileChannel fc = FileChannel.open(file.file().toPath(),
+        dir ? StandardOpenOption.READ : StandardOpenOption.WRITE)) {
+      fc.force(true);
+    } catch(final IOException ex) {
+      if(!dir) throw ex;
+      Util.debug(ex);
+    }
+  }
+}
@@ -95,6 +95,37 @@ public final class MemData extends Data {
     set(type, null);
   }
 
+  @Override
+  protected ValueIndex open(final IndexType type) {
+    // indexes of main-memory databases are assigned when they are created
+    return null;
+  }
+
+  @Override
+  public void createColumns() {
+    // numeric columns are only supported by databases on disk
+  }
+
+  @Override
+  public void createComposites() {
+    // composite indexes are only supported by databases on disk
+  }
+
+  @Override
+  public Composites composites() {
+    return null;
+  }
+
+  @Override
+  public void createTrigrams() {
+    // trigram indexes are only supported by databases on disk
+  }
+
+  @Override
+  public Trigrams trigrams() {
+    return null;
+  }
+
   /**
    * Assigns the specified index.
    * @param type index to be opened
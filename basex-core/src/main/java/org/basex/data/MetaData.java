@@ -48,8 +48,14 @@ public final class MetaData {
 
   /** Flag for activated automatic index update. */
   public boolean updindex;
+  /** Indicates if the full-text index references node IDs and is updated incrementally. */
+  public boolean ftupdindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
+  /** Flag for compressing texts and attribute values in blocks. */
+  public boolean compresstexts;
+  /** Indicates if the heap files with texts and attribute values are compressed. */
+  public boolean compressed;
 
   /** Indicates if the text index is to be recreated. */
   public boolean createtext;
@@ -67,6 +73,18 @@ public final class MetaData {
   public String tokeninclude;
   /** Full-text index: names to include. */
   public String ftinclude;
+  /** Numeric columns: names to include. */
+  public String columninclude;
+  /** Indicates if numeric columns exist. */
+  public boolean columns;
+  /** Composite indexes: definitions. */
+  public String compositeindex;
+  /** Indicates if composite indexes exist. */
+  public boolean composites;
+  /** Indicates if the trigram index is to be recreated. */
+  public boolean createtrigram;
+  /** Indicates if a trigram index exists. */
+  public boolean trigramindex;
 
   /** Flag for full-text stemming. */
   public boolean stemming;
@@ -144,6 +162,7 @@ public final class MetaData {
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    compresstexts = options.get(MainOptions.COMPRESSTEXTS);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
     stopwords = options.get(MainOptions.STOPWORDS);
@@ -152,6 +171,9 @@ public final class MetaData {
     attrinclude = options.get(MainOptions.ATTRINCLUDE);
     tokeninclude = options.get(MainOptions.TOKENINCLUDE);
     ftinclude = options.get(MainOptions.FTINCLUDE);
+    columninclude = options.get(MainOptions.COLUMNINCLUDE);
+    compositeindex = options.get(MainOptions.COMPOSITEINDEX);
+    createtrigram = options.get(MainOptions.TRIGRAMINDEX);
     splitsize = options.get(MainOptions.SPLITSIZE);
   }
 
@@ -434,19 +456,28 @@ public final class MetaData {
         case DBFTDC -> diacritics = isTrue(v);
         case DBUPDIDX -> updindex = isTrue(v);
         case DBAUTOOPT -> autooptimize = isTrue(v);
+        case DBCMPTXT -> compresstexts = isTrue(v);
+        case DBCMPHEAP -> compressed = isTrue(v);
         case DBTXTIDX -> textindex = isTrue(v);
         case DBATVIDX -> attrindex = isTrue(v);
         case DBTOKIDX -> tokenindex = isTrue(v);
         case DBFTXIDX -> ftindex = isTrue(v);
+        case DBFTXUPD -> ftupdindex = isTrue(v);
         case DBTXTINC -> textinclude = v;
         case DBATVINC -> attrinclude = v;
         case DBTOKINC -> tokeninclude = v;
         case DBFTXINC -> ftinclude = v;
+        case DBCOLINC -> columninclude = v;
+        case DBCOLS -> columns = isTrue(v);
+        case DBCMPIDX -> compositeindex = v;
+        case DBCMPS -> composites = isTrue(v);
+        case DBTRGIDX -> trigramindex = isTrue(v);
         case DBSPLITS -> splitsize = toInt(v);
         case DBCRTTXT -> createtext = isTrue(v);
         case DBCRTATV -> createattr = isTrue(v);
         case DBCRTTOK -> createtoken = isTrue(v);
         case DBCRTFTX -> createft = isTrue(v);
+        case DBCRTTRG -> createtrigram = isTrue(v);
         case DBFTST -> stemming = isTrue(v);
         case DBFTCS -> casesens = isTrue(v);
         case DBUPTODATE -> uptodate = isTrue(v);
@@ -459,6 +490,9 @@ public final class MetaData {
     // check version of database indexes
     oldindex = !istorage.equals(ISTORAGE) &&
         new Version(istorage).compareTo(new Version(ISTORAGE)) > 0;
+    // full-text indexes of older versions have a different format: disable them
+    if(ftindex && !istorage.equals(ISTORAGE) &&
+        new Version(istorage).compareTo(new Version(ISTORAGE)) < 0) ftindex = false;
     corrupt = dbFile(DATAUPD).exists();
   }
 
@@ -477,19 +511,28 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBCMPTXT,   compresstexts);
+    writeInfo(out, DBCMPHEAP,  compressed);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
     writeInfo(out, DBFTXIDX,   ftindex);
+    writeInfo(out, DBFTXUPD,   ftupdindex);
     writeInfo(out, DBTXTINC,   textinclude);
     writeInfo(out, DBATVINC,   attrinclude);
     writeInfo(out, DBTOKINC,   tokeninclude);
     writeInfo(out, DBFTXINC,   ftinclude);
+    writeInfo(out, DBCOLINC,   columninclude);
+    writeInfo(out, DBCOLS,     columns);
+    writeInfo(out, DBCMPIDX,   compositeindex);
+    writeInfo(out, DBCMPS,     composites);
+    writeInfo(out, DBTRGIDX,   trigramindex);
     writeInfo(out, DBSPLITS,   splitsize);
     writeInfo(out, DBCRTTXT,   createtext);
     writeInfo(out, DBCRTATV,   createattr);
     writeInfo(out, DBCRTTOK,   createtoken);
     writeInfo(out, DBCRTFTX,   createft);
+    writeInfo(out, DBCRTTRG,   createtrigram);
     writeInfo(out, DBFTST,     stemming);
     writeInfo(out, DBFTCS,     casesens);
     writeInfo(out, DBFTDC,     diacritics);
@@ -511,12 +554,15 @@ public final class MetaData {
     time = System.currentTimeMillis();
     uptodate = false;
     dirty = true;
+    columns = false;
+    composites = false;
+    trigramindex = false;
     if(!updindex) {
       textindex = false;
       attrindex = false;
       tokenindex = false;
     }
-    ftindex = false;
+    if(!updindex || !ftupdindex) ftindex = false;
   }
 
   /**
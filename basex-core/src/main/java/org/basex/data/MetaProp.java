@@ -94,6 +94,11 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.ftindex; }
   },
   /** Property. */
+  TRIGRAMINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.trigramindex; }
+  },
+  /** Property. */
   TEXTINCLUDE(true) {
     @Override
     public String value(final MetaData meta) { return meta.textinclude; }
@@ -114,6 +119,16 @@ public enum MetaProp {
     public String value(final MetaData meta) { return meta.ftinclude; }
   },
   /** Property. */
+  COLUMNINCLUDE(true) {
+    @Override
+    public String value(final MetaData meta) { return meta.columninclude; }
+  },
+  /** Property. */
+  COMPOSITEINDEX(true) {
+    @Override
+    public String value(final MetaData meta) { return meta.compositeindex; }
+  },
+  /** Property. */
   LANGUAGE(true) {
     @Override
     public String value(final MetaData meta) { return meta.language().toString(); }
@@ -149,6 +164,11 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.autooptimize; }
   },
   /** Property. */
+  COMPRESSTEXTS(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.compresstexts; }
+  },
+  /** Property. */
   MAXCATS(true) {
     @Override
     public Integer value(final MetaData meta) { return meta.maxcats; }
@@ -0,0 +1,111 @@
+package org.basex.index;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Numeric columns. Parsed numeric values of texts and attributes are stored in primitive arrays,
+ * which are accessed via PRE values. The columns are read-only: they are invalidated by updates
+ * and rebuilt when the database is optimized.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class Columns {
+  /** Sorted PRE values. */
+  private final int[] pres;
+  /** Integer values ({@link Long#MIN_VALUE}: value is no integer). */
+  private final long[] itrs;
+  /** Double values. */
+  private final double[] dbls;
+
+  /**
+   * Constructor.
+   * @param pres sorted PRE values
+   * @param itrs integer values ({@link Long#MIN_VALUE}: value is no integer)
+   * @param dbls double values
+   */
+  public Columns(final IntList pres, final LongList itrs, final DoubleList dbls) {
+    this.pres = pres.finish();
+    this.itrs = itrs.finish();
+    this.dbls = dbls.finish();
+  }
+
+  /**
+   * Constructs columns by reading them from a file.
+   * @param file file to read from
+   * @throws IOException I/O exception
+   */
+  public Columns(final IOFile file) throws IOException {
+    try(DataInput in = new DataInput(file)) {
+      pres = in.readDiffs().finish();
+      itrs = in.readLongs(in.readNum());
+      final long[] bits = in.readLongs(in.readNum());
+      final int size = bits.length;
+      dbls = new double[size];
+      for(int i = 0; i < size; i++) dbls[i] = Double.longBitsToDouble(bits[i]);
+    }
+  }
+
+  /**
+   * Writes the columns to the specified file.
+   * @param file file to write to
+   * @throws IOException I/O exception
+   */
+  public void write(final IOFile file) throws IOException {
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeDiffs(new IntList(pres));
+      out.writeLongs(itrs);
+      final int size = dbls.length;
+      final long[] bits = new long[size];
+      for(int i = 0; i < size; i++) bits[i] = Double.doubleToRawLongBits(dbls[i]);
+      out.writeLongs(bits);
+    }
+  }
+
+  /**
+   * Returns the offset of the column entry for the specified PRE value.
+   * @param pre PRE value
+   * @return offset, or a negative value if no entry exists
+   */
+  public int index(final int pre) {
+    return Arrays.binarySearch(pres, pre);
+  }
+
+  /**
+   * Returns the integer value at the specified offset.
+   * @param index offset
+   * @return integer value, or {@link Long#MIN_VALUE} if the value is no integer
+   */
+  public long itr(final int index) {
+    return itrs[index];
+  }
+
+  /**
+   * Returns the double value at the specified offset.
+   * @param index offset
+   * @return double value
+   */
+  public double dbl(final int index) {
+    return dbls[index];
+  }
+
+  /**
+   * Returns the number of entries.
+   * @return number of entries
+   */
+  public int size() {
+    return pres.length;
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + " (entries: " + pres.length + ')';
+  }
+}
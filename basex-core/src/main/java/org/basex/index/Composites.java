@@ -0,0 +1,273 @@
+package org.basex.index;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Composite indexes. For elements with a specific name, the values of multiple attributes and
+ * child elements are combined to a single key, which references the PRE values of the elements.
+ * A definition has the form {@code order[@customer,@status]}. Multiple definitions are separated
+ * by semicolons. The indexes are read-only: they are invalidated by updates and rebuilt when the
+ * database is optimized.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class Composites {
+  /** Separator of the values of a key (cannot occur in XML documents). */
+  private static final byte SEPARATOR = 0;
+  /** Pattern for a single definition. */
+  private static final Pattern DEFINITION = Pattern.compile("^([^\\[\\],;\\s]+)\\s*\\[(.+)]$");
+
+  /** Composite indexes. */
+  private final Composite[] composites;
+
+  /**
+   * Builds composite indexes.
+   * @param definitions definitions, separated by semicolons
+   * @param data data reference
+   */
+  public Composites(final String definitions, final Data data) {
+    final ArrayList<Composite> list = new ArrayList<>();
+    for(final String definition : definitions.split(";")) {
+      final Matcher matcher = DEFINITION.matcher(definition.trim());
+      if(!matcher.matches()) continue;
+      final TokenList components = new TokenList();
+      for(final String component : matcher.group(2).split(",")) {
+        final byte[] name = token(component.trim());
+        if(name.length > 0 && !components.contains(name)) components.add(name);
+      }
+      if(components.size() > 1) list.add(new Composite(token(matcher.group(1)),
+          components.finish()));
+    }
+    composites = list.toArray(Composite[]::new);
+    if(composites.length == 0) return;
+
+    final IndexTree[] trees = new IndexTree[composites.length];
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      if(data.kind(pre) != Data.ELEM) continue;
+      final byte[] name = data.name(pre, Data.ELEM);
+      for(int c = 0; c < composites.length; c++) {
+        final Composite composite = composites[c];
+        if(!eq(name, composite.name)) continue;
+        if(trees[c] == null) trees[c] = new IndexTree(IndexType.TEXT);
+        for(final byte[] key : composite.keys(pre, data)) trees[c].add(key, pre, 0);
+      }
+    }
+
+    for(int c = 0; c < composites.length; c++) {
+      if(trees[c] != null) composites[c].finish(trees[c]);
+    }
+  }
+
+  /**
+   * Reads composite indexes from a file.
+   * @param file file to read from
+   * @throws IOException I/O exception
+   */
+  public Composites(final IOFile file) throws IOException {
+    try(DataInput in = new DataInput(file)) {
+      composites = new Composite[in.readNum()];
+      for(int c = 0; c < composites.length; c++) {
+        final Composite composite = new Composite(in.readToken(), in.readTokens());
+        final int size = in.readNum();
+        composite.keys = new byte[size][];
+        composite.pres = new int[size][];
+        for(int k = 0; k < size; k++) {
+          composite.keys[k] = in.readToken();
+          composite.pres[k] = in.readDiffs().finish();
+        }
+        composites[c] = composite;
+      }
+    }
+  }
+
+  /**
+   * Writes the composite indexes to the specified file.
+   * @param file file to write to
+   * @throws IOException I/O exception
+   */
+  public void write(final IOFile file) throws IOException {
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeNum(composites.length);
+      for(final Composite composite : composites) {
+        out.writeToken(composite.name);
+        out.writeTokens(composite.components);
+        final int size = composite.keys.length;
+        out.writeNum(size);
+        for(int k = 0; k < size; k++) {
+          out.writeToken(composite.keys[k]);
+          out.writeDiffs(new IntList(composite.pres[k]));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the composite index for the specified element name with the largest number of
+   * components, all of which are contained in the specified names.
+   * @param name element name
+   * @param names names of attributes (with {@code @} prefix) and child elements
+   * @return composite index or {@code null}
+   */
+  public Composite get(final byte[] name, final TokenList names) {
+    Composite best = null;
+    for(final Composite composite : composites) {
+      if(!eq(name, composite.name) ||
+          best != null && best.components.length >= composite.components.length) continue;
+      boolean all = true;
+      for(final byte[] component : composite.components) all &= names.contains(component);
+      if(all) best = composite;
+    }
+    return best;
+  }
+
+  /**
+   * Returns a key for the specified values.
+   * @param values values, in the order of the components
+   * @return key
+   */
+  public static byte[] key(final byte[]... values) {
+    final ByteList key = new ByteList();
+    final int vl = values.length;
+    for(int v = 0; v < vl; v++) {
+      if(v > 0) key.add(SEPARATOR);
+      key.add(values[v]);
+    }
+    return key.finish();
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + Arrays.toString(composites);
+  }
+
+  /**
+   * Composite index for a single definition.
+   */
+  public static final class Composite {
+    /** Element name. */
+    public final byte[] name;
+    /** Names of attributes (with {@code @} prefix) and child elements. */
+    public final byte[][] components;
+    /** Sorted keys. */
+    private byte[][] keys = {};
+    /** PRE values of the keys. */
+    private int[][] pres = {};
+
+    /**
+     * Constructor.
+     * @param name element name
+     * @param components names of attributes and child elements
+     */
+    private Composite(final byte[] name, final byte[][] components) {
+      this.name = name;
+      this.components = components;
+    }
+
+    /**
+     * Returns the sorted PRE values of the elements with the specified key.
+     * @param key key
+     * @return PRE values
+     */
+    public int[] pres(final byte[] key) {
+      int l = 0, h = keys.length - 1;
+      while(l <= h) {
+        final int m = l + h >>> 1;
+        final int d = compare(keys[m], key);
+        if(d == 0) return pres[m];
+        if(d < 0) l = m + 1;
+        else h = m - 1;
+      }
+      return new int[0];
+    }
+
+    /**
+     * Returns all keys of the specified element. If a component occurs multiple times,
+     * all combinations of the values will be returned.
+     * @param pre PRE value of the element
+     * @param data data reference
+     * @return keys (empty if a component does not occur)
+     */
+    private TokenList keys(final int pre, final Data data) {
+      final int cl = components.length;
+      final TokenList[] values = new TokenList[cl];
+      for(int c = 0; c < cl; c++) values[c] = new TokenList(1);
+
+      // attributes and child elements
+      final int size = pre + data.size(pre, Data.ELEM);
+      for(int p = pre + 1; p < size;) {
+        final int kind = data.kind(p);
+        if(kind == Data.ATTR || kind == Data.ELEM) {
+          final byte[] nm = data.name(p, kind);
+          for(int c = 0; c < cl; c++) {
+            if(kind == Data.ATTR ? components[c][0] == '@' &&
+                eq(nm, substring(components[c], 1)) : eq(nm, components[c])) {
+              final byte[] value = kind == Data.ATTR ? data.text(p, false) : data.atom(p);
+              // skip values that cannot be looked up in the index
+              if(value.length > data.meta.maxlen) return new TokenList(0);
+              values[c].add(value);
+            }
+          }
+        }
+        p += data.size(p, kind);
+      }
+
+      // create all combinations
+      TokenList keys = new TokenList(1);
+      keys.add(EMPTY);
+      for(int c = 0; c < cl; c++) {
+        final TokenList list = new TokenList(keys.size() * values[c].size());
+        for(final byte[] key : keys) {
+          for(final byte[] value : values[c]) {
+            list.add(c == 0 ? value : key(key, value));
+          }
+        }
+        keys = list;
+      }
+      return keys;
+    }
+
+    /**
+     * Assigns the keys and PRE values of the specified index tree.
+     * @param tree index tree
+     */
+    private void finish(final IndexTree tree) {
+      final int size = tree.size();
+      keys = new byte[size][];
+      pres = new int[size][];
+      tree.init();
+      for(int k = 0; tree.more(); k++) {
+        final int next = tree.next();
+        final byte[] values = tree.ids.get(next);
+        final int vs = Num.size(values);
+        final IntList list = new IntList();
+        for(int ip = 4; ip < vs; ip += Num.length(values, ip)) {
+          // skip duplicates (an element may have the same key more than once)
+          final int pre = Num.get(values, ip);
+          if(list.isEmpty() || list.peek() != pre) list.add(pre);
+        }
+        keys[k] = tree.keys.get(next);
+        pres[k] = list.finish();
+      }
+    }
+
+    @Override
+    public String toString() {
+      final StringJoiner sj = new StringJoiner(",", string(name) + '[', "]");
+      for(final byte[] component : components) sj.add(string(component));
+      return sj.toString();
+    }
+  }
+}
@@ -3,6 +3,8 @@ package org.basex.index;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
@@ -86,7 +88,26 @@ public abstract class IndexBuilder extends Job {
    * @return result of check
    */
   protected final boolean indexEntry() {
-    return data.kind(pre) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
+    return indexEntry(pre);
+  }
+
+  /**
+   * Checks if the specified entry should be indexed.
+   * @param p pre value
+   * @return result of check
+   */
+  protected final boolean indexEntry(final int p) {
+    return data.kind(p) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(p, text);
+  }
+
+  /**
+   * Returns the number of threads that may be used for building the index
+   * ({@link MainOptions#BUILDTHREADS}).
+   * @return number of threads
+   */
+  protected final int threads() {
+    final Context ctx = jc().context;
+    return ctx != null ? Math.max(1, ctx.options.get(MainOptions.BUILDTHREADS)) : 1;
   }
 
   /**
@@ -140,6 +161,29 @@ public abstract class IndexBuilder extends Job {
     Util.errln(sb);
   }
 
+  /**
+   * Waits until all specified tasks have been finished. If tasks failed, the first exception
+   * will be rethrown.
+   * @param futures futures of the tasks
+   * @throws IOException I/O exception
+   */
+  public static void await(final List<? extends Future<?>> futures) throws IOException {
+    Throwable error = null;
+    for(final Future<?> future : futures) {
+      try {
+        future.get();
+      } catch(final InterruptedException ex) {
+        if(error == null) error = new BaseXException(ex);
+      } catch(final ExecutionException ex) {
+        if(error == null) error = ex.getCause();
+      }
+    }
+    if(error instanceof final IOException io) throw io;
+    if(error instanceof final RuntimeException re) throw re;
+    if(error instanceof final Error er) throw er;
+    if(error != null) throw Util.notExpected(error);
+  }
+
   /**
    * Returns the split factor dependent on the index type.
    * The following values are returned:
@@ -1,12 +1,17 @@
 package org.basex.index;
 
 import java.lang.ref.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.*;
 
 import org.basex.util.*;
 
 /**
  * This class caches sizes and offsets from index results.
+ * In addition, the decoded IDs of frequently requested keys are cached. The lookup of IDs is
+ * lock-free, and the number of cached IDs is bounded: If the limit is exceeded, results that
+ * have not been requested since the last eviction are removed.
  *
  * @author BaseX Team, BSD License
  * @author Dimitar Popov
@@ -21,6 +26,17 @@ public final class IndexCache {
   /** Number of entries in the cache. */
   private int size;
 
+  /** Maximum number of cached IDs. */
+  private static final int MAX_IDS = 1 << 18;
+  /** Maximum number of IDs of a single cached result. */
+  private static final int MAX_RESULT = MAX_IDS >>> 4;
+  /** Cached IDs. */
+  private final ConcurrentHashMap<Key, Result> results = new ConcurrentHashMap<>();
+  /** Number of cached IDs. */
+  private final AtomicInteger ids = new AtomicInteger();
+  /** Indicates if results are currently evicted. */
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
   /**
    * Gets cached entry for the specified key.
    * @param key key
@@ -66,7 +82,10 @@ public final class IndexCache {
         if(entry == null) {
           delete(i, current, prev, next);
         } else if(current.hash == hash && Token.eq(entry.key, key)) {
-          update(entry, count, offset);
+          if(entry.size != count || entry.offset != offset) {
+            update(entry, count, offset);
+            invalidate(key);
+          }
           return entry;
         }
         prev = current;
@@ -75,6 +94,7 @@ public final class IndexCache {
 
       final IndexEntry entry = new IndexEntry(key, count, offset);
       add(i, hash, entry);
+      invalidate(key);
       return entry;
     } finally {
       rwl.writeLock().unlock();
@@ -86,6 +106,7 @@ public final class IndexCache {
    * @param key key
    */
   public void delete(final byte[] key) {
+    invalidate(key);
     final int hash = Token.hashCode(key);
     rwl.writeLock().lock();
 
@@ -110,6 +131,65 @@ public final class IndexCache {
     }
   }
 
+  /**
+   * Returns the cached IDs for the specified key.
+   * <p><em>Important:</em> The returned array must not be modified.</p>
+   * @param key key
+   * @return IDs or {@code null}
+   */
+  public int[] ids(final byte[] key) {
+    final Result result = results.get(new Key(key));
+    if(result == null) return null;
+    result.used = true;
+    return result.ids;
+  }
+
+  /**
+   * Caches the IDs for the specified key.
+   * <p><em>Important:</em> The array must not be modified after it has been cached.</p>
+   * @param key key
+   * @param list IDs
+   */
+  public void ids(final byte[] key, final int[] list) {
+    final int sz = list.length;
+    if(sz > MAX_RESULT) return;
+    final Result old = results.put(new Key(key), new Result(list));
+    if(ids.addAndGet(old != null ? sz - old.ids.length : sz) > MAX_IDS) evict();
+  }
+
+  /**
+   * Removes the cached IDs for the specified key.
+   * @param key key
+   */
+  private void invalidate(final byte[] key) {
+    final Result old = results.remove(new Key(key));
+    if(old != null) ids.addAndGet(-old.ids.length);
+  }
+
+  /**
+   * Removes results that have not been requested since the last eviction.
+   * Only one thread evicts results at a time.
+   */
+  private void evict() {
+    if(!evicting.compareAndSet(false, true)) return;
+    try {
+      // second pass: remove entries that have been requested before the first pass
+      for(int pass = 0; pass < 2 && ids.get() > MAX_IDS >>> 1; pass++) {
+        results.entrySet().removeIf(entry -> {
+          final Result result = entry.getValue();
+          if(result.used) {
+            result.used = false;
+            return false;
+          }
+          ids.addAndGet(-result.ids.length);
+          return true;
+        });
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
   /**
    * Purges stale entries from the cache.
    */
@@ -224,4 +304,48 @@ public final class IndexCache {
       next = n;
     }
   }
+
+  /**
+   * Key of a cached result.
+   * @param token token
+   * @param hash hash code of the token
+   */
+  private record Key(byte[] token, int hash) {
+    /**
+     * Constructor.
+     * @param token token
+     */
+    Key(final byte[] token) {
+      this(token, Token.hashCode(token));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      return this == obj || obj instanceof final Key key && hash == key.hash &&
+        Token.eq(token, key.token);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Cached result.
+   */
+  private static final class Result {
+    /** IDs. */
+    final int[] ids;
+    /** Indicates if the result has been requested since the last eviction. */
+    volatile boolean used;
+
+    /**
+     * Constructor.
+     * @param ids IDs
+     */
+    Result(final int[] ids) {
+      this.ids = ids;
+    }
+  }
 }
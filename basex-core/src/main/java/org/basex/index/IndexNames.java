@@ -5,12 +5,16 @@ import static org.basex.util.Token.*;
 import java.util.*;
 
 import org.basex.data.*;
+import org.basex.index.name.*;
+import org.basex.index.path.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
 
 /**
  * Names and namespace URIs of elements/attribute to index.
+ * Entries starting with a slash are absolute paths (e.g. {@code /catalog/item/@sku}):
+ * only the values of nodes on matching paths will be indexed.
  *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
@@ -18,6 +22,8 @@ import org.basex.util.hash.*;
 public final class IndexNames {
   /** Local names and namespace URIs. All names are accepted if the list is empty. */
   private final Atts qnames = new Atts();
+  /** Absolute paths (local name steps, {@code *} wildcards, {@code @} attribute steps). */
+  private final ArrayList<byte[][]> paths = new ArrayList<>();
   /** Data reference. */
   private final Data data;
 
@@ -27,15 +33,30 @@ public final class IndexNames {
    * @param data data reference
    */
   public IndexNames(final IndexType type, final Data data) {
+    this(data.meta.names(type), data);
+  }
+
+  /**
+   * Constructor.
+   * @param names names to include, separated by commas
+   * @param data data reference
+   */
+  public IndexNames(final String names, final Data data) {
     this.data = data;
-    final String names = data.meta.names(type);
     final HashSet<String> inc = toSet(names.trim());
     for(final String entry : inc) {
       // global wildcard: ignore all assignments
       if(entry.equals("*") || entry.equals("*:*")) {
         qnames.reset();
+        paths.clear();
         return;
       }
+      if(entry.startsWith("/")) {
+        final byte[][] path = path(entry);
+        if(path != null) paths.add(path);
+        else Util.debugln("Included path is invalid: %", entry);
+        continue;
+      }
 
       final byte[] name, uri;
       final byte[][] parsed = QNm.parseExpanded(token(entry), true);
@@ -61,20 +82,26 @@ public final class IndexNames {
    * @return result of check
    */
   public boolean isEmpty() {
-    return qnames.isEmpty();
+    return qnames.isEmpty() && paths.isEmpty();
   }
 
   /**
-   * Checks if the name of the addressed database entry is to be indexed.
+   * Checks if the name or path of the addressed database entry is to be indexed.
    * @param pre PRE value
    * @param text text flag
    * @return result of check
    */
   public boolean contains(final int pre, final boolean text) {
+    if(isEmpty()) return true;
+
     final byte[][] qname = text ? data.qname(data.parent(pre, Data.TEXT), Data.ELEM) :
       data.qname(pre, Data.ATTR);
     qname[0] = local(qname[0]);
-    return contains(qname);
+    if(names(qname)) return true;
+    for(final byte[][] path : paths) {
+      if(matches(path, pre, text)) return true;
+    }
+    return false;
   }
 
   /**
@@ -83,8 +110,55 @@ public final class IndexNames {
    * @return result of check
    */
   public boolean contains(final byte[][] qname) {
-    if(isEmpty()) return true;
+    if(isEmpty() || names(qname)) return true;
+
+    // paths: check if the last step matches a local name without namespace
+    if(qname != null && (qname[1] == null || qname[1].length == 0)) {
+      for(final byte[][] path : paths) {
+        final byte[] last = path[path.length - 1];
+        if(qname[0] == null || step(last[0] == '@' ? substring(last, 1) : last, qname[0]))
+          return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if all elements or attributes with the specified name are indexed. If paths have been
+   * specified, the check is based on the path index.
+   * @param qname local name and namespace URI (reference or array entries can be {@code null})
+   * @param text text flag (elements or attributes)
+   * @return result of check
+   */
+  public boolean complete(final byte[][] qname, final boolean text) {
+    if(paths.isEmpty() || names(qname)) return true;
+    // path index must be up-to-date; names in path index cannot be resolved for namespaces
+    if(qname == null || qname[0] == null || !data.meta.uptodate || !data.nspaces.isEmpty())
+      return false;
 
+    final int id = (text ? data.elemNames : data.attrNames).index(qname[0]);
+    if(id == 0) return true;
+    final byte kind = text ? Data.ELEM : Data.ATTR;
+    for(final PathNode node : PathIndex.desc(data.paths().root(), true)) {
+      if(node.kind != kind || node.name != id) continue;
+      boolean found = false;
+      for(final byte[][] path : paths) {
+        if(matches(path, node)) {
+          found = true;
+          break;
+        }
+      }
+      if(!found) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the local name of the specified name is contained in the list of names.
+   * @param qname local name and namespace URI (reference or array entries can be {@code null})
+   * @return result of check
+   */
+  private boolean names(final byte[][] qname) {
     if(qname != null) {
       final int ns = qnames.size();
       final byte[] ln = qname[0], uri = qname[1];
@@ -99,6 +173,79 @@ public final class IndexNames {
     return false;
   }
 
+  /**
+   * Checks if the addressed database entry is located on the specified path.
+   * @param path path steps
+   * @param pre PRE value
+   * @param text text flag
+   * @return result of check
+   */
+  private boolean matches(final byte[][] path, final int pre, final boolean text) {
+    int s = path.length - 1, par;
+    if(text) {
+      if(path[s][0] == '@') return false;
+      par = data.parent(pre, Data.TEXT);
+    } else {
+      final byte[] last = path[s--];
+      if(last[0] != '@' || !step(substring(last, 1), local(data.name(pre, Data.ATTR))))
+        return false;
+      par = data.parent(pre, Data.ATTR);
+    }
+    for(; s >= 0; s--) {
+      if(par == -1 || data.kind(par) != Data.ELEM ||
+          !step(path[s], local(data.name(par, Data.ELEM)))) return false;
+      par = data.parent(par, Data.ELEM);
+    }
+    return par != -1 && data.kind(par) == Data.DOC;
+  }
+
+  /**
+   * Checks if the specified path index node is located on the specified path.
+   * @param path path steps
+   * @param node path node
+   * @return result of check
+   */
+  private boolean matches(final byte[][] path, final PathNode node) {
+    PathNode pn = node;
+    for(int s = path.length - 1; s >= 0; s--) {
+      if(pn == null || pn.kind == Data.DOC || !step(path[s], pn.token(data))) return false;
+      pn = pn.parent;
+    }
+    return pn != null && pn.kind == Data.DOC;
+  }
+
+  /**
+   * Checks if a path step matches the specified name.
+   * @param step step (local name or {@code *}, optionally prefixed with {@code @})
+   * @param name name (prefixed with {@code @} if it is an attribute name)
+   * @return result of check
+   */
+  private static boolean step(final byte[] step, final byte[] name) {
+    final boolean attr = step[0] == '@';
+    if(attr != (name.length > 0 && name[0] == '@')) return false;
+    return step.length == (attr ? 2 : 1) && step[step.length - 1] == '*' || eq(step, name);
+  }
+
+  /**
+   * Parses an absolute path.
+   * @param entry entry
+   * @return path steps, or {@code null} if the path is invalid
+   */
+  private static byte[][] path(final String entry) {
+    final String[] steps = entry.substring(1).split("/", -1);
+    final int sl = steps.length;
+    final byte[][] path = new byte[sl][];
+    for(int s = 0; s < sl; s++) {
+      final String step = steps[s].trim();
+      // attribute steps are only allowed at the end
+      final boolean attr = step.startsWith("@") && s == sl - 1;
+      final String name = attr ? step.substring(1) : step;
+      if(!name.equals("*") && !XMLToken.isNCName(token(name))) return null;
+      path[s] = token(step);
+    }
+    return path;
+  }
+
   /**
    * Returns a set of all entries of the requested string (separated by commas).
    * @param names names
@@ -145,7 +292,9 @@ public final class IndexNames {
       if(name != null && XMLToken.isId(name, idref)) names.add(name);
     }
     // check if database name index consists of other IDs
-    for(final byte[] name : data.attrNames) {
+    final Names attrNames = data.attrNames;
+    for(int a = 1, as = attrNames.size(); a <= as; a++) {
+      final byte[] name = attrNames.key(a);
       if(XMLToken.isId(name, idref && !names.contains(name))) return false;
     }
     return true;
@@ -0,0 +1,178 @@
+package org.basex.index;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Trigram index. For all byte sequences of length 3 that occur in texts and attribute values,
+ * the PRE values of the nodes are stored. As strings are UTF-8 encoded, each substring of a
+ * value is also a byte substring, and the intersection of the PRE values of all trigrams of a
+ * search string yields a superset of the nodes that contain this string. The index is
+ * read-only: it is invalidated by updates and rebuilt when the database is optimized.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class Trigrams {
+  /** Minimum length of search strings (in bytes). */
+  public static final int LENGTH = 3;
+
+  /** Sorted trigrams of texts and attribute values. */
+  private final int[][] keys = new int[2][];
+  /** PRE values of the trigrams of texts and attribute values. */
+  private final int[][][] pres = new int[2][][];
+
+  /**
+   * Builds the trigram index.
+   * @param data data reference
+   */
+  public Trigrams(final Data data) {
+    final List<IntObjectMap<IntList>> maps = List.of(new IntObjectMap<>(), new IntObjectMap<>());
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = data.kind(pre);
+      if(kind != Data.TEXT && kind != Data.ATTR) continue;
+
+      final boolean text = kind == Data.TEXT;
+      final IntObjectMap<IntList> map = maps.get(text ? 0 : 1);
+      final byte[] value = data.text(pre, text);
+      for(int v = 0, vl = value.length - LENGTH; v <= vl; v++) {
+        final IntList list = map.computeIfAbsent(trigram(value, v), IntList::new);
+        // skip duplicates (a trigram may occur more than once in a value)
+        if(list.isEmpty() || list.peek() != pre) list.add(pre);
+      }
+    }
+
+    for(int m = 0; m < 2; m++) {
+      final IntObjectMap<IntList> map = maps.get(m);
+      final int[] ks = new int[map.size()];
+      for(int k = 0; k < ks.length; k++) ks[k] = map.key(k + 1);
+      Arrays.sort(ks);
+      keys[m] = ks;
+      pres[m] = new int[ks.length][];
+      for(int k = 0; k < ks.length; k++) pres[m][k] = map.get(ks[k]).finish();
+    }
+  }
+
+  /**
+   * Reads the trigram index from a file.
+   * @param file file to read from
+   * @throws IOException I/O exception
+   */
+  public Trigrams(final IOFile file) throws IOException {
+    try(DataInput in = new DataInput(file)) {
+      for(int m = 0; m < 2; m++) {
+        final int size = in.readNum();
+        keys[m] = new int[size];
+        pres[m] = new int[size][];
+        for(int k = 0; k < size; k++) {
+          keys[m][k] = in.readNum();
+          pres[m][k] = in.readDiffs().finish();
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the trigram index to the specified file.
+   * @param file file to write to
+   * @throws IOException I/O exception
+   */
+  public void write(final IOFile file) throws IOException {
+    try(DataOutput out = new DataOutput(file)) {
+      for(int m = 0; m < 2; m++) {
+        final int size = keys[m].length;
+        out.writeNum(size);
+        for(int k = 0; k < size; k++) {
+          out.writeNum(keys[m][k]);
+          out.writeDiffs(new IntList(pres[m][k]));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the sorted PRE values of all texts or attribute values that contain all trigrams of
+   * the specified string. The values must be checked, as the trigrams may occur at other
+   * positions.
+   * @param token search string (must have at least {@link #LENGTH} bytes)
+   * @param text texts or attribute values
+   * @return PRE values of the candidates
+   */
+  public int[] pres(final byte[] token, final boolean text) {
+    final int[][] lists = lists(token, text);
+    if(lists == null) return new int[0];
+
+    // start with the smallest list
+    Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+    int[] result = lists[0];
+    for(int l = 1; l < lists.length && result.length > 0; l++) {
+      final int[] list = lists[l];
+      final IntList il = new IntList(result.length);
+      for(int r = 0, i = 0, ll = list.length; r < result.length && i < ll;) {
+        final int d = Integer.compare(result[r], list[i]);
+        if(d == 0) il.add(result[r]);
+        if(d <= 0) r++;
+        if(d >= 0) i++;
+      }
+      result = il.finish();
+    }
+    return result;
+  }
+
+  /**
+   * Returns an upper bound for the number of values that contain the specified string.
+   * @param token search string (must have at least {@link #LENGTH} bytes)
+   * @param text texts or attribute values
+   * @return number of candidates
+   */
+  public int size(final byte[] token, final boolean text) {
+    final int[][] lists = lists(token, text);
+    if(lists == null) return 0;
+    int size = Integer.MAX_VALUE;
+    for(final int[] list : lists) size = Math.min(size, list.length);
+    return size;
+  }
+
+  /**
+   * Returns the PRE values of all trigrams of the specified string.
+   * @param token search string
+   * @param text texts or attribute values
+   * @return lists, or {@code null} if a trigram does not occur in the index
+   */
+  private int[][] lists(final byte[] token, final boolean text) {
+    final int m = text ? 0 : 1;
+    final IntSet trigrams = new IntSet();
+    for(int t = 0, tl = token.length - LENGTH; t <= tl; t++) trigrams.add(trigram(token, t));
+    final int[][] lists = new int[trigrams.size()][];
+    for(int t = 0; t < lists.length; t++) {
+      final int k = Arrays.binarySearch(keys[m], trigrams.key(t + 1));
+      if(k < 0) return null;
+      lists[t] = pres[m][k];
+    }
+    return lists;
+  }
+
+  /**
+   * Returns the trigram at the specified position.
+   * @param token token
+   * @param pos position
+   * @return trigram
+   */
+  private static int trigram(final byte[] token, final int pos) {
+    return (token[pos] & 0xFF) << 16 | (token[pos + 1] & 0xFF) << 8 | token[pos + 2] & 0xFF;
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + '[' + keys[0].length + ", " + keys[1].length + ']';
+  }
+}
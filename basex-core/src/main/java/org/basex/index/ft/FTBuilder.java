@@ -57,6 +57,8 @@ public final class FTBuilder extends IndexBuilder {
   public FTIndex build() throws IOException {
     Util.debugln(detailedInfo());
 
+    // updatable index: store node IDs instead of PRE values
+    final boolean updindex = data.meta.updindex;
     try {
       for(pre = 0; pre < size; ++pre) {
         if((pre & 0x0FFF) == 0) check();
@@ -76,7 +78,7 @@ public final class FTBuilder extends IndexBuilder {
               writeIndex(true);
               clean();
             }
-            tree.index(token, pre, pos, splits);
+            tree.index(token, updindex ? data.id(pre) : pre, pos, splits);
             count++;
           }
         }
@@ -86,6 +88,9 @@ public final class FTBuilder extends IndexBuilder {
       write(splits > 0);
 
       finishIndex();
+      // the new index includes all entries: discard the delta segment of a previous index
+      data.meta.dbFile(DATAFTX + 'd').delete();
+      data.meta.ftupdindex = updindex;
       return new FTIndex(data);
     } catch(final Throwable th) {
       // drop index files
@@ -143,7 +148,7 @@ public final class FTBuilder extends IndexBuilder {
         // pointer on full-text data
         outY.write5(outZ.size());
         // merge and write data size
-        outY.write4(merge(outZ, il, v));
+        outY.write4(merge(outZ, il, v, scores(), v[m].token.length));
       }
       writeInd(outX, ind, ind.get(ind.size() - 2) + 1, (int) outY.size());
     }
@@ -157,7 +162,7 @@ public final class FTBuilder extends IndexBuilder {
    * @param lp last offset
    * @throws IOException I/O exception
    */
-  private static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
+  static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
       throws IOException {
 
     final int is = il.size();
@@ -201,8 +206,9 @@ public final class FTBuilder extends IndexBuilder {
         outY.write5(dr);
         // write full-text data size (number of PRE values)
         outY.write4(t.nextNumPre());
-        // write compressed PRE and POS arrays
-        writeFTData(outZ, t.nextPres(), t.nextPoss());
+        // write PRE and POS arrays: temporary lists are merged later on
+        if(partial) writeFTData(outZ, t.nextPres(), t.nextPoss());
+        else FTPostings.write(outZ, ints(t.nextPres()), ints(t.nextPoss()), scores(), j);
 
         dr = outZ.size();
         tr = (int) outY.size();
@@ -220,32 +226,45 @@ public final class FTBuilder extends IndexBuilder {
    * @param out full-text data
    * @param il array mapping
    * @param list full-text list
+   * @param dt data reference for computing maximum scores ({@code null} if IDs are stored)
+   * @param length token length
    * @return written size
    * @throws IOException I/O exception
    */
-  private static int merge(final DataOutput out, final IntList il, final FTList[] list)
-      throws IOException {
+  private static int merge(final DataOutput out, final IntList il, final FTList[] list,
+      final Data dt, final int length) throws IOException {
 
-    final ByteList tbp = new ByteList().add(new byte[4]), tbo = new ByteList().add(new byte[4]);
     // merge full-text data of all sorted lists with the same token
-    int s = 0;
+    final IntList pr = new IntList(), po = new IntList();
     final int is = il.size();
     for(int j = 0; j < is; ++j) {
       final int m = il.get(j);
-      for(final int p : list[m].prv) tbp.add(Num.num(p));
-      for(final int p : list[m].pov) tbo.add(Num.num(p));
-      s += list[m].size;
+      pr.add(list[m].prv);
+      po.add(list[m].pov);
       list[m].next();
     }
-    // write compressed PRE and POS arrays
-    final byte[] pr = tbp.finish();
-    Num.size(pr, pr.length);
-    final byte[] po = tbo.finish();
-    Num.size(po, po.length);
-
-    // write full-text data
-    writeFTData(out, pr, po);
-    return s;
+    FTPostings.write(out, pr, po, dt, length);
+    return pr.size();
+  }
+
+  /**
+   * Returns the data reference for computing maximum scores.
+   * @return data reference, or {@code null} if IDs are stored
+   */
+  private Data scores() {
+    return data.meta.updindex ? null : data;
+  }
+
+  /**
+   * Returns the integers of a compressed array.
+   * @param array compressed array
+   * @return integers
+   */
+  private static IntList ints(final byte[] array) {
+    final IntList list = new IntList();
+    final int as = Num.size(array);
+    for(int a = 4; a < as; a += Num.length(array, a)) list.add(Num.get(array, a));
+    return list;
   }
 
   /**
@@ -0,0 +1,251 @@
+package org.basex.index.ft;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.*;
+
+import org.basex.index.value.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Delta segment of an updatable full-text index. Absorbs the updates of a database until the
+ * segment is merged with the main index: new tokens are stored with their IDs and positions,
+ * and the IDs of deleted nodes are recorded in order to skip their entries in the main index.
+ *
+ * The segment is stored in a single file with the following format:
+ * {@code [n, id1, ... idn, m, [token, k, id1, pos1, ... idk, posk]{m}]}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class FTDelta {
+  /** Added tokens, with ID and position pairs. */
+  private final TokenObjectMap<IntList> tokens = new TokenObjectMap<>();
+  /** IDs of deleted nodes, whose entries in the main index are invalid. */
+  private IntSet deleted = new IntSet();
+  /** File. */
+  private final IOFile file;
+  /** Number of added ID and position pairs. */
+  private long size;
+  /** Indicates if the segment has been modified since it was last written. */
+  private boolean dirty;
+  /** Indicates if the segment has been modified since the last commit. */
+  private boolean modified;
+
+  /**
+   * Constructor.
+   * @param file file of the delta segment
+   * @throws IOException I/O exception
+   */
+  FTDelta(final IOFile file) throws IOException {
+    this.file = file;
+    if(!file.exists()) return;
+
+    try(DataInput in = new DataInput(file)) {
+      for(int n = in.readNum(); --n >= 0;) deleted.add(in.readNum());
+      for(int m = in.readNum(); --m >= 0;) {
+        final byte[] token = in.readToken();
+        final int k = in.readNum();
+        final IntList list = new IntList(k << 1);
+        for(int i = 0; i < k << 1; i++) list.add(in.readNum());
+        tokens.put(token, list);
+        size += k;
+      }
+    }
+  }
+
+  /**
+   * Adds entries.
+   * @param values value cache
+   */
+  void add(final ValueCache values) {
+    for(final byte[] token : values) {
+      final IntList ids = values.ids(token), pos = values.pos(token);
+      final IntList list = tokens.computeIfAbsent(token, IntList::new);
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) list.add(ids.get(i), pos.get(i));
+      size += is;
+    }
+    dirty = true;
+    modified = true;
+  }
+
+  /**
+   * Deletes entries.
+   * @param values value cache
+   */
+  void delete(final ValueCache values) {
+    for(final byte[] token : values) {
+      final IntList ids = values.ids(token);
+      final int is = ids.size();
+      for(int i = 0; i < is; i++) deleted.add(ids.get(i));
+
+      final IntList list = tokens.get(token);
+      if(list == null) continue;
+      final IntSet remove = new IntSet(is);
+      for(int i = 0; i < is; i++) remove.add(ids.get(i));
+      final IntList rest = new IntList();
+      final int ls = list.size();
+      for(int l = 0; l < ls; l += 2) {
+        if(!remove.contains(list.get(l))) rest.add(list.get(l), list.get(l + 1));
+      }
+      size -= ls - rest.size() >> 1;
+      tokens.put(token, rest);
+    }
+    dirty = true;
+    modified = true;
+  }
+
+  /**
+   * Checks if the entries of the specified node in the main index are invalid.
+   * @param id node ID
+   * @return result of check
+   */
+  boolean deleted(final int id) {
+    return deleted.contains(id);
+  }
+
+  /**
+   * Checks if entries of the main index have been invalidated.
+   * @return result of check
+   */
+  boolean deletions() {
+    return !deleted.isEmpty();
+  }
+
+  /**
+   * Returns the number of entries of the specified token.
+   * @param token token
+   * @return number of entries
+   */
+  int size(final byte[] token) {
+    final IntList list = tokens.get(token);
+    return list != null ? list.size() >> 1 : 0;
+  }
+
+  /**
+   * Returns the total number of added entries and deleted nodes.
+   * @return size
+   */
+  long size() {
+    return size + deleted.size();
+  }
+
+  /**
+   * Returns all tokens of the segment with at least one entry,
+   * sorted in the order of the main index.
+   * @return tokens
+   */
+  byte[][] tokens() {
+    final TokenList list = new TokenList();
+    for(final byte[] token : tokens) {
+      if(!tokens.get(token).isEmpty()) list.add(token);
+    }
+    final byte[][] array = list.finish();
+    Arrays.sort(array, FTDelta::compare);
+    return array;
+  }
+
+  /**
+   * Compares two tokens in the order of the main index (by length, then lexicographically).
+   * @param token1 first token
+   * @param token2 second token
+   * @return result of comparison
+   */
+  static int compare(final byte[] token1, final byte[] token2) {
+    final int d = token1.length - token2.length;
+    return d != 0 ? d : Token.compare(token1, token2);
+  }
+
+  /**
+   * Adds the IDs and positions of all tokens accepted by the specified filter.
+   * @param filter token filter
+   * @param ids ID list
+   * @param pos position list
+   */
+  void entries(final Predicate<byte[]> filter, final IntList ids, final IntList pos) {
+    for(final byte[] token : tokens) {
+      if(filter.test(token)) entries(token, ids, pos);
+    }
+  }
+
+  /**
+   * Adds the IDs and positions of the specified token.
+   * @param token token
+   * @param ids ID list
+   * @param pos position list
+   */
+  void entries(final byte[] token, final IntList ids, final IntList pos) {
+    final IntList list = tokens.get(token);
+    if(list == null) return;
+    final int ls = list.size();
+    for(int l = 0; l < ls; l += 2) {
+      ids.add(list.get(l));
+      pos.add(list.get(l + 1));
+    }
+  }
+
+  /**
+   * Returns the contents of the segment if it has been modified since the last commit.
+   * @return contents or {@code null}
+   * @throws IOException I/O exception
+   */
+  byte[] commit() throws IOException {
+    if(!modified) return null;
+    modified = false;
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
+      write(out);
+    }
+    return ao.finish();
+  }
+
+  /**
+   * Writes the segment to disk if it has been modified.
+   * @throws IOException I/O exception
+   */
+  void flush() throws IOException {
+    if(!dirty) return;
+    try(DataOutput out = new DataOutput(file)) {
+      write(out);
+    }
+    dirty = false;
+  }
+
+  /**
+   * Removes all entries and deletes the file.
+   */
+  void clear() {
+    tokens.clear();
+    deleted = new IntSet();
+    size = 0;
+    file.delete();
+    dirty = false;
+    modified = true;
+  }
+
+  /**
+   * Writes the segment to the specified output.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void write(final DataOutput out) throws IOException {
+    out.writeNum(deleted.size());
+    for(final int id : deleted.keys()) out.writeNum(id);
+    final byte[][] keys = tokens();
+    out.writeNum(keys.length);
+    for(final byte[] token : keys) {
+      final IntList list = tokens.get(token);
+      out.writeToken(token);
+      out.writeNum(list.size() >> 1);
+      final int ls = list.size();
+      for(int l = 0; l < ls; l++) out.writeNum(list.get(l));
+    }
+  }
+}
@@ -14,6 +14,7 @@ import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.index.value.*;
+import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.util.ft.*;
@@ -21,6 +22,7 @@ import org.basex.util.*;
 import org.basex.util.ft.*;
 import org.basex.util.hash.*;
 import org.basex.util.list.*;
+import org.basex.util.similarity.*;
 
 /**
  * <p>This class provides access to a fuzzy full-text index structure
@@ -41,33 +43,44 @@ import org.basex.util.list.*;
  * {@code z} is the pointer on the data entries of the token [long]
  * {@code s} is the number of PRE values, saved in data [int]
  * </li>
- * <li>File <b>z</b> contains the {@code ID/POS} references.
- *   The values are ordered, but not distinct:
- *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
+ * <li>File <b>z</b> contains the {@code ID/POS} references of each token.
+ *   The values are ordered, but not distinct, and stored in bit-packed blocks with skip
+ *   pointers (see {@link FTPostings}).</li>
  * </ul>
  *
+ * <p>If the index is updatable ({@link MetaData#ftupdindex}), node IDs are stored instead of
+ * PRE values, and updates are absorbed by a delta segment (file <b>d</b>, see {@link FTDelta}).
+ * The segment is merged with the main index if it exceeds a size threshold when the index is
+ * flushed.</p>
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
 public final class FTIndex extends ValueIndex {
   /** Minimum fixed size for each token entry. */
   static final int ENTRY = 9;
+  /** Minimum size of a delta segment that will be merged with the main index. */
+  private static final int MERGE = 1 << 16;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
-  private final IntObjectMap<byte[]> ctext = new IntObjectMap<>();
+  private IntObjectMap<byte[]> ctext;
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
-  private final DataAccess dataX;
+  private DataAccess dataX;
   /** Index storing each token, its data size and pointer on the data. */
-  private final DataAccess dataY;
+  private DataAccess dataY;
   /** Storing PRE and POS values for each token. */
-  private final DataAccess dataZ;
+  private DataAccess dataZ;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private IndexCache cache;
   /** Token positions. */
   private final int[] positions;
+  /** Delta segment ({@code null} if the index is not updatable). */
+  private final FTDelta delta;
+  /** Full-text options for tokenizing updated texts (lazy instantiation). */
+  private FTOpt options;
 
   /**
    * Constructor, initializing the index structure.
@@ -76,11 +89,21 @@ public final class FTIndex extends ValueIndex {
    */
   public FTIndex(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
-    // cache token length index
+    positions = new int[data.meta.maxlen + 3];
+    delta = data.meta.ftupdindex ? new FTDelta(data.meta.dbFile(DATAFTX + 'd')) : null;
+    init();
+  }
+
+  /**
+   * Opens the index files and caches the token length index.
+   * @throws IOException I/O Exception
+   */
+  private void init() throws IOException {
     dataX = new DataAccess(data.meta.dbFile(DATAFTX + 'x'));
     dataY = new DataAccess(data.meta.dbFile(DATAFTX + 'y'));
     dataZ = new DataAccess(data.meta.dbFile(DATAFTX + 'z'));
-    positions = new int[data.meta.maxlen + 3];
+    ctext = new IntObjectMap<>();
+    cache = new IndexCache();
     final int pl = positions.length;
     Arrays.fill(positions, -1);
     for(int is = dataX.readNum(); --is >= 0;) {
@@ -90,6 +113,19 @@ public final class FTIndex extends ValueIndex {
     positions[pl - 1] = (int) dataY.length();
   }
 
+  /**
+   * Returns a lexer for tokenizing texts with the options of this index.
+   * @return lexer
+   */
+  public synchronized FTLexer lexer() {
+    if(options == null) {
+      options = new FTOpt().assign(data.meta);
+      options.sw = new StopWords();
+      options.sw.compile(data);
+    }
+    return new FTLexer(options);
+  }
+
   @Override
   public synchronized IndexCosts costs(final IndexSearch search) {
     final byte[] token = search.token();
@@ -98,7 +134,7 @@ public final class FTIndex extends ValueIndex {
     // estimate costs for queries which stretch over multiple index entries
     final FTOpt opt = ((FTLexer) search).ftOpt();
     return IndexCosts.get(opt.is(FZ) || opt.is(WC) ? Math.max(1, data.meta.size >> 4) :
-      entry(token).size);
+      entry(token).size + (delta != null ? delta.size(token) : 0));
   }
 
   @Override
@@ -122,14 +158,102 @@ public final class FTIndex extends ValueIndex {
 
     // return cached or new result
     final IndexEntry entry = entry(token);
-    if(entry.size > 0) {
-      return iter(entry.offset, entry.size, dataZ, token);
+    if(delta == null) return iter(entry, token);
+    final IntList pr = new IntList(entry.size), ps = new IntList(entry.size);
+    read(entry.offset, entry.size, pr, ps);
+    delta.entries(token, pr, ps);
+    return iter(pr, ps, token);
+  }
+
+  /**
+   * Returns an iterator for the texts with the highest scores for the specified token.
+   * Blocks of the posting list are skipped if their maximum scores are not greater than the
+   * lowest score of the current results. The results are returned in document order.
+   * Ties are resolved in favor of texts that occur first.
+   * @param token token
+   * @param limit maximum number of results
+   * @return iterator, or {@code null} if the index is updatable
+   */
+  public synchronized FTIndexIterator top(final byte[] token, final int limit) {
+    if(delta != null) return null;
+    final IndexEntry entry = entry(token);
+    final int size = entry.size;
+    if(size == 0 || limit <= 0) return FTIndexIterator.FTEMPTY;
+
+    // results: PRE values, scores and positions, worst result first
+    final PriorityQueue<Hit> hits = new PriorityQueue<>(Math.min(limit, size), (h1, h2) -> {
+      final int d = Double.compare(h1.score(), h2.score());
+      return d != 0 ? d : Integer.compare(h2.pre(), h1.pre());
+    });
+    final FTPostings postings = new FTPostings(dataZ, entry.offset, size, this);
+    final IntList ps = new IntList();
+    for(boolean more = postings.next(); more;) {
+      if(hits.size() == limit && !postings.skip(hits.peek().score())) break;
+      final int pre = postings.id();
+      ps.reset();
+      do {
+        ps.add(postings.pos());
+      } while((more = postings.next()) && postings.id() == pre);
+
+      final double score = Scoring.textNode(ps.size(), size, token.length,
+          data.textLen(pre, true));
+      if(hits.size() < limit) {
+        hits.add(new Hit(pre, score, ps.toArray()));
+      } else if(score > hits.peek().score()) {
+        hits.poll();
+        hits.add(new Hit(pre, score, ps.toArray()));
+      }
     }
 
-    // no results
-    return FTIndexIterator.FTEMPTY;
+    final Hit[] top = hits.toArray(Hit[]::new);
+    Arrays.sort(top, (h1, h2) -> Integer.compare(h1.pre(), h2.pre()));
+    return new FTIndexIterator() {
+      final FTMatches all = new FTMatches();
+      int pos, h = -1;
+
+      @Override
+      public boolean more() {
+        if(++h == top.length) return false;
+        all.reset(pos);
+        for(final int p : top[h].pos()) all.or(p);
+        return true;
+      }
+
+      @Override
+      public FTMatches matches() {
+        return all;
+      }
+
+      @Override
+      public int pre() {
+        return top[h].pre();
+      }
+
+      @Override
+      public void pos(final int p) {
+        pos = p;
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public String toString() {
+        return Strings.concat(token, '(', top.length, '/', size, "x)");
+      }
+    };
   }
 
+  /**
+   * Result of a top-k search.
+   * @param pre PRE value
+   * @param score score
+   * @param pos positions
+   */
+  private record Hit(int pre, double score, int[] pos) { }
+
   /**
    * Returns a cached index entry.
    * @param value token to be found or cached
@@ -149,6 +273,68 @@ public final class FTIndex extends ValueIndex {
     final byte[] token = entries.token();
     if(entries.errors >= 0) return fuzzyEntries(token, entries.errors);
 
+    final EntryIterator iter = mainEntries(token);
+    if(delta == null) return iter;
+
+    // merge entries of the main index and the delta segment
+    final byte[][] tokens = delta.tokens();
+    return new EntryIterator() {
+      byte[] entry;
+      boolean more = true;
+      int t, c, nr;
+
+      @Override
+      public byte[] next() {
+        synchronized(FTIndex.this) {
+          while(true) {
+            if(entry == null && more) {
+              entry = iter.next();
+              more = entry != null;
+              if(more) c = delta.deletions() ? occurrences(entry) : iter.count();
+            }
+            // skip delta tokens that do not match the prefix
+            while(t < tokens.length && !startsWith(tokens[t], token)) t++;
+            final byte[] tkn = t < tokens.length ? tokens[t] : null;
+            final int d = entry == null ? 1 : tkn == null ? -1 : FTDelta.compare(entry, tkn);
+            if(d > 0 && tkn == null) return null;
+
+            final byte[] next = d <= 0 ? entry : tkn;
+            nr = d <= 0 ? c + delta.size(entry) : 0;
+            if(d <= 0) entry = null;
+            if(d >= 0) {
+              if(d > 0) nr = delta.size(tkn);
+              t++;
+            }
+            if(nr > 0) return next;
+          }
+        }
+      }
+
+      @Override
+      public int count() {
+        return nr;
+      }
+    };
+  }
+
+  /**
+   * Returns the number of valid entries of a token in the main index.
+   * @param token token
+   * @return number of entries
+   */
+  private int occurrences(final byte[] token) {
+    final IndexEntry entry = entry(token);
+    final IntList pr = new IntList(entry.size), ps = new IntList(entry.size);
+    read(entry.offset, entry.size, pr, ps);
+    return pr.size();
+  }
+
+  /**
+   * Returns all entries of the main index that start with the specified token.
+   * @param token token
+   * @return entry iterator
+   */
+  private EntryIterator mainEntries(final byte[] token) {
     return new EntryIterator() {
       int p = token.length - 1, start, end, nr;
       boolean inner;
@@ -248,6 +434,13 @@ public final class FTIndex extends ValueIndex {
 
   @Override
   public synchronized void close() {
+    if(delta != null) {
+      try {
+        delta.flush();
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    }
     dataX.close();
     dataY.close();
     dataZ.close();
@@ -400,9 +593,18 @@ public final class FTIndex extends ValueIndex {
       final int os = offsets.size();
       for(int o = 0; o < os; o++) {
         final int off = offsets.get(o);
-        iters.add(iter(pointer(off, s), size(off, s), dataZ, token));
+        final int size = size(off, s);
+        final IntList pr = new IntList(size), ps = new IntList(size);
+        read(pointer(off, s), size, pr, ps);
+        iters.add(iter(pr, ps, token));
       }
     }
+    if(delta != null) {
+      final Levenshtein ls = new Levenshtein();
+      final IntList pr = new IntList(), ps = new IntList();
+      delta.entries(t -> ls.similar(token, t, errors), pr, ps);
+      if(!pr.isEmpty()) iters.add(iter(pr, ps, token));
+    }
     return iters.isEmpty() ? FTIndexIterator.FTEMPTY :
       FTIndexIterator.union(iters.toArray(FTIndexIterator[]::new));
   }
@@ -428,35 +630,111 @@ public final class FTIndex extends ValueIndex {
       while(start < end) {
         final byte[] t = dataY.readBytes(start, p);
         if(!startsWith(t, prefix)) break;
-        if(wc.match(t)) {
-          dataZ.cursor(pointer(start, p));
-          final int s = size(start, p);
-          for(int d = 0; d < s; d++) {
-            pr.add(dataZ.readNum());
-            ps.add(dataZ.readNum());
-          }
-        }
+        if(wc.match(t)) read(pointer(start, p), size(start, p), pr, ps);
         start += p + ENTRY;
       }
     }
-    return iter(new FTCache(pr, ps), token);
+    if(delta != null) delta.entries(wc::match, pr, ps);
+    return iter(pr, ps, token);
   }
 
   /**
-   * Returns an iterator for an index entry.
+   * Reads the ID/POS entries of a token from the main index.
+   * Entries of nodes that have been deleted or updated are skipped.
    * @param off offset on entries
    * @param size number of ID/POS entries
-   * @param da data source
+   * @param pr PRE values or IDs
+   * @param ps positions
+   */
+  private void read(final long off, final int size, final IntList pr, final IntList ps) {
+    final FTPostings postings = new FTPostings(dataZ, off, size, this);
+    while(postings.next()) {
+      final int id = postings.id();
+      if(delta == null || !delta.deleted(id)) {
+        pr.add(id);
+        ps.add(postings.pos());
+      }
+    }
+  }
+
+  /**
+   * Returns an iterator for the entries of a token in the main index. The entries are decoded
+   * block by block, and blocks with smaller PRE values are skipped if the iterator is advanced
+   * to a specific PRE value. Can only be called if the index is not updatable.
+   * @param entry index entry
+   * @param token index token
+   * @return iterator
+   */
+  private FTIndexIterator iter(final IndexEntry entry, final byte[] token) {
+    final int size = entry.size;
+    if(size == 0) return FTIndexIterator.FTEMPTY;
+    final FTPostings postings = new FTPostings(dataZ, entry.offset, size, this);
+
+    return new FTIndexIterator() {
+      final FTMatches all = new FTMatches();
+      int pos, pre;
+      // cursor points to an unconsumed entry; all entries have been consumed
+      boolean next, done;
+
+      @Override
+      public boolean more() {
+        return more(0);
+      }
+
+      @Override
+      public boolean more(final int p) {
+        if(done || !(next && postings.id() >= p || postings.next(p))) {
+          done = true;
+          return false;
+        }
+        // merge positions of all entries with the same PRE value
+        all.reset(pos);
+        pre = postings.id();
+        all.or(postings.pos());
+        while((next = postings.next()) && postings.id() == pre) all.or(postings.pos());
+        done = !next;
+        return true;
+      }
+
+      @Override
+      public FTMatches matches() {
+        return all;
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public void pos(final int p) {
+        pos = p;
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public String toString() {
+        return Strings.concat(token, '(', size, "x)");
+      }
+    };
+  }
+
+  /**
+   * Returns an iterator for index entries.
+   * @param pr PRE values or IDs (will be replaced with PRE values)
+   * @param ps positions
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
-    final IntList pr = new IntList(size), ps = new IntList(size);
-    for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
+  private FTIndexIterator iter(final IntList pr, final IntList ps, final byte[] token) {
+    final int size = pr.size();
+    if(size == 0) return FTIndexIterator.FTEMPTY;
+    if(delta != null) {
+      for(int i = 0; i < size; i++) pr.set(i, data.pre(pr.get(i)));
     }
     return iter(new FTCache(pr, ps), token);
   }
@@ -543,15 +821,120 @@ public final class FTIndex extends ValueIndex {
   }
 
   @Override
-  public void add(final ValueCache values) {
-    throw Util.notExpected();
+  public synchronized void add(final ValueCache values) {
+    if(delta == null) throw Util.notExpected();
+    delta.add(values);
   }
 
   @Override
-  public void delete(final ValueCache values) {
-    throw Util.notExpected();
+  public synchronized void delete(final ValueCache values) {
+    if(delta == null) throw Util.notExpected();
+    delta.delete(values);
   }
 
   @Override
-  public void flush() { }
+  public synchronized void flush() {
+    if(delta == null) return;
+    try {
+      if(delta.size() > Math.max(MERGE, dataZ.length() >> 3)) merge();
+      else delta.flush();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Logs the delta segment in the journal if it has been updated since the last commit.
+   * @param journal journal
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit(final Journal journal) throws IOException {
+    final byte[] contents = delta != null ? delta.commit() : null;
+    if(contents != null) journal.file(DATAFTX + 'd', contents);
+  }
+
+  /**
+   * Merges the delta segment with the main index. The entries of both structures are written
+   * to new index files, which replace the existing ones.
+   * @throws IOException I/O exception
+   */
+  private void merge() throws IOException {
+    final byte[][] tokens = delta.tokens();
+    final int tl = tokens.length, pl = positions.length;
+
+    final String temp = DATAFTX + 'm';
+    try(DataOutput outX = new DataOutput(data.meta.dbFile(temp + 'x'));
+        DataOutput outY = new DataOutput(data.meta.dbFile(temp + 'y'));
+        DataOutput outZ = new DataOutput(data.meta.dbFile(temp + 'z'))) {
+
+      final IntList ind = new IntList(), pr = new IntList(), ps = new IntList();
+      int t = 0;
+      for(int p = 1; p < pl - 1; p++) {
+        // entries of the main index
+        int start = positions[p], end = -1;
+        if(start != -1) {
+          for(int c = p + 1; end == -1; c++) end = positions[c];
+        } else {
+          start = 0;
+          end = 0;
+        }
+        while(start < end || t < tl && tokens[t].length == p) {
+          final byte[] main = start < end ? dataY.readBytes(start, p) : null;
+          final byte[] added = t < tl && tokens[t].length == p ? tokens[t] : null;
+          final int d = main == null ? 1 : added == null ? -1 : compare(main, added);
+          final byte[] token = d <= 0 ? main : added;
+          if(d <= 0) {
+            read(pointer(start, p), size(start, p), pr, ps);
+            start += p + ENTRY;
+          }
+          if(d >= 0) {
+            delta.entries(added, pr, ps);
+            t++;
+          }
+          merge(token, pr, ps, outY, outZ, ind);
+        }
+      }
+      FTBuilder.writeInd(outX, ind, ind.isEmpty() ? 1 : ind.get(ind.size() - 2) + 1,
+          (int) outY.size());
+    }
+
+    // replace index files and delete the merged delta segment in a single step
+    dataX.close();
+    dataY.close();
+    dataZ.close();
+    final FileSwap swap = new FileSwap(data.meta);
+    for(final char c : new char[] { 'x', 'y', 'z' }) swap.replace(temp + c, DATAFTX + c);
+    swap.delete(DATAFTX + 'd').commit();
+    delta.clear();
+    init();
+  }
+
+  /**
+   * Writes the merged entries of a token.
+   * @param token token
+   * @param ids IDs (will be reset)
+   * @param pos positions (will be reset)
+   * @param outY token output
+   * @param outZ entry output
+   * @param ind token length and offsets
+   * @throws IOException I/O exception
+   */
+  private static void merge(final byte[] token, final IntList ids, final IntList pos,
+      final DataOutput outY, final DataOutput outZ, final IntList ind) throws IOException {
+
+    final int is = ids.size();
+    if(is == 0) return;
+
+    final int tl = token.length;
+    if(ind.isEmpty() || ind.get(ind.size() - 2) < tl) {
+      ind.add(tl);
+      ind.add((int) outY.size());
+    }
+    outY.writeBytes(token);
+    outY.write5(outZ.size());
+    outY.write4(is);
+    FTPostings.write(outZ, ids, pos, null, tl);
+    ids.reset();
+    pos.reset();
+  }
 }
@@ -0,0 +1,339 @@
+package org.basex.index.ft;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class reads and writes the posting list of a full-text token. The ID/POS entries are
+ * sorted by IDs and positions and grouped in blocks of {@link #BLOCK} entries. The ID deltas and
+ * positions of a block are bit-packed, using the minimum number of bits required for the
+ * largest value of the block. Remaining entries, which do not fill a complete block, are stored
+ * as compressed integers.</p>
+ *
+ * <p>A skip table precedes the blocks. It contains the last ID, the byte size and the maximum
+ * score of each block, which allows iterators to skip blocks without decoding them. Structure:
+ * {@code [last1 size1 max1 ... lastN sizeN maxN] [block1 ... blockN] [id1 pos1 ...]}.
+ * The maximum score is an upper bound for the scores of all texts with entries in the block
+ * (see {@link Scoring#textNode}). It is infinite if IDs are stored instead of PRE values.
+ * Structure of a block: {@code [bits of IDs] [bits of positions] [ID deltas] [positions]}.</p>
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class FTPostings {
+  /** Number of entries in a block. */
+  static final int BLOCK = 128;
+
+  /** Index entries. */
+  private final DataAccess da;
+  /** Object to synchronize disk access. */
+  private final Object lock;
+  /** Number of entries. */
+  private final int size;
+  /** Number of complete blocks. */
+  private final int blocks;
+  /** Last IDs of the blocks. */
+  private final int[] lasts;
+  /** Offsets of the blocks and the remaining entries. */
+  private final long[] offsets;
+  /** Maximum scores of the blocks. */
+  private final float[] maxes;
+
+  /** IDs of the current block. */
+  private final int[] ids = new int[BLOCK];
+  /** Positions of the current block. */
+  private final int[] pos = new int[BLOCK];
+  /** Current block ({@code -1}: no block has been loaded yet). */
+  private int block = -1;
+  /** Number of entries in the current block. */
+  private int count;
+  /** Index of the current entry. */
+  private int index = -1;
+
+  /**
+   * Constructor, reading the skip table.
+   * @param da index entries
+   * @param offset offset of the posting list
+   * @param size number of entries
+   * @param lock object to synchronize disk access
+   */
+  FTPostings(final DataAccess da, final long offset, final int size, final Object lock) {
+    this.da = da;
+    this.lock = lock;
+    this.size = size;
+    blocks = size / BLOCK;
+    lasts = new int[blocks];
+    offsets = new long[blocks + 1];
+    maxes = new float[blocks];
+    synchronized(lock) {
+      da.cursor(offset);
+      final int[] sizes = new int[blocks];
+      int last = 0;
+      for(int b = 0; b < blocks; b++) {
+        last += da.readNum();
+        lasts[b] = last;
+        sizes[b] = da.readNum();
+        maxes[b] = Float.intBitsToFloat(da.read4());
+      }
+      long off = da.cursor();
+      for(int b = 0; b < blocks; b++) {
+        offsets[b] = off;
+        off += sizes[b];
+      }
+      offsets[blocks] = off;
+    }
+  }
+
+  /**
+   * Moves the cursor to the next entry.
+   * @return {@code true} if another entry exists
+   */
+  boolean next() {
+    return ++index < count || load(block + 1);
+  }
+
+  /**
+   * Moves the cursor to the next entry with an ID that is equal to or greater than the specified
+   * ID. Blocks with smaller IDs are skipped without being decoded.
+   * @param id minimum ID
+   * @return {@code true} if such an entry exists
+   */
+  boolean next(final int id) {
+    if(block == -1 || index + 1 >= count || ids[count - 1] < id) {
+      // binary search: find first block that may contain the ID
+      int l = block + 1, h = blocks;
+      while(l < h) {
+        final int m = l + h >>> 1;
+        if(lasts[m] < id) l = m + 1;
+        else h = m;
+      }
+      if(!load(l)) return false;
+    } else {
+      index++;
+    }
+    while(ids[index] < id) {
+      if(!next()) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Skips blocks whose maximum scores are not greater than the specified score.
+   * Must only be called if the cursor points to the first entry of a text.
+   * @param min minimum score
+   * @return {@code true} if entries are left
+   */
+  boolean skip(final double min) {
+    if(block >= blocks || maxes[block] > min) return true;
+
+    int b = block + 1;
+    while(b < blocks && maxes[b] <= min) b++;
+    // skip remaining entries of the last text of the skipped blocks
+    final int skipped = lasts[b - 1];
+    if(!load(b)) return false;
+    while(ids[index] == skipped) {
+      if(!next()) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the ID of the current entry.
+   * @return ID
+   */
+  int id() {
+    return ids[index];
+  }
+
+  /**
+   * Returns the position of the current entry.
+   * @return position
+   */
+  int pos() {
+    return pos[index];
+  }
+
+  /**
+   * Loads the specified block and moves the cursor to its first entry.
+   * @param b block
+   * @return {@code true} if the block contains entries
+   */
+  private boolean load(final int b) {
+    block = b;
+    index = 0;
+    count = 0;
+    if(b > blocks) return false;
+
+    int id = b == 0 ? 0 : lasts[b - 1];
+    if(b < blocks) {
+      final byte[] bytes;
+      synchronized(lock) {
+        bytes = da.readBytes(offsets[b], (int) (offsets[b + 1] - offsets[b]));
+      }
+      unpack(bytes, unpack(bytes, 2, bytes[0], ids), bytes[1], pos);
+      count = BLOCK;
+      for(int i = 0; i < BLOCK; i++) {
+        id += ids[i];
+        ids[i] = id;
+      }
+    } else {
+      count = size - blocks * BLOCK;
+      synchronized(lock) {
+        da.cursor(offsets[b]);
+        for(int i = 0; i < count; i++) {
+          id += da.readNum();
+          ids[i] = id;
+          pos[i] = da.readNum();
+        }
+      }
+    }
+    return count > 0;
+  }
+
+  /**
+   * Reads all entries of a posting list.
+   * @param da index entries
+   * @param offset offset of the posting list
+   * @param size number of entries
+   * @param lock object to synchronize disk access
+   * @param ids IDs
+   * @param pos positions
+   */
+  static void read(final DataAccess da, final long offset, final int size, final Object lock,
+      final IntList ids, final IntList pos) {
+    final FTPostings postings = new FTPostings(da, offset, size, lock);
+    while(postings.next()) {
+      ids.add(postings.id());
+      pos.add(postings.pos());
+    }
+  }
+
+  /**
+   * Writes a posting list.
+   * @param out output
+   * @param ids IDs
+   * @param pos positions
+   * @param data data reference for computing maximum scores ({@code null} if IDs are stored)
+   * @param length token length
+   * @throws IOException I/O exception
+   */
+  static void write(final DataOutput out, final IntList ids, final IntList pos, final Data data,
+      final int length) throws IOException {
+
+    // sort entries if required (IDs of updatable indexes may be unordered)
+    final int size = ids.size();
+    int[] is = ids.toArray(), ps = pos.toArray();
+    for(int s = 1; s < size; s++) {
+      if(is[s - 1] > is[s] || is[s - 1] == is[s] && ps[s - 1] > ps[s]) {
+        final long[] values = new long[size];
+        for(int v = 0; v < size; v++) values[v] = (long) is[v] << 32 | ps[v];
+        final int[] order = Array.createOrder(values, true);
+        final int[] sis = new int[size], sps = new int[size];
+        for(int o = 0; o < size; o++) {
+          sis[o] = is[order[o]];
+          sps[o] = ps[order[o]];
+        }
+        is = sis;
+        ps = sps;
+        break;
+      }
+    }
+
+    // compute maximum scores of the blocks
+    final int blocks = size / BLOCK;
+    final float[] maxes = new float[blocks];
+    if(data == null) {
+      Arrays.fill(maxes, Float.POSITIVE_INFINITY);
+    } else {
+      for(int s = 0, e = 0; s < blocks * BLOCK; s = e) {
+        while(++e < size && is[e] == is[s]);
+        final double score = Scoring.textNode(e - s, size, length, data.textLen(is[s], true));
+        float max = (float) score;
+        if(max < score) max = Math.nextUp(max);
+        for(int b = s / BLOCK, l = Math.min(blocks - 1, (e - 1) / BLOCK); b <= l; b++) {
+          maxes[b] = Math.max(maxes[b], max);
+        }
+      }
+    }
+
+    // pack complete blocks, write skip table
+    final ByteList packed = new ByteList();
+    final int[] deltas = new int[BLOCK], positions = new int[BLOCK];
+    int last = 0;
+    for(int b = 0; b < blocks; b++) {
+      final int start = packed.size();
+      int id = last, maxDelta = 0, maxPos = 0;
+      for(int i = 0, e = b * BLOCK; i < BLOCK; i++, e++) {
+        deltas[i] = is[e] - id;
+        positions[i] = ps[e];
+        id = is[e];
+        maxDelta |= deltas[i];
+        maxPos |= positions[i];
+      }
+      final int db = 32 - Integer.numberOfLeadingZeros(maxDelta);
+      final int pb = 32 - Integer.numberOfLeadingZeros(maxPos);
+      packed.add(db).add(pb);
+      pack(deltas, db, packed);
+      pack(positions, pb, packed);
+      out.writeNum(id - last);
+      out.writeNum(packed.size() - start);
+      out.write4(Float.floatToIntBits(maxes[b]));
+      last = id;
+    }
+    out.writeBytes(packed.finish());
+
+    // write remaining entries
+    for(int e = blocks * BLOCK; e < size; e++) {
+      out.writeNum(is[e] - last);
+      out.writeNum(ps[e]);
+      last = is[e];
+    }
+  }
+
+  /**
+   * Packs the values of a block.
+   * @param values values
+   * @param bits number of bits per value
+   * @param bl byte list
+   */
+  private static void pack(final int[] values, final int bits, final ByteList bl) {
+    long buffer = 0;
+    int b = 0;
+    for(final int value : values) {
+      buffer |= (value & 0xFFFFFFFFL) << b;
+      for(b += bits; b >= 8; b -= 8) {
+        bl.add((int) buffer);
+        buffer >>>= 8;
+      }
+    }
+  }
+
+  /**
+   * Unpacks the values of a block.
+   * @param bytes bytes
+   * @param offset offset
+   * @param bits number of bits per value
+   * @param values values
+   * @return offset after the unpacked values
+   */
+  private static int unpack(final byte[] bytes, final int offset, final int bits,
+      final int[] values) {
+    final long mask = (1L << bits) - 1;
+    long buffer = 0;
+    int o = offset, b = 0;
+    for(int v = 0; v < BLOCK; v++) {
+      for(; b < bits; b += 8) buffer |= (bytes[o++] & 0xFFL) << b;
+      values[v] = (int) (buffer & mask);
+      buffer >>>= bits;
+      b -= bits;
+    }
+    return o;
+  }
+}
@@ -0,0 +1,194 @@
+package org.basex.index.name;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.in.DataInput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Read-only representation of the names of a database. All names are stored in a single byte
+ * array, and a minimal perfect hash function maps each name to its index. Compared to
+ * {@link org.basex.util.hash.TokenSet}, no objects are created per name, which reduces memory
+ * consumption and speeds up the opening of databases with large vocabularies.
+ *
+ * The hash function uses the hash-and-displace scheme: names are distributed to buckets,
+ * and a seed is assigned to each bucket that maps all of its names to unused slots.
+ * Names of single-entry buckets are directly assigned to the remaining slots.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class CompactNames {
+  /** Average number of names per bucket. */
+  private static final int LOAD = 4;
+  /** Maximum number of seeds tried per bucket. */
+  private static final int SEEDS = 1 << 16;
+
+  /** Bytes of all names. */
+  private final byte[] bytes;
+  /** Offsets of the names (index 0 is unused). */
+  private final int[] offsets;
+  /** Number of names. */
+  private final int size;
+  /** Seeds of the buckets ({@code 0}: empty bucket, negative: slot of a single name). */
+  private int[] seeds;
+  /** Indexes of the names stored in the slots. */
+  private int[] indexes;
+
+  /**
+   * Constructor, reading names that have been serialized by
+   * {@link org.basex.util.hash.TokenSet#write}.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  CompactNames(final DataInput in) throws IOException {
+    // keys (names, followed by empty placeholders)
+    final int kl = in.readNum();
+    final ByteList bl = new ByteList();
+    final int[] offs = new int[kl + 1];
+    for(int k = 0; k < kl; k++) {
+      for(int l = in.readNum(); l > 0; l--) bl.add(in.read());
+      offs[k + 1] = bl.size();
+    }
+    // skip hash structures
+    for(int i = 0; i < 2; i++) {
+      for(int n = in.readNum(); n > 0; n--) in.readNum();
+    }
+    size = in.readNum() - 1;
+    bytes = bl.finish();
+    offsets = Arrays.copyOf(offs, size + 2);
+  }
+
+  /**
+   * Creates the minimal perfect hash function.
+   * @return success flag (no function is found if too many names have the same hash values)
+   */
+  boolean hash() {
+    final int bs = Math.max(1, size / LOAD);
+    final int[] sds = new int[bs], ids = new int[size];
+
+    // assign names to buckets, process largest buckets first
+    final IntList[] buckets = new IntList[bs];
+    for(int i = 1; i <= size; i++) {
+      final int b = slot(hash(bytes, offsets[i], offsets[i + 1], 0), bs);
+      if(buckets[b] == null) buckets[b] = new IntList(LOAD);
+      buckets[b].add(i);
+    }
+    final Integer[] order = new Integer[bs];
+    for(int b = 0; b < bs; b++) order[b] = b;
+    Arrays.sort(order, (b1, b2) -> Integer.compare(length(buckets[b2]), length(buckets[b1])));
+
+    final BitSet used = new BitSet(size);
+    final int[] slots = new int[LOAD << 4];
+    int free = 0;
+    for(final int b : order) {
+      final IntList bucket = buckets[b];
+      final int count = length(bucket);
+      if(count == 0) break;
+      if(count == 1) {
+        // single name: assign next unused slot
+        free = used.nextClearBit(free);
+        used.set(free);
+        ids[free] = bucket.get(0);
+        sds[b] = -free - 1;
+        continue;
+      }
+      if(count > slots.length) return false;
+
+      // find seed that maps all names to distinct unused slots
+      int seed = 1;
+      for(; seed <= SEEDS; seed++) {
+        int n = 0;
+        for(; n < count; n++) {
+          final int i = bucket.get(n);
+          final int s = slot(hash(bytes, offsets[i], offsets[i + 1], seed), size);
+          if(used.get(s)) break;
+          used.set(s);
+          slots[n] = s;
+        }
+        if(n == count) break;
+        while(--n >= 0) used.clear(slots[n]);
+      }
+      if(seed > SEEDS) return false;
+      for(int n = 0; n < count; n++) ids[slots[n]] = bucket.get(n);
+      sds[b] = seed;
+    }
+    seeds = sds;
+    indexes = ids;
+    return true;
+  }
+
+  /**
+   * Returns the index of the specified name.
+   * @param name name
+   * @return index, or {@code 0} if the name does not exist
+   */
+  int index(final byte[] name) {
+    if(size == 0) return 0;
+    final int nl = name.length, seed = seeds[slot(hash(name, 0, nl, 0), seeds.length)];
+    if(seed == 0) return 0;
+    final int index = indexes[seed < 0 ? -seed - 1 : slot(hash(name, 0, nl, seed), size)];
+    final int start = offsets[index];
+    return offsets[index + 1] - start == nl &&
+        Arrays.equals(bytes, start, start + nl, name, 0, nl) ? index : 0;
+  }
+
+  /**
+   * Returns the name with the specified index.
+   * @param index index (starting with {@code 1})
+   * @return name
+   */
+  byte[] key(final int index) {
+    return Arrays.copyOfRange(bytes, offsets[index], offsets[index + 1]);
+  }
+
+  /**
+   * Returns the number of names.
+   * @return number of names
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of entries in a bucket.
+   * @param bucket bucket (can be {@code null})
+   * @return number of entries
+   */
+  private static int length(final IntList bucket) {
+    return bucket == null ? 0 : bucket.size();
+  }
+
+  /**
+   * Maps a hash value to a slot.
+   * @param hash hash value
+   * @param slots number of slots
+   * @return slot
+   */
+  private static int slot(final int hash, final int slots) {
+    return (int) ((hash & 0xFFFFFFFFL) * slots >>> 32);
+  }
+
+  /**
+   * Computes a seeded hash value for the specified bytes.
+   * @param bytes bytes
+   * @param start start offset
+   * @param end end offset
+   * @param seed seed
+   * @return hash value
+   */
+  private static int hash(final byte[] bytes, final int start, final int end, final int seed) {
+    int h = 0x811C9DC5 ^ seed * 0x9E3779B9;
+    for(int b = start; b < end; b++) h = (h ^ bytes[b]) * 0x01000193;
+    h = (h ^ h >>> 16) * 0x85EBCA6B;
+    h = (h ^ h >>> 13) * 0xC2B2AE35;
+    return h ^ h >>> 16;
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + '[' + size + ']';
+  }
+}
@@ -14,16 +14,22 @@ import org.basex.util.hash.*;
 
 /**
  * This class indexes and organizes the element or attribute names used in an XML document.
+ * Names of opened databases are kept in a compact read-only representation, which is replaced
+ * by a hash set as soon as new names are added.
  *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  * @author Lukas Kircher
  */
-public final class Names extends TokenSet implements Index {
+public final class Names implements Index {
   /** Statistical information. */
   private Stats[] stats;
   /** Meta data. */
   private final MetaData meta;
+  /** Names ({@code null} if the compact representation is used). */
+  private TokenSet names;
+  /** Compact representation of the names ({@code null} if names have been added). */
+  private CompactNames compact;
 
   /**
    * Default constructor.
@@ -31,6 +37,7 @@ public final class Names extends TokenSet implements Index {
    */
   public Names(final MetaData meta) {
     this.meta = meta;
+    names = new TokenSet();
     stats = new Stats[Array.INITIAL_CAPACITY];
   }
 
@@ -41,17 +48,94 @@ public final class Names extends TokenSet implements Index {
    * @throws IOException I/O exception
    */
   public Names(final DataInput in, final MetaData meta) throws IOException {
-    super(in);
     this.meta = meta;
-    stats = new Stats[keys.length];
+    compact = new CompactNames(in);
+    final int size = compact.size() + 1;
+    stats = new Stats[size];
     for(int i = 1; i < size; i++) stats[i] = new Stats(in);
+    if(!compact.hash()) names();
   }
 
   /**
    * Initializes the index.
    */
   public void init() {
-    for(int i = 1; i < size; i++) stats[i] = new Stats();
+    for(int i = 1, size = size(); i <= size; i++) stats[i] = new Stats();
+  }
+
+  /**
+   * Stores a name and returns its index.
+   * @param name name to be added
+   * @return index (larger than {@code 0})
+   */
+  public int put(final byte[] name) {
+    final int i = index(name);
+    if(i != 0) return i;
+    final int index = names().put(name);
+    if(index >= stats.length) stats = Array.copy(stats, new Stats[Array.newCapacity(index)]);
+    return index;
+  }
+
+  /**
+   * Returns the index of the specified name.
+   * @param name name to be looked up
+   * @return index, or {@code 0} if the name does not exist
+   */
+  public int index(final byte[] name) {
+    final CompactNames cn = compact;
+    return cn != null ? cn.index(name) : names.index(name);
+  }
+
+  /**
+   * Checks if the specified name exists.
+   * @param name name to be looked up
+   * @return result of check
+   */
+  public boolean contains(final byte[] name) {
+    return index(name) != 0;
+  }
+
+  /**
+   * Returns the name with the specified index.
+   * @param index index of the name (starts with {@code 1})
+   * @return name
+   */
+  public byte[] key(final int index) {
+    final CompactNames cn = compact;
+    return cn != null ? cn.key(index) : names.key(index);
+  }
+
+  /**
+   * Returns the number of names.
+   * @return number of names
+   */
+  public int size() {
+    final CompactNames cn = compact;
+    return cn != null ? cn.size() : names.size();
+  }
+
+  /**
+   * Checks if no names exist.
+   * @return result of check
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Returns the hash set with the names. The compact representation is discarded.
+   * @return names
+   */
+  private TokenSet names() {
+    final CompactNames cn = compact;
+    if(cn != null) {
+      final int size = cn.size();
+      final TokenSet set = new TokenSet(size);
+      for(int i = 1; i <= size; i++) set.add(cn.key(i));
+      names = set;
+      compact = null;
+    }
+    return names;
   }
 
   /**
@@ -81,9 +165,22 @@ public final class Names extends TokenSet implements Index {
     return i;
   }
 
-  @Override
+  /**
+   * Writes the names and statistics to the specified output.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
   public void write(final DataOutput out) throws IOException {
-    super.write(out);
+    final CompactNames cn = compact;
+    final int size = size() + 1;
+    if(cn != null) {
+      // serialize names in the format of the hash set
+      final TokenSet set = new TokenSet(size - 1);
+      for(int i = 1; i < size; i++) set.add(cn.key(i));
+      set.write(out);
+    } else {
+      names.write(out);
+    }
     for(int i = 1; i < size; i++) {
       Stats s = stats[i];
       if(s == null) {
@@ -105,11 +202,12 @@ public final class Names extends TokenSet implements Index {
 
   @Override
   public byte[] info(final MainOptions options) {
+    final int size = size() + 1;
     final int[] tl = new int[size];
     tl[0] = 0;
     int len = 0;
     for(int i = 1; i < size; i++) {
-      if(len < keys[i].length) len = keys[i].length;
+      if(len < key(i).length) len = key(i).length;
       if(stats[i] == null) continue;
       tl[i] = stats[i].count;
     }
@@ -124,7 +222,7 @@ public final class Names extends TokenSet implements Index {
     for(int i = 0; i < size - 1; i++) {
       final int o = ordered[i];
       if(stats[o] == null) continue;
-      final byte[] key = keys[o];
+      final byte[] key = key(o);
       tb.add("  ").add(key);
       final int kl = len - key.length;
       for(int k = 0; k < kl; ++k) tb.add(' ');
@@ -148,7 +246,7 @@ public final class Names extends TokenSet implements Index {
       @Override
       public byte[] get(final int i) {
         c = i + 1;
-        return keys[c];
+        return key(c);
       }
 
       @Override
@@ -164,13 +262,12 @@ public final class Names extends TokenSet implements Index {
   }
 
   @Override
-  protected void rehash(final int newSize) {
-    super.rehash(newSize);
-    stats = Array.copy(stats, new Stats[newSize]);
-  }
+  public void close() { }
 
   @Override
-  public void close() { }
+  public String toString() {
+    return Util.className(this) + '[' + size() + ']';
+  }
 
   // Unsupported methods ==========================================================================
 
@@ -10,7 +10,9 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 import org.basex.util.list.*;
@@ -19,6 +21,9 @@ import org.basex.util.list.*;
  * This class stores the path summary of a database.
  * It contains all unique location paths.
  *
+ * The serialized summary of an opened database is only parsed when it is accessed
+ * for the first time.
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
@@ -27,8 +32,10 @@ public final class PathIndex implements Index {
   private final ArrayList<PathNode> stack = new ArrayList<>();
   /** Data reference. */
   private Data data;
-  /** Root node. */
-  private PathNode root;
+  /** Root node ({@code null} if the summary has not been parsed yet). */
+  private volatile PathNode root;
+  /** Serialized summary ({@code null} if the summary has been parsed). */
+  private volatile byte[] bytes;
 
   /**
    * Constructor.
@@ -54,7 +61,10 @@ public final class PathIndex implements Index {
    * @throws IOException I/O exception
    */
   public PathIndex(final Data data, final DataInput in) throws IOException {
-    root = in.readBool() ? new PathNode(in, null) : new PathNode();
+    // 0: empty summary, 1: summary (legacy), 2: serialized summary, preceded by its length
+    final int type = in.read();
+    if(type == 2) bytes = in.readToken();
+    else root = type == 1 ? new PathNode(in, null) : new PathNode();
     this.data = data;
   }
 
@@ -64,8 +74,42 @@ public final class PathIndex implements Index {
    * @throws IOException I/O exception
    */
   public void write(final DataOutput out) throws IOException {
-    out.writeBool(root != null);
-    if(root != null) root.write(out, data.meta);
+    byte[] serialized = bytes;
+    if(serialized == null) {
+      final ArrayOutput ao = new ArrayOutput();
+      try(DataOutput dout = new DataOutput(ao)) {
+        root.write(dout, data.meta);
+      }
+      serialized = ao.finish();
+    }
+    out.write(2);
+    out.writeToken(serialized);
+  }
+
+  /**
+   * Returns the root node. The serialized summary is parsed if necessary.
+   * @return root node
+   */
+  private PathNode node() {
+    return root != null ? root : parse();
+  }
+
+  /**
+   * Parses the serialized summary.
+   * @return root node
+   */
+  private synchronized PathNode parse() {
+    if(root == null) {
+      final long start = System.nanoTime();
+      try(DataInput in = new DataInput(new IOContent(bytes))) {
+        root = new PathNode(in, null);
+      } catch(final IOException ex) {
+        throw Util.notExpected(ex);
+      }
+      bytes = null;
+      data.loaded(DataText.DBPATH, start);
+    }
+    return root;
   }
 
   /**
@@ -81,6 +125,7 @@ public final class PathIndex implements Index {
    */
   public void init() {
     root = new PathNode();
+    bytes = null;
     stack.clear();
     stack.add(root);
   }
@@ -112,7 +157,7 @@ public final class PathIndex implements Index {
       final MetaData meta) {
 
     if(level == 0) {
-      final Stats stats = root.stats;
+      final Stats stats = node().stats;
       if(value != null) stats.add(value, meta);
       stats.count++;
     } else {
@@ -129,7 +174,7 @@ public final class PathIndex implements Index {
    */
   public ArrayList<PathNode> root() {
     final ArrayList<PathNode> out = new ArrayList<>();
-    out.add(root);
+    out.add(node());
     return out;
   }
 
@@ -174,7 +219,7 @@ public final class PathIndex implements Index {
   public ArrayList<PathNode> desc(final byte[] name) {
     final int id = data.elemNames.index(name);
     final ArrayList<PathNode> list = new ArrayList<>();
-    for(final PathNode child : root.children) child.addDesc(list, id);
+    for(final PathNode child : node().children) child.addDesc(list, id);
     return list;
   }
 
@@ -241,7 +286,7 @@ public final class PathIndex implements Index {
 
   @Override
   public byte[] info(final MainOptions options) {
-    return root != null ? chop(root.info(data, 0), 1 << 20) : EMPTY;
+    return chop(node().info(data, 0), 1 << 20);
   }
 
   // Unsupported methods ==========================================================================
@@ -30,6 +30,19 @@ public abstract class FTIndexIterator implements IndexIterator {
    */
   public abstract FTMatches matches();
 
+  /**
+   * Moves to the next entry with a PRE value that is equal to or greater than the specified
+   * value. Can be overwritten by iterators that can skip entries more efficiently.
+   * @param pre minimum PRE value
+   * @return result of check
+   */
+  public boolean more(final int pre) {
+    while(more()) {
+      if(pre() >= pre) return true;
+    }
+    return false;
+  }
+
   /**
    * Sets the position of the token in the query.
    * @param p query position
@@ -137,8 +150,9 @@ public abstract class FTIndexIterator implements IndexIterator {
       public boolean more() {
         int d = 0;
         while(true) {
-          if(d <= 0) iter1 = i1.more() ? i1 : null;
-          if(d >= 0) iter2 = i2.more() ? i2 : null;
+          // advance both iterators, or skip entries of the iterator with the smaller PRE value
+          if(d <= 0) iter1 = (d == 0 ? i1.more() : i1.more(iter2.pre())) ? i1 : null;
+          if(d >= 0) iter2 = (d == 0 ? i2.more() : i2.more(iter1.pre())) ? i2 : null;
           if(iter1 == null || iter2 == null) return false;
           d = iter1.pre() - iter2.pre();
           if(d != 0) continue;
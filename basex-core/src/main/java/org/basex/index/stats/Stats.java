@@ -4,14 +4,21 @@ import static org.basex.index.stats.StatsType.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.function.*;
 
 import org.basex.data.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
+import org.basex.util.*;
 import org.basex.util.hash.*;
 
 /**
- * This class provides statistical data for an indexed node.
+ * This class provides statistical data for an indexed node. Next to the data type, the value
+ * range and the distinct values of categories, the number of distinct values is estimated and an
+ * equi-depth histogram is created, which are used to estimate the selectivity of range queries.
+ * Both are computed from a sample of the added values and a sketch with their smallest hash
+ * values when the statistics are written for the first time.
  *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
@@ -28,8 +35,30 @@ public final class Stats {
   /** Data type. */
   public byte type;
 
+  /** Maximum number of sampled values. */
+  private static final int SAMPLE = 256;
+  /** Maximum number of histogram buckets. */
+  private static final int BUCKETS = 16;
+  /** Number of smallest hash values used for estimating the number of distinct values. */
+  private static final int HASHES = 64;
+
   /** Leaf node flag. Indicates if all nodes only have a text node as child. */
   private boolean leaf;
+  /** Number of added values ({@code -1}: unknown). */
+  private int size;
+  /** Estimated number of distinct values ({@code 0}: unknown). */
+  private int distinct;
+  /** Bucket boundaries of the histogram for numeric values (can be {@code null}). */
+  private double[] numbers;
+  /** Bucket boundaries of the histogram for strings (can be {@code null}). */
+  private byte[][] strings;
+
+  /** Sampled values ({@code null} if the statistics have been finalized). */
+  private byte[][] sample;
+  /** Sorted smallest hash values of the added values. */
+  private long[] hashes;
+  /** Number of hash values. */
+  private int hashed;
 
   /**
    * Default constructor.
@@ -40,6 +69,8 @@ public final class Stats {
     min = Double.MAX_VALUE;
     max = -Double.MAX_VALUE;
     leaf = true;
+    sample = new byte[SAMPLE][];
+    hashes = new long[HASHES];
   }
 
   /**
@@ -61,7 +92,22 @@ public final class Stats {
     }
     count = in.readNum();
     leaf = in.readBool();
-    in.readDouble();
+    // extended statistics (0: not available, written before version 13.0)
+    size = -1;
+    if(in.readDouble() != 0) {
+      size = in.readNum();
+      distinct = in.readNum();
+      final int bl = in.readNum();
+      if(bl > 0) {
+        if(isNumeric(t)) {
+          numbers = new double[bl];
+          for(int b = 0; b < bl; b++) numbers[b] = in.readDouble();
+        } else {
+          strings = new byte[bl][];
+          for(int b = 0; b < bl; b++) strings[b] = in.readToken();
+        }
+      }
+    }
   }
 
   /**
@@ -91,8 +137,64 @@ public final class Stats {
 
     out.writeNum(count);
     out.writeBool(leaf);
-    // legacy (required before version 7.1)
-    out.writeDouble(0);
+
+    // flag for extended statistics (slot was required before version 7.1)
+    finish();
+    out.writeDouble(size == -1 ? 0 : 1);
+    if(size != -1) {
+      out.writeNum(size);
+      out.writeNum(distinct);
+      if(numbers != null) {
+        out.writeNum(numbers.length);
+        for(final double number : numbers) out.writeDouble(number);
+      } else if(strings != null) {
+        out.writeNum(strings.length);
+        for(final byte[] string : strings) out.writeToken(string);
+      } else {
+        out.writeNum(0);
+      }
+    }
+  }
+
+  /**
+   * Estimates the number of distinct values and creates the histogram from the sampled values.
+   */
+  private void finish() {
+    if(sample == null) return;
+
+    final int sl = Math.min(size, SAMPLE);
+    if(values != null) {
+      distinct = values.size();
+    } else if(hashed < HASHES) {
+      distinct = hashed;
+    } else {
+      // k-minimum values: the k-th smallest of n uniformly distributed hash values is k / n
+      final double n = (HASHES - 1) * 0x1p63 / hashes[HASHES - 1];
+      distinct = (int) Math.max(hashed, Math.min(size, n));
+    }
+
+    if(sl > 0 && isNumeric(type)) {
+      final double[] sorted = new double[sl];
+      int n = 0;
+      for(int s = 0; s < sl; s++) {
+        final double d = toDouble(sample[s]);
+        if(!Double.isNaN(d)) sorted[n++] = d;
+      }
+      if(n > 0) {
+        Arrays.sort(sorted, 0, n);
+        final int bl = Math.max(1, Math.min(BUCKETS, n - 1));
+        numbers = new double[bl + 1];
+        for(int b = 0; b <= bl; b++) numbers[b] = sorted[(int) ((long) b * (n - 1) / bl)];
+      }
+    } else if(sl > 0 && isString(type)) {
+      final byte[][] sorted = Arrays.copyOf(sample, sl);
+      Arrays.sort(sorted, Token::compare);
+      final int bl = Math.max(1, Math.min(BUCKETS, sl - 1));
+      strings = new byte[bl + 1][];
+      for(int b = 0; b <= bl; b++) strings[b] = sorted[(int) ((long) b * (sl - 1) / bl)];
+    }
+    sample = null;
+    hashes = null;
   }
 
   /**
@@ -148,6 +250,130 @@ public final class Stats {
         if(values.size() > meta.maxcats) values = null;
       }
     }
+
+    // sample values (reservoir sampling), remember smallest hash values
+    if(sample != null) {
+      final int s = size < SAMPLE ? size : (int) Long.remainderUnsigned(mix(size), size + 1);
+      if(s < SAMPLE) sample[s] = Arrays.copyOf(value, Math.min(vl, meta.maxlen));
+      hash(mix(Token.hashCode(value) ^ (long) vl << 32) >>> 1);
+    }
+    if(size != -1) size++;
+  }
+
+  /**
+   * Adds a hash value to the smallest hash values.
+   * @param hash hash value (positive)
+   */
+  private void hash(final long hash) {
+    if(hashed == HASHES && hash >= hashes[HASHES - 1]) return;
+    int h = Arrays.binarySearch(hashes, 0, hashed, hash);
+    if(h >= 0) return;
+    h = -h - 1;
+    if(hashed < HASHES) hashed++;
+    System.arraycopy(hashes, h, hashes, h + 1, hashed - h - 1);
+    hashes[h] = hash;
+  }
+
+  /**
+   * Scrambles the bits of the specified value.
+   * @param value value
+   * @return scrambled value
+   */
+  private static long mix(final long value) {
+    long v = (value ^ value >>> 33) * 0xFF51AFD7ED558CCDL;
+    v = (v ^ v >>> 33) * 0xC4CEB9FE1A85EC53L;
+    return v ^ v >>> 33;
+  }
+
+  /**
+   * Returns the number of added values.
+   * @return number of values ({@code -1} if unknown)
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the estimated number of distinct values.
+   * @return number of distinct values ({@code 0} if unknown)
+   */
+  public int distinct() {
+    return values != null ? values.size() : distinct;
+  }
+
+  /**
+   * Estimates the fraction of values within the specified numeric range.
+   * @param mn minimum value (inclusive)
+   * @param mx maximum value (inclusive)
+   * @return fraction between {@code 0} and {@code 1}, or {@code NaN} if it is unknown
+   */
+  public double selectivity(final double mn, final double mx) {
+    if(values != null && isNumeric(type)) {
+      return fraction(value -> {
+        final double d = toDouble(value);
+        return d >= mn && d <= mx;
+      });
+    }
+    if(!isNumeric(type)) return Double.NaN;
+    if(mn > mx || mx < min || mn > max) return 0;
+    // no histogram: assume uniform distribution
+    if(numbers == null) {
+      return max == min ? 1 : (Math.min(mx, max) - Math.max(mn, min)) / (max - min);
+    }
+
+    final int bl = numbers.length - 1;
+    double fraction = 0;
+    for(int b = 0; b < bl; b++) {
+      final double lo = numbers[b], hi = numbers[b + 1];
+      if(hi < mn || lo > mx) continue;
+      fraction += lo == hi ? 1 : (Math.min(mx, hi) - Math.max(mn, lo)) / (hi - lo);
+    }
+    return Math.min(1, fraction / bl);
+  }
+
+  /**
+   * Estimates the fraction of values within the specified string range.
+   * @param mn minimum value
+   * @param mni include minimum value
+   * @param mx maximum value
+   * @param mxi include maximum value
+   * @return fraction between {@code 0} and {@code 1}, or {@code NaN} if it is unknown
+   */
+  public double selectivity(final byte[] mn, final boolean mni, final byte[] mx,
+      final boolean mxi) {
+    if(values != null) {
+      return fraction(value -> {
+        final int l = compare(value, mn), h = compare(value, mx);
+        return (mni ? l >= 0 : l > 0) && (mxi ? h <= 0 : h < 0);
+      });
+    }
+    if(strings == null) return Double.NaN;
+
+    // partially covered buckets are counted half
+    final int bl = strings.length - 1;
+    double fraction = 0;
+    for(int b = 0; b < bl; b++) {
+      final byte[] lo = strings[b], hi = strings[b + 1];
+      if(compare(hi, mn) < 0 || compare(lo, mx) > 0) continue;
+      fraction += compare(lo, mn) >= 0 && compare(hi, mx) <= 0 ? 1 : 0.5;
+    }
+    return Math.min(1, fraction / bl);
+  }
+
+  /**
+   * Computes the fraction of category values that match the specified predicate.
+   * @param predicate predicate
+   * @return fraction
+   */
+  private double fraction(final Predicate<byte[]> predicate) {
+    long all = 0, found = 0;
+    final int vs = values.size();
+    for(int v = 1; v <= vs; v++) {
+      final int c = values.value(v);
+      all += c;
+      if(predicate.test(values.key(v))) found += c;
+    }
+    return all == 0 ? 0 : (double) found / all;
   }
 
   /**
@@ -12,6 +12,7 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -29,6 +30,8 @@ public class DiskValues extends ValueIndex {
   final DataAccess idxr;
   /** ID lists. */
   final DataAccess idxl;
+  /** Numeric keys, sorted by their values ({@code null} if not available). */
+  final DataAccess idxn;
   /** Cached index entries: mapping between keys and index entries. */
   final IndexCache cache = new IndexCache();
   /** Cached texts: mapping between key positions in the reference file, and the indexed texts. */
@@ -60,6 +63,8 @@ public class DiskValues extends ValueIndex {
     super(data, type);
     idxl = new DataAccess(data.meta.dbFile(prefix + 'l'));
     idxr = new DataAccess(data.meta.dbFile(prefix + 'r'));
+    final IOFile numbers = data.meta.dbFile(prefix + 'n');
+    idxn = numbers.exists() ? new DataAccess(numbers) : null;
     size.set(idxl.read4());
   }
 
@@ -92,8 +97,9 @@ public class DiskValues extends ValueIndex {
   @Override
   public final IndexCosts costs(final IndexSearch search) {
     return IndexCosts.get(
-      search instanceof StringRange ? Math.max(1, data.meta.size / 10) :
-      search instanceof NumericRange ? Math.max(1, data.meta.size / 3) :
+      search instanceof StringRange ? estimate(search, 10) :
+      search instanceof final NumericRange range ? idxn != null ? count(range) :
+        estimate(search, 3) :
       entry(search.token()).size);
   }
 
@@ -105,8 +111,14 @@ public class DiskValues extends ValueIndex {
     } else if(search instanceof final NumericRange range) {
       pres = idRange(range);
     } else {
-      final IndexEntry ie = entry(search.token());
-      pres = pres(ie.size, ie.offset);
+      final byte[] token = search.token();
+      int[] ids = cache.ids(token);
+      if(ids == null) {
+        final IndexEntry ie = entry(token);
+        ids = ids(ie.size, ie.offset);
+        cache.ids(token, ids);
+      }
+      pres = pres(ids);
     }
 
     return new IndexIterator() {
@@ -130,6 +142,11 @@ public class DiskValues extends ValueIndex {
     };
   }
 
+  @Override
+  public final boolean numeric() {
+    return idxn != null;
+  }
+
   @Override
   public final boolean drop() {
     return data.meta.drop(fileSuffix(type) + '.');
@@ -140,6 +157,7 @@ public class DiskValues extends ValueIndex {
     synchronized(monitor) {
       idxl.close();
       idxr.close();
+      if(idxn != null) idxn.close();
     }
   }
 
@@ -333,24 +351,33 @@ public class DiskValues extends ValueIndex {
   }
 
   /**
-   * Iterator method.
+   * Returns the decoded IDs of an index entry.
    * <p><em>Important:</em> This method is thread-safe.</p>
    * @param sz number of values
    * @param offset offset
-   * @return sorted PRE values
+   * @return sorted ID values
    */
-  protected IntList pres(final int sz, final long offset) {
-    final IntList pres = new IntList(sz);
+  private int[] ids(final int sz, final long offset) {
+    final int[] ids = new int[sz];
     synchronized(monitor) {
       idxl.cursor(offset);
       for(int i = 0, id = 0; i < sz; i++) {
         id += idxl.readNum();
         // token index: skip position
         if(type == IndexType.TOKEN) idxl.readNum();
-        pres.add(pre(id));
+        ids[i] = id;
       }
     }
-    return pres;
+    return ids;
+  }
+
+  /**
+   * Returns the PRE values for the specified IDs.
+   * @param ids sorted ID values (must not be modified)
+   * @return sorted PRE values
+   */
+  protected IntList pres(final int[] ids) {
+    return new IntList(ids);
   }
 
   /**
@@ -382,12 +409,95 @@ public class DiskValues extends ValueIndex {
   }
 
   /**
-   * Performs a range query. All index values must be numeric.
+   * Performs a numeric range query.
    * <p><em>Important:</em> This method is thread-safe.</p>
    * @param tok index term
    * @return results
    */
   private IntList idRange(final NumericRange tok) {
+    if(idxn == null) return scan(tok);
+
+    // seek to the first numeric key in the range, add the IDs of all keys in the range
+    final IntList pres = new IntList();
+    synchronized(monitor) {
+      final double max = tok.max();
+      final int numbers = idxn.read4(0);
+      for(int n = number(tok.min(), numbers); n < numbers && number(n) <= max; n++) {
+        final int index = idxn.read4(n * 16L + 12);
+        final int count = idxl.readNum(idxr.read5(index * 5L));
+        for(int c = 0, id = 0; c < count; c++) {
+          id += idxl.readNum();
+          pres.add(pre(id));
+        }
+      }
+    }
+    return pres.sort();
+  }
+
+  /**
+   * Returns the number of IDs of a numeric range query.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param tok index term
+   * @return number of results
+   */
+  private int count(final NumericRange tok) {
+    synchronized(monitor) {
+      final int numbers = idxn.read4(0);
+      final double max = tok.max();
+      final int first = number(tok.min(), numbers);
+      final int last = max == Double.POSITIVE_INFINITY ? numbers :
+        number(Math.nextUp(max), numbers);
+      return Math.max(0, ids(last, numbers) - ids(first, numbers));
+    }
+  }
+
+  /**
+   * Returns the number of IDs of all numeric keys that precede the specified key.
+   * <p><em>Important:</em> This method is NOT thread-safe.</p>
+   * @param n position of the key
+   * @param numbers number of numeric keys
+   * @return number of IDs
+   */
+  private int ids(final int n, final int numbers) {
+    return idxn.read4(n * 16L + (n < numbers ? 16 : 4));
+  }
+
+  /**
+   * Binary search for the first numeric key that is equal to or greater than the specified
+   * value.
+   * <p><em>Important:</em> This method is NOT thread-safe.</p>
+   * @param value value
+   * @param numbers number of numeric keys
+   * @return position of the key (or {@code numbers} if all keys are smaller)
+   */
+  private int number(final double value, final int numbers) {
+    int l = 0, h = numbers;
+    while(l < h) {
+      final int m = l + h >>> 1;
+      if(number(m) < value) l = m + 1;
+      else h = m;
+    }
+    return l;
+  }
+
+  /**
+   * Returns the value of a numeric key.
+   * <p><em>Important:</em> This method is NOT thread-safe.</p>
+   * @param n position of the key
+   * @return value
+   */
+  private double number(final int n) {
+    final long pos = n * 16L + 4;
+    return Double.longBitsToDouble((long) idxn.read4(pos) << 32 | idxn.read4() & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Performs a range query by scanning all index entries. All index values must be numeric.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param tok index term
+   * @return results
+   */
+  private IntList scan(final NumericRange tok) {
     // check if min and max are positive integers with the same number of digits
     final double min = tok.min(), max = tok.max();
     final int len = max > 0 && (long) max == max ? token(max).length : 0;
@@ -3,9 +3,13 @@ package org.basex.index.value;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.io.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
@@ -26,15 +30,41 @@ import org.basex.util.list.*;
  *   structure. Instead, they can be found by following the ID references to
  *   the main table.
  * </li>
+ * <li> {@code DATATXT/ATV + 'n'}: contains all numeric keys, sorted by their values, which
+ *   allows range queries to seek to the first and last matching key. The number of keys is
+ *   stored in the first 4 bytes of the file. Each key is represented by a 16-byte record:
+ *   [value (8 bytes), key index (4 bytes), number of IDs of all preceding keys (4 bytes)].
+ *   The total number of IDs is stored after the last record. The file is only created for
+ *   non-updatable text and attribute indexes.
+ * </li>
  * </ul>
  *
+ * <p>If more than one thread may be used ({@link #threads()}), the table is divided into
+ * partitions, which are indexed in parallel. The partial index structures of all threads are
+ * merged afterwards.</p>
+ *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
 public final class DiskValuesBuilder extends ValuesBuilder {
+  /** Number of entries of a partition that is indexed by a single thread. */
+  private static final int PARTITION = 1 << 16;
+
   /** Temporary value tree. */
   private IndexTree index;
 
+  /** Values of numeric keys ({@code null} if no numeric keys are collected). */
+  private final DoubleList numbers;
+  /** Key indexes and ID counts of numeric keys. */
+  private final IntList numIndexes = new IntList(), numCounts = new IntList();
+
+  /** Number of threads that are indexing partitions. */
+  private int workers;
+  /** Number of completed split rounds. */
+  private int rounds;
+  /** Number of threads that have not written their partial indexes in the current round yet. */
+  private int flushing;
+
   /**
    * Constructor.
    * @param data data reference
@@ -43,6 +73,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
   public DiskValuesBuilder(final Data data, final IndexType type) {
     super(data, type);
     index = new IndexTree(type);
+    numbers = tokenize || data.meta.updindex ? null : new DoubleList();
   }
 
   @Override
@@ -51,30 +82,26 @@ public final class DiskValuesBuilder extends ValuesBuilder {
 
     try {
       final boolean updindex = data.meta.updindex;
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(indexEntry()) {
-          final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
-            int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
-              index.add(token, id, pos++);
-              count++;
-            }
-          } else if(data.textLen(pre, text) <= data.meta.maxlen) {
-            index.add(data.text(pre, text), id, 0);
-            count++;
-          }
-        }
-      }
-
-      writeIndex(splits > 0);
-      if(splits > 1) {
+      final int threads = threads();
+      if(threads > 1 && size > PARTITION) {
         index = null;
+        parallel(threads, updindex);
         clean();
         merge();
+      } else {
+        for(pre = 0; pre < size; ++pre) {
+          if((pre & 0x0FFF) == 0) check();
+          count += add(index, pre, updindex);
+        }
+        writeIndex(index, splits > 0);
+        if(splits > 1) {
+          index = null;
+          clean();
+          merge();
+        }
       }
 
+      writeNumbers();
       finishIndex();
       return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
     } catch(final Throwable th) {
@@ -89,12 +116,131 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     super.check();
     // check if main memory is exhausted
     if(splitRequired()) {
-      writeIndex(true);
+      writeIndex(index, true);
       index = new IndexTree(type);
       clean();
     }
   }
 
+  /**
+   * Adds the index entries of the specified node to an index tree.
+   * @param tree index tree
+   * @param p pre value
+   * @param updindex updatable index flag
+   * @return number of added entries
+   */
+  private int add(final IndexTree tree, final int p, final boolean updindex) {
+    if(!indexEntry(p)) return 0;
+    final int id = updindex ? data.id(p) : p;
+    if(tokenize) {
+      int pos = 0;
+      for(final byte[] token : distinctTokens(data.text(p, text))) tree.add(token, id, pos++);
+      return pos;
+    }
+    if(data.textLen(p, text) > data.meta.maxlen) return 0;
+    tree.add(data.text(p, text), id, 0);
+    return 1;
+  }
+
+  /**
+   * Indexes all partitions of the table in parallel and writes the results to partial
+   * index structures.
+   * @param threads number of threads
+   * @param updindex updatable index flag
+   * @throws IOException I/O exception
+   */
+  private void parallel(final int threads, final boolean updindex) throws IOException {
+    final AtomicInteger next = new AtomicInteger();
+    final ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      workers = threads;
+      final ArrayList<Future<?>> futures = new ArrayList<>(threads);
+      for(int t = 0; t < threads; t++) {
+        futures.add(pool.submit(() -> {
+          try {
+            index(next, updindex);
+          } catch(final Throwable th) {
+            // skip remaining partitions
+            next.set(size / PARTITION + 1);
+            throw th;
+          }
+          return null;
+        }));
+      }
+      await(futures);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Indexes partitions until all partitions have been processed.
+   * @param next number of the next partition to be indexed
+   * @param updindex updatable index flag
+   * @throws IOException I/O exception
+   */
+  private void index(final AtomicInteger next, final boolean updindex) throws IOException {
+    IndexTree tree = new IndexTree(type);
+    int round = 0;
+    long ops = 0;
+    for(long p; (p = next.getAndIncrement() * (long) PARTITION) < size;) {
+      final int start = (int) p, end = (int) Math.min(size, p + PARTITION);
+      for(int pr = start; pr < end; ++pr) {
+        if((pr & 0x0FFF) == 0) {
+          checkStop();
+          // check if main memory is exhausted
+          final int r = split(round, ops);
+          ops = 0;
+          if(r != round) {
+            round = r;
+            writeIndex(tree, true);
+            tree = new IndexTree(type);
+            clean();
+          }
+        }
+        ops += add(tree, pr, updindex);
+      }
+      synchronized(this) {
+        pre += end - start;
+      }
+    }
+    finish(round, ops);
+    if(tree.size() > 0) writeIndex(tree, true);
+  }
+
+  /**
+   * Decides whether the temporary index structure of a thread must be written to disk.
+   * If a split is required, the structures of all threads will be written.
+   * @param round split round of the calling thread
+   * @param ops number of index operations since the last call
+   * @return current split round (new round if a split is required)
+   * @throws IOException I/O exception
+   */
+  private synchronized int split(final int round, final long ops) throws IOException {
+    count += ops;
+    if(round != rounds) {
+      --flushing;
+      return rounds;
+    }
+    // wait until all threads have written their structures of the last round
+    if(flushing == 0 && splitRequired()) {
+      flushing = workers - 1;
+      return ++rounds;
+    }
+    return round;
+  }
+
+  /**
+   * Unregisters a thread that has processed all partitions.
+   * @param round split round of the calling thread
+   * @param ops number of index operations since the last call
+   */
+  private synchronized void finish(final int round, final long ops) {
+    count += ops;
+    if(round != rounds) --flushing;
+    --workers;
+  }
+
   /**
    * Merges cached index files.
    * @throws IOException I/O exception
@@ -106,39 +252,29 @@ public final class DiskValuesBuilder extends ValuesBuilder {
         DataOutput outR = new DataOutput(data.meta.dbFile(f + 'r'))) {
       outL.write4(0);
 
-      // initialize cached index iterators
-      final IntList ml = new IntList();
+      // initialize cached index iterators, ordered by their current keys
       final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
-      final DiskValuesMerger[] vm = new DiskValuesMerger[splits];
-      for(int i = 0; i < splits; ++i) vm[i] = new DiskValuesMerger(data, type, i);
+      final PriorityQueue<DiskValuesMerger> queue = new PriorityQueue<>(Math.max(1, splits),
+          (vm1, vm2) -> compare(vm1.key, vm2.key));
+      for(int i = 0; i < splits; ++i) {
+        final DiskValuesMerger vm = new DiskValuesMerger(data, type, i);
+        if(vm.values.length != 0) queue.add(vm);
+      }
 
       // parse through all values
-      while(true) {
+      final ArrayList<DiskValuesMerger> ml = new ArrayList<>();
+      while(!queue.isEmpty()) {
         checkStop();
 
-        // find first index which has not completely been parsed yet
-        int min = -1;
-        while(++min < splits && vm[min].values.length == 0);
-        if(min == splits) break;
-
-        // find index entry with the smallest key
-        ml.reset();
-        for(int i = min; i < splits; ++i) {
-          if(vm[i].values.length == 0) continue;
-          final int d = compare(vm[min].key, vm[i].key);
-          if(d < 0) continue;
-          if(d > 0) {
-            min = i;
-            ml.reset();
-          }
-          ml.add(i);
-        }
+        // find index entries with the smallest key
+        final byte[] key = queue.peek().key;
+        do {
+          ml.add(queue.poll());
+        } while(!queue.isEmpty() && eq(queue.peek().key, key));
 
         // parse through all values, cache and sort ID values
-        final int ms = ml.size();
-        for(int m = 0; m < ms; ++m) {
-          final DiskValuesMerger t = vm[ml.get(m)];
-          final byte[] values = t.values;
+        for(final DiskValuesMerger vm : ml) {
+          final byte[] values = vm.values;
           final int vl = values.length;
           for(int l = 4; l < vl; l += Num.length(values, l)) {
             id.add(Num.get(values, l));
@@ -147,11 +283,12 @@ public final class DiskValuesBuilder extends ValuesBuilder {
               pos.add(Num.get(values, l));
             }
           }
-          t.next();
+          vm.next();
+          if(vm.values.length != 0) queue.add(vm);
         }
+        ml.clear();
         // write final structure to disk
-        write(outL, outR, id, pos);
-        ++entries;
+        write(outL, outR, key, entries++, id, pos);
       }
     }
 
@@ -162,21 +299,28 @@ public final class DiskValuesBuilder extends ValuesBuilder {
   }
 
   /**
-   * Writes the current index tree to disk.
+   * Writes an index tree to disk.
+   * @param tree index tree
    * @param partial partial flag
    * @throws IOException I/O exception
    */
-  private void writeIndex(final boolean partial) throws IOException {
+  private void writeIndex(final IndexTree tree, final boolean partial) throws IOException {
+    // increase split counter
+    final int split;
+    synchronized(this) {
+      split = splits++;
+    }
     // write ID arrays and references
-    final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
+    final String name = DiskValues.fileSuffix(type) + (partial ? split : "");
     try(DataOutput outL = new DataOutput(data.meta.dbFile(name + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbFile(name + 'r'))) {
-      outL.write4(index.size());
+      outL.write4(tree.size());
 
       final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
-      index.init();
-      while(index.more()) {
-        final byte[] values = index.ids.get(index.next());
+      tree.init();
+      for(int entry = 0; tree.more(); entry++) {
+        final int next = tree.next();
+        final byte[] values = tree.ids.get(next);
         final int vs = Num.size(values);
 
         if(partial) {
@@ -193,7 +337,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
             }
           }
           // write final structure to disk
-          write(outL, outR, id, pos);
+          write(outL, outR, tree.keys.get(next), entry, id, pos);
         }
       }
     }
@@ -201,24 +345,35 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     // temporarily write texts
     if(partial) {
       try(DataOutput outT = new DataOutput(data.meta.dbFile(name + 't'))) {
-        index.init();
-        while(index.more()) outT.writeToken(index.keys.get(index.next()));
+        tree.init();
+        while(tree.more()) outT.writeToken(tree.keys.get(tree.next()));
       }
     }
-    // increase split counter
-    splits++;
   }
 
   /**
    * Writes the final value structure to disk.
    * @param outL index values
    * @param outR references
+   * @param key key
+   * @param entry index of the key
    * @param id ID
    * @param pos positions (can be {@code null})
    * @throws IOException I/O exception
    */
-  private void write(final DataOutput outL, final DataOutput outR, final IntList id,
-      final IntList pos) throws IOException {
+  private void write(final DataOutput outL, final DataOutput outR, final byte[] key,
+      final int entry, final IntList id, final IntList pos) throws IOException {
+
+    // remember numeric keys
+    if(numbers != null) {
+      final double number = toDouble(key);
+      if(!Double.isNaN(number)) {
+        // normalize negative zero
+        numbers.add(number + 0.0);
+        numIndexes.add(entry);
+        numCounts.add(id.size());
+      }
+    }
 
     // sort values before writing
     int[] order = null;
@@ -242,4 +397,31 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     id.reset();
     if(pos != null) pos.reset();
   }
+
+  /**
+   * Writes the numeric keys, sorted by their values, or deletes an obsolete file.
+   * @throws IOException I/O exception
+   */
+  private void writeNumbers() throws IOException {
+    final IOFile file = data.meta.dbFile(DiskValues.fileSuffix(type) + 'n');
+    if(numbers == null) {
+      file.delete();
+      return;
+    }
+    final double[] values = numbers.finish();
+    final int[] order = Array.createOrder(values, true);
+    try(DataOutput out = new DataOutput(file)) {
+      out.write4(values.length);
+      int ids = 0;
+      for(int n = 0; n < values.length; n++) {
+        final long bits = Double.doubleToRawLongBits(values[n]);
+        out.write4((int) (bits >>> 32));
+        out.write4((int) bits);
+        out.write4(numIndexes.get(order[n]));
+        out.write4(ids);
+        ids += numCounts.get(order[n]);
+      }
+      out.write4(ids);
+    }
+  }
 }
@@ -4,6 +4,7 @@ import java.io.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
@@ -28,6 +29,26 @@ public final class UpdatableDiskValues extends DiskValues {
     super(data, type, fileSuffix(type));
   }
 
+  /**
+   * Starts or stops journaling. Must be called after the buffered data has been flushed.
+   * @param journal journal ({@code null} to stop journaling)
+   * @throws IOException I/O exception
+   */
+  public synchronized void journal(final Journal journal) throws IOException {
+    final String prefix = fileSuffix(type);
+    idxl.journal(journal, prefix + 'l');
+    idxr.journal(journal, prefix + 'r');
+  }
+
+  /**
+   * Logs all updates since the last commit in the journal.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    idxl.commit();
+    idxr.commit();
+  }
+
   @Override
   protected int pre(final int id) {
     return data.pre(id);
@@ -104,8 +125,11 @@ public final class UpdatableDiskValues extends DiskValues {
   }
 
   @Override
-  protected IntList pres(final int sz, final long offset) {
-    return super.pres(sz, offset).sort();
+  protected IntList pres(final int[] ids) {
+    final int sz = ids.length;
+    final IntList pres = new IntList(sz);
+    for(final int id : ids) pres.add(pre(id));
+    return pres.sort();
   }
 
   /**
@@ -2,6 +2,9 @@ package org.basex.index.value;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.name.*;
+import org.basex.index.query.*;
+import org.basex.index.stats.*;
 
 /**
  * Index for texts, attribute values and full-texts.
@@ -47,4 +50,45 @@ public abstract class ValueIndex implements Index {
    * Flushes the buffered data.
    */
   public abstract void flush();
+
+  /**
+   * Indicates if numeric range queries can be answered without scanning all index entries.
+   * @return result of check
+   */
+  public boolean numeric() {
+    return false;
+  }
+
+  /**
+   * Estimates the number of results of a range search. The selectivities of the range are
+   * computed from the histograms of the element or attribute names and weighted with the
+   * number of their values.
+   * @param search numeric or string range
+   * @param divisor divisor for the number of results if the selectivity is unknown
+   * @return number of results (at least {@code 1})
+   */
+  protected final int estimate(final IndexSearch search, final int divisor) {
+    final int dsize = data.meta.size;
+    final int all = Math.max(1, dsize / divisor);
+    if(!data.meta.uptodate) return all;
+
+    final Names names = type == IndexType.TEXT ? data.elemNames : data.attrNames;
+    double results = 0;
+    for(int n = 1; n <= names.size(); n++) {
+      final Stats stats = names.stats(n);
+      if(stats == null) continue;
+      final int size = stats.size();
+      // statistics of older databases: no estimate possible
+      if(size == -1) return all;
+      if(size == 0) continue;
+
+      double fraction = search instanceof final NumericRange nr ?
+        stats.selectivity(nr.min(), nr.max()) :
+        search instanceof final StringRange sr ?
+        stats.selectivity(sr.min(), sr.mni(), sr.max(), sr.mxi()) : Double.NaN;
+      if(Double.isNaN(fraction)) fraction = 1d / divisor;
+      results += fraction * size;
+    }
+    return (int) Math.max(1, Math.min(dsize, Math.ceil(results)));
+  }
 }
@@ -360,6 +360,16 @@ public final class IOFile extends IO {
     Files.move(toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
   }
 
+  /**
+   * Atomically moves a file to another target, which will be replaced if it exists.
+   * @param target target
+   * @throws IOException I/O exception
+   */
+  public void moveAtomic(final IOFile target) throws IOException {
+    Files.move(toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+  }
+
   @Override
   public boolean eq(final IO io) {
     return io instanceof IOFile && equals(pth, io.pth);
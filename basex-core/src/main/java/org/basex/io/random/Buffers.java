@@ -1,23 +1,60 @@
 package org.basex.io.random;
 
+import java.util.*;
+
+import org.basex.util.*;
+
 /**
- * This class provides a simple, clock-based buffer management.
+ * This class provides a clock-based buffer management.
+ * Buffers are looked up via their block positions. If a block is not buffered yet,
+ * a buffer is replaced that has not been referenced since the last pass of the clock hand.
+ * The number of buffers is defined via {@link Prop#buffers}.
  *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
  */
 final class Buffers {
-  /** Number of buffers (must be 1 << n). */
-  private static final int BUFFERS = 1 << 4;
   /** Buffers. */
-  private final Buffer[] buffer = new Buffer[BUFFERS];
+  private final Buffer[] buffer;
+  /** Block positions of the buffers ({@code -1}: unassigned). */
+  private final long[] blocks;
+  /** Reference flags. */
+  private final boolean[] referenced;
+  /** Index of the next buffer in the hash bucket ({@code -1}: none). */
+  private final int[] next;
+  /** Hash buckets, pointing to buffer indexes ({@code -1}: empty). */
+  private final int[] buckets;
+  /** Number of bits used for hashing. */
+  private final int bits;
+
   /** Current buffer offset. */
   private int offset;
+  /** Position of the clock hand. */
+  private int clock;
+  /** Number of cache hits. */
+  private long hits;
+  /** Number of cache misses. */
+  private long misses;
 
   /**
    * Constructor.
    */
   Buffers() {
+    this(Prop.buffers);
+  }
+
+  /**
+   * Constructor.
+   * @param size number of buffers
+   */
+  Buffers(final int size) {
+    final int s = Math.max(1, size);
+    buffer = new Buffer[s];
+    blocks = new long[s];
+    referenced = new boolean[s];
+    next = new int[s];
+    bits = Math.max(1, 33 - Integer.numberOfLeadingZeros(s - 1));
+    buckets = new int[1 << bits];
     init();
   }
 
@@ -25,9 +62,14 @@ final class Buffers {
    * Initializes the buffers.
    */
   void init() {
-    for(int b = 0; b < BUFFERS; ++b) {
-      buffer[b] = new Buffer();
-    }
+    final int s = buffer.length;
+    for(int b = 0; b < s; ++b) buffer[b] = new Buffer();
+    Arrays.fill(blocks, -1);
+    Arrays.fill(referenced, false);
+    Arrays.fill(next, -1);
+    Arrays.fill(buckets, -1);
+    offset = 0;
+    clock = 0;
   }
 
   /**
@@ -48,17 +90,76 @@ final class Buffers {
 
   /**
    * Chooses a buffer and sets the offset.
+   * If the block is not buffered yet, a buffer is chosen for replacement. The caller is
+   * responsible for writing back its contents and assigning the new block position.
    * @param pos buffer position
    * @return true if cursor has changed
    */
   boolean cursor(final long pos) {
-    final int o = offset;
-    do {
-      if(buffer[offset].pos == pos) return false;
-      offset = offset + 1 & BUFFERS - 1;
-    } while(offset != o);
+    if(blocks[offset] != pos) {
+      int b = buckets[hash(pos)];
+      while(b != -1 && blocks[b] != pos) b = next[b];
+      if(b == -1) {
+        ++misses;
+        offset = replace(pos);
+        return true;
+      }
+      offset = b;
+    }
+    ++hits;
+    referenced[offset] = true;
+    return false;
+  }
 
-    offset = o + 1 & BUFFERS - 1;
-    return true;
+  @Override
+  public String toString() {
+    final long total = hits + misses;
+    return Util.className(this) + " (buffers: " + buffer.length + ", hits: " + hits +
+        ", misses: " + misses + ", ratio: " + (total == 0 ? 0 : hits * 100 / total) + "%)";
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Chooses a buffer that has not been referenced recently, and assigns the new block position.
+   * @param pos block position
+   * @return offset of chosen buffer
+   */
+  private int replace(final long pos) {
+    final int s = buffer.length;
+    while(referenced[clock]) {
+      referenced[clock] = false;
+      clock = clock + 1 == s ? 0 : clock + 1;
+    }
+    final int b = clock;
+    clock = clock + 1 == s ? 0 : clock + 1;
+
+    // remove old entry from hash bucket
+    if(blocks[b] != -1) {
+      final int h = hash(blocks[b]);
+      int p = buckets[h];
+      if(p == b) {
+        buckets[h] = next[b];
+      } else {
+        while(next[p] != b) p = next[p];
+        next[p] = next[b];
+      }
+    }
+    // add new entry
+    final int h = hash(pos);
+    blocks[b] = pos;
+    next[b] = buckets[h];
+    buckets[h] = b;
+    referenced[b] = true;
+    return b;
+  }
+
+  /**
+   * Returns the hash bucket for the specified block position.
+   * @param pos block position
+   * @return bucket
+   */
+  private int hash(final long pos) {
+    return (int) (pos * 0x9E3779B97F4A7C15L >>> 64 - bits);
   }
 }
@@ -0,0 +1,286 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.concurrent.atomic.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class provides read-only access to a database file that has been compressed in blocks.
+ * The original file is split into blocks of {@code 1 << BLOCKPOWER} bytes, which are
+ * compressed individually. The file positions of the original file are retained: a read
+ * operation only decompresses the blocks it touches. Decompressed blocks are cached.
+ *
+ * Read operations are not synchronized: cached blocks are looked up without locking, and
+ * missing blocks are read via positional file access and decompressed by a thread-local
+ * {@link Inflater}.
+ *
+ * The compressed file has the following layout:
+ *
+ * <pre>
+ * - compressed blocks
+ * - offsets of all compressed blocks (5 bytes each)
+ * - size of the original file (5 bytes)
+ * </pre>
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class CompressedAccess implements Closeable {
+  /** Power of the size of an uncompressed block. */
+  private static final int BLOCKPOWER = 16;
+  /** Size of an uncompressed block. */
+  private static final int BLOCKSIZE = 1 << BLOCKPOWER;
+
+  /** Decompressors of the current thread. */
+  private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+  /** Reference to the data input stream. */
+  private final RandomAccessFile raf;
+  /** File channel (supports concurrent positional reads). */
+  private final FileChannel channel;
+  /** Offsets of the compressed blocks, followed by the offset of the block directory. */
+  private final long[] offsets;
+  /** Size of the uncompressed file. */
+  private final long length;
+  /** Cached blocks. */
+  private final AtomicReferenceArray<Block> cache;
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @throws IOException I/O Exception
+   */
+  public CompressedAccess(final IOFile file) throws IOException {
+    final RandomAccessFile f = new RandomAccessFile(file.file(), "r");
+    try {
+      final long size = f.length();
+      f.seek(size - 5);
+      length = read5(f);
+      final int blocks = (int) (length + BLOCKSIZE - 1 >>> BLOCKPOWER);
+      offsets = new long[blocks + 1];
+      final long dir = size - 5 - blocks * 5L;
+      f.seek(dir);
+      for(int b = 0; b < blocks; b++) offsets[b] = read5(f);
+      offsets[blocks] = dir;
+      raf = f;
+      channel = f.getChannel();
+    } catch(final IOException ex) {
+      f.close();
+      throw ex;
+    }
+    cache = new AtomicReferenceArray<>(Math.max(1, Prop.buffers));
+  }
+
+  /**
+   * Compresses the specified file.
+   * @param file file to be compressed
+   * @throws IOException I/O Exception
+   */
+  public static void compress(final IOFile file) throws IOException {
+    final IOFile tmp = new IOFile(file.path() + IO.TMPSUFFIX);
+    final Deflater deflater = new Deflater();
+    try(InputStream in = new BufferedInputStream(file.inputStream());
+        DataOutput out = new DataOutput(tmp)) {
+      final LongList offsets = new LongList();
+      final byte[] block = new byte[BLOCKSIZE], buffer = new byte[BLOCKSIZE];
+      long length = 0;
+      for(int l; (l = in.readNBytes(block, 0, BLOCKSIZE)) > 0;) {
+        offsets.add(out.size());
+        deflater.reset();
+        deflater.setInput(block, 0, l);
+        deflater.finish();
+        while(!deflater.finished()) {
+          final int d = deflater.deflate(buffer);
+          out.write(buffer, 0, d);
+        }
+        length += l;
+      }
+      for(final long offset : offsets.finish()) out.write5(offset);
+      out.write5(length);
+    } finally {
+      deflater.end();
+    }
+    replace(tmp, file);
+  }
+
+  /**
+   * Writes a decompressed copy of the specified file.
+   * @param file file to be decompressed
+   * @param target target file
+   * @throws IOException I/O Exception
+   */
+  public static void decompress(final IOFile file, final IOFile target) throws IOException {
+    try(CompressedAccess ca = new CompressedAccess(file);
+        DataOutput out = new DataOutput(target)) {
+      final int blocks = ca.offsets.length - 1;
+      for(int b = 0; b < blocks; b++) out.writeBytes(ca.decompress(b));
+    } catch(final IOException ex) {
+      target.delete();
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the size of the uncompressed file.
+   * @return file length
+   */
+  public long length() {
+    return length;
+  }
+
+  /**
+   * Reads a {@link Num} value from the specified position.
+   * @param pos position
+   * @return number
+   */
+  public int readNumAt(final long pos) {
+    final int value = read1(pos);
+    return switch(value & 0xC0) {
+      case 0    -> value;
+      case 0x40 -> (value - 0x40 << 8) + read1(pos + 1);
+      case 0x80 -> (value - 0x80 << 24) + (read1(pos + 1) << 16) + (read1(pos + 2) << 8) +
+          read1(pos + 3);
+      default   -> read1(pos + 1) << 24 | read1(pos + 2) << 16 | read1(pos + 3) << 8 |
+          read1(pos + 4);
+    };
+  }
+
+  /**
+   * Reads a token from the specified position.
+   * @param pos position
+   * @return token
+   */
+  public byte[] readTokenAt(final long pos) {
+    final int len = readNumAt(pos);
+    final long start = pos + Num.length(len);
+    final byte[] bytes = new byte[len];
+    for(int o = 0; o < len;) {
+      final long p = start + o;
+      final int i = (int) (p & BLOCKSIZE - 1), l = Math.min(len - o, BLOCKSIZE - i);
+      System.arraycopy(block(p), i, bytes, o, l);
+      o += l;
+    }
+    return bytes;
+  }
+
+  @Override
+  public void close() {
+    try {
+      raf.close();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + " (length: " + length + ", compressed: " +
+        offsets[offsets.length - 1] + ')';
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Reads a byte value from the specified position.
+   * @param pos position
+   * @return unsigned byte value
+   */
+  private int read1(final long pos) {
+    return block(pos)[(int) (pos & BLOCKSIZE - 1)] & 0xFF;
+  }
+
+  /**
+   * Returns the decompressed block for the specified position.
+   * The returned array will not be modified.
+   * @param pos position
+   * @return block
+   */
+  private byte[] block(final long pos) {
+    final int b = (int) (pos >>> BLOCKPOWER), c = b % cache.length();
+    final Block cached = cache.get(c);
+    if(cached != null && cached.index == b) return cached.data;
+
+    // concurrent misses may decompress the same block; the last result will be cached
+    final byte[] data;
+    try {
+      data = decompress(b);
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+    cache.set(c, new Block(b, data));
+    return data;
+  }
+
+  /**
+   * Reads and decompresses the specified block.
+   * @param b index of the block
+   * @return decompressed block
+   * @throws IOException I/O Exception
+   */
+  private byte[] decompress(final int b) throws IOException {
+    final long offset = offsets[b];
+    final ByteBuffer bb = ByteBuffer.allocate((int) (offsets[b + 1] - offset));
+    while(bb.hasRemaining()) {
+      if(channel.read(bb, offset + bb.position()) == -1) {
+        throw new IOException("Block " + b + " is truncated.");
+      }
+    }
+    final byte[] input = bb.array();
+
+    final byte[] block = new byte[(int) Math.min(BLOCKSIZE, length - ((long) b << BLOCKPOWER))];
+    final Inflater inflater = INFLATER.get();
+    inflater.reset();
+    inflater.setInput(input);
+    try {
+      for(int o = 0; o < block.length;) {
+        final int i = inflater.inflate(block, o, block.length - o);
+        if(i == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new IOException("Block " + b + " is truncated.");
+        }
+        o += i;
+      }
+    } catch(final DataFormatException ex) {
+      throw new IOException(ex);
+    }
+    return block;
+  }
+
+  /**
+   * Reads a 5-byte value from the current file position.
+   * @param file file
+   * @return long value
+   * @throws IOException I/O Exception
+   */
+  private static long read5(final RandomAccessFile file) throws IOException {
+    return (long) file.read() << 32 | file.readInt() & 0xFFFFFFFFL;
+  }
+
+  /**
+   * Atomically replaces a file with a temporary file.
+   * @param tmp temporary file
+   * @param file file to be replaced
+   * @throws IOException I/O Exception
+   */
+  private static void replace(final IOFile tmp, final IOFile file) throws IOException {
+    try {
+      tmp.moveAtomic(file);
+    } catch(final IOException ex) {
+      tmp.delete();
+      throw ex;
+    }
+  }
+
+  /**
+   * Decompressed block.
+   * @param index index of the block
+   * @param data decompressed data
+   */
+  private record Block(int index, byte[] data) { }
+}
@@ -7,6 +7,9 @@ import org.basex.util.*;
 
 /**
  * This class allows positional read and write access to a database file.
+ * If memory-mapped access is enabled, and if no buffered data needs to be written, some read
+ * operations are performed on a memory mapping, without locking and without changing the file
+ * cursor.
  *
  * @author BaseX Team, BSD License
  * @author Christian Gruen
@@ -22,6 +25,10 @@ public final class DataAccess implements Closeable {
   private boolean changed;
   /** Offset. */
   private int off;
+  /** Memory mapping (only assigned if file is mapped and has not been changed). */
+  private volatile Mapping mapping;
+  /** Journaled file ({@code null} if updates are not journaled). */
+  private JournalFile journal;
 
   /**
    * Constructor, initializing the file reader.
@@ -35,6 +42,7 @@ public final class DataAccess implements Closeable {
       length = f.length();
       raf = f;
       cursor(0);
+      mapping = Mapping.get(f);
     } catch(final IOException ex) {
       if(f != null) f.close();
       throw ex;
@@ -46,6 +54,12 @@ public final class DataAccess implements Closeable {
    */
   public synchronized void flush() {
     try {
+      if(journal != null) {
+        for(final Buffer buffer : buffers.all()) {
+          if(buffer.dirty) journal.save(buffer.pos);
+        }
+        journal.sync();
+      }
       for(final Buffer buffer : buffers.all()) {
         if(buffer.dirty) writeBlock(buffer);
       }
@@ -53,14 +67,34 @@ public final class DataAccess implements Closeable {
         raf.setLength(length);
         changed = false;
       }
+      if(mapping == null) mapping = Mapping.get(raf);
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Starts or stops journaling. Must be called after the buffered data has been flushed.
+   * @param jrn journal ({@code null} to stop journaling)
+   * @param name name of the file
+   * @throws IOException I/O exception
+   */
+  public synchronized void journal(final Journal jrn, final String name) throws IOException {
+    journal = jrn != null ? new JournalFile(jrn, name, raf) : null;
+  }
+
+  /**
+   * Logs all updates since the last commit in the journal.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    if(journal != null) journal.commit(buffers.all(), 0, length);
+  }
+
   @Override
   public synchronized void close() {
     flush();
+    mapping = null;
     try {
       raf.close();
     } catch(final IOException ex) {
@@ -175,6 +209,30 @@ public final class DataAccess implements Closeable {
     return readBytes(l);
   }
 
+  /**
+   * Reads a {@link Num} value from the specified position. In contrast to {@link #readNum(long)},
+   * the file cursor must not be used for subsequent reads: if the file is mapped, it is neither
+   * locked nor changed by this operation.
+   * @param pos position
+   * @return read num
+   */
+  public int readNumAt(final long pos) {
+    final Mapping mp = mapping;
+    return mp != null ? mp.readNum(pos) : readNum(pos);
+  }
+
+  /**
+   * Reads a token from the specified position. In contrast to {@link #readToken(long)},
+   * the file cursor must not be used for subsequent reads: if the file is mapped, it is neither
+   * locked nor changed by this operation.
+   * @param pos position
+   * @return text as byte array
+   */
+  public byte[] readTokenAt(final long pos) {
+    final Mapping mp = mapping;
+    return mp != null ? mp.readToken(pos) : readToken(pos);
+  }
+
   /**
    * Reads a number of bytes from the specified offset.
    * @param pos position
@@ -308,6 +366,7 @@ public final class DataAccess implements Closeable {
     final int last = offset + len;
     int o = offset;
 
+    mapping = null;
     while(o < last) {
       final Buffer buffer = buffer();
       final int l = Math.min(last - o, IO.BLOCKSIZE - off);
@@ -376,12 +435,18 @@ public final class DataAccess implements Closeable {
    * @param len file length
    */
   private synchronized void length(final long len) {
+    mapping = null;
     if(len != length) {
       changed = true;
       length = len;
     }
   }
 
+  @Override
+  public String toString() {
+    return Util.className(this) + " (length: " + length + ")\n- " + buffers;
+  }
+
   // PRIVATE METHODS ==============================================================================
 
   /**
@@ -398,6 +463,7 @@ public final class DataAccess implements Closeable {
    * @param value byte to be written
    */
   private void write(final int value) {
+    mapping = null;
     final Buffer buffer = buffer();
     buffer.dirty = true;
     buffer.data[off++] = (byte) value;
@@ -412,6 +478,7 @@ public final class DataAccess implements Closeable {
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
+    if(journal != null) journal.write(pos);
     raf.seek(pos);
     raf.write(buffer.data, 0, (int) len);
     buffer.dirty = false;
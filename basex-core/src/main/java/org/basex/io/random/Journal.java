@@ -0,0 +1,357 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * Write-ahead journal of a database.
+ *
+ * If updates are journaled, modified blocks are not written to the database files when an update
+ * is finished. Instead, the updated blocks, the new file lengths and the contents of small files
+ * (meta data, table index) are appended to the journal and synchronized to disk with a single
+ * commit record. The database files are written when a checkpoint is performed.
+ *
+ * If a modified block needs to be written to a database file before the next checkpoint, its
+ * original contents are stored in the journal first. If the database is opened after a crash,
+ * these contents are restored, and all committed updates are replayed.
+ *
+ * Each record consists of its length, the record data and a CRC32 checksum.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class Journal implements Closeable {
+  /** Size of the journal after which a checkpoint will be performed. */
+  public static final long MAXSIZE = 1L << 26;
+
+  /** Record type: length of a file at the last checkpoint. */
+  private static final int ORIGIN = 1;
+  /** Record type: contents of a block at the last checkpoint. */
+  private static final int BEFORE = 2;
+  /** Record type: updated block. */
+  private static final int BLOCK = 3;
+  /** Record type: updated file. */
+  private static final int FILE = 4;
+  /** Record type: new file length. */
+  private static final int LENGTH = 5;
+  /** Record type: end of an update. */
+  private static final int COMMIT = 6;
+
+  /** Meta data. */
+  private final MetaData meta;
+  /** Journal file. */
+  private final RandomAccessFile raf;
+  /** Checksum. */
+  private final CRC32 crc = new CRC32();
+  /** Size of the journal. */
+  private long size;
+  /** Indicates if written records have not been synchronized yet. */
+  private boolean unsynced;
+
+  /**
+   * Constructor.
+   * @param meta meta data
+   * @throws IOException I/O exception
+   */
+  public Journal(final MetaData meta) throws IOException {
+    this.meta = meta;
+    raf = new RandomAccessFile(meta.dbFile(DATAJRN).file(), "rw");
+    size = raf.length();
+  }
+
+  /**
+   * Returns the size of the journal.
+   * @return size
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Synchronizes all database files to disk and empties the journal.
+   * Must be called after all buffered data has been written to the database files.
+   * @throws IOException I/O exception
+   */
+  public void reset() throws IOException {
+    final IOFile journal = meta.dbFile(DATAJRN);
+    for(final IOFile file : journal.parent().children()) {
+      if(!file.isDir() && !file.equals(journal)) {
+        try(FileChannel fc = FileChannel.open(file.file().toPath(), StandardOpenOption.WRITE)) {
+          fc.force(true);
+        }
+      }
+    }
+    raf.setLength(0);
+    raf.getChannel().force(true);
+    size = 0;
+    unsynced = false;
+  }
+
+  /**
+   * Records the length of a database file at the last checkpoint.
+   * @param name name of the file
+   * @param length file length
+   * @throws IOException I/O exception
+   */
+  void origin(final String name, final long length) throws IOException {
+    write(ORIGIN, name, length, EMPTY);
+  }
+
+  /**
+   * Records the contents of a block at the last checkpoint.
+   * @param name name of the file
+   * @param pos file position
+   * @param data block contents
+   * @throws IOException I/O exception
+   */
+  void before(final String name, final long pos, final byte[] data) throws IOException {
+    write(BEFORE, name, pos, data);
+  }
+
+  /**
+   * Records an updated block.
+   * @param name name of the file
+   * @param pos file position
+   * @param data block contents
+   * @throws IOException I/O exception
+   */
+  void block(final String name, final long pos, final byte[] data) throws IOException {
+    write(BLOCK, name, pos, data);
+  }
+
+  /**
+   * Records the new length of a file.
+   * @param name name of the file
+   * @param length file length
+   * @throws IOException I/O exception
+   */
+  void length(final String name, final long length) throws IOException {
+    write(LENGTH, name, length, EMPTY);
+  }
+
+  /**
+   * Records the new contents of a file.
+   * @param name name of the file
+   * @param data file contents
+   * @throws IOException I/O exception
+   */
+  public void file(final String name, final byte[] data) throws IOException {
+    write(FILE, name, 0, data);
+  }
+
+  /**
+   * Finishes an update and synchronizes the journal to disk.
+   * @throws IOException I/O exception
+   */
+  public void commit() throws IOException {
+    write(COMMIT, "", 0, EMPTY);
+    sync();
+  }
+
+  /**
+   * Synchronizes all written records to disk.
+   * @throws IOException I/O exception
+   */
+  void sync() throws IOException {
+    if(unsynced) {
+      raf.getChannel().force(false);
+      unsynced = false;
+    }
+  }
+
+  /**
+   * Closes and deletes the journal. Must only be called after a call of {@link #reset()}.
+   * @throws IOException I/O exception
+   */
+  @Override
+  public void close() throws IOException {
+    raf.close();
+    meta.dbFile(DATAJRN).delete();
+  }
+
+  /**
+   * Restores the database files from the journal of the specified database, if it exists:
+   * the contents of the last checkpoint are restored, and all committed updates are replayed.
+   * Incomplete updates are discarded.
+   * @param meta meta data
+   * @return {@code true} if a journal was found
+   * @throws IOException I/O exception
+   */
+  public static boolean replay(final MetaData meta) throws IOException {
+    final IOFile journal = meta.dbFile(DATAJRN);
+    if(!journal.exists()) return false;
+
+    final LinkedHashMap<String, Long> origins = new LinkedHashMap<>();
+    final ArrayList<Record> befores = new ArrayList<>(), updates = new ArrayList<>();
+    final ArrayList<Record> pending = new ArrayList<>();
+    try(RandomAccessFile in = new RandomAccessFile(journal.file(), "r")) {
+      final CRC32 crc = new CRC32();
+      final long length = in.length();
+      for(long pos = 0; pos + 8 <= length;) {
+        in.seek(pos);
+        final int len = in.readInt();
+        if(len < 0 || pos + 8 + len > length) break;
+        final byte[] data = new byte[len];
+        in.readFully(data);
+        crc.reset();
+        crc.update(data);
+        // incomplete record: skip remaining records
+        if(in.readInt() != (int) crc.getValue()) break;
+        pos += 8 + len;
+
+        final Record record = new Record(data);
+        switch(record.type) {
+          case ORIGIN -> origins.put(record.name, record.value);
+          case BEFORE -> befores.add(record);
+          case COMMIT -> {
+            updates.addAll(pending);
+            pending.clear();
+          }
+          default -> pending.add(record);
+        }
+      }
+    }
+
+    final HashMap<String, RandomAccessFile> files = new HashMap<>();
+    try {
+      // restore contents of the last checkpoint
+      for(final Map.Entry<String, Long> origin : origins.entrySet()) {
+        file(origin.getKey(), files, meta).setLength(origin.getValue());
+      }
+      for(final Record record : befores) {
+        if(origins.containsKey(record.name)) record.write(file(record.name, files, meta));
+      }
+      // replay committed updates
+      for(final Record record : updates) {
+        switch(record.type) {
+          case BLOCK  -> record.write(file(record.name, files, meta));
+          case LENGTH -> file(record.name, files, meta).setLength(record.value);
+          case FILE   -> meta.dbFile(record.name).write(record.data);
+          default     -> throw Util.notExpected("Unknown journal record: %", record.type);
+        }
+      }
+      for(final RandomAccessFile file : files.values()) file.getChannel().force(true);
+    } finally {
+      for(final RandomAccessFile file : files.values()) file.close();
+    }
+    if(!journal.delete()) throw new IOException("Journal could not be deleted: " + journal);
+    return true;
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Appends a record.
+   * @param type record type
+   * @param name name of the file
+   * @param value position or length
+   * @param data data
+   * @throws IOException I/O exception
+   */
+  private void write(final int type, final String name, final long value, final byte[] data)
+      throws IOException {
+
+    final ArrayOutput ao = new ArrayOutput();
+    try(DataOutput out = new DataOutput(ao)) {
+      out.write1(type);
+      out.writeToken(token(name));
+      out.writeLong(value);
+      out.writeToken(data);
+    }
+    final byte[] record = ao.finish();
+    final int len = record.length;
+    crc.reset();
+    crc.update(record);
+
+    final byte[] bytes = new byte[len + 8];
+    writeInt(bytes, 0, len);
+    Array.copyFromStart(record, len, bytes, 4);
+    writeInt(bytes, len + 4, (int) crc.getValue());
+    raf.seek(size);
+    raf.write(bytes);
+    size += bytes.length;
+    unsynced = true;
+  }
+
+  /**
+   * Writes an integer to an array.
+   * @param bytes array
+   * @param offset offset
+   * @param value value
+   */
+  private static void writeInt(final byte[] bytes, final int offset, final int value) {
+    bytes[offset] = (byte) (value >>> 24);
+    bytes[offset + 1] = (byte) (value >>> 16);
+    bytes[offset + 2] = (byte) (value >>> 8);
+    bytes[offset + 3] = (byte) value;
+  }
+
+  /**
+   * Returns an opened database file.
+   * @param name name of the file
+   * @param files opened files
+   * @param meta meta data
+   * @return file
+   * @throws IOException I/O exception
+   */
+  private static RandomAccessFile file(final String name, final HashMap<String, RandomAccessFile>
+      files, final MetaData meta) throws IOException {
+    RandomAccessFile file = files.get(name);
+    if(file == null) {
+      file = new RandomAccessFile(meta.dbFile(name).file(), "rw");
+      files.put(name, file);
+    }
+    return file;
+  }
+
+  /**
+   * Journal record.
+   */
+  private static final class Record {
+    /** Type. */
+    final int type;
+    /** Name of the file. */
+    final String name;
+    /** Position or length. */
+    final long value;
+    /** Data. */
+    final byte[] data;
+
+    /**
+     * Constructor.
+     * @param record record data
+     * @throws IOException I/O exception
+     */
+    Record(final byte[] record) throws IOException {
+      try(DataInput in = new DataInput(new IOContent(record))) {
+        type = in.read();
+        name = string(in.readToken());
+        value = in.readLong();
+        data = in.readToken();
+      }
+    }
+
+    /**
+     * Writes the data to the specified file position.
+     * @param file file
+     * @throws IOException I/O exception
+     */
+    void write(final RandomAccessFile file) throws IOException {
+      file.seek(value);
+      file.write(data);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.util.hash.*;
+
+/**
+ * Journaled database file. Keeps track of the blocks that have been written since the last
+ * checkpoint and the last commit.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class JournalFile {
+  /** Journal. */
+  private final Journal journal;
+  /** Name of the file. */
+  private final String name;
+  /** File. */
+  private final RandomAccessFile raf;
+  /** File length at the last checkpoint. */
+  private final long origin;
+  /** Blocks whose contents at the last checkpoint have been saved. */
+  private final IntSet saved = new IntSet();
+  /** Blocks that have been written since the last commit. */
+  private IntSet written = new IntSet();
+
+  /**
+   * Constructor, called after a checkpoint.
+   * @param journal journal
+   * @param name name of the file
+   * @param raf file
+   * @throws IOException I/O exception
+   */
+  JournalFile(final Journal journal, final String name, final RandomAccessFile raf)
+      throws IOException {
+    this.journal = journal;
+    this.name = name;
+    this.raf = raf;
+    origin = raf.length();
+    journal.origin(name, origin);
+  }
+
+  /**
+   * Prepares the block at the specified file position to be written. If the block existed at
+   * the last checkpoint, its original contents are saved in the journal.
+   * The journal must be synchronized via {@link #sync()} before the block is written.
+   * @param pos file position
+   * @throws IOException I/O exception
+   */
+  void save(final long pos) throws IOException {
+    final int block = (int) (pos >>> IO.BLOCKPOWER);
+    written.add(block);
+    if(pos < origin && saved.add(block)) {
+      final byte[] data = new byte[(int) Math.min(IO.BLOCKSIZE, origin - pos)];
+      raf.seek(pos);
+      raf.readFully(data);
+      journal.before(name, pos, data);
+    }
+  }
+
+  /**
+   * Prepares the block at the specified file position to be written and synchronizes the journal.
+   * @param pos file position
+   * @throws IOException I/O exception
+   */
+  void write(final long pos) throws IOException {
+    save(pos);
+    sync();
+  }
+
+  /**
+   * Synchronizes the journal.
+   * @throws IOException I/O exception
+   */
+  void sync() throws IOException {
+    journal.sync();
+  }
+
+  /**
+   * Logs the contents of an additional file.
+   * @param file name of the file
+   * @param data file contents
+   * @throws IOException I/O exception
+   */
+  void file(final String file, final byte[] data) throws IOException {
+    journal.file(file, data);
+  }
+
+  /**
+   * Logs all blocks that have been updated since the last commit, and the file length.
+   * @param buffers buffers
+   * @param shift shift for converting buffer positions to file positions
+   * @param length current file length
+   * @throws IOException I/O exception
+   */
+  void commit(final Buffer[] buffers, final int shift, final long length) throws IOException {
+    final IntSet logged = new IntSet();
+    for(final Buffer buffer : buffers) {
+      final long pos = buffer.pos << shift;
+      if(buffer.dirty && pos < length) {
+        final byte[] data = buffer.data;
+        final int len = (int) Math.min(IO.BLOCKSIZE, length - pos);
+        journal.block(name, pos, len == data.length ? data : Arrays.copyOf(data, len));
+        logged.add((int) (pos >>> IO.BLOCKPOWER));
+      }
+    }
+    // blocks that have been written to disk since the last commit
+    for(final int block : written.keys()) {
+      final long pos = (long) block << IO.BLOCKPOWER;
+      if(pos < length && !logged.contains(block)) {
+        final byte[] data = new byte[(int) Math.min(IO.BLOCKSIZE, length - pos)];
+        raf.seek(pos);
+        raf.readFully(data);
+        journal.block(name, pos, data);
+      }
+    }
+    journal.length(name, length);
+    written = new IntSet();
+  }
+}
@@ -0,0 +1,146 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+
+import org.basex.util.*;
+
+/**
+ * This class provides read-only access to a memory-mapped database file.
+ * Files are mapped in segments, as the size of a single mapped buffer is limited.
+ * The read operations do not change any state and can be called concurrently.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class Mapping {
+  /** Power of the size of a mapped file segment. */
+  private static final int POWER = 30;
+  /** Mask for offsets inside a segment. */
+  private static final long MASK = (1L << POWER) - 1;
+
+  /** Mapped file segments. */
+  private final ByteBuffer[] segments;
+
+  /**
+   * Constructor.
+   * @param segments mapped file segments
+   */
+  private Mapping(final ByteBuffer[] segments) {
+    this.segments = segments;
+  }
+
+  /**
+   * Maps the specified file to memory if memory-mapped access is enabled.
+   * @param file file to be mapped
+   * @return mapping, or {@code null} if mapping is disabled, or if the file is empty
+   *   or cannot be mapped
+   */
+  static Mapping get(final RandomAccessFile file) {
+    if(!Prop.mmap) return null;
+    try {
+      final FileChannel fc = file.getChannel();
+      final long length = fc.size();
+      if(length == 0) return null;
+
+      final int ss = (int) (length - 1 >>> POWER) + 1;
+      final ByteBuffer[] segments = new ByteBuffer[ss];
+      for(int s = 0; s < ss; s++) {
+        final long pos = (long) s << POWER;
+        segments[s] = fc.map(MapMode.READ_ONLY, pos, Math.min(MASK + 1, length - pos));
+      }
+      return new Mapping(segments);
+    } catch(final IOException ex) {
+      // fall back to buffered access
+      Util.debug(ex);
+      return null;
+    }
+  }
+
+  /**
+   * Reads a byte value from the specified position.
+   * @param pos position
+   * @return unsigned byte value
+   */
+  int read1(final long pos) {
+    return segments[(int) (pos >>> POWER)].get((int) (pos & MASK)) & 0xFF;
+  }
+
+  /**
+   * Reads a short value from the specified position.
+   * @param pos position
+   * @return unsigned short value
+   */
+  int read2(final long pos) {
+    final ByteBuffer segment = segments[(int) (pos >>> POWER)];
+    final int i = (int) (pos & MASK);
+    return i + 2 <= segment.limit() ? segment.getShort(i) & 0xFFFF :
+      read1(pos) << 8 | read1(pos + 1);
+  }
+
+  /**
+   * Reads an integer value from the specified position.
+   * @param pos position
+   * @return integer value
+   */
+  int read4(final long pos) {
+    final ByteBuffer segment = segments[(int) (pos >>> POWER)];
+    final int i = (int) (pos & MASK);
+    return i + 4 <= segment.limit() ? segment.getInt(i) :
+      read2(pos) << 16 | read2(pos + 2);
+  }
+
+  /**
+   * Reads a 5-byte value from the specified position.
+   * @param pos position
+   * @return long value
+   */
+  long read5(final long pos) {
+    return (long) read1(pos) << 32 | read4(pos + 1) & 0xFFFFFFFFL;
+  }
+
+  /**
+   * Reads a {@link Num} value from the specified position.
+   * @param pos position
+   * @return number
+   */
+  int readNum(final long pos) {
+    final int value = read1(pos);
+    return switch(value & 0xC0) {
+      case 0    -> value;
+      case 0x40 -> (value - 0x40 << 8) + read1(pos + 1);
+      case 0x80 -> (value - 0x80 << 24) + (read1(pos + 1) << 16) + read2(pos + 2);
+      default   -> read4(pos + 1);
+    };
+  }
+
+  /**
+   * Reads a token from the specified position.
+   * @param pos position
+   * @return token
+   */
+  byte[] readToken(final long pos) {
+    final int len = readNum(pos);
+    return readBytes(pos + Num.length(len), len);
+  }
+
+  /**
+   * Reads a number of bytes from the specified position.
+   * @param pos position
+   * @param len number of bytes
+   * @return bytes
+   */
+  byte[] readBytes(final long pos, final int len) {
+    final byte[] bytes = new byte[len];
+    for(int o = 0; o < len;) {
+      final long p = pos + o;
+      final ByteBuffer segment = segments[(int) (p >>> POWER)];
+      final int i = (int) (p & MASK), l = Math.min(len - o, segment.limit() - i);
+      segment.get(i, bytes, o, l);
+      o += l;
+    }
+    return bytes;
+  }
+}
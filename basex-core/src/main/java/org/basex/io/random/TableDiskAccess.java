@@ -10,6 +10,7 @@ import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 
@@ -29,6 +30,10 @@ public final class TableDiskAccess extends TableAccess {
   private BitArray usedPages;
   /** File lock. */
   private FileLock lock;
+  /** Memory mapping (only assigned if table is mapped and not updated). */
+  private volatile Mapping mapping;
+  /** Journaled file ({@code null} if updates are not journaled). */
+  private JournalFile journal;
 
   /** First PRE values (ascending order); will be initialized with the first update. */
   private int[] fPreIndex;
@@ -91,7 +96,7 @@ public final class TableDiskAccess extends TableAccess {
 
     try(FileChannel fc = new RandomAccessFile(table.file(), "rw").getChannel()) {
       return fc.tryLock() == null;
-    } catch(final IOException ex) {
+    } catch(final IOException | OverlappingFileLockException ex) {
       Util.debug(ex);
       return true;
     }
@@ -99,42 +104,60 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized void flush(final boolean all) throws IOException {
+    if(journal != null) {
+      for(final Buffer buffer : buffers.all()) {
+        if(buffer.dirty) journal.save(buffer.pos << IO.BLOCKPOWER);
+      }
+      journal.sync();
+    }
     for(final Buffer buffer : buffers.all()) {
       write(buffer);
     }
     if(!dirty || !all) return;
 
     try(DataOutput out = new DataOutput(meta.dbFile(DATATBL + 'i'))) {
-      final int p = pages;
-      boolean regular = true;
-
-      // check if page mapping is regular (are all pages used and in ascending order?)
-      if(fPreIndex != null) {
-        regular = p == used;
-        for(int i = 0; i < p && regular; i++) regular = fPreIndex[i] == i * IO.ENTRIES;
-        for(int i = 0; i < p && regular; i++) regular = pageIndex[i] == i;
-        if(regular) removeMapping();
-      }
+      writeIndex(out);
+    }
+    dirty = false;
+  }
 
-      if(regular) {
-        // no mapping available or required (0: empty table; MAX: no mapping, see TableOutput#close)
-        out.writeNum(p);
-        out.writeNum(used == 0 ? 0 : Integer.MAX_VALUE);
-      } else {
-        out.writeNum(p);
-        out.writeNum(used);
-        out.writeNum(p);
-        for(int s = 0; s < p; s++) out.writeNum(fPreIndex[s]);
-        out.writeNum(p);
-        for(int s = 0; s < p; s++) out.writeNum(pageIndex[s]);
-        out.writeLongs(usedPages.toArray());
+  /**
+   * Starts or stops journaling. Must be called after the buffered pages have been flushed.
+   * @param jrn journal ({@code null} to stop journaling)
+   * @throws IOException I/O exception
+   */
+  public synchronized void journal(final Journal jrn) throws IOException {
+    journal = jrn != null ? new JournalFile(jrn, DATATBL, file) : null;
+  }
+
+  /**
+   * Logs all updates since the last commit in the journal.
+   * The table index will be written to disk with the next flush.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    if(journal == null) return;
+    journal.commit(buffers.all(), IO.BLOCKPOWER, (long) pages << IO.BLOCKPOWER);
+    if(dirty) {
+      final ArrayOutput ao = new ArrayOutput();
+      try(DataOutput out = new DataOutput(ao)) {
+        writeIndex(out);
       }
+      journal.file(DATATBL + 'i', ao.finish());
     }
-    dirty = false;
+  }
+
+  /**
+   * Returns the size of the table file, including unused entries.
+   * @return size in bytes
+   */
+  public synchronized long length() {
+    return (long) pages << IO.BLOCKPOWER;
   }
 
   @Override
   public synchronized void close() throws IOException {
+    mapping = null;
     flush(true);
     file.close();
   }
@@ -147,6 +170,9 @@ public final class TableDiskAccess extends TableAccess {
         lock.release();
       }
       lock = file.getChannel().tryLock(0, Long.MAX_VALUE, !write);
+      // updates are performed on buffered pages; table is remapped after the update
+      if(write) mapping = null;
+      else if(lock != null) map();
       return lock != null;
     } catch(final IOException ex) {
       throw Util.notExpected(ex);
@@ -154,38 +180,54 @@ public final class TableDiskAccess extends TableAccess {
   }
 
   @Override
-  public synchronized int read1(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return data[o] & 0xFF;
+  public int read1(final int pre, final int offset) {
+    final Mapping mp = mapping;
+    if(mp != null && pre >= 0 && pre < meta.size) return mp.read1(position(pre) + offset);
+    synchronized(this) {
+      final int o = offset + cursor(pre);
+      final byte[] data = buffers.current().data;
+      return data[o] & 0xFF;
+    }
   }
 
   @Override
-  public synchronized int read2(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((data[o] & 0xFF) << 8) + (data[o + 1] & 0xFF);
+  public int read2(final int pre, final int offset) {
+    final Mapping mp = mapping;
+    if(mp != null && pre >= 0 && pre < meta.size) return mp.read2(position(pre) + offset);
+    synchronized(this) {
+      final int o = offset + cursor(pre);
+      final byte[] data = buffers.current().data;
+      return ((data[o] & 0xFF) << 8) + (data[o + 1] & 0xFF);
+    }
   }
 
   @Override
-  public synchronized int read4(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((data[o] & 0xFF) << 24) + ((data[o + 1] & 0xFF) << 16) +
-      ((data[o + 2] & 0xFF) << 8) + (data[o + 3] & 0xFF);
+  public int read4(final int pre, final int offset) {
+    final Mapping mp = mapping;
+    if(mp != null && pre >= 0 && pre < meta.size) return mp.read4(position(pre) + offset);
+    synchronized(this) {
+      final int o = offset + cursor(pre);
+      final byte[] data = buffers.current().data;
+      return ((data[o] & 0xFF) << 24) + ((data[o + 1] & 0xFF) << 16) +
+        ((data[o + 2] & 0xFF) << 8) + (data[o + 3] & 0xFF);
+    }
   }
 
   @Override
-  public synchronized long read5(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((long) (data[o] & 0xFF) << 32) + ((long) (data[o + 1] & 0xFF) << 24) +
-      ((data[o + 2] & 0xFF) << 16) + ((data[o + 3] & 0xFF) << 8) + (data[o + 4] & 0xFF);
+  public long read5(final int pre, final int offset) {
+    final Mapping mp = mapping;
+    if(mp != null && pre >= 0 && pre < meta.size) return mp.read5(position(pre) + offset);
+    synchronized(this) {
+      final int o = offset + cursor(pre);
+      final byte[] data = buffers.current().data;
+      return ((long) (data[o] & 0xFF) << 32) + ((long) (data[o + 1] & 0xFF) << 24) +
+        ((data[o + 2] & 0xFF) << 16) + ((data[o + 3] & 0xFF) << 8) + (data[o + 4] & 0xFF);
+    }
   }
 
   @Override
   public void write1(final int pre, final int offset, final int value) {
-    final int o = offset + cursor(pre);
+    final int o = offset + writeCursor(pre);
     final Buffer buffer = buffers.current();
     buffer.data[o] = (byte) value;
     buffer.dirty = true;
@@ -193,7 +235,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write2(final int pre, final int offset, final int value) {
-    final int o = offset + cursor(pre);
+    final int o = offset + writeCursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
     data[o] = (byte) (value >>> 8);
@@ -203,7 +245,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write4(final int pre, final int offset, final int value) {
-    final int o = offset + cursor(pre);
+    final int o = offset + writeCursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
     data[o]     = (byte) (value >>> 24);
@@ -215,7 +257,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write5(final int pre, final int offset, final long value) {
-    final int o = offset + cursor(pre);
+    final int o = offset + writeCursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
     data[o]     = (byte) (value >>> 32);
@@ -432,6 +474,7 @@ public final class TableDiskAccess extends TableAccess {
     sb.append(Util.className(this)).append(" (").append("pages: ").append(pages);
     sb.append(", used: ").append(used).append(", page: ").append(page);
     sb.append(", firstPre: ").append(firstPre).append(", nextPre: ").append(nextPre).append(")");
+    sb.append("\n- ").append(buffers);
     if(fPreIndex != null) sb.append("\n- FPres: ").append(Arrays.toString(fPreIndex));
     if(pageIndex != null) sb.append("\n- Pages: ").append(Arrays.toString(pageIndex));
     if(usedPages != null) sb.append("\n- Used Pages: ").append(usedPages);
@@ -440,10 +483,75 @@ public final class TableDiskAccess extends TableAccess {
 
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Writes the table index.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void writeIndex(final DataOutput out) throws IOException {
+    final int p = pages;
+    boolean regular = true;
+
+    // check if page mapping is regular (are all pages used and in ascending order?)
+    if(fPreIndex != null) {
+      regular = p == used;
+      for(int i = 0; i < p && regular; i++) regular = fPreIndex[i] == i * IO.ENTRIES;
+      for(int i = 0; i < p && regular; i++) regular = pageIndex[i] == i;
+      if(regular) removeMapping();
+    }
+
+    if(regular) {
+      // no mapping available or required (0: empty table; MAX: no mapping, see TableOutput#close)
+      out.writeNum(p);
+      out.writeNum(used == 0 ? 0 : Integer.MAX_VALUE);
+    } else {
+      out.writeNum(p);
+      out.writeNum(used);
+      out.writeNum(p);
+      for(int s = 0; s < p; s++) out.writeNum(fPreIndex[s]);
+      out.writeNum(p);
+      for(int s = 0; s < p; s++) out.writeNum(pageIndex[s]);
+      out.writeLongs(usedPages.toArray());
+    }
+  }
+
+  /**
+   * Maps the table file into memory if memory-mapped access is enabled, and if all buffered
+   * pages have been written to disk. Mapped pages will be read without locking.
+   */
+  private void map() {
+    for(final Buffer buffer : buffers.all()) {
+      if(buffer.dirty) return;
+    }
+    mapping = Mapping.get(file);
+  }
+
+  /**
+   * Returns the file position of the entry for the specified PRE value.
+   * Does not change the page pointers.
+   * @param pre PRE value
+   * @return file position
+   */
+  private long position(final int pre) {
+    final int[] fpres = fPreIndex;
+    // no page mapping: pages are stored in ascending order
+    if(fpres == null) return (long) pre << IO.NODEPOWER;
+
+    int l = 0, h = used - 1;
+    while(l < h) {
+      final int m = l + h + 1 >>> 1;
+      if(fpres[m] <= pre) l = m;
+      else h = m - 1;
+    }
+    return ((long) pageIndex[l] << IO.BLOCKPOWER) + (pre - fpres[l] << IO.NODEPOWER);
+  }
+
   /**
    * Marks the data structures as dirty.
    */
   private void dirty() {
+    // pages will be updated in the buffers
+    mapping = null;
     // initialize data structures required for performing updates
     if(fPreIndex == null) {
       fPreIndex = new int[pages];
@@ -486,6 +594,17 @@ public final class TableDiskAccess extends TableAccess {
     return pre - firstPre << IO.NODEPOWER;
   }
 
+  /**
+   * Invalidates the memory mapping, searches for the page containing the entry for
+   * the specified PRE value and returns its offset inside the page.
+   * @param pre PRE of the entry to be updated
+   * @return offset of the entry in the page
+   */
+  private int writeCursor(final int pre) {
+    mapping = null;
+    return cursor(pre);
+  }
+
   /**
    * Updates the page pointers.
    * @param pre page index
@@ -544,6 +663,7 @@ public final class TableDiskAccess extends TableAccess {
   private void write(final Buffer buffer) throws IOException {
     if(!buffer.dirty) return;
 
+    if(journal != null) journal.write(buffer.pos << IO.BLOCKPOWER);
     file.seek(buffer.pos << IO.BLOCKPOWER);
     file.write(buffer.data);
     buffer.dirty = false;
@@ -0,0 +1,123 @@
+package org.basex.query;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.map.*;
+
+/**
+ * Server-wide cache for compiled query plans. Plans are indexed by the query string and the
+ * static properties of the query. They are discarded after a job with write locks has completed.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCache {
+  /**
+   * Cached query plan.
+   * @param qc query context with the compiled plan
+   * @param modifications modification counter at the time the query was parsed
+   */
+  private record Plan(QueryContext qc, long modifications) { }
+
+  /** Cached plans (LRU replacement policy). */
+  private final LinkedHashMap<String, Plan> plans;
+  /** Static options. */
+  private final StaticOptions soptions;
+
+  /** Number of cache hits. */
+  private long hits;
+  /** Number of cache misses. */
+  private long misses;
+  /** Number of evicted entries. */
+  private long evictions;
+  /** Number of entries that were discarded after updates. */
+  private long invalidations;
+
+  /**
+   * Constructor.
+   * @param soptions static options
+   */
+  public QueryCache(final StaticOptions soptions) {
+    this.soptions = soptions;
+    plans = new LinkedHashMap<>(8, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Plan> eldest) {
+        final boolean evict = size() > max();
+        if(evict) evictions++;
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * Indicates if query plans will be cached.
+   * @return result of check
+   */
+  public boolean enabled() {
+    return max() > 0;
+  }
+
+  /**
+   * Returns the maximum number of entries.
+   * @return maximum number
+   */
+  private int max() {
+    return soptions.get(StaticOptions.QUERYCACHE);
+  }
+
+  /**
+   * Returns a cached query plan.
+   * @param key key
+   * @param modifications current modification counter
+   * @return query context with the compiled plan, or {@code null}
+   */
+  synchronized QueryContext get(final String key, final long modifications) {
+    final Plan plan = plans.get(key);
+    if(plan != null && plan.modifications != modifications) {
+      plans.remove(key);
+      invalidations++;
+    } else if(plan != null) {
+      hits++;
+      return plan.qc;
+    }
+    misses++;
+    return null;
+  }
+
+  /**
+   * Caches a query plan.
+   * @param key key
+   * @param qc query context with the compiled plan
+   * @param modifications modification counter at the time the query was parsed
+   */
+  synchronized void put(final String key, final QueryContext qc, final long modifications) {
+    plans.put(key, new Plan(qc, modifications));
+  }
+
+  /**
+   * Discards all cached plans and resets the statistics.
+   */
+  public synchronized void clear() {
+    plans.clear();
+    hits = 0;
+    misses = 0;
+    evictions = 0;
+    invalidations = 0;
+  }
+
+  /**
+   * Returns statistics of the cache.
+   * @return number of entries, hits, misses, evicted and invalidated entries
+   * @throws QueryException query exception
+   */
+  public synchronized XQMap info() throws QueryException {
+    return new MapBuilder().
+      put("entries", Itr.get(plans.size())).
+      put("hits", Itr.get(hits)).
+      put("misses", Itr.get(misses)).
+      put("evictions", Itr.get(evictions)).
+      put("invalidations", Itr.get(invalidations)).map();
+  }
+}
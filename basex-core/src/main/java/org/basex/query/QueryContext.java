@@ -58,11 +58,11 @@ public final class QueryContext extends Job implements Closeable {
   /** The evaluation stack. */
   public final QueryStack stack = new QueryStack();
   /** Static variables. */
-  public final Variables vars = new Variables();
+  public Variables vars = new Variables();
   /** Values of static variables (shared with parent context). */
   public final GlobalValues globals;
   /** Functions. */
-  public final StaticFuncs functions = new StaticFuncs();
+  public StaticFuncs functions = new StaticFuncs();
   /** Static and dynamic namespaces. */
   public final NSDynContext ns;
   /** Query resources. */
@@ -112,6 +112,8 @@ public final class QueryContext extends Job implements Closeable {
   public final QueryProfiler profiler = new QueryProfiler(this);
   /** Perform tail-call optimizations. */
   public boolean tco;
+  /** Indicates if the compiled query plan can be cached. */
+  public boolean cacheable = true;
 
   /** Function for the next tail call. */
   public XQFunction tcFunc;
@@ -153,6 +155,13 @@ public final class QueryContext extends Job implements Closeable {
   /** Indicates if the default serialization parameters are used. */
   private boolean defaultOutput;
 
+  /** Key of the query plan in the query cache (assigned if the plan may be shared). */
+  private String cacheKey;
+  /** Modification counter at the time the query was parsed. */
+  private long modifications;
+  /** Indicates if the query plan has been adopted from the query cache. */
+  private boolean cached;
+
   /** Indicates if the query has been compiled. */
   private boolean compiled;
   /** Indicates if the query has been optimized. */
@@ -271,6 +280,29 @@ public final class QueryContext extends Job implements Closeable {
     });
   }
 
+  /**
+   * Parses the specified query or adopts a compiled plan from the query cache.
+   * @param query query string
+   * @param sc static context
+   * @throws QueryException query exception
+   */
+  void parseCached(final String query, final StaticContext sc) throws QueryException {
+    final QueryCache cache = context.queries;
+    if(parent == null && cache.enabled() && !bindings.contains(QNm.EMPTY) &&
+        context.current() == null) {
+      modifications = context.locking.modifications();
+      cacheKey = String.join("\0", query, sc.baseURI().toString(), user.name(),
+          context.options.toString());
+      final QueryContext qc = cache.get(cacheKey, modifications);
+      if(qc != null) {
+        info.query = query;
+        adopt(qc);
+        return;
+      }
+    }
+    parseMain(query, null, sc);
+  }
+
   /**
    * Parses the specified module.
    * @param query query string
@@ -359,7 +391,7 @@ public final class QueryContext extends Job implements Closeable {
       }
       vars.bindExternal(this, bindings, true);
 
-      return compile(false);
+      return cached ? null : compile(false);
     });
   }
 
@@ -373,6 +405,8 @@ public final class QueryContext extends Job implements Closeable {
     optimized = true;
 
     run(info.optimizing, () -> {
+      if(cached) return null;
+
       // bind context
       final StaticContext sc = main.sc;
       if(parent == null && !bindings.contains(QNm.EMPTY)) {
@@ -385,7 +419,13 @@ public final class QueryContext extends Job implements Closeable {
       }
       if(contextValue != null) finalContext = true;
 
-      return compile(true);
+      compile(true);
+      // cache plans that do not depend on the dynamic context or on opened resources
+      if(cacheKey != null && cacheable && !updating && contextValue == null &&
+          resources.isEmpty()) {
+        context.queries.put(cacheKey, this, modifications);
+      }
+      return null;
     });
   }
 
@@ -622,6 +662,15 @@ public final class QueryContext extends Job implements Closeable {
     return plan.root();
   }
 
+  /**
+   * Indicates if the query plan may be shared with other queries. If yes, external values must
+   * not be inlined at compile time.
+   * @return result of check
+   */
+  public boolean shared() {
+    return cacheKey != null;
+  }
+
   /**
    * Indicates that the query contains updating expressions.
    */
@@ -740,6 +789,24 @@ public final class QueryContext extends Job implements Closeable {
 
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Adopts the compiled plan of a cached query.
+   * @param qc query context with the compiled plan
+   */
+  private void adopt(final QueryContext qc) {
+    main = qc.main;
+    functions = qc.functions;
+    vars = qc.vars;
+    contextType = qc.contextType;
+    varIDs = qc.varIDs;
+    ftOpt = qc.ftOpt;
+    locks.add(qc.locks);
+    options.adopt(qc.options);
+    // serialization parameters declared in the query
+    if(qc.sopts != null && !qc.defaultOutput) sopts = new SerializerOptions(qc.sopts);
+    cached = true;
+  }
+
   /**
    * Returns the result of an updating expression.
    * @return result iterator
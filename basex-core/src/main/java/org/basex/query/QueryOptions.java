@@ -56,6 +56,14 @@ final class QueryOptions {
     localOpts.put(option, dummyOptions.get(option));
   }
 
+  /**
+   * Adopts the parsed options of another query.
+   * @param qopts query options
+   */
+  void adopt(final QueryOptions qopts) {
+    localOpts.putAll(qopts.localOpts);
+  }
+
   /**
    * Compiles all options.
    */
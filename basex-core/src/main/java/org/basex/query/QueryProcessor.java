@@ -31,6 +31,8 @@ public final class QueryProcessor extends Job implements Closeable {
   private final String query;
   /** Parsed flag. */
   private boolean parsed;
+  /** Indicates if the static context has been customized. */
+  private boolean custom;
 
   /**
    * Default constructor.
@@ -63,7 +65,11 @@ public final class QueryProcessor extends Job implements Closeable {
   public void parse() throws QueryException {
     if(parsed) return;
     try {
-      qc.parseMain(query, null, sc);
+      if(custom) {
+        qc.parseMain(query, null, sc);
+      } else {
+        qc.parseCached(query, sc);
+      }
     } finally {
       parsed = true;
       updating = qc.updating;
@@ -194,6 +200,7 @@ public final class QueryProcessor extends Job implements Closeable {
    */
   public QueryProcessor namespace(final String prefix, final String uri) throws QueryException {
     sc.namespace(prefix, uri);
+    custom = true;
     return this;
   }
 
@@ -204,6 +211,7 @@ public final class QueryProcessor extends Job implements Closeable {
    */
   public QueryProcessor uriResolver(final UriResolver resolver) {
     sc.resolver = resolver;
+    custom = true;
     return this;
   }
 
@@ -218,7 +226,7 @@ public final class QueryProcessor extends Job implements Closeable {
   public Serializer serializer(final OutputStream os) throws IOException, QueryException {
     compile();
     try {
-      return Serializer.get(os, qc.parameters()).sc(sc);
+      return Serializer.get(os, qc.parameters()).sc(qc.main != null ? qc.main.sc : sc);
     } catch(final QueryIOException ex) {
       throw ex.getCause();
     }
@@ -231,6 +239,7 @@ public final class QueryProcessor extends Job implements Closeable {
    */
   public void module(final String uri, final String file) {
     qc.modDeclared.computeIfAbsent(token(uri), TokenList::new).add(token(file));
+    custom = true;
   }
 
   @Override
@@ -122,6 +122,15 @@ public final class QueryResources {
     return globalData ? datas.getFirst() : null;
   }
 
+  /**
+   * Indicates if no resources have been opened or registered.
+   * @return result of check
+   */
+  boolean isEmpty() {
+    return datas.isEmpty() && colls.isEmpty() && external.isEmpty() && functions.isEmpty() &&
+      inputs.isEmpty() && modules == null && texts == null && stop == null && thes == null;
+  }
+
   /**
    * Returns or creates an external resource of the specified class.
    * @param <R> resource
@@ -203,6 +203,7 @@ public interface QueryText {
 
   /** Parser token. */ String LOCK = "lock";
   /** Parser token. */ String NONDETERMNISTIC = "nondeterministic";
+  /** Parser token. */ String PARALLEL = "parallel";
 
   /** Parsed by the syntax highlighter (don’t remove): remaining constants will be ignored. */
   String IGNORE = null;
@@ -401,6 +402,9 @@ public interface QueryText {
   /** Optimization info. */ String OPTCHILD_X = "convert to child steps: %";
   /** Optimization info. */ String OPTUNROLL_X = "unroll: %";
   /** Optimization info. */ String OPTEXIT_X = "enable early exit: %";
+  /** Optimization info. */ String OPTLIMIT_X_X = "limit % to % tuples";
+  /** Optimization info. */ String OPTPARALLEL_X = "evaluate % in parallel";
+  /** Optimization info. */ String OPTJOIN_X = "rewrite to join: %";
   /** Optimization info. */ String OPTOPEN_X = "open database \"%\"";
 
   // MISCELLANEOUS ================================================================================
@@ -18,6 +18,8 @@ import org.basex.util.*;
 public final class BaseXPragma extends Pragma {
   /** Nondeterministic flag. */
   private final boolean ndt;
+  /** Parallel flag. */
+  private final boolean parallel;
 
   /**
    * Constructor.
@@ -27,6 +29,7 @@ public final class BaseXPragma extends Pragma {
   public BaseXPragma(final QNm name, final byte[] value) {
     super(name, value);
     ndt = Token.eq(name.local(), Token.token(QueryText.NONDETERMNISTIC));
+    parallel = Token.eq(name.local(), Token.token(QueryText.PARALLEL));
   }
 
   @Override
@@ -64,6 +67,11 @@ public final class BaseXPragma extends Pragma {
     return !ndt;
   }
 
+  @Override
+  public boolean parallel() {
+    return parallel;
+  }
+
   @Override
   public boolean equals(final Object obj) {
     return obj instanceof BaseXPragma && super.equals(obj);
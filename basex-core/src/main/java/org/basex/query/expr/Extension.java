@@ -1,6 +1,7 @@
 package org.basex.query.expr;
 
 import org.basex.query.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.util.*;
 import org.basex.query.util.index.*;
 import org.basex.query.value.*;
@@ -18,6 +19,8 @@ import org.basex.util.hash.*;
 public final class Extension extends Single {
   /** Pragma. */
   private final Pragma pragma;
+  /** Parallel evaluation. */
+  private boolean parallel;
 
   /**
    * Constructor.
@@ -53,14 +56,24 @@ public final class Extension extends Single {
 
   @Override
   public Expr optimize(final CompileContext cc) {
-    return pragma.simplify() && expr instanceof Value &&
-        !expr.seqType().mayBeWrapped() ? expr : adoptType(expr);
+    if(pragma.simplify() && expr instanceof Value && !expr.seqType().mayBeWrapped()) return expr;
+
+    final boolean par = pragma.parallel() && (
+      expr instanceof final GFLWOR flwor && flwor.parallelizable() ||
+      expr instanceof final SimpleMap map && map.parallelizable());
+    if(par && !parallel) cc.info(QueryText.OPTPARALLEL_X, expr);
+    parallel = par;
+    return adoptType(expr);
   }
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
     final Object state = pragma.init(qc, info);
     try {
+      if(parallel) {
+        if(expr instanceof final GFLWOR flwor) return flwor.parallel(qc);
+        if(expr instanceof final SimpleMap map) return map.parallel(qc);
+      }
       return expr.value(qc);
     } finally {
       pragma.finish(qc, state);
@@ -69,7 +82,9 @@ public final class Extension extends Single {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjectMap<Var> vm) {
-    return copyType(new Extension(info, pragma.copy(), expr.copy(cc, vm)));
+    final Extension ext = new Extension(info, pragma.copy(), expr.copy(cc, vm));
+    ext.parallel = parallel;
+    return copyType(ext);
   }
 
   @Override
@@ -102,7 +117,7 @@ public final class Extension extends Single {
 
   @Override
   public void toXml(final QueryPlan plan) {
-    plan.add(plan.create(this), pragma, expr);
+    plan.add(plan.create(this, QueryText.PARALLEL, parallel ? true : null), pragma, expr);
   }
 
   @Override
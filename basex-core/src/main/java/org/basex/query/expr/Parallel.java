@@ -0,0 +1,190 @@
+package org.basex.query.expr;
+
+import java.util.concurrent.*;
+
+import org.basex.core.jobs.*;
+import org.basex.core.jobs.Job.*;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.*;
+
+/**
+ * Evaluates an expression for all items of a sequence in parallel. The items are partitioned
+ * into chunks, which are processed on the shared fork/join pool. Each chunk is evaluated in an
+ * isolated query context with the local variables and the focus of the original context.
+ * The results of the chunks are merged in input order.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ * @param <T> result type
+ */
+public final class Parallel<T> extends RecursiveTask<T> {
+  /** Number of chunks per thread. */
+  private static final int CHUNKS = 4;
+
+  /** Functional interface for evaluating a single item. */
+  @FunctionalInterface
+  public interface Action {
+    /**
+     * Evaluates the expression for a single item.
+     * @param item item
+     * @param pos position of the item (starting from 1)
+     * @param qc query context
+     * @return result
+     * @throws QueryException query exception
+     */
+    Value apply(Item item, long pos, QueryContext qc) throws QueryException;
+  }
+
+  /**
+   * Functional interface for evaluating a chunk of items.
+   * @param <T> result type
+   */
+  @FunctionalInterface
+  public interface Chunk<T> {
+    /**
+     * Evaluates a chunk of items.
+     * @param input input items
+     * @param start first item to evaluate (inclusive)
+     * @param end last item to evaluate (exclusive)
+     * @param qc query context
+     * @return result
+     * @throws QueryException query exception
+     */
+    T apply(Value input, long start, long end, QueryContext qc) throws QueryException;
+  }
+
+  /**
+   * Functional interface for merging the results of two adjacent chunks.
+   * @param <T> result type
+   */
+  @FunctionalInterface
+  public interface Merge<T> {
+    /**
+     * Merges two results.
+     * @param result1 result of the first chunk
+     * @param result2 result of the subsequent chunk
+     * @return merged result
+     * @throws QueryException query exception
+     */
+    T apply(T result1, T result2) throws QueryException;
+  }
+
+  /** Input items. */
+  private final Value input;
+  /** Chunk evaluation. */
+  private final Chunk<T> chunk;
+  /** Merge function. */
+  private final Merge<T> merge;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Maximum number of items per chunk. */
+  private final long max;
+  /** First item to evaluate (inclusive). */
+  private final long start;
+  /** Last item to evaluate (exclusive). */
+  private final long end;
+
+  /**
+   * Private constructor.
+   * @param input input items
+   * @param chunk chunk evaluation
+   * @param merge merge function
+   * @param qc query context
+   * @param max maximum number of items per chunk
+   * @param start first item to evaluate
+   * @param end last item to evaluate
+   */
+  private Parallel(final Value input, final Chunk<T> chunk, final Merge<T> merge,
+      final QueryContext qc, final long max, final long start, final long end) {
+    this.input = input;
+    this.chunk = chunk;
+    this.merge = merge;
+    this.qc = qc;
+    this.max = max;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Evaluates an action for all items of the input in parallel.
+   * @param input input items
+   * @param action action to evaluate
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  public static Value value(final Value input, final Action action, final QueryContext qc)
+      throws QueryException {
+    return input.isEmpty() ? Empty.VALUE : get(input, (in, s, e, ctx) -> {
+      final ValueBuilder vb = new ValueBuilder(ctx);
+      for(long i = s; i < e; i++) vb.add(action.apply(in.itemAt(i), i + 1, ctx));
+      return vb.value();
+    }, (value1, value2) -> value1.append(value2, qc), qc);
+  }
+
+  /**
+   * Evaluates chunks of the input in parallel and merges the results.
+   * @param <T> result type
+   * @param input input items
+   * @param chunk chunk evaluation
+   * @param merge merge function
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  public static <T> T get(final Value input, final Chunk<T> chunk, final Merge<T> merge,
+      final QueryContext qc) throws QueryException {
+    final long size = input.size();
+    final ForkJoinPool pool = ForkJoinPool.commonPool();
+    final long chunks = (long) pool.getParallelism() * CHUNKS;
+    final Parallel<T> task = new Parallel<>(input, chunk, merge, qc,
+        Math.max(1, (size + chunks - 1) / chunks), 0, size);
+    try {
+      return pool.invoke(task);
+    } catch(final Exception ex) {
+      // pass on query and job exceptions
+      final Throwable e = Util.rootException(ex);
+      if(e instanceof final QueryException qe) throw qe;
+      if(e instanceof final JobException je) throw je;
+      throw ex;
+    }
+  }
+
+  @Override
+  protected T compute() {
+    try {
+      return computeValue();
+    } catch(final QueryException ex) {
+      completeExceptionally(ex);
+      cancel(true);
+      return null;
+    }
+  }
+
+  /**
+   * Performs the computation, splitting the work and rejoining the results in order.
+   * @return result
+   * @throws QueryException query exception
+   */
+  private T computeValue() throws QueryException {
+    final long size = end - start;
+    if(size <= max) {
+      // evaluate the chunk in an isolated query context
+      try(QueryContext ctx = new QueryContext(qc, qc.ns); Binding bound = ctx.bind()) {
+        ctx.stack.enterFrame(qc.stack);
+        ctx.focus = qc.focus.copy();
+        return chunk.apply(input, start, end, ctx);
+      }
+    }
+    // split the work and merge the results in the correct order
+    final long middle = start + size / 2;
+    final Parallel<T> task2 = new Parallel<>(input, chunk, merge, qc, max, middle, end);
+    task2.fork();
+    final Parallel<T> task1 = new Parallel<>(input, chunk, merge, qc, max, start, middle);
+    final T result1 = task1.invoke(), result2 = task2.join();
+    return merge.apply(result1, result2);
+  }
+}
@@ -72,6 +72,14 @@ public abstract class Pragma extends ExprInfo {
    */
   public abstract boolean simplify();
 
+  /**
+   * Indicates if the enclosed expression is to be evaluated in parallel.
+   * @return result of check
+   */
+  public boolean parallel() {
+    return false;
+  }
+
   /**
    * {@inheritDoc}
    * Must be overwritten by implementing class.
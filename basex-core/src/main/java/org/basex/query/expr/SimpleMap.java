@@ -12,6 +12,7 @@ import org.basex.query.func.*;
 import org.basex.query.func.fn.*;
 import org.basex.query.util.*;
 import org.basex.query.util.list.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
@@ -329,6 +330,54 @@ public abstract class SimpleMap extends Mapping {
         ? cc.emptySeq(this) : null;
   }
 
+  /**
+   * Checks if the operands can be evaluated in parallel for the items of the first operand.
+   * This is the case if no operand is nondeterministic or updating, and if the operands after
+   * the second one do not access the position or size of the focus (it would only cover the
+   * partial result of a single input item).
+   * @return result of check
+   */
+  public final boolean parallelizable() {
+    final int el = exprs.length;
+    for(int e = 2; e < el; e++) {
+      if(exprs[e].has(Flag.POS, Flag.HOF)) return false;
+    }
+    return !has(Flag.NDT, Flag.UPD);
+  }
+
+  /**
+   * Evaluates the remaining operands in parallel for the items of the first operand.
+   * Must only be called if {@link #parallelizable()} returns {@code true}.
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  public final Value parallel(final QueryContext qc) throws QueryException {
+    final Value input = exprs[0].value(qc);
+    final long size = input.size();
+    final int el = exprs.length;
+    return Parallel.value(input, (item, pos, ctx) -> {
+      final QueryFocus focus = ctx.focus;
+      focus.value = item;
+      focus.pos = pos;
+      focus.size = size;
+      Value value = exprs[1].value(ctx);
+      for(int e = 2; e < el; e++) {
+        final ValueBuilder vb = new ValueBuilder(ctx);
+        final long vs = value.size();
+        long p = 0;
+        for(final Item it : value) {
+          focus.value = it;
+          focus.pos = ++p;
+          focus.size = vs;
+          vb.add(exprs[e].value(ctx));
+        }
+        value = vb.value(exprs[e]);
+      }
+      return value;
+    }, qc);
+  }
+
   /**
    * Converts the map to a path expression.
    * @param mode mode of simplification
@@ -74,8 +74,10 @@ public final class FTAnd extends FTExpr {
 
           final int d = nodes[0].pre() - nodes[i].pre();
           if(d != 0) {
+            // skip nodes with smaller PRE values
+            final int pre = Math.max(nodes[0].pre(), nodes[i].pre());
             if(d < 0) i = 0;
-            nodes[i] = iters[i].next();
+            nodes[i] = iters[i].next(pre);
             i = -1;
           }
         }
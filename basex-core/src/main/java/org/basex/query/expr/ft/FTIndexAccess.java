@@ -40,12 +40,21 @@ public final class FTIndexAccess extends Simple {
 
   @Override
   public NodeIter iter(final QueryContext qc) throws QueryException {
-    final FTIter iter = ftexpr.iter(qc);
+    return iter(ftexpr.iter(qc), qc);
+  }
+
+  /**
+   * Returns an iterator for the nodes of a full-text iterator.
+   * @param iter full-text iterator
+   * @param qc query context
+   * @return iterator
+   */
+  public static NodeIter iter(final FTIter iter, final QueryContext qc) {
     return new NodeIter() {
       @Override
       public XNode next() throws QueryException {
         final FTNode item = iter.next();
-        if(item != null) {
+        if(item != null && item.matches() != null) {
           // assign scoring
           if(qc.scoring) item.score();
           // cache entry for visualizations or ft:mark/ft:extract
@@ -153,6 +153,11 @@ public final class FTWords extends FTExpr {
 
       @Override
       public FTNode next() throws QueryException {
+        return next(0);
+      }
+
+      @Override
+      public FTNode next(final int pre) throws QueryException {
         if(ftiter == null) {
           final FTTokenizer ftt = FTWords.this.get(qc);
           final FTLexer lexer = new FTLexer(ftOpt).
@@ -203,7 +208,7 @@ public final class FTWords extends FTExpr {
             }
           }
         }
-        return ftiter == null || !ftiter.more() ? null :
+        return ftiter == null || !ftiter.more(pre) ? null :
           new FTNode(ftiter.matches(), data, ftiter.pre(), length, ftiter.size());
       }
     };
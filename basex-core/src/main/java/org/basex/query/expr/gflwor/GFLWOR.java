@@ -86,8 +86,27 @@ public final class GFLWOR extends ParseExpr {
    * @return the evaluator
    */
   private Eval newEval() {
-    Eval eval = new StartEval();
-    for(final Clause clause : clauses) eval = clause.eval(eval);
+    return newEval(clauses);
+  }
+
+  /**
+   * Creates a new evaluator for the specified clauses.
+   * @param list clauses
+   * @return the evaluator
+   */
+  private static Eval newEval(final Iterable<Clause> list) {
+    return newEval(new StartEval(), list);
+  }
+
+  /**
+   * Creates a new evaluator for the specified clauses.
+   * @param start initial evaluator
+   * @param list clauses
+   * @return the evaluator
+   */
+  private static Eval newEval(final Eval start, final Iterable<Clause> list) {
+    Eval eval = start;
+    for(final Clause clause : list) eval = clause.eval(eval);
     return eval;
   }
 
@@ -149,11 +168,15 @@ public final class GFLWOR extends ParseExpr {
     // apply all optimizations in a row until nothing changes anymore
     while(flattenReturn(cc) | flattenFor(cc) | unnestFLWR(cc) | unnestLets(cc) | ifToWhere(cc) |
         forToLet(cc) | slideLetsOut(cc) | inlineForLet(cc) | unusedClauses(cc) | unusedVars(cc) |
-        cleanDeadVars() | optimizeCond(cc, true) | optimizeCond(cc, false) | optimizePos(cc) |
-        optimizeOrderBy(cc));
+        cleanDeadVars() | joins(cc) | optimizeCond(cc, true) | optimizeCond(cc, false) |
+        optimizePos(cc) | optimizeOrderBy(cc));
 
     mergeWheres(cc, true);
     mergeWheres(cc, false);
+    // invalidate tuple limits if the results of an order by clause are processed further
+    for(final Clause clause : clauses) {
+      if(clause instanceof final OrderBy order && !limitable(order)) order.limit = Long.MAX_VALUE;
+    }
 
     final Expr expr = simplify(cc);
     if(expr != null) {
@@ -638,6 +661,34 @@ public final class GFLWOR extends ParseExpr {
     return changed;
   }
 
+  /**
+   * Rewrites nested 'for' clauses with comparisons to joins.
+   * The sequence of the inner 'for' clause is indexed once, and the incoming tuples are probed.
+   * Example: for $a in A for $b in B where $a/@id = $b/@ref
+   * @param cc compilation context
+   * @return change flag
+   * @throws QueryException query exception
+   */
+  private boolean joins(final CompileContext cc) throws QueryException {
+    boolean changed = false;
+    // variables of leading 'let' clauses are constant and can be referenced by the inner sequence
+    final ArrayList<Var> outer = new ArrayList<>();
+    boolean loop = false;
+    for(int c = 0; c < clauses.size(); c++) {
+      final Clause clause = clauses.get(c);
+      if(loop && clause instanceof final For fr) {
+        final Join join = Join.get(fr, clauses.subList(c + 1, clauses.size()), outer, cc);
+        if(join != null) {
+          clauses.set(c, join);
+          changed = true;
+        }
+      }
+      loop |= !(clause instanceof Let || clause instanceof Where);
+      if(loop) outer.addAll(Arrays.asList(clause.vars()));
+    }
+    return changed;
+  }
+
   /**
    * Slides where/while clauses upwards and removes those that do not filter anything.
    * @param cc compilation context
@@ -770,6 +821,90 @@ public final class GFLWOR extends ParseExpr {
     return changed;
   }
 
+  /**
+   * Limits the number of tuples returned by a final order by clause.
+   * Called if only the first results of this expression will be requested.
+   * @param max maximum number of results
+   * @param cc compilation context
+   */
+  public void limit(final long max, final CompileContext cc) {
+    if(clauses.getLast() instanceof final OrderBy order && limitable(order) &&
+        max < order.limit) {
+      order.limit = max;
+      cc.info(QueryText.OPTLIMIT_X_X, order, max);
+    }
+  }
+
+  /**
+   * Checks if the iterations of the leading for clause are independent and can be evaluated
+   * in parallel. This is the case if no clause before an optional group by clause depends on
+   * other tuples or stops the tuple stream, and if no clause is nondeterministic or updating.
+   * @return result of check
+   */
+  public boolean parallelizable() {
+    if(!(clauses.getFirst() instanceof final For fr) || fr.score != null || fr.empty) return false;
+    for(final Clause clause : clauses) {
+      if(clause instanceof GroupBy) break;
+      if(clause instanceof OrderBy || clause instanceof Count || clause instanceof While) {
+        return false;
+      }
+    }
+    return !has(Flag.NDT, Flag.UPD);
+  }
+
+  /**
+   * Evaluates the iterations of the leading for clause in parallel.
+   * If the expression contains a group by clause, partial groups are built in parallel and
+   * merged, and the remaining clauses are evaluated sequentially.
+   * Must only be called if {@link #parallelizable()} returns {@code true}.
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  public Value parallel(final QueryContext qc) throws QueryException {
+    final For fr = (For) clauses.getFirst();
+    final Value input = fr.expr.value(qc);
+    int g = 0;
+    final int cs = clauses.size();
+    while(++g < cs && !(clauses.get(g) instanceof GroupBy));
+    final Iterable<Clause> pre = clauses.subList(1, g);
+
+    // evaluators are created once per chunk (join clauses build their index only once)
+    if(g == cs) {
+      return Parallel.get(input, (in, start, end, ctx) -> {
+        final Eval eval = newEval(new ChunkEval(fr, in, start, end), pre);
+        final ValueBuilder vb = new ValueBuilder(ctx);
+        while(eval.next(ctx)) vb.add(rtrn.value(ctx));
+        return vb.value(rtrn);
+      }, (value1, value2) -> value1.append(value2, qc), qc);
+    }
+
+    // group by: build partial groups in parallel and merge them in input order
+    final GroupBy group = (GroupBy) clauses.get(g);
+    final GroupBy.Groups groups = Parallel.get(input, (in, start, end, ctx) -> {
+      final GroupBy.Groups grps = group.groups(ctx);
+      final Eval eval = newEval(new ChunkEval(fr, in, start, end), pre);
+      while(eval.next(ctx)) grps.add(ctx);
+      return grps;
+    }, GroupBy.Groups::add, qc);
+
+    Eval eval = group.eval(ctx -> groups);
+    for(final Clause clause : clauses.subList(g + 1, cs)) eval = clause.eval(eval);
+    final ValueBuilder vb = new ValueBuilder(qc);
+    while(eval.next(qc)) vb.add(rtrn.value(qc));
+    return vb.value(this);
+  }
+
+  /**
+   * Checks if the number of tuples returned by an order by clause can be limited.
+   * This is the case if it is the last clause, and if a single item is returned per tuple.
+   * @param order order by clause
+   * @return result of check
+   */
+  private boolean limitable(final OrderBy order) {
+    return order == clauses.getLast() && rtrn.seqType().one();
+  }
+
   /**
    * Simplify order by clauses.
    * @param cc compilation context
@@ -1063,7 +1198,8 @@ public final class GFLWOR extends ParseExpr {
     // check if an outer clause can prevent the error
     while(iter.hasPrevious()) {
       final Clause b4 = iter.previous();
-      if(b4 instanceof For || b4 instanceof Window || b4 instanceof Where || b4 instanceof While) {
+      if(b4 instanceof For || b4 instanceof Join || b4 instanceof Window || b4 instanceof Where ||
+          b4 instanceof While) {
         iter.next();
         while(iter.hasNext()) {
           iter.next();
@@ -1164,4 +1300,39 @@ public final class GFLWOR extends ParseExpr {
       return true;
     }
   }
+
+  /** Evaluator that binds a range of items to the variables of a for clause. */
+  private static final class ChunkEval extends Eval {
+    /** For clause. */
+    private final For fr;
+    /** Input items. */
+    private final Value input;
+    /** Last item to bind (exclusive). */
+    private final long end;
+    /** Next item to bind. */
+    private long i;
+
+    /**
+     * Constructor.
+     * @param fr for clause
+     * @param input input items
+     * @param start first item to bind (inclusive)
+     * @param end last item to bind (exclusive)
+     */
+    private ChunkEval(final For fr, final Value input, final long start, final long end) {
+      this.fr = fr;
+      this.input = input;
+      this.end = end;
+      i = start;
+    }
+
+    @Override
+    public boolean next(final QueryContext qc) throws QueryException {
+      if(i == end) return false;
+      qc.set(fr.var, input.itemAt(i));
+      if(fr.pos != null) qc.set(fr.pos, Itr.get(i + 1));
+      i++;
+      return true;
+    }
+  }
 }
@@ -85,6 +85,28 @@ public final class GroupBy extends Clause {
 
   @Override
   Eval eval(final Eval sub) {
+    return eval(qc -> {
+      final Groups groups = new Groups(qc);
+      while(sub.next(qc)) groups.add(qc);
+      return groups;
+    });
+  }
+
+  /**
+   * Returns a new hash table for building groups.
+   * @param qc query context
+   * @return hash table
+   */
+  Groups groups(final QueryContext qc) {
+    return new Groups(qc);
+  }
+
+  /**
+   * Returns an evaluator for groups that are built by the specified function.
+   * @param build function for building the groups
+   * @return evaluator
+   */
+  Eval eval(final QueryFunction<QueryContext, Groups> build) {
     return new Eval() {
       /** Groups to iterate over. */
       private Group[] groups;
@@ -93,7 +115,8 @@ public final class GroupBy extends Clause {
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(groups == null) groups = init(qc);
+        // copy the array so the list can be garbage-collected
+        if(groups == null) groups = build.apply(qc).list.toArray(Group[]::new);
         if(pos == groups.length) return false;
 
         final Group curr = groups[pos];
@@ -111,96 +134,134 @@ public final class GroupBy extends Clause {
         for(int i = 0; i < pl; i++) qc.set(post[i], curr.ngv[i].value(preExpr[i]));
         return true;
       }
+    };
+  }
 
-      /**
-       * Builds up the groups.
-       * @param qc query context
-       * @throws QueryException query exception
-       */
-      private Group[] init(final QueryContext qc) throws QueryException {
-        final ArrayList<Group> grps = new ArrayList<>();
-        final IntObjectMap<Group> map = new IntObjectMap<>();
-        final DeepEqual[] deeps = new DeepEqual[nonOcc];
-        int c = 0;
-        for(final GroupSpec spec : specs) {
-          if(!spec.occluded) deeps[c++] = new DeepEqual(info, spec.coll, qc);
-        }
+  /**
+   * Hash table with the groups of the tuples that have been added so far.
+   * Groups are returned in the order of their first occurrence.
+   */
+  final class Groups {
+    /** Groups in the order of their first occurrence. */
+    private final ArrayList<Group> list = new ArrayList<>();
+    /** Hash table, referencing the first group with a given hash value. */
+    private final IntObjectMap<Group> map = new IntObjectMap<>();
+    /** Deep equality comparisons. */
+    private final DeepEqual[] deeps = new DeepEqual[nonOcc];
+    /** Query context. */
+    private final QueryContext qc;
+
+    /**
+     * Constructor.
+     * @param qc query context
+     */
+    Groups(final QueryContext qc) {
+      this.qc = qc;
+      int c = 0;
+      for(final GroupSpec spec : specs) {
+        if(!spec.occluded) deeps[c++] = new DeepEqual(info, spec.coll, qc);
+      }
+    }
 
-        while(sub.next(qc)) {
-          final Item[] key = new Item[nonOcc];
-          int p = 0, hash = 1;
-          for(final GroupSpec spec : specs) {
-            final Item atom = spec.atomItem(qc, info);
-            if(!spec.occluded) {
-              key[p++] = atom;
-              // If the values are compared using a special collation, we let them collide
-              // here and let the comparison do all the work later.
-              // This enables other non-collation specs to avoid the collision.
-              hash = 31 * hash + (atom == Empty.VALUE || spec.coll != null ? 0 : atom.hashCode());
-            }
-            qc.set(spec.var, atom);
-          }
+    /**
+     * Adds the current tuple to its group.
+     * @param ctx query context in which the tuple is bound
+     * @throws QueryException query exception
+     */
+    void add(final QueryContext ctx) throws QueryException {
+      final Item[] key = new Item[nonOcc];
+      int p = 0, hash = 1;
+      for(final GroupSpec spec : specs) {
+        final Item atom = spec.atomItem(ctx, info);
+        if(!spec.occluded) {
+          key[p++] = atom;
+          // If the values are compared using a special collation, we let them collide
+          // here and let the comparison do all the work later.
+          // This enables other non-collation specs to avoid the collision.
+          hash = 31 * hash + (atom == Empty.VALUE || spec.coll != null ? 0 : atom.hashCode());
+        }
+        ctx.set(spec.var, atom);
+      }
 
-          // find the group for this key
-          final Group fst;
-          Group grp = null;
-          // no collations, so we can use hashing
-          for(Group g = fst = map.get(hash); g != null; g = g.next) {
-            if(eq(key, g.key, deeps)) {
-              grp = g;
-              break;
-            }
-          }
+      final int pl = preExpr.length;
+      Group grp = group(key, hash);
+      if(grp == null) {
+        // new group, add it to the list
+        final ValueBuilder[] ngs = new ValueBuilder[pl];
+        for(int n = 0; n < pl; n++) ngs[n] = new ValueBuilder(qc);
+        grp = new Group(key, hash, ngs);
+        insert(grp);
+      }
 
-          final int pl = preExpr.length;
-          if(grp == null) {
-            // new group, add it to the list
-            final ValueBuilder[] ngs = new ValueBuilder[pl];
-            final int nl = ngs.length;
-            for(int n = 0; n < nl; n++) ngs[n] = new ValueBuilder(qc);
-            grp = new Group(key, ngs);
-            grps.add(grp);
-
-            // insert the group into the hash table
-            if(fst == null) {
-              map.put(hash, grp);
-            } else {
-              final Group nxt = fst.next;
-              fst.next = grp;
-              grp.next = nxt;
-            }
-          }
+      // add values of non-grouping variables to the group
+      for(int g = 0; g < pl; g++) grp.ngv[g].add(preExpr[g].value(ctx));
+    }
 
-          // add values of non-grouping variables to the group
-          for(int g = 0; g < pl; g++) {
-            grp.ngv[g].add(preExpr[g].value(qc));
-          }
+    /**
+     * Adds the groups of a table that has been built for subsequent tuples.
+     * @param groups groups to add
+     * @return self reference
+     * @throws QueryException query exception
+     */
+    Groups add(final Groups groups) throws QueryException {
+      for(final Group group : groups.list) {
+        final Group grp = group(group.key, group.hash);
+        if(grp == null) {
+          group.next = null;
+          insert(group);
+        } else {
+          final int pl = grp.ngv.length;
+          for(int g = 0; g < pl; g++) grp.ngv[g].add(group.ngv[g].value());
         }
+      }
+      return this;
+    }
 
-        // we're finished, copy the array so the list can be garbage-collected
-        return grps.toArray(Group[]::new);
+    /**
+     * Returns the group with the specified key.
+     * @param key grouping key
+     * @param hash hash value of the key
+     * @return group or {@code null}
+     * @throws QueryException query exception
+     */
+    private Group group(final Item[] key, final int hash) throws QueryException {
+      for(Group g = map.get(hash); g != null; g = g.next) {
+        if(eq(key, g.key)) return g;
       }
+      return null;
+    }
 
-      /**
-       * Checks two keys for equality.
-       * @param items1 first keys
-       * @param items2 second keys
-       * @param deeps deep equality comparisons
-       * @return {@code true} if the compare as equal, {@code false} otherwise
-       * @throws QueryException query exception
-       */
-      private static boolean eq(final Item[] items1, final Item[] items2, final DeepEqual[] deeps)
-          throws QueryException {
-
-        final int il = items1.length;
-        for(int i = 0; i < il; i++) {
-          final Item item1 = items1[i], item2 = items2[i];
-          final boolean empty1 = item1 == Empty.VALUE, empty2 = item2 == Empty.VALUE;
-          if(empty1 ^ empty2 || !empty1 && !deeps[i].equal(item1, item2)) return false;
-        }
-        return true;
+    /**
+     * Inserts a new group.
+     * @param grp group
+     */
+    private void insert(final Group grp) {
+      list.add(grp);
+      final Group fst = map.get(grp.hash);
+      if(fst == null) {
+        map.put(grp.hash, grp);
+      } else {
+        grp.next = fst.next;
+        fst.next = grp;
       }
-    };
+    }
+
+    /**
+     * Checks two keys for equality.
+     * @param items1 first keys
+     * @param items2 second keys
+     * @return {@code true} if the compare as equal, {@code false} otherwise
+     * @throws QueryException query exception
+     */
+    private boolean eq(final Item[] items1, final Item[] items2) throws QueryException {
+      final int il = items1.length;
+      for(int i = 0; i < il; i++) {
+        final Item item1 = items1[i], item2 = items2[i];
+        final boolean empty1 = item1 == Empty.VALUE, empty2 = item2 == Empty.VALUE;
+        if(empty1 ^ empty2 || !empty1 && !deeps[i].equal(item1, item2)) return false;
+      }
+      return true;
+    }
   }
 
   @Override
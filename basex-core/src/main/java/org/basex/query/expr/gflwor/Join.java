@@ -0,0 +1,465 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.hash.*;
+import org.basex.query.util.list.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * GFLWOR join clause: a {@code for} clause over an independent sequence, followed by
+ * comparisons between the items of the sequence and the incoming tuples.
+ * The items of the sequence (build side) are indexed once, and the incoming tuples
+ * (probe side) are looked up in the index. Equality comparisons are hashed; a single
+ * range comparison on numeric keys is resolved via binary search in the sorted keys.
+ * The items bound to the variable are returned in their original order.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class Join extends Clause {
+  /** Item variable. */
+  private final Var var;
+  /** Bound expression (build side). */
+  private Expr expr;
+  /** Keys of the incoming tuples (probe side). */
+  private final Expr[] probes;
+  /** Keys of the bound items (build side, depending on the item variable). */
+  private final Expr[] builds;
+  /** Comparison operators ({@code probe op build}). */
+  private final CmpOp[] ops;
+
+  /**
+   * Constructor.
+   * @param var item variable
+   * @param expr bound expression
+   * @param probes keys of the incoming tuples
+   * @param builds keys of the bound items
+   * @param ops comparison operators
+   * @param info input info (can be {@code null})
+   */
+  Join(final Var var, final Expr expr, final Expr[] probes, final Expr[] builds,
+      final CmpOp[] ops, final InputInfo info) {
+    super(info, Types.ITEM_ZO, var);
+    this.var = var;
+    this.expr = expr;
+    this.probes = probes;
+    this.builds = builds;
+    this.ops = ops;
+  }
+
+  /**
+   * Tries to rewrite a for clause and the subsequent where clauses to a join.
+   * The where clauses that are consumed by the join are removed from the list.
+   * @param fr for clause
+   * @param wheres clauses following the for clause
+   * @param outer variables of the preceding clauses that may change between tuples
+   * @param cc compilation context
+   * @return join clause or {@code null}
+   * @throws QueryException query exception
+   */
+  static Join get(final For fr, final java.util.List<Clause> wheres, final ArrayList<Var> outer,
+      final CompileContext cc) throws QueryException {
+    // for $b allowing empty at $p score $s as xs:string in B
+    final Var var = fr.var;
+    if(fr.vars.length != 1 || fr.empty || fr.scoring || var.declType != null) return null;
+    // build side must be independent of the incoming tuples
+    final Expr expr = fr.expr;
+    if(expr.seqType().zeroOrOne() || expr.has(Flag.NDT) || uses(expr, outer)) return null;
+
+    // collect comparisons between the incoming tuples and the bound items
+    final ExprList probes = new ExprList(), builds = new ExprList();
+    final ArrayList<CmpOp> ops = new ArrayList<>();
+    final ArrayList<Clause> consumed = new ArrayList<>();
+    // only consider the comparisons directly following the for clause: subsequent clauses
+    // may guard the comparisons from raising errors
+    for(final Clause clause : wheres) {
+      if(!(clause instanceof final Where where && where.expr instanceof final CmpG cmp) ||
+          cmp.has(Flag.NDT) || cmp.sc().collation != null) break;
+      final Expr expr1 = cmp.arg(0), expr2 = cmp.arg(1);
+      final boolean uses1 = expr1.uses(var), uses2 = expr2.uses(var);
+      final Expr probe = uses1 ? expr2 : expr1, build = uses1 ? expr1 : expr2;
+      final CmpOp op = uses1 ? cmp.cmpOp().swap() : cmp.cmpOp();
+      if(!(uses1 ^ uses2) || uses(build, outer) || (op == CmpOp.EQ ?
+          !hashable(probe, build) : op == CmpOp.NE || !sortable(probe, build))) break;
+      probes.add(probe);
+      builds.add(build);
+      ops.add(op);
+      consumed.add(where);
+    }
+    if(ops.isEmpty()) return null;
+
+    // leading equality comparisons are hashed; otherwise, the first range comparison is chosen
+    final boolean hash = ops.get(0) == CmpOp.EQ;
+    int size = 1;
+    while(hash && size < ops.size() && ops.get(size) == CmpOp.EQ) size++;
+    for(int o = ops.size() - 1; o >= 0; o--) {
+      if(o >= size) {
+        probes.remove(o);
+        builds.remove(o);
+        ops.remove(o);
+        consumed.remove(o);
+      }
+    }
+    wheres.removeIf(clause -> Checks.any(consumed, cl -> cl == clause));
+
+    final Join join = new Join(var, expr, probes.finish(), builds.finish(),
+        ops.toArray(CmpOp[]::new), fr.info()).optimize(cc);
+    cc.info(OPTJOIN_X, join);
+    return join;
+  }
+
+  /**
+   * Checks if an expression references one of the specified variables.
+   * @param expr expression
+   * @param vars variables
+   * @return result of check
+   */
+  private static boolean uses(final Expr expr, final ArrayList<Var> vars) {
+    for(final Var vr : vars) {
+      if(expr.uses(vr)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the items of two keys can be hashed (see {@link CmpG}).
+   * @param probe probe key
+   * @param build build key
+   * @return result of check
+   */
+  private static boolean hashable(final Expr probe, final Expr build) {
+    final Type type1 = probe.seqType().type, type2 = build.seqType().type;
+    return type1.isNumber() && type2.isNumber() ||
+        type1.isStringOrUntyped() && type2.isStringOrUntyped() ||
+        type1 == BasicType.BOOLEAN && type2 == BasicType.BOOLEAN;
+  }
+
+  /**
+   * Checks if two keys can be compared via sorted keys: both must yield single decimals.
+   * @param probe probe key
+   * @param build build key
+   * @return result of check
+   */
+  private static boolean sortable(final Expr probe, final Expr build) {
+    final SeqType st1 = probe.seqType(), st2 = build.seqType();
+    return st1.one() && st2.one() && st1.type.instanceOf(BasicType.DECIMAL) &&
+        st2.type.instanceOf(BasicType.DECIMAL);
+  }
+
+  @Override
+  Eval eval(final Eval sub) {
+    return new Eval() {
+      /** Index over the bound items (built on demand). */
+      private Index index;
+      /** Positions of the items that match the current tuple. */
+      private int[] positions;
+      /** Current position. */
+      private int p;
+
+      @Override
+      public boolean next(final QueryContext qc) throws QueryException {
+        while(true) {
+          if(positions != null && p < positions.length) {
+            qc.set(var, index.items.itemAt(positions[p++]));
+            return true;
+          }
+          if(!sub.next(qc)) return false;
+          if(index == null) index = new Index(qc);
+          positions = index.probe(qc);
+          p = 0;
+        }
+      }
+    };
+  }
+
+  /** Index over the items of the build side. */
+  private final class Index {
+    /** Indexed items. */
+    private final Value items;
+    /** Hashed keys (one set per equality comparison). */
+    private HashItemSet[] sets;
+    /** Positions of the items for each hashed key. */
+    private IntList[][] lists;
+    /** Sorted keys (range comparison). */
+    private Item[] keys;
+    /** Positions of the sorted keys. */
+    private int[] order;
+
+    /**
+     * Constructor, indexing the keys of all bound items.
+     * @param qc query context
+     * @throws QueryException query exception
+     */
+    Index(final QueryContext qc) throws QueryException {
+      items = expr.value(qc);
+      final long size = items.size();
+      if(size > Integer.MAX_VALUE) throw RANGE_X.get(info, size);
+      final int is = (int) size, kl = builds.length;
+
+      if(ops[0] == CmpOp.EQ) {
+        sets = new HashItemSet[kl];
+        lists = new IntList[kl][];
+        for(int k = 0; k < kl; k++) {
+          sets[k] = new HashItemSet(ItemSet.Mode.EQUAL, info);
+          lists[k] = new IntList[Array.INITIAL_CAPACITY];
+        }
+        for(int i = 0; i < is; i++) {
+          qc.checkStop();
+          qc.set(var, items.itemAt(i));
+          for(int k = 0; k < kl; k++) {
+            final Iter iter = builds[k].atomIter(qc, info);
+            for(Item item; (item = qc.next(iter)) != null;) {
+              final int id = sets[k].put(item);
+              if(id >= lists[k].length) lists[k] = Arrays.copyOf(lists[k], Array.newCapacity(id));
+              IntList list = lists[k][id];
+              if(list == null) {
+                list = new IntList(1);
+                lists[k][id] = list;
+              }
+              if(list.isEmpty() || list.peek() != i) list.add(i);
+            }
+          }
+        }
+      } else {
+        keys = new Item[is];
+        for(int i = 0; i < is; i++) {
+          qc.checkStop();
+          qc.set(var, items.itemAt(i));
+          keys[i] = builds[0].item(qc, info);
+        }
+        final Integer[] ints = new Integer[is];
+        for(int i = 0; i < is; i++) ints[i] = i;
+        try {
+          Arrays.sort(ints, (i1, i2) -> {
+            try {
+              return keys[i1].compare(keys[i2], null, false, qc, info);
+            } catch(final QueryException ex) {
+              throw new QueryRTException(ex);
+            }
+          });
+        } catch(final QueryRTException ex) {
+          throw ex.getCause();
+        }
+        order = new int[is];
+        final Item[] sorted = new Item[is];
+        for(int i = 0; i < is; i++) {
+          order[i] = ints[i];
+          sorted[i] = keys[ints[i]];
+        }
+        keys = sorted;
+      }
+    }
+
+    /**
+     * Returns the positions of the items that match the current tuple.
+     * @param qc query context
+     * @return positions in ascending order
+     * @throws QueryException query exception
+     */
+    int[] probe(final QueryContext qc) throws QueryException {
+      if(items.isEmpty()) return new int[0];
+      return sets != null ? probeHash(qc) : probeRange(qc);
+    }
+
+    /**
+     * Returns the positions of the items that match all hashed keys of the current tuple.
+     * @param qc query context
+     * @return positions in ascending order
+     * @throws QueryException query exception
+     */
+    private int[] probeHash(final QueryContext qc) throws QueryException {
+      int[] result = null;
+      final int kl = probes.length;
+      for(int k = 0; k < kl && (result == null || result.length > 0); k++) {
+        final IntList list = new IntList();
+        final Iter iter = probes[k].atomIter(qc, info);
+        int n = 0;
+        for(Item item; (item = qc.next(iter)) != null;) {
+          final int id = sets[k].index(item);
+          if(id != 0) {
+            list.add(lists[k][id].toArray());
+            n++;
+          }
+        }
+        final int[] pos = (n > 1 ? list.ddo() : list).finish();
+        result = result == null ? pos : intersect(result, pos);
+      }
+      return result;
+    }
+
+    /**
+     * Returns the positions of the items that match the range comparison of the current tuple.
+     * @param qc query context
+     * @return positions in ascending order
+     * @throws QueryException query exception
+     */
+    private int[] probeRange(final QueryContext qc) throws QueryException {
+      final Item key = probes[0].item(qc, info);
+      final CmpOp op = ops[0];
+      // probe < build, probe <= build: items with larger keys
+      final boolean larger = op == CmpOp.LT || op == CmpOp.LE;
+      final int bound = bound(key, op == CmpOp.LT || op == CmpOp.GE, qc);
+      final int s = larger ? bound : 0, e = larger ? keys.length : bound;
+      final IntList list = new IntList(Math.max(0, e - s));
+      for(int i = s; i < e; i++) list.add(order[i]);
+      return list.sort().finish();
+    }
+
+    /**
+     * Returns the index of the first sorted key that is larger than (or equal to) the
+     * specified key.
+     * @param key key
+     * @param upper return the first larger key (otherwise, the first larger or equal key)
+     * @param qc query context
+     * @return index
+     * @throws QueryException query exception
+     */
+    private int bound(final Item key, final boolean upper, final QueryContext qc)
+        throws QueryException {
+      int l = 0, h = keys.length;
+      while(l < h) {
+        final int m = l + h >>> 1;
+        final int c = keys[m].compare(key, null, false, qc, info);
+        if(c < 0 || upper && c == 0) l = m + 1;
+        else h = m;
+      }
+      return l;
+    }
+  }
+
+  /**
+   * Intersects two sorted arrays.
+   * @param pos1 first positions
+   * @param pos2 second positions
+   * @return positions in both arrays
+   */
+  private static int[] intersect(final int[] pos1, final int[] pos2) {
+    final IntList list = new IntList(Math.min(pos1.length, pos2.length));
+    final int l1 = pos1.length, l2 = pos2.length;
+    for(int i1 = 0, i2 = 0; i1 < l1 && i2 < l2;) {
+      final int c = Integer.compare(pos1[i1], pos2[i2]);
+      if(c == 0) list.add(pos1[i1]);
+      if(c <= 0) i1++;
+      if(c >= 0) i2++;
+    }
+    return list.finish();
+  }
+
+  @Override
+  public boolean has(final Flag... flags) {
+    return expr.has(flags) || Checks.any(probes, ex -> ex.has(flags)) ||
+        Checks.any(builds, ex -> ex.has(flags));
+  }
+
+  @Override
+  public Join compile(final CompileContext cc) throws QueryException {
+    expr = expr.compile(cc);
+    return optimize(cc);
+  }
+
+  @Override
+  public Join optimize(final CompileContext cc) throws QueryException {
+    exprType.assign(expr.seqType().with(Occ.ZERO_OR_ONE));
+    var.refineType(expr.seqType().with(Occ.EXACTLY_ONE), cc);
+    return this;
+  }
+
+  @Override
+  public boolean inlineable(final InlineContext ic) {
+    return expr.inlineable(ic) && Checks.all(probes, ex -> ex.inlineable(ic)) &&
+        Checks.all(builds, ex -> ex.inlineable(ic));
+  }
+
+  @Override
+  public VarUsage count(final Var v) {
+    final VarUsage uses = VarUsage.sum(v, builds);
+    return uses == VarUsage.NEVER ? expr.count(v).plus(VarUsage.sum(v, probes)) :
+      VarUsage.MORE_THAN_ONCE;
+  }
+
+  @Override
+  public Clause inline(final InlineContext ic) throws QueryException {
+    final Expr inlined = expr.inline(ic);
+    if(inlined != null) expr = inlined;
+    final boolean changed1 = ic.inline(probes), changed2 = ic.inline(builds);
+    return inlined != null || changed1 || changed2 ? optimize(ic.cc) : null;
+  }
+
+  @Override
+  public Join copy(final CompileContext cc, final IntObjectMap<Var> vm) {
+    final Expr ex = expr.copy(cc, vm);
+    final Expr[] prbs = Arr.copyAll(cc, vm, probes);
+    final Var vr = cc.copy(var, vm);
+    return copyType(new Join(vr, ex, prbs, Arr.copyAll(cc, vm, builds), ops.clone(), info));
+  }
+
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return expr.accept(visitor) && visitAll(visitor, probes) && visitor.declared(var) &&
+        visitAll(visitor, builds);
+  }
+
+  @Override
+  public void checkUp() throws QueryException {
+    checkNoUp(expr);
+    checkNoneUp(probes);
+    checkNoneUp(builds);
+  }
+
+  @Override
+  public void calcSize(final long[] minMax) {
+    final long size = expr.size();
+    minMax[0] = 0;
+    final long max = minMax[1];
+    if(max > 0) minMax[1] = size >= 0 ? max * size : -1;
+  }
+
+  @Override
+  public int exprSize() {
+    int size = expr.exprSize();
+    for(final Expr ex : probes) size += ex.exprSize();
+    for(final Expr ex : builds) size += ex.exprSize();
+    return size;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return this == obj || obj instanceof final Join join && var.equals(join.var) &&
+        expr.equals(join.expr) && Array.equals(probes, join.probes) &&
+        Array.equals(builds, join.builds) && Arrays.equals(ops, join.ops);
+  }
+
+  @Override
+  public void toXml(final QueryPlan plan) {
+    final TokenBuilder tb = new TokenBuilder();
+    for(final CmpOp op : ops) tb.add(tb.isEmpty() ? "" : " ").add(op.toString());
+    final FBuilder elem = plan.attachVariable(plan.create(this, TYPE,
+        ops[0] == CmpOp.EQ ? "hash" : "sort", OP, tb), var, false);
+    plan.add(elem, expr, probes, builds);
+  }
+
+  @Override
+  public void toString(final QueryString qs) {
+    qs.token(FOR).token(var).token(IN).token(expr).token(WHERE);
+    final int pl = probes.length;
+    for(int p = 0; p < pl; p++) {
+      if(p > 0) qs.token(AND);
+      qs.token(probes[p]).token(ops[p]).token(builds[p]);
+    }
+  }
+}
@@ -0,0 +1,572 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.util.*;
+import org.basex.query.util.collation.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Sorts the tuples of an {@code order by} clause.
+ *
+ * <ul>
+ *   <li> If only the first tuples are requested, they are collected in a bounded heap.</li>
+ *   <li> Otherwise, the sort keys are extracted to primitive arrays for numbers and strings,
+ *        and the tuples are sorted by a stable merge sort.</li>
+ *   <li> If a tuple limit is assigned via {@link MainOptions#SORTSPILL} (disabled by default),
+ *        if more tuples are buffered, and if the tuples consist of atomic items only,
+ *        they are sorted and spilled to a temporary file.
+ *        The sorted runs are merged when the tuples are returned.</li>
+ * </ul>
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+final class OrderSort {
+  /** Threshold for sorting ranges by insertion. */
+  private static final int INSERTION = 16;
+
+  /** Sort keys. */
+  private final OrderKey[] keys;
+  /** Collations of the sort keys. */
+  private final Collation[] colls;
+  /** Number of values per tuple. */
+  private final int vl;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Maximum number of buffered tuples before they are spilled to disk ({@code 0}: never). */
+  private final int spill;
+  /** Bounded heap with the first tuples ({@code null} if all tuples are sorted). */
+  private final PriorityQueue<Tuple> heap;
+  /** Maximum number of returned tuples. */
+  private final long limit;
+
+  /** Keys of the buffered tuples. */
+  private ArrayList<Item[]> bufferedKeys = new ArrayList<>();
+  /** Values of the buffered tuples. */
+  private ArrayList<Value[]> bufferedValues = new ArrayList<>();
+  /** Spilled runs. */
+  private final ArrayList<IOFile> files = new ArrayList<>();
+  /** Number of tuples in the spilled runs. */
+  private final IntList sizes = new IntList();
+  /** Indicates if the buffered tuples can be spilled. */
+  private boolean spillable;
+  /** Number of added tuples. */
+  private long count;
+
+  /** Sorted tuples ({@code null} if tuples are merged from runs). */
+  private Value[][] sorted;
+  /** Offset of the next sorted tuple. */
+  private int pos;
+  /** Runs to be merged ({@code null} if no runs exist). */
+  private PriorityQueue<Run> runs;
+
+  /**
+   * Constructor.
+   * @param keys sort keys
+   * @param vl number of values per tuple
+   * @param limit maximum number of returned tuples
+   * @param qc query context
+   */
+  OrderSort(final OrderKey[] keys, final int vl, final long limit, final QueryContext qc) {
+    this.keys = keys;
+    this.vl = vl;
+    this.limit = limit;
+    this.qc = qc;
+    final int kl = keys.length;
+    colls = new Collation[kl];
+    for(int k = 0; k < kl; k++) colls[k] = Collation.get(keys[k].coll, keys[k].info());
+    heap = limit < Integer.MAX_VALUE ? new PriorityQueue<>((int) Math.min(limit, 1 << 10),
+      (t1, t2) -> compare(t2, t1)) : null;
+    spill = qc.context.options.get(MainOptions.SORTSPILL);
+    spillable = spill > 0 && heap == null;
+  }
+
+  /**
+   * Adds a tuple.
+   * @param key sort key
+   * @param values values
+   * @throws QueryException query exception
+   */
+  void add(final Item[] key, final Value[] values) throws QueryException {
+    if(heap != null) {
+      // keep the first tuples in a bounded heap
+      final Tuple tuple = new Tuple(key, values, count++);
+      try {
+        if(heap.size() < limit) {
+          heap.add(tuple);
+        } else if(compare(tuple, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(tuple);
+        }
+      } catch(final QueryRTException ex) {
+        throw ex.getCause();
+      }
+      return;
+    }
+
+    bufferedKeys.add(key);
+    bufferedValues.add(values);
+    count++;
+    if(spillable) {
+      for(final Value value : values) {
+        if(!value.isEmpty() && !value.seqType().type.instanceOf(BasicType.ANY_ATOMIC_TYPE)) {
+          spillable = false;
+          break;
+        }
+      }
+      if(spillable && bufferedKeys.size() >= spill) spill();
+    }
+  }
+
+  /**
+   * Returns the next tuple in sorted order.
+   * @return values of the tuple, or {@code null} if all tuples have been returned
+   * @throws QueryException query exception
+   */
+  Value[] next() throws QueryException {
+    if(sorted == null && runs == null) finish();
+    if(sorted != null) {
+      if(pos == sorted.length) return null;
+      final Value[] tuple = sorted[pos];
+      // free the space occupied by the tuple
+      sorted[pos++] = null;
+      return tuple;
+    }
+
+    // merge runs
+    try {
+      final Run run = runs.poll();
+      if(run == null) return null;
+      final Value[] values = run.values;
+      if(run.next()) runs.add(run);
+      return values;
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Sorts the buffered tuples and prepares the merging of spilled runs.
+   * @throws QueryException query exception
+   */
+  private void finish() throws QueryException {
+    if(heap != null) {
+      final int hs = heap.size();
+      sorted = new Value[hs][];
+      for(int h = hs - 1; h >= 0; h--) sorted[h] = heap.poll().values;
+      return;
+    }
+
+    final Item[][] ks = bufferedKeys.toArray(new Item[0][]);
+    final Value[][] vs = bufferedValues.toArray(new Value[0][]);
+    // be nice to the garbage collector
+    bufferedKeys = null;
+    bufferedValues = null;
+
+    final int[] order = sort(ks);
+    if(files.isEmpty()) {
+      final int size = vs.length;
+      sorted = new Value[size][];
+      for(int s = 0; s < size; s++) sorted[s] = vs[order[s]];
+      return;
+    }
+
+    // merge spilled runs with the buffered tuples; on equal keys, earlier runs are preferred
+    runs = new PriorityQueue<>((r1, r2) -> {
+      final int c = compare(r1.key, r2.key);
+      return c != 0 ? c : Integer.compare(r1.id, r2.id);
+    });
+    try {
+      final int fs = files.size();
+      for(int f = 0; f < fs; f++) {
+        final Run run = new FileRun(f, files.get(f), sizes.get(f));
+        if(run.next()) runs.add(run);
+      }
+      final Run run = new MemoryRun(fs, ks, vs, order);
+      if(run.next()) runs.add(run);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Sorts the buffered tuples and writes them to a temporary file.
+   * @throws QueryException query exception
+   */
+  private void spill() throws QueryException {
+    final Item[][] ks = bufferedKeys.toArray(new Item[0][]);
+    final Value[][] vs = bufferedValues.toArray(new Value[0][]);
+    bufferedKeys.clear();
+    bufferedValues.clear();
+
+    final int[] order = sort(ks);
+    try {
+      final IOFile file = new IOFile(File.createTempFile(Prop.NAME + '-', IO.TMPSUFFIX));
+      qc.resources.index(TempFiles.class).add(file);
+      try(DataOutput out = new DataOutput(file)) {
+        for(final int o : order) {
+          for(final Item item : ks[o]) Stores.write(out, item);
+          for(final Value value : vs[o]) Stores.write(out, value);
+        }
+      }
+      files.add(file);
+      sizes.add(order.length);
+    } catch(final IOException ex) {
+      throw IOERR_X.get(keys[0].info(), ex);
+    }
+  }
+
+  /**
+   * Sorts the specified keys.
+   * @param ks keys
+   * @return order of the keys
+   * @throws QueryException query exception
+   */
+  private int[] sort(final Item[][] ks) throws QueryException {
+    final int size = ks.length, kl = keys.length;
+    final Column[] columns = new Column[kl];
+    for(int k = 0; k < kl; k++) columns[k] = new Column(ks, k);
+
+    final int[] order = new int[size];
+    for(int o = 0; o < size; o++) order[o] = o;
+    sort(order, new int[size], 0, size, columns);
+    return order;
+  }
+
+  /**
+   * Sorts a range of the specified array (stable merge sort).
+   * @param order order of the tuples
+   * @param tmp temporary array
+   * @param start start offset (inclusive)
+   * @param end end offset (exclusive)
+   * @param columns sort keys
+   * @throws QueryException query exception
+   */
+  private void sort(final int[] order, final int[] tmp, final int start, final int end,
+      final Column[] columns) throws QueryException {
+
+    if(end - start <= INSERTION) {
+      for(int i = start + 1; i < end; i++) {
+        final int o = order[i];
+        int j = i - 1;
+        for(; j >= start && compare(columns, order[j], o) > 0; j--) order[j + 1] = order[j];
+        order[j + 1] = o;
+      }
+      return;
+    }
+    qc.checkStop();
+    final int mid = start + end >>> 1;
+    sort(order, tmp, start, mid, columns);
+    sort(order, tmp, mid, end, columns);
+    // skip merge if ranges are already in order
+    if(compare(columns, order[mid - 1], order[mid]) <= 0) return;
+
+    System.arraycopy(order, start, tmp, start, end - start);
+    for(int i = start, l = start, r = mid; i < end; i++) {
+      order[i] = l < mid && (r == end || compare(columns, tmp[l], tmp[r]) <= 0) ?
+        tmp[l++] : tmp[r++];
+    }
+  }
+
+  /**
+   * Compares two tuples with the extracted keys.
+   * @param columns sort keys
+   * @param t1 offset of the first tuple
+   * @param t2 offset of the second tuple
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Column[] columns, final int t1, final int t2) throws QueryException {
+    final int kl = keys.length;
+    for(int k = 0; k < kl; k++) {
+      final OrderKey key = keys[k];
+      final Column column = columns[k];
+      final boolean e1 = column.empty(t1), e2 = column.empty(t2);
+      final int c = e1 || e2 ? e1 ? e2 ? 0 : key.least ? -1 : 1 : key.least ? 1 : -1 :
+        column.compare(t1, t2, k);
+      if(c != 0) return key.desc ? -c : c;
+    }
+    return 0;
+  }
+
+  /**
+   * Compares two tuples.
+   * @param t1 first tuple
+   * @param t2 second tuple
+   * @return result of comparison
+   */
+  private int compare(final Tuple t1, final Tuple t2) {
+    final int c = compare(t1.keys, t2.keys);
+    return c != 0 ? c : Long.compare(t1.id, t2.id);
+  }
+
+  /**
+   * Compares two sort keys.
+   * @param k1 first key
+   * @param k2 second key
+   * @return result of comparison
+   * @throws QueryRTException query exception
+   */
+  private int compare(final Item[] k1, final Item[] k2) {
+    try {
+      qc.checkStop();
+      final int kl = keys.length;
+      for(int k = 0; k < kl; k++) {
+        final OrderKey key = keys[k];
+        Item m = k1[k], n = k2[k];
+        if(empty(m)) m = Empty.VALUE;
+        if(empty(n)) n = Empty.VALUE;
+        final int c = m == Empty.VALUE
+            ? n == Empty.VALUE ? 0             : key.least ? -1 : 1
+            : n == Empty.VALUE ? key.least ? 1 : -1 : compare(m, n, k);
+        if(c != 0) return key.desc ? -c : c;
+      }
+      return 0;
+    } catch(final QueryException ex) {
+      throw new QueryRTException(ex);
+    }
+  }
+
+  /**
+   * Compares two non-empty items.
+   * @param item1 first item
+   * @param item2 second item
+   * @param k offset of the sort key
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Item item1, final Item item2, final int k) throws QueryException {
+    final OrderKey key = keys[k];
+    if(!item1.comparable(item2)) throw typeError(item2, item1.type, key.info());
+    return item1.compare(item2, key.coll, true, qc, key.info());
+  }
+
+  /**
+   * Checks if a sort key is treated as empty sequence.
+   * @param item item
+   * @return result of check
+   */
+  private static boolean empty(final Item item) {
+    return item == Empty.VALUE || item == Dbl.NAN || item == Flt.NAN;
+  }
+
+  /** Tuple in the bounded heap. */
+  private record Tuple(Item[] keys, Value[] values, long id) { }
+
+  /**
+   * Extracted sort keys of a single order specification.
+   */
+  private final class Column {
+    /** Integers ({@code null} if keys are no integers). */
+    private long[] itrs;
+    /** Doubles ({@code null} if keys are no doubles or floats). */
+    private double[] dbls;
+    /** Strings ({@code null} if keys are no strings). */
+    private byte[][] tokens;
+    /** Items ({@code null} if keys have been extracted). */
+    private Item[] items;
+    /** Empty keys ({@code null} if all keys are non-empty). */
+    private BitArray empty;
+
+    /**
+     * Constructor.
+     * @param ks keys
+     * @param k offset of the sort key
+     * @throws QueryException query exception
+     */
+    Column(final Item[][] ks, final int k) throws QueryException {
+      final int size = ks.length;
+      boolean itr = true, dbl = true, str = true;
+      for(final Item[] key : ks) {
+        final Item item = key[k];
+        if(OrderSort.empty(item)) continue;
+        itr &= item instanceof Itr;
+        dbl &= item instanceof Dbl || item instanceof Flt;
+        str &= (item instanceof AStr || item instanceof Atm) && item.type.isStringOrUntyped();
+        if(!itr && !dbl && !str) break;
+      }
+
+      final InputInfo info = keys[k].info();
+      if(itr) itrs = new long[size];
+      else if(dbl) dbls = new double[size];
+      else if(str) tokens = new byte[size][];
+      else items = new Item[size];
+      for(int s = 0; s < size; s++) {
+        final Item item = ks[s][k];
+        if(OrderSort.empty(item)) {
+          if(empty == null) empty = new BitArray();
+          empty.set(s);
+        } else if(itr) {
+          itrs[s] = item.itr(info);
+        } else if(dbl) {
+          dbls[s] = item.dbl(info);
+        } else if(str) {
+          tokens[s] = item.string(info);
+        } else {
+          items[s] = item;
+        }
+      }
+    }
+
+    /**
+     * Checks if the key of the specified tuple is empty.
+     * @param t offset of the tuple
+     * @return result of check
+     */
+    boolean empty(final int t) {
+      return empty != null && empty.get(t);
+    }
+
+    /**
+     * Compares the non-empty keys of two tuples.
+     * @param t1 offset of the first tuple
+     * @param t2 offset of the second tuple
+     * @param k offset of the sort key
+     * @return result of comparison
+     * @throws QueryException query exception
+     */
+    int compare(final int t1, final int t2, final int k) throws QueryException {
+      if(itrs != null) return Long.compare(itrs[t1], itrs[t2]);
+      if(dbls != null) {
+        final double d1 = dbls[t1], d2 = dbls[t2];
+        return d1 < d2 ? -1 : d1 > d2 ? 1 : 0;
+      }
+      if(tokens != null) return Token.compare(tokens[t1], tokens[t2], colls[k]);
+      return OrderSort.this.compare(items[t1], items[t2], k);
+    }
+  }
+
+  /**
+   * Sorted run.
+   */
+  private abstract static class Run {
+    /** Id of the run (runs with smaller ids contain earlier tuples). */
+    final int id;
+    /** Sort key of the current tuple. */
+    Item[] key;
+    /** Values of the current tuple. */
+    Value[] values;
+
+    /**
+     * Constructor.
+     * @param id id of the run
+     */
+    Run(final int id) {
+      this.id = id;
+    }
+
+    /**
+     * Proceeds to the next tuple.
+     * @return {@code true} if another tuple exists
+     * @throws QueryRTException query exception
+     */
+    abstract boolean next();
+  }
+
+  /**
+   * Sorted run in main memory.
+   */
+  private static final class MemoryRun extends Run {
+    /** Keys. */
+    private final Item[][] ks;
+    /** Values. */
+    private final Value[][] vs;
+    /** Order of the tuples. */
+    private final int[] order;
+    /** Current offset. */
+    private int pos;
+
+    /**
+     * Constructor.
+     * @param id id of the run
+     * @param ks keys
+     * @param vs values
+     * @param order order of the tuples
+     */
+    MemoryRun(final int id, final Item[][] ks, final Value[][] vs, final int[] order) {
+      super(id);
+      this.ks = ks;
+      this.vs = vs;
+      this.order = order;
+    }
+
+    @Override
+    boolean next() {
+      if(pos == order.length) return false;
+      final int o = order[pos++];
+      key = ks[o];
+      values = vs[o];
+      ks[o] = null;
+      vs[o] = null;
+      return true;
+    }
+  }
+
+  /**
+   * Sorted run in a temporary file.
+   */
+  private final class FileRun extends Run {
+    /** Temporary file. */
+    private final IOFile file;
+    /** Input stream. */
+    private final DataInput in;
+    /** Number of remaining tuples. */
+    private int remaining;
+
+    /**
+     * Constructor.
+     * @param id id of the run
+     * @param file temporary file
+     * @param size number of tuples
+     * @throws QueryException query exception
+     */
+    FileRun(final int id, final IOFile file, final int size) throws QueryException {
+      super(id);
+      this.file = file;
+      remaining = size;
+      try {
+        in = new DataInput(file);
+      } catch(final IOException ex) {
+        throw IOERR_X.get(keys[0].info(), ex);
+      }
+      qc.resources.add(in);
+    }
+
+    @Override
+    boolean next() {
+      try {
+        if(remaining == 0) {
+          // all tuples have been read: close and delete file
+          qc.resources.remove(in);
+          file.delete();
+          return false;
+        }
+        remaining--;
+        final int kl = keys.length;
+        key = new Item[kl];
+        for(int k = 0; k < kl; k++) key[k] = (Item) Stores.read(in, qc);
+        values = new Value[vl];
+        for(int v = 0; v < vl; v++) values[v] = Stores.read(in, qc);
+        return true;
+      } catch(final IOException ex) {
+        throw new QueryRTException(IOERR_X.get(keys[0].info(), ex));
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.Composites.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This index class retrieves elements from a composite index.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class CompositeAccess extends IndexAccess {
+  /** Composite index. */
+  private final Composite composite;
+  /** Keys. */
+  private final TokenSet keys;
+  /** Name test. */
+  private final NameTest test;
+
+  /**
+   * Constructor.
+   * @param info input info (can be {@code null})
+   * @param composite composite index
+   * @param keys keys
+   * @param test name test
+   * @param db index database
+   */
+  public CompositeAccess(final InputInfo info, final Composite composite, final TokenSet keys,
+      final NameTest test, final IndexDb db) {
+    super(db, info, NodeType.ELEMENT);
+    this.composite = composite;
+    this.keys = keys;
+    this.test = test;
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Data data = db.data(qc);
+    final Composites composites = data.composites();
+    if(composites == null) throw DB_NOINDEX_X_X.get(info, data.meta.name, "composite");
+
+    // the results of a single key are sorted and duplicate-free
+    final IntList list = new IntList();
+    for(final byte[] key : keys) {
+      for(final int pre : composite.pres(key)) {
+        if(test.matches(new DBNode(data, pre, Data.ELEM))) list.add(pre);
+      }
+    }
+    if(keys.size() > 1) list.ddo();
+    return DBNodeSeq.get(list.finish(), data, this);
+  }
+
+  @Override
+  public Expr inline(final InlineContext ic) throws QueryException {
+    return inlineDb(ic) ? optimize(ic.cc) : null;
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjectMap<Var> vm) {
+    return copyType(new CompositeAccess(info, composite, keys, test, db.copy(cc, vm)));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return this == obj || obj instanceof final CompositeAccess ca &&
+        composite == ca.composite && keys.equals(ca.keys) && test.equals(ca.test) &&
+        super.equals(obj);
+  }
+
+  @Override
+  public void toXml(final QueryPlan plan) {
+    plan.add(plan.create(this, INDEX, composite, NAME, test), db);
+  }
+
+  @Override
+  public void toString(final QueryString qs) {
+    qs.token("composite").paren(db + SEP + composite).token('/').
+      token(new CachedStep(info, Axis.SELF, test));
+  }
+}
@@ -0,0 +1,146 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
+import static org.basex.util.Token.*;
+
+import java.util.*;
+import java.util.regex.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.func.Function;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This index class retrieves texts and attribute values that contain a substring or match a
+ * regular expression. Candidates are retrieved from the trigram index and checked afterwards.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramAccess extends IndexAccess {
+  /** Substring that occurs in all results. */
+  private final byte[] token;
+  /** Function for checking the candidates ({@link Function#CONTAINS},
+   * {@link Function#STARTS_WITH}, {@link Function#ENDS_WITH}, {@link Function#MATCHES}). */
+  private final Function function;
+  /** Substring or regular expression. */
+  private final byte[] search;
+  /** Compiled regular expression ({@code null} if no regular expression is evaluated). */
+  private final Pattern pattern;
+  /** Texts or attribute values. */
+  private final boolean text;
+  /** Parent name test (can be {@code null}). */
+  private final NameTest test;
+
+  /**
+   * Constructor.
+   * @param info input info (can be {@code null})
+   * @param token substring that occurs in all results
+   * @param function function for checking the candidates
+   * @param search substring or regular expression
+   * @param pattern compiled regular expression (can be {@code null})
+   * @param text texts or attribute values
+   * @param test name test (can be {@code null})
+   * @param db index database
+   */
+  public TrigramAccess(final InputInfo info, final byte[] token, final Function function,
+      final byte[] search, final Pattern pattern, final boolean text, final NameTest test,
+      final IndexDb db) {
+    super(db, info, test != null ? NodeType.ELEMENT : text ? NodeType.TEXT :
+      NodeType.ATTRIBUTE);
+    this.token = token;
+    this.function = function;
+    this.search = search;
+    this.pattern = pattern;
+    this.text = text;
+    this.test = test;
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Data data = db.data(qc);
+    final Trigrams trigrams = data.trigrams();
+    if(trigrams == null) throw DB_NOINDEX_X_X.get(info, data.meta.name, "trigram");
+
+    final int kind = text ? Data.TEXT : Data.ATTR;
+    final IntList list = new IntList();
+    for(final int pre : trigrams.pres(token, text)) {
+      qc.checkStop();
+      if(!matches(data.text(pre, text))) continue;
+      if(test == null) {
+        list.add(pre);
+      } else {
+        // skip duplicates (an element may have multiple text nodes)
+        final int par = data.parent(pre, kind);
+        if((list.isEmpty() || list.peek() != par) &&
+            test.matches(new DBNode(data, par, Data.ELEM))) list.add(par);
+      }
+    }
+    return DBNodeSeq.get(list.finish(), data, this);
+  }
+
+  /**
+   * Checks if the specified value is a result.
+   * @param value value
+   * @return result of check
+   */
+  public boolean matches(final byte[] value) {
+    return switch(function) {
+      case STARTS_WITH -> startsWith(value, search);
+      case ENDS_WITH -> endsWith(value, search);
+      case MATCHES -> pattern.matcher(string(value)).find();
+      default -> contains(value, search);
+    };
+  }
+
+  @Override
+  public Expr inline(final InlineContext ic) throws QueryException {
+    return inlineDb(ic) ? optimize(ic.cc) : null;
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjectMap<Var> vm) {
+    return copyType(new TrigramAccess(info, token, function, search, pattern, text, test,
+        db.copy(cc, vm)));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return this == obj || obj instanceof final TrigramAccess ta && eq(token, ta.token) &&
+        function == ta.function && eq(search, ta.search) && text == ta.text &&
+        (pattern == null ? ta.pattern == null : ta.pattern != null &&
+        pattern.pattern().equals(ta.pattern.pattern()) && pattern.flags() == ta.pattern.flags()) &&
+        Objects.equals(test, ta.test) && super.equals(obj);
+  }
+
+  @Override
+  public void toXml(final QueryPlan plan) {
+    plan.add(plan.create(this, INDEX, "trigram", NAME, test), db, Str.get(token));
+  }
+
+  @Override
+  public void toString(final QueryString qs) {
+    qs.token("trigram").paren(db + SEP + string(QueryString.toQuoted(token))).token('[').
+      function(function, new ContextValue(info), Str.get(search)).token(']');
+    if(test != null) qs.token('/').token(new CachedStep(info, Axis.PARENT, test));
+  }
+}
@@ -737,6 +737,18 @@ public abstract class Path extends ParseExpr {
    * 7. A[@a = '...']        : IA('...', @a)/parent::A
    * 8. @a[. = '...']        : IA('...', @a)</pre>
    *
+   * If a composite index exists, multiple predicates can be rewritten to a single
+   * {@link CompositeAccess} instance:
+   *
+   * <pre>
+   * A[@a = '...'][B = '...'] : CA(('...', '...'), A)</pre>
+   *
+   * If a trigram index exists, substring searches and regular expressions can be rewritten to
+   * {@link TrigramAccess} instances:
+   *
+   * <pre>
+   * A[contains(., '...')]    : TA('...', A)</pre>
+   *
    * Queries of type 1, 3, 5 will not yield any results if the string to be compared is empty.
    *
    * @param cc compilation context
@@ -786,6 +798,21 @@ public abstract class Path extends ParseExpr {
             stepIndex = s;
           }
         }
+
+        // composite index access for multiple predicates (preferred if costs are equal)
+        if(el > 1) {
+          final IndexInfo ii = new IndexInfo(db, cc, step);
+          if(ii.composite(info)) {
+            if(ii.costs.results() == 0) {
+              cc.info(QueryText.OPTNORESULTS_X, step);
+              return Empty.VALUE;
+            }
+            if(index == null || index.costs.compareTo(ii.costs) >= 0) {
+              index = ii;
+              stepIndex = s;
+            }
+          }
+        }
       }
     }
 
@@ -863,7 +890,13 @@ public abstract class Path extends ParseExpr {
       lastPreds.add(cc.get(indexStep != null ? indexStep : indexRoot, true,
         () -> get(cc, info, null, invSteps.finish())));
     }
-    lastPreds.add(Array.remove(index.step.exprs, predIndex));
+    final Expr[] preds = index.step.exprs;
+    final int pl = preds.length;
+    for(int p = 0; p < pl; p++) {
+      if(index.preds != null ? Arrays.binarySearch(index.preds, p) < 0 : p != predIndex) {
+        lastPreds.add(preds[p]);
+      }
+    }
 
     // attach predicates to last step or new self::node() step
     if(!lastPreds.isEmpty()) {
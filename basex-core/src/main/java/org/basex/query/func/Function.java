@@ -1048,6 +1048,9 @@ public enum Function implements AFunction {
   _ADMIN_LOGS(AdminLogs::new, "logs(date?, merge?)",
       params(STRING_O, BOOLEAN_ZO), ELEMENT_ZM, flag(NDT), ADMIN_URI, Perm.ADMIN),
   /** XQuery function. */
+  _ADMIN_QUERY_CACHE(AdminQueryCache::new, "query-cache()",
+      params(), MAP_O, flag(NDT), ADMIN_URI, Perm.ADMIN),
+  /** XQuery function. */
   _ADMIN_SESSIONS(AdminSessions::new, "sessions()",
       params(), ELEMENT_ZM, flag(NDT), ADMIN_URI, Perm.ADMIN),
   /** XQuery function. */
@@ -0,0 +1,17 @@
+package org.basex.query.func.admin;
+
+import org.basex.query.*;
+import org.basex.query.value.map.*;
+
+/**
+ * Function implementation.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class AdminQueryCache extends AdminFn {
+  @Override
+  protected XQMap item(final QueryContext qc) throws QueryException {
+    return qc.context.queries.info();
+  }
+}
@@ -13,6 +13,9 @@ import org.basex.query.func.*;
 public abstract class DynamicFn extends StandardFunc {
   @Override
   protected Expr opt(final CompileContext cc) throws QueryException {
-    return cc.dynamic && values(true, cc) ? value(cc.qc) : this;
+    if(!cc.dynamic || !values(true, cc)) return this;
+    // pre-evaluated values of the dynamic context must not be shared with other queries
+    cc.qc.cacheable = false;
+    return value(cc.qc);
   }
 }
@@ -5,6 +5,7 @@ import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
+import org.basex.query.util.index.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
@@ -43,6 +44,16 @@ public class FnContains extends StandardFunc {
       collation.contains(value, substring, info);
   }
 
+  @Override
+  public final boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // support limited to default collation and static substrings
+    if(defined(2) || sc().collation != null || !(arg(1) instanceof final Str str)) return false;
+    final Function function = Function.STARTS_WITH.is(this) ? Function.STARTS_WITH :
+      Function.ENDS_WITH.is(this) ? Function.ENDS_WITH : Function.CONTAINS;
+    final byte[] substring = str.string();
+    return ii.trigrams(arg(0), substring, function, substring, null, info);
+  }
+
   @Override
   protected final Expr opt(final CompileContext cc) {
     final Expr value = arg(0), substring = arg(1);
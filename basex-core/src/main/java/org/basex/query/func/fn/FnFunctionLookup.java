@@ -29,6 +29,8 @@ public final class FnFunctionLookup extends StandardFunc {
       final Expr expr = lookup(cc.qc);
       if(expr != null) return expr;
     }
+    // functions resolved at runtime may modify the query context
+    cc.qc.cacheable = false;
     return this;
   }
 
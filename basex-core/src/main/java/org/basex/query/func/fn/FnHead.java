@@ -7,6 +7,7 @@ import java.util.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.List;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.value.item.*;
@@ -32,6 +33,9 @@ public final class FnHead extends StandardFunc {
     final SeqType st = input.seqType();
     if(st.zeroOrOne()) return input;
 
+    // head(for ... order by ... return R): only sort first tuple
+    if(input instanceof final GFLWOR flwor) flwor.limit(1, cc);
+
     final long size = input.size();
     // head(tail(E)) → items-at(E, 2)
     if(TAIL.is(input))
@@ -8,6 +8,7 @@ import java.util.function.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.List;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.iter.*;
@@ -131,6 +132,8 @@ public final class FnItemsAt extends StandardFunc {
           occ = Occ.EXACTLY_ONE;
         }
         if(l == 0) return cc.function(HEAD, info, input);
+        // items-at(for ... order by ... return R, 10): only sort first tuples
+        if(input instanceof final GFLWOR flwor) flwor.limit(l + 1, cc);
 
         // items-at(tail(E), pos) → items-at(E, pos + 1)
         if(TAIL.is(input))
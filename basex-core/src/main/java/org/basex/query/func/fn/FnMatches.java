@@ -5,6 +5,7 @@ import static org.basex.util.Token.*;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.util.index.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
@@ -32,6 +33,24 @@ public final class FnMatches extends RegExFn {
     return pattern(pattern, flags, qc).matcher(string(value)).find();
   }
 
+  @Override
+  public boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // support limited to static patterns and flags that do not change the matched characters
+    if(!(arg(1) instanceof final Str str) || defined(2) && !(arg(2) instanceof Str)) return false;
+    final byte[] pattern = str.string(), flags = defined(2) ? ((Str) arg(2)).string() :
+      Token.EMPTY;
+    final byte[] literal = literal(pattern, flags);
+    if(literal != null) {
+      return ii.trigrams(arg(0), literal, CONTAINS, literal, null, info);
+    }
+    for(final byte flag : flags) {
+      if(flag != 's' && flag != 'm') return false;
+    }
+    final byte[] token = required(pattern);
+    return token != null &&
+        ii.trigrams(arg(0), token, MATCHES, pattern, pattern(pattern, flags, ii.cc.qc), info);
+  }
+
   @Override
   protected Expr opt(final CompileContext cc) throws QueryException {
     final Expr value = arg(0), pattern = arg(1);
@@ -7,6 +7,7 @@ import java.util.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.List;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.iter.*;
@@ -218,6 +219,8 @@ public class FnSubsequence extends StandardFunc {
         return sr.start == 0 ? input : cc.voidAndReturn(input, Empty.VALUE, info);
       }
 
+      // subsequence(for ... order by ... return R, 1, 10): only sort first tuples
+      if(input instanceof final GFLWOR flwor) flwor.limit(sr.end, cc);
       if(sr.length == 1) {
         // subsequence(E, 1, 1) → head(E)
         // subsequence(E, pos, 1) → items-at(E, pos)
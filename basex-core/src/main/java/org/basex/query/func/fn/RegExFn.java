@@ -10,6 +10,7 @@ import org.basex.query.*;
 import org.basex.query.func.*;
 import org.basex.query.util.regex.*;
 import org.basex.query.util.regex.parse.*;
+import org.basex.util.*;
 import org.basex.util.Token;
 
 /**
@@ -79,6 +80,20 @@ public abstract class RegExFn extends StandardFunc {
     return null;
   }
 
+  /**
+   * Returns the longest string that occurs in all matches of a pattern without flags.
+   * @param pattern pattern
+   * @return string, or {@code null} if no such string is known
+   */
+  static byte[] required(final byte[] pattern) {
+    try {
+      return new RegExParser(pattern, false, false, false, false, false).parse().literal();
+    } catch(final ParseException | TokenMgrError ex) {
+      Util.debug(ex);
+      return null;
+    }
+  }
+
   /**
    * Compiles this regular expression to a {@link Pattern}.
    * @param regex regular expression to parse
@@ -31,4 +31,6 @@ public class FtIndexOptions extends FtFuzzyOptions {
   /** Option: content. */
   public static final EnumOption<FTContents> CONTENT =
       new EnumOption<>("content", FTContents.class);
+  /** Option: limit. */
+  public static final NumberOption LIMIT = new NumberOption("limit");
 }
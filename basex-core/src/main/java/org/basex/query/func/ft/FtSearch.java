@@ -1,6 +1,13 @@
 package org.basex.query.func.ft;
 
+import static org.basex.util.ft.FTFlag.*;
+
+import java.util.*;
+
 import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.ft.*;
+import org.basex.index.query.*;
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.*;
@@ -9,7 +16,10 @@ import org.basex.query.expr.index.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.util.ft.*;
+import org.basex.util.hash.*;
 
 /**
  * Function implementation.
@@ -30,7 +40,108 @@ public final class FtSearch extends FtAccessFn {
     final FTOpt opt = ftOpt(options, new FTOpt().assign(data.meta).assign(qc.ftOpt()), qc);
 
     final FTWords ftw = new FTWords(info, db, query, mode).ftOpt(opt).optimize(qc);
-    return new FTIndexAccess(info, ftExpr(ftw, options), db).iter(qc);
+    final FTExpr expr = ftExpr(ftw, options);
+    final Integer limit = options.get(FtIndexOptions.LIMIT);
+    if(limit == null) return new FTIndexAccess(info, expr, db).iter(qc);
+
+    // top-k retrieval: single tokens are looked up with the maximum scores of the index
+    final byte[] token = expr == ftw ? token(query, opt, data) : null;
+    final FTIndexIterator top = token != null &&
+      data.valueIndex(IndexType.FULLTEXT) instanceof final FTIndex fti ?
+      fti.top(token, Math.max(0, limit)) : null;
+    return FTIndexAccess.iter(top != null ? iter(top, token.length, data, qc) :
+      top(expr, Math.max(0, limit), qc), qc);
+  }
+
+  /**
+   * Returns the single token of a query that can directly be looked up in the index.
+   * @param query query
+   * @param opt full-text options
+   * @param data data reference
+   * @return token or {@code null}
+   * @throws QueryException query exception
+   */
+  private byte[] token(final Value query, final FTOpt opt, final Data data)
+      throws QueryException {
+    if(opt.is(WC) || opt.is(FZ) || query.size() != 1) return null;
+    final Item item = (Item) query;
+    if(!item.type.isStringOrUntyped()) return null;
+
+    final FTLexer lexer = new FTLexer(opt).init(item.string(info));
+    if(!lexer.hasNext()) return null;
+    final byte[] token = lexer.nextToken();
+    return lexer.hasNext() || token.length > data.meta.maxlen ||
+      opt.sw != null && opt.sw.contains(token) ? null : token;
+  }
+
+  /**
+   * Returns a full-text iterator for the results of a top-k index lookup.
+   * @param top index iterator
+   * @param length token length
+   * @param data data reference
+   * @param qc query context
+   * @return iterator
+   */
+  private static FTIter iter(final FTIndexIterator top, final int length, final Data data,
+      final QueryContext qc) {
+    top.pos(++qc.ftPos);
+    return new FTIter() {
+      @Override
+      public FTNode next() {
+        return top.more() ? new FTNode(top.matches(), data, top.pre(), length, top.size()) : null;
+      }
+    };
+  }
+
+  /**
+   * Returns a full-text iterator for the results with the highest scores.
+   * All results are scored, but only the best ones are kept in memory.
+   * @param expr full-text expression
+   * @param limit maximum number of results
+   * @param qc query context
+   * @return iterator
+   * @throws QueryException query exception
+   */
+  private static FTIter top(final FTExpr expr, final int limit, final QueryContext qc)
+      throws QueryException {
+
+    // worst result first; ties are resolved in favor of nodes that occur first
+    final PriorityQueue<FTNode> nodes = new PriorityQueue<>(Math.max(1, limit), (n1, n2) -> {
+      final int d = Double.compare(n1.score(), n2.score());
+      return d != 0 ? d : Integer.compare(n2.pre(), n1.pre());
+    });
+    final FTIter iter = expr.iter(qc);
+    final IntSet pres = qc.ftPosData != null ? new IntSet() : null;
+    for(FTNode node; limit > 0 && (node = iter.next()) != null;) {
+      // compute score before matches are discarded
+      node.score();
+      node.matches(null);
+      if(nodes.size() < limit) {
+        nodes.add(node);
+      } else if(node.score() > nodes.peek().score()) {
+        nodes.poll();
+        nodes.add(node);
+      }
+    }
+
+    // cache position data of the best results for visualizations or ft:mark/ft:extract
+    final FTNode[] top = nodes.toArray(FTNode[]::new);
+    Arrays.sort(top, (n1, n2) -> Integer.compare(n1.pre(), n2.pre()));
+    if(pres != null) {
+      for(final FTNode node : top) pres.add(node.pre());
+      final FTIter it = expr.iter(qc);
+      for(FTNode node; (node = it.next()) != null;) {
+        if(pres.contains(node.pre())) qc.ftPosData.add(node.data(), node.pre(), node.matches());
+      }
+    }
+    return new FTIter() {
+      int n;
+
+      @Override
+      public FTNode next() {
+        return n < top.length ? top[n++] : null;
+      }
+    };
   }
 
   @Override
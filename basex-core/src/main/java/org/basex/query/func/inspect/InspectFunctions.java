@@ -61,7 +61,12 @@ public final class InspectFunctions extends StandardFunc {
 
   @Override
   protected Expr opt(final CompileContext cc) {
-    if(!defined(0)) cc.qc.functions.compileAll(cc);
+    if(defined(0)) {
+      // parsed functions will be added to the query context
+      cc.qc.cacheable = false;
+    } else {
+      cc.qc.functions.compileAll(cc);
+    }
     return this;
   }
 
@@ -12,4 +12,18 @@ import org.basex.query.value.node.*;
 public abstract class FTIter extends Iter {
   @Override
   public abstract FTNode next() throws QueryException;
+
+  /**
+   * Returns the next node with a PRE value that is equal to or greater than the specified value.
+   * Can be overwritten by iterators that can skip nodes more efficiently.
+   * @param pre minimum PRE value
+   * @return node or {@code null}
+   * @throws QueryException query exception
+   */
+  public FTNode next(final int pre) throws QueryException {
+    for(FTNode node; (node = next()) != null;) {
+      if(node.pre() >= pre) return node;
+    }
+    return null;
+  }
 }
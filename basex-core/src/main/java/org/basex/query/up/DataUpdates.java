@@ -171,7 +171,7 @@ final class DataUpdates {
     for(final Put put : puts.values()) put.apply();
 
     try {
-      Optimize.finish(data);
+      Optimize.finish(data, qc.context);
     } catch(final IOException ex) {
       throw UPDBERROR_X.get(null, ex);
     }
@@ -45,7 +45,8 @@ public final class DBOptimize extends DBUpdate {
     this.qc = qc;
 
     final Option<?>[] supported = Arrays.stream(MainOptions.INDEXING).
-        filter(c -> all || c != MainOptions.UPDINDEX).toArray(Option<?>[]::new);
+        filter(c -> all || c != MainOptions.UPDINDEX && c != MainOptions.COMPRESSTEXTS).
+        toArray(Option<?>[]::new);
 
     // create options, based on global defaults
     final DBOptions dbopts = new DBOptions(qopts, supported, info);
@@ -58,8 +59,12 @@ public final class DBOptimize extends DBUpdate {
     dbopts.assignIfAbsent(MainOptions.ATTRINCLUDE, meta.attrinclude);
     dbopts.assignIfAbsent(MainOptions.TOKENINCLUDE, meta.tokeninclude);
     dbopts.assignIfAbsent(MainOptions.FTINCLUDE, meta.ftinclude);
+    dbopts.assignIfAbsent(MainOptions.COLUMNINCLUDE, meta.columninclude);
+    dbopts.assignIfAbsent(MainOptions.COMPOSITEINDEX, meta.compositeindex);
+    dbopts.assignIfAbsent(MainOptions.TRIGRAMINDEX, meta.createtrigram);
     dbopts.assignIfAbsent(MainOptions.UPDINDEX, meta.updindex);
     dbopts.assignIfAbsent(MainOptions.AUTOOPTIMIZE, meta.autooptimize);
+    dbopts.assignIfAbsent(MainOptions.COMPRESSTEXTS, meta.compresstexts);
     dbopts.assignIfAbsent(MainOptions.SPLITSIZE, meta.splitsize);
     dbopts.assignIfAbsent(MainOptions.MAXCATS, meta.maxcats);
     dbopts.assignIfAbsent(MainOptions.MAXLEN, meta.maxlen);
@@ -78,6 +83,8 @@ public final class DBOptimize extends DBUpdate {
     final String attrinclude = options.get(MainOptions.ATTRINCLUDE);
     final String tokeninclude = options.get(MainOptions.TOKENINCLUDE);
     final String ftinclude = options.get(MainOptions.FTINCLUDE);
+    final String columninclude = options.get(MainOptions.COLUMNINCLUDE);
+    final String compositeindex = options.get(MainOptions.COMPOSITEINDEX);
     final boolean stemming = options.get(MainOptions.STEMMING);
     final boolean casesens = options.get(MainOptions.CASESENS);
     final boolean diacritics = options.get(MainOptions.DIACRITICS);
@@ -101,12 +108,20 @@ public final class DBOptimize extends DBUpdate {
     meta.maxcats = options.get(MainOptions.MAXCATS);
     meta.updindex = options.get(MainOptions.UPDINDEX);
     meta.autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    meta.compresstexts = options.get(MainOptions.COMPRESSTEXTS);
     meta.splitsize = options.get(MainOptions.SPLITSIZE);
     meta.textinclude = textinclude;
     meta.attrinclude = attrinclude;
     meta.tokeninclude = tokeninclude;
     meta.maxlen = maxlen;
     meta.ftinclude = ftinclude;
+    // numeric columns will be recreated if names have changed
+    if(!meta.columninclude.equals(columninclude)) meta.columns = false;
+    meta.columninclude = columninclude;
+    // composite indexes will be recreated if definitions have changed
+    if(!meta.compositeindex.equals(compositeindex)) meta.composites = false;
+    meta.compositeindex = compositeindex;
+    meta.createtrigram = options.get(MainOptions.TRIGRAMINDEX);
     meta.stemming   = stemming;
     meta.casesens   = casesens;
     meta.diacritics = diacritics;
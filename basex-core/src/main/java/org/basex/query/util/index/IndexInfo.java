@@ -2,12 +2,15 @@ package org.basex.query.util.index;
 
 import static org.basex.query.QueryText.*;
 
+import java.util.*;
 import java.util.concurrent.atomic.*;
 import java.util.function.*;
+import java.util.regex.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.index.Composites.*;
 import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
@@ -15,12 +18,14 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.index.*;
 import org.basex.query.expr.path.*;
+import org.basex.query.func.Function;
 import org.basex.query.util.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * This class contains methods for storing information on new index expressions.
@@ -44,6 +49,8 @@ public final class IndexInfo {
   public Expr expr;
   /** Costs of index access ({@code null} if no index access is possible). */
   public IndexCosts costs;
+  /** Positions of the predicates replaced by a composite index access ({@code null} if unused). */
+  public int[] preds;
   /** Indicates if the last step addresses a text node. */
   boolean text;
 
@@ -71,12 +78,42 @@ public final class IndexInfo {
    *   {@code null} if index access is not possible
    */
   public IndexType type(final Expr input, final IndexType type) {
+    if(!target(input)) return null;
+
+    // check if the index contains results for the specified elements or attributes
+    final IndexType it = type != null ? type : text ? IndexType.TEXT : IndexType.ATTRIBUTE;
+    if(text ? it != IndexType.TEXT && it != IndexType.FULLTEXT :
+      it != IndexType.TOKEN && it != IndexType.ATTRIBUTE) return null;
+
+    // database is known at compile time: perform additional checks
+    final Data data = db.data();
+    if(data != null) {
+      // check if required index exists
+      if(!data.meta.index(it)) return null;
+      // check if values of targeted name are indexed
+      final byte[][] qname = pred.qname().test instanceof final NameTest nt ?
+        new byte[][] { nt.qname.local(), nt.qname.uri() } : null;
+      final IndexNames names = new IndexNames(it, data);
+      if(!names.contains(qname)) return null;
+      // check if the values of all nodes with the targeted name are indexed (path entries)
+      if(!names.complete(qname, text)) return null;
+    }
+    return it;
+  }
+
+  /**
+   * Checks if the specified input addresses text nodes, leaf elements or attributes.
+   * Assigns the predicate, the name test and the text flag.
+   * @param input input (if {@code null}, no optimization will be possible)
+   * @return result of check
+   */
+  private boolean target(final Expr input) {
     pred = IndexPred.get(input, this);
-    if(pred == null) return null;
+    if(pred == null) return false;
 
     // find last step that will be evaluated before doing a comparison
     final Step last = pred.step();
-    if(last == null) return null;
+    if(last == null) return false;
 
     final Data data = db.data();
     final Kind kind = last.test.kind;
@@ -86,48 +123,33 @@ public final class IndexInfo {
       // ensure that addressed elements only have text nodes as children
       // stop if database is unknown/out-dated or if name test is not simple
       if(data == null || !data.meta.uptodate ||
-          !(last.test instanceof final NameTest nt)) return null;
+          !(last.test instanceof final NameTest nt)) return false;
       test = nt;
 
       // resolve local name for statistics lookup; sound only if its lexical name is unambiguous
       final byte[] local;
       if(data.nspaces.isEmpty()) {
         // no namespaces: one lexical name per local name
-        if(test.name == null) return null;
+        if(test.name == null) return false;
         local = test.name;
       } else if(test.scope == NameTest.Scope.FULL && !test.qname.hasURI() &&
           !data.usesDefaultNs()) {
         // no default namespace: full no-namespace test maps to its no-prefix lexical name
         local = test.qname.local();
       } else {
-        return null;
+        return false;
       }
 
       final Stats stats = data.elemNames.stats(data.elemNames.index(local));
-      if(stats == null || !stats.isLeaf()) return null;
+      if(stats == null || !stats.isLeaf()) return false;
       text = true;
     } else if(kind == Kind.ATTRIBUTE) {
       text = false;
     } else {
       // other tests cannot be rewritten for index access
-      return null;
-    }
-
-    // check if the index contains results for the specified elements or attributes
-    final IndexType it = type != null ? type : text ? IndexType.TEXT : IndexType.ATTRIBUTE;
-    if(text ? it != IndexType.TEXT && it != IndexType.FULLTEXT :
-      it != IndexType.TOKEN && it != IndexType.ATTRIBUTE) return null;
-
-    // database is known at compile time: perform additional checks
-    if(data != null) {
-      // check if required index exists
-      if(!data.meta.index(it)) return null;
-      // check if values of targeted name are indexed
-      final byte[][] qname = pred.qname().test instanceof final NameTest nt ?
-        new byte[][] { nt.qname.local(), nt.qname.uri() } : null;
-      if(!new IndexNames(it, data).contains(qname)) return null;
+      return false;
     }
-    return it;
+    return true;
   }
 
   /**
@@ -190,12 +212,44 @@ public final class IndexInfo {
       return false;
 
     // estimate costs for dynamic query terms
-    costs = enforce() ? IndexCosts.ENFORCE_DYNAMIC :
-      IndexCosts.get(Math.max(1, data.meta.size / 10));
+    costs = enforce() ? IndexCosts.ENFORCE_DYNAMIC : IndexCosts.get(dynamic(data, search));
     final ValueAccess va = new ValueAccess(info, search, type, test, db);
     return create(va, false, Util.info(OPTINDEX_X_X, type, search), info);
   }
 
+  /**
+   * Tries to rewrite a substring search or regular expression for trigram index access.
+   * The candidates of the index are checked, so the result will be exact.
+   * @param input input
+   * @param token substring that occurs in all results
+   * @param function function for checking the candidates ({@link Function#CONTAINS},
+   *   {@link Function#STARTS_WITH}, {@link Function#ENDS_WITH}, {@link Function#MATCHES})
+   * @param search substring or regular expression
+   * @param pattern compiled regular expression (can be {@code null})
+   * @param info input info (can be {@code null})
+   * @return success flag
+   * @throws QueryException query exception
+   */
+  public boolean trigrams(final Expr input, final byte[] token, final Function function,
+      final byte[] search, final Pattern pattern, final InputInfo info) throws QueryException {
+
+    final Data data = db.data();
+    if(data == null || token == null || token.length < Trigrams.LENGTH) return false;
+    final Trigrams trigrams = data.trigrams();
+    if(trigrams == null || !target(input)) return false;
+
+    final TrigramAccess ta = new TrigramAccess(info, token, function, search, pattern, text,
+        test, db);
+    // single candidate: check if it is a result
+    int size = trigrams.size(token, text);
+    if(size == 1) {
+      final int[] pres = trigrams.pres(token, text);
+      size = pres.length == 1 && ta.matches(data.text(pres[0], text)) ? 1 : 0;
+    }
+    costs = IndexCosts.get(size);
+    return create(ta, false, Util.info(OPTINDEX_X_X, "trigram", Str.get(search)), info);
+  }
+
   /**
    * Tries to rewrite an integer range comparison for index access.
    * The lookup is performed against the indexed lexical forms of an integer-category
@@ -269,6 +323,93 @@ public final class IndexInfo {
     return create(va, false, Util.info(OPTINDEX_X_X, type, opt), info);
   }
 
+  /**
+   * Tries to rewrite multiple equality comparisons in the predicates of the step for composite
+   * index access. Comparisons of attributes or child elements with strings are considered.
+   * @param info input info (can be {@code null})
+   * @return success flag
+   * @throws QueryException query exception
+   */
+  public boolean composite(final InputInfo info) throws QueryException {
+    final Data data = db.data();
+    if(data == null || !data.nspaces.isEmpty() ||
+        !(step.test instanceof final NameTest nt) || nt.name == null) return false;
+    final Composites composites = data.composites();
+    if(composites == null) return false;
+
+    // collect names and values of equality comparisons
+    final TokenList names = new TokenList();
+    final ArrayList<TokenSet> values = new ArrayList<>();
+    final IntList positions = new IntList();
+    final Expr[] exprs = step.exprs;
+    for(int e = 0; e < exprs.length; e++) {
+      final byte[] name = component(exprs[e]);
+      if(name == null || names.contains(name)) continue;
+      final TokenSet tokens = new TokenSet();
+      for(final Item item : (Value) exprs[e].arg(1)) {
+        final byte[] token = item.string(info);
+        if(token.length > data.meta.maxlen) return false;
+        tokens.add(token);
+      }
+      names.add(name);
+      values.add(tokens);
+      positions.add(e);
+    }
+    final Composite composite = composites.get(nt.name, names);
+    if(composite == null) return false;
+
+    // create all combinations of the values, in the order of the components
+    TokenList keys = new TokenList(1);
+    keys.add(Token.EMPTY);
+    final IntList replaced = new IntList();
+    for(final byte[] component : composite.components) {
+      int c = 0;
+      while(!Token.eq(names.get(c), component)) c++;
+      final TokenList list = new TokenList();
+      for(final byte[] key : keys) {
+        for(final byte[] value : values.get(c)) {
+          list.add(replaced.isEmpty() ? value : Composites.key(key, value));
+        }
+      }
+      keys = list;
+      replaced.add(positions.get(c));
+    }
+
+    // estimate costs
+    final TokenSet tokens = new TokenSet();
+    int size = 0;
+    for(final byte[] key : keys) {
+      if(tokens.add(key)) size += composite.pres(key).length;
+    }
+    costs = IndexCosts.get(size);
+    preds = replaced.sort().finish();
+    expr = new CompositeAccess(info, composite, tokens, nt, db);
+    optInfo = Util.info(OPTINDEX_X_X, "composite", composite);
+    return true;
+  }
+
+  /**
+   * Returns the name of an attribute or child element that is compared with strings.
+   * @param expr predicate expression
+   * @return name of the attribute (with {@code @} prefix) or element, or {@code null}
+   */
+  private static byte[] component(final Expr expr) {
+    // only equality expressions on default collation can be rewritten
+    if(!(expr instanceof final CmpG cmp) || cmp.cmpOp() != CmpOp.EQ ||
+        cmp.sc() != null && cmp.sc().collation != null) return null;
+    if(!(cmp.arg(1) instanceof final Value value) || value.isEmpty()) return null;
+    for(final Item item : value) {
+      if(!item.type.isStringOrUntyped()) return null;
+    }
+    // attribute or child step without predicates
+    if(!(cmp.arg(0) instanceof final AxisPath path) || path.root != null ||
+        path.steps.length != 1 || !(path.steps[0] instanceof final Step step) ||
+        step.exprs.length > 0 || !(step.test instanceof final NameTest nt) ||
+        nt.name == null) return null;
+    return step.axis == Axis.ATTRIBUTE ? Token.concat("@", nt.name) :
+      step.axis == Axis.CHILD && step.test.kind == Kind.ELEMENT ? nt.name : null;
+  }
+
   /**
    * Creates an index expression with an inverted axis path.
    * @param root new root expression
@@ -304,17 +445,43 @@ public final class IndexInfo {
   }
 
   /**
-   * Retrieves the statistics of the targeted element or attribute name.
+   * Estimates the number of results for a dynamic query term. If statistics are available for the
+   * targeted element or attribute name, the average number of occurrences of its distinct values
+   * is returned, multiplied with the number of search items.
+   * @param data data reference
+   * @param search search expression
+   * @return number of results
+   */
+  private int dynamic(final Data data, final Expr search) {
+    final Stats stats = stats(data);
+    if(stats == null || stats.size() == -1 || stats.distinct() == 0)
+      return Math.max(1, data.meta.size / 10);
+    final double average = Math.ceil((double) stats.size() / stats.distinct());
+    final long results = (long) average * Math.max(1, search.size());
+    return (int) Math.max(1, Math.min(data.meta.size, results));
+  }
+
+  /**
+   * Retrieves the integer category statistics of the targeted element or attribute name.
    * @param data data reference (can be {@code null})
    * @return statistics, or {@code null} if not available
    */
   private Stats intStats(final Data data) {
+    final Stats stats = stats(data);
+    return stats == null || !StatsType.isCategory(stats.type) || !StatsType.isInteger(stats.type)
+        ? null : stats;
+  }
+
+  /**
+   * Retrieves the statistics of the targeted element or attribute name.
+   * @param data data reference (can be {@code null})
+   * @return statistics, or {@code null} if not available
+   */
+  private Stats stats(final Data data) {
     if(data == null || !data.meta.uptodate || !data.nspaces.isEmpty()) return null;
     if(!(pred.qname().test instanceof final NameTest nt) || nt.name == null) return null;
     final Names names = text ? data.elemNames : data.attrNames;
-    final Stats stats = names.stats(names.index(nt.qname.local()));
-    return stats == null || !StatsType.isCategory(stats.type) || !StatsType.isInteger(stats.type)
-        ? null : stats;
+    return names.stats(names.index(nt.qname.local()));
   }
 
   /**
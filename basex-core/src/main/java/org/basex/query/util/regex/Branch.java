@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * A branch of a regular expression.
  *
@@ -18,6 +21,11 @@ public final class Branch extends RegExp {
     this.pieces = pieces;
   }
 
+  @Override
+  void literals(final TokenList list, final TokenBuilder tb) {
+    for(final RegExp piece : pieces) piece.literals(list, tb);
+  }
+
   @Override
   void toRegEx(final StringBuilder sb) {
     for(final RegExp piece : pieces) piece.toRegEx(sb);
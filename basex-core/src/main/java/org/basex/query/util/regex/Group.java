@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * A parenthesized group.
  *
@@ -75,6 +78,11 @@ public final class Group extends RegExp {
     return atomPath;
   }
 
+  @Override
+  void literals(final TokenList list, final TokenBuilder tb) {
+    encl.literals(list, tb);
+  }
+
   @Override
   void toRegEx(final StringBuilder sb) {
     sb.append(capture ? name != null ? "(?<" + name + '>' : "(" : "(?:");
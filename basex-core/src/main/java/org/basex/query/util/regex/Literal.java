@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * A character literal.
  *
@@ -18,6 +21,11 @@ public final class Literal extends RegExp {
     this.codepoint = codepoint;
   }
 
+  @Override
+  void literals(final TokenList list, final TokenBuilder tb) {
+    tb.add(codepoint);
+  }
+
   @Override
   void toRegEx(final StringBuilder sb) {
     sb.append(escape(codepoint));
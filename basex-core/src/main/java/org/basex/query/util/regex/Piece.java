@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * An atom together with a quantifier.
  *
@@ -22,6 +25,16 @@ public final class Piece extends RegExp {
     this.quant = quant;
   }
 
+  @Override
+  void literals(final TokenList list, final TokenBuilder tb) {
+    if(quant.getMin() > 0) {
+      atom.literals(list, tb);
+      // the atom may be repeated: complete the current string
+      if(quant.getMin() == 1 && quant.getMax() == 1) return;
+    }
+    super.literals(list, tb);
+  }
+
   @Override
   void toRegEx(final StringBuilder sb) {
     if(quant.getMin() == 0 && atom instanceof final Group group && group.hasBackRef()) {
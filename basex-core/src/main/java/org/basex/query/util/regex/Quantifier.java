@@ -34,6 +34,14 @@ public final class Quantifier extends RegExp {
     return min;
   }
 
+  /**
+   * Get maximum number of occurences.
+   * @return the maximum ({@code -1} for infinity).
+   */
+  public int getMax() {
+    return max;
+  }
+
   @Override
   void toRegEx(final StringBuilder sb) {
     sb.append(string()).append(lazy ? "?" : "");
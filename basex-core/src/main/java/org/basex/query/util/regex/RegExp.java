@@ -1,5 +1,8 @@
 package org.basex.query.util.regex;
 
+import org.basex.util.*;
+import org.basex.util.list.*;
+
 /**
  * A node of the regular expression AST.
  * @author Leo Woerteler
@@ -12,6 +15,32 @@ public abstract class RegExp {
     return sb.toString();
   }
 
+  /**
+   * Returns the longest string that occurs in all matches of this expression.
+   * @return string, or {@code null} if no such string is known
+   */
+  public final byte[] literal() {
+    final TokenList list = new TokenList();
+    final TokenBuilder tb = new TokenBuilder();
+    literals(list, tb);
+    list.add(tb.finish());
+    byte[] literal = null;
+    for(final byte[] token : list) {
+      if(token.length > 0 && (literal == null || token.length > literal.length)) literal = token;
+    }
+    return literal;
+  }
+
+  /**
+   * Collects strings that occur in all matches of this expression. By default, the current
+   * string is completed, as the expression may match arbitrary characters.
+   * @param list completed strings
+   * @param tb current string, which can be extended by subsequent expressions
+   */
+  void literals(final TokenList list, final TokenBuilder tb) {
+    if(!tb.isEmpty()) list.add(tb.next());
+  }
+
   /**
    * Recursive {@link RegExp#toString()} helper.
    * @param sb string builder
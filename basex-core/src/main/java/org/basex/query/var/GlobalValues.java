@@ -57,6 +57,24 @@ public final class GlobalValues {
     }
   }
 
+  /**
+   * Assigns the value of an external variable.
+   * @param var static variable
+   * @param value value
+   */
+  void bind(final StaticVar var, final Value value) {
+    globals.put(var, new Global(null, value));
+  }
+
+  /**
+   * Checks if a value has been assigned to a variable.
+   * @param var static variable
+   * @return result of check
+   */
+  boolean bound(final StaticVar var) {
+    return globals.containsKey(var);
+  }
+
   /**
    * Acquires the right to evaluate a variable, or returns its value.
    * @param var static variable
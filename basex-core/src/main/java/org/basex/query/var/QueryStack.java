@@ -67,6 +67,17 @@ public final class QueryStack {
     if(ns != vl) resize(ns);
   }
 
+  /**
+   * Enters a new stack frame with the bindings of the current frame of another stack.
+   * Used to evaluate an expression with the local variables of another query context.
+   * @param stack stack to copy the bindings from
+   */
+  public void enterFrame(final QueryStack stack) {
+    final int size = stack.end - stack.start;
+    enterFrame(size);
+    Array.copy(stack.values, stack.start, size, values, start);
+  }
+
   /**
    * Checks if tail calls should be eliminated.
    * @param size new frame size
@@ -45,7 +45,12 @@ public final class StaticVar extends StaticDecl {
 
   @Override
   public Expr compile(final CompileContext cc) throws QueryException {
-    if(expr == null) throw VAREMPTY_X.get(info, name());
+    // shared plans: external values are assigned after compilation
+    final boolean shared = cc.qc.shared();
+    if(expr == null) {
+      if(external && shared) return null;
+      throw VAREMPTY_X.get(info, name());
+    }
     if(!compiled) {
       compiled = true;
 
@@ -60,7 +65,8 @@ public final class StaticVar extends StaticDecl {
       }
 
       // dynamic compilation, eager evaluation: pre-evaluate deterministic expressions
-      if(expr instanceof Value || cc.dynamic && !lazy && !expr.has(Flag.NDT)) {
+      if(shared ? expr instanceof Value && !external :
+        expr instanceof Value || cc.dynamic && !lazy && !expr.has(Flag.NDT)) {
         try {
           if(value == null) value = compute(cc.qc);
           cc.replaceWith(expr, value);
@@ -79,10 +85,10 @@ public final class StaticVar extends StaticDecl {
    * @throws QueryException query exception
    */
   public Value value(final QueryContext qc) throws QueryException {
-    if(!lazy && expr == null) throw VAREMPTY_X.get(info, name());
-
     final Value cached = value;
-    return cached != null ? cached : qc.globals.value(this, qc);
+    if(cached != null) return cached;
+    if(expr == null && !qc.globals.bound(this)) throw VAREMPTY_X.get(info, name());
+    return qc.globals.value(this, qc);
   }
 
   /**
@@ -133,10 +139,16 @@ public final class StaticVar extends StaticDecl {
    * @throws QueryException query exception
    */
   void bind(final Value val, final QueryContext qc, final boolean cast) throws QueryException {
-    if(external && !compiled) {
-      value = declType == null || declType.instance(val) ? val :
+    if(external && (!compiled || qc.shared())) {
+      final Value v = declType == null || declType.instance(val) ? val :
         cast ? declType.cast(val, true, qc, info) : declType.coerce(val, qc, info, name, null);
-      expr = value;
+      if(qc.shared()) {
+        // shared plans: keep value in the query context
+        qc.globals.bind(this, v);
+      } else {
+        value = v;
+        expr = v;
+      }
     }
   }
 
@@ -109,6 +109,10 @@ public final class Prop {
   public static String language = "English";
   /** Debug mode. */
   public static boolean debug;
+  /** Memory-mapped access to database files. */
+  public static boolean mmap;
+  /** Number of buffered pages per database file. */
+  public static int buffers = 16;
 
   /** Private constructor. */
   private Prop() { }
@@ -0,0 +1,97 @@
+package org.basex.build;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for building databases in parallel ({@link MainOptions#BUILDTHREADS}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelBuildTest extends SandboxTest {
+  /** Input directory. */
+  private static final IOFile DIR = new IOFile(sandbox(), "input");
+  /** Query for serializing all documents. */
+  private static final String DOCS = "string-join(" + _DB_GET.args(NAME) +
+      " ! (" + _DB_PATH.args(" .") + " || serialize(.)), '\n')";
+
+  /**
+   * Initialize test.
+   */
+  @BeforeEach public void before() {
+    DIR.md();
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    DIR.delete();
+    set(MainOptions.BUILDTHREADS, 1);
+    set(MainOptions.SKIPCORRUPT, false);
+  }
+
+  /**
+   * Creates a database from a directory.
+   */
+  @Test public void directory() {
+    for(int f = 0; f < 200; f++) {
+      final IOFile sub = new IOFile(DIR, "sub" + f % 7);
+      sub.md();
+      write(new IOFile(sub, "doc" + f + ".xml"), "<?pi " + f + "?>" +
+          "<root xmlns='ns" + f % 3 + "' xmlns:p='p'><p:a id='" + f + "'>text " + f + "</p:a>" +
+          "<!--c--><b" + f % 5 + "/>" + "<c>x</c>".repeat(f) + "</root>");
+    }
+    final String expected = create(1);
+    assertEquals(expected, create(4));
+    query("count(//*:c)", 19900);
+    query("distinct-values(//*:a ! namespace-uri())", "p");
+  }
+
+  /**
+   * Creates a database from an archive.
+   */
+  @Test public void archive() {
+    final String path = "src/test/resources/xml.zip";
+    execute(new CreateDB(NAME, path));
+    final String expected = query(DOCS);
+    set(MainOptions.BUILDTHREADS, 3);
+    execute(new CreateDB(NAME, path));
+    assertEquals(expected, query(DOCS));
+  }
+
+  /**
+   * Skips corrupt files.
+   */
+  @Test public void skipCorrupt() {
+    for(int f = 0; f < 20; f++) {
+      write(new IOFile(DIR, "doc" + f + ".xml"), f % 4 == 0 ? "<x" : "<x>" + f + "</x>");
+    }
+    set(MainOptions.BUILDTHREADS, 4);
+    assertThrows(BaseXException.class, () -> new CreateDB(NAME, DIR.path()).execute(context));
+
+    set(MainOptions.SKIPCORRUPT, true);
+    execute(new CreateDB(NAME, DIR.path()));
+    query(_DB_GET.args(NAME) + " => count()", 15);
+  }
+
+  /**
+   * Creates the database from the input directory and returns all documents and facets.
+   * @param threads number of threads
+   * @return serialized documents and facets
+   */
+  private static String create(final int threads) {
+    set(MainOptions.BUILDTHREADS, threads);
+    execute(new CreateDB(NAME, DIR.path()));
+    return query(DOCS) + query(_INDEX_FACETS.args(NAME));
+  }
+}
@@ -232,6 +232,7 @@ public final class CommandLockingTest extends SandboxTest {
 
   /** Test admin module. */
   @Test public void admin() {
+    ckDBs(new XQuery(_ADMIN_QUERY_CACHE.args()), false, NONE);
     ckDBs(new XQuery(_ADMIN_SESSIONS.args()), false, NONE);
     ckDBs(new XQuery(_ADMIN_LOGS.args()), false, NONE);
   }
@@ -0,0 +1,154 @@
+package org.basex.data;
+
+import static org.basex.data.DataText.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the background {@link Compaction} of databases.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class CompactionTest extends SandboxTest {
+  /** Query for returning the database contents. */
+  private static final String CONTENTS = "string-join(//a ! (@id || ':' || .), ' ')";
+
+  /**
+   * Initialize test.
+   */
+  @BeforeEach public void before() {
+    set(MainOptions.COMPACTRATE, 0);
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.AUTOCOMPACT, 0);
+    set(MainOptions.COMPACTRATE, 16);
+    set(MainOptions.JOURNAL, false);
+    set(MainOptions.UPDINDEX, false);
+  }
+
+  /**
+   * Deletes and replaces nodes, and waits for the compaction.
+   */
+  @Test public void compact() {
+    compact(false);
+  }
+
+  /**
+   * Compacts a database with journaling and updatable index structures.
+   */
+  @Test public void journal() {
+    set(MainOptions.JOURNAL, true);
+    set(MainOptions.UPDINDEX, true);
+    compact(true);
+    query("//a[text() = 'text 501 text 501']/@id ! string()", "value 501");
+  }
+
+  /**
+   * Interrupts the replacement of the database files, and completes it when the database
+   * is opened again.
+   * @throws IOException I/O exception
+   */
+  @Test public void interrupted() throws IOException {
+    execute(new CreateDB(NAME, "<xml/>"));
+    query("insert node (1 to 2000) ! <a id='value { . }'>text { . }</a> into /xml");
+    query("delete node //a[position() mod 2 = 0]");
+    query("for $a in //a return replace value of node $a with $a || ' ' || $a");
+    execute(new Flush());
+    final String contents = query(CONTENTS);
+    final long size = size();
+
+    // keep copies of the original files, compact database
+    final String[] names = { DATATBL, DATATBL + 'i', DATATXT, DATAATV };
+    final MetaData meta = new MetaData(NAME, context.options, context.soptions);
+    for(final String name : names) meta.dbFile(name).copyTo(meta.dbFile('o' + name));
+    set(MainOptions.AUTOCOMPACT, 20);
+    Compaction.schedule(context.data(), context);
+    for(int i = 0; i < 100 && size() >= size; i++) Performance.sleep(100);
+    final long compacted = size();
+    assertTrue(compacted < size, "Database was not compacted.");
+    execute(new Close());
+
+    // restore state of a committed replacement in which only the first file has been moved
+    final FileSwap swap = new FileSwap(meta);
+    for(final String name : names) {
+      meta.dbFile(name).moveAtomic(meta.dbFile('c' + name));
+      meta.dbFile('o' + name).moveAtomic(meta.dbFile(name));
+      swap.replace('c' + name, name);
+    }
+    swap.write();
+    meta.dbFile('c' + names[0]).moveAtomic(meta.dbFile(names[0]));
+
+    // replacement is completed when the database is opened
+    execute(new Open(NAME));
+    assertFalse(meta.dbFile(DATASWP).exists());
+    for(final String name : names) assertFalse(meta.dbFile('c' + name).exists());
+    assertEquals(compacted, size());
+    assertEquals(contents, query(CONTENTS));
+  }
+
+  /**
+   * Does not compact databases with little unused space.
+   */
+  @Test public void unused() {
+    set(MainOptions.AUTOCOMPACT, 20);
+    execute(new CreateDB(NAME, "<xml>" + "<a id='value x'>text</a>".repeat(1000) + "</xml>"));
+    final long size = size();
+    query("delete node //a[1]");
+    Performance.sleep(2000);
+    assertEquals(size, size());
+  }
+
+  /**
+   * Creates a database, performs updates and waits for the compaction.
+   * @param updindex updatable index structures
+   */
+  private static void compact(final boolean updindex) {
+    execute(new CreateDB(NAME, "<xml/>"));
+    query("insert node (1 to 2000) ! <a id='value { . }'>text { . }</a> into /xml");
+    query("delete node //a[position() mod 2 = 0]");
+    query("for $a in //a return replace value of node $a with $a || ' ' || $a");
+    execute(new Flush());
+    final String contents = query(CONTENTS);
+    final long size = size();
+
+    // trigger compaction with the next update
+    set(MainOptions.AUTOCOMPACT, 20);
+    query("insert node <b/> into /xml");
+    for(int i = 0; i < 100 && size() >= size; i++) Performance.sleep(100);
+    assertTrue(size() < size, "Database was not compacted.");
+    assertEquals(contents, query(CONTENTS));
+    if(updindex) query("//a[@id = 'value 999'] ! string()", "text 999 text 999");
+
+    // reopen database
+    execute(new Close());
+    execute(new Open(NAME));
+    assertEquals(contents, query(CONTENTS));
+  }
+
+  /**
+   * Returns the size of the table and the heap files.
+   * @return size
+   */
+  private static long size() {
+    long size = 0;
+    for(final String file : new String[] { DATATBL, DATATXT, DATAATV }) {
+      size += new IOFile(context.soptions.dbPath(NAME), file + IO.BASEXSUFFIX).length();
+    }
+    return size;
+  }
+}
@@ -314,6 +314,39 @@ public final class DiskTableTest extends SandboxTest {
     assertEntrysEqual(nodes, 2 * nodes, size - nodes);
   }
 
+  /**
+   * Tests memory-mapped reads on a table with a page mapping.
+   * @throws IOException I/O exception
+   */
+  @Test public void mapped() throws IOException {
+    tda.delete(nodes - 1, nodes + 2);
+    tda.insert(4, getTestEntries(nodes + 3));
+    final int sz = tdaSize();
+    final byte[] entries = new byte[sz << IO.NODEPOWER];
+    for(int i = 0; i < entries.length; i++) {
+      entries[i] = (byte) tda.read1(i >> IO.NODEPOWER, i % (1 << IO.NODEPOWER));
+    }
+    tda.close();
+
+    Prop.mmap = true;
+    try {
+      tda = new TableDiskAccess(data.meta, false);
+      for(int pre = 0; pre < sz; pre++) {
+        final int o = pre << IO.NODEPOWER;
+        long v = 0;
+        for(int i = 0; i < 5; i++) {
+          v = v << 8 | entries[o + 1 + i] & 0xFF;
+          if(i == 0) assertEquals(v, tda.read1(pre, 1));
+          if(i == 1) assertEquals(v, tda.read2(pre, 1));
+          if(i == 3) assertEquals(v, tda.read4(pre, 1) & 0xFFFFFFFFL);
+        }
+        assertEquals(v, tda.read5(pre, 1));
+      }
+    } finally {
+      Prop.mmap = false;
+    }
+  }
+
   /**
    * Asserts that the chosen entries are inserted by a test case.
    * @param startNum first entry
@@ -0,0 +1,109 @@
+package org.basex.data;
+
+import static org.basex.data.DataText.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.index.*;
+import org.basex.io.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the lazy loading of index structures ({@link DiskData}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class LazyLoadingTest extends SandboxTest {
+  /** Test document. */
+  private static final String DOC = "<xml><a>x</a><a>y</a><b n='1'>z</b></xml>";
+  /** Name of the index access class. */
+  private static final String ACCESS = Util.className(ValueAccess.class);
+
+  /**
+   * Creates and opens the test database.
+   */
+  @BeforeEach public void before() {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, DOC));
+    execute(new Close());
+    execute(new Open(NAME));
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.UPDINDEX, false);
+  }
+
+  /**
+   * Indexes are opened when they are accessed for the first time.
+   */
+  @Test public void open() {
+    final Data data = context.data();
+    assertNull(data.textIndex);
+    assertNull(data.attrIndex);
+    assertFalse(data.loads().containsKey(IndexType.TEXT.toString()));
+    assertTrue(data.loads().containsKey("TABLE"));
+
+    check("//a[text() = 'y']/string()", "y", exists(ACCESS));
+    assertNotNull(data.textIndex);
+    assertNull(data.attrIndex);
+    assertTrue(data.loads().containsKey(IndexType.TEXT.toString()));
+    assertTrue(execute(new InfoDB()).contains(IndexType.TEXT.toString()));
+  }
+
+  /**
+   * Updates indexes that have not been opened yet.
+   */
+  @Test public void update() {
+    query("insert node <a>w</a> into /xml");
+    query("insert node attribute m { 'v' } into /xml/b");
+    check("//a[text() = 'w']/string()", "w", exists(ACCESS));
+    check("//*[@m = 'v']/name()", "b", exists(ACCESS));
+
+    execute(new Close());
+    execute(new Open(NAME));
+    check("//a[text() = 'w']/string()", "w", exists(ACCESS));
+    query("count(/xml/a)", 3);
+  }
+
+  /**
+   * Switches off index structures that cannot be opened.
+   */
+  @Test public void unavailable() {
+    set(MainOptions.TRIGRAMINDEX, true);
+    try {
+      execute(new CreateDB(NAME, DOC));
+    } finally {
+      set(MainOptions.TRIGRAMINDEX, false);
+    }
+    execute(new Close());
+    final IOFile file = new MetaData(NAME, context.options, context.soptions).dbFile(DATATRG);
+    assertTrue(file.exists());
+    assertTrue(file.delete());
+
+    execute(new Open(NAME));
+    check("//a[contains(., 'xyz')]", "", empty(Util.className(TrigramAccess.class)));
+    assertFalse(context.data().meta.trigramindex);
+  }
+
+  /**
+   * Writes a path summary that has not been parsed.
+   */
+  @Test public void paths() {
+    final Data data = context.data();
+    data.meta.dirty = true;
+    execute(new Close());
+    execute(new Open(NAME));
+    query("count(/xml/*)", 3);
+    assertTrue(execute(new InfoIndex(IndexType.PATH)).contains("xml"));
+  }
+}
@@ -0,0 +1,72 @@
+package org.basex.index;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the numeric columns ({@link MainOptions#COLUMNINCLUDE}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class ColumnsTest extends SandboxTest {
+  /** Test document. */
+  private static final String DOC = "<items>" +
+      "<item amount='1.5'><price>10.25</price><name>A</name></item>" +
+      "<item amount='12345678901'><price>-3e2</price><name>12.5</name></item>" +
+      "<item amount='x'><price>12345678901234</price><name>C</name></item>" +
+      "</items>";
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.COLUMNINCLUDE, "");
+  }
+
+  /**
+   * Queries numeric values.
+   */
+  @Test public void values() {
+    set(MainOptions.COLUMNINCLUDE, "price,amount");
+    execute(new CreateDB(NAME, DOC));
+    assertTrue(context.data().meta.columns);
+    query(_DB_PROPERTY.args(NAME, "columninclude"), "price,amount");
+
+    query("sum(//price)", "12345678900944.25");
+    query("sum(//item/@amount[. castable as xs:double])", "12345678902.5");
+    query("//item[price > 10]/name/string()", "A\nC");
+    query("//item[@amount[. castable as xs:double] < 2]/name/string()", "A");
+    query("for $p in //price order by number($p) return string($p)",
+        "-3e2\n10.25\n12345678901234");
+    query("(//price)[3] ! xs:integer(.)", "12345678901234");
+    query("(//@amount)[2] ! xs:integer(.)", "12345678901");
+    query("//name[. castable as xs:double] ! number()", "12.5");
+  }
+
+  /**
+   * Updates numeric values and recreates the columns.
+   */
+  @Test public void update() {
+    set(MainOptions.COLUMNINCLUDE, "price");
+    execute(new CreateDB(NAME, DOC));
+    query("replace value of node (//price)[1] with '20.5'");
+    assertFalse(context.data().meta.columns);
+    query("sum(//price)", "12345678900954.5");
+
+    execute(new Optimize());
+    assertTrue(context.data().meta.columns);
+    query("sum(//price)", "12345678900954.5");
+
+    query(_DB_OPTIMIZE.args(NAME, false, " { 'columninclude': '' }"));
+    assertFalse(context.data().meta.columns);
+    query("sum(//price)", "12345678900954.5");
+  }
+}
@@ -0,0 +1,97 @@
+package org.basex.index;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the composite indexes ({@link MainOptions#COMPOSITEINDEX}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class CompositesTest extends SandboxTest {
+  /** Test document. */
+  private static final String DOC = "<orders>" +
+      "<order customer='a' status='open'><id>1</id><item>x</item><item>y</item></order>" +
+      "<order customer='a' status='closed'><id>2</id><item>x</item></order>" +
+      "<order customer='b' status='open'><id>3</id><item>y</item></order>" +
+      "<order customer='a'><id>4</id><item>x</item></order>" +
+      "<order customer='' status='open'><id>5</id></order>" +
+      "</orders>";
+  /** Name of the index access class. */
+  private static final String ACCESS = Util.className(CompositeAccess.class);
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.COMPOSITEINDEX, "");
+  }
+
+  /**
+   * Queries attributes and child elements.
+   */
+  @Test public void lookup() {
+    set(MainOptions.COMPOSITEINDEX, "order[@customer,@status]; order[@status,item]");
+    execute(new CreateDB(NAME, DOC));
+    assertTrue(context.data().meta.composites);
+    query(_DB_PROPERTY.args(NAME, "compositeindex"),
+        "order[@customer,@status]; order[@status,item]");
+
+    composite("//order[@customer = 'a'][@status = 'open']/id/string()", 1);
+    composite("//order[@status = 'open'][@customer = 'a']/id/string()", 1);
+    composite("//order[@customer = 'a' and @status = 'open']/id/string()", 1);
+    composite("//order[@customer = ('a', 'b')][@status = 'open']/id/string()", "1\n3");
+    composite("//order[@customer = ''][@status = 'open']/id/string()", 5);
+    composite("//order[@status = 'open'][item = 'y']/id/string()", "1\n3");
+    composite("//order[@status = 'open'][item = 'x'][@customer = 'a']/id/string()", 1);
+    composite("//order[@customer = 'a'][@status = 'open'][id = 2]/id/string()", "");
+
+    // no results: composite key does not exist
+    check("//order[@customer = 'b'][@status = 'closed']", "", empty());
+
+    // no rewriting: no composite index for the specified components
+    check("//order[@customer = 'a'][id = '4']/id/string()", 4, empty(ACCESS));
+  }
+
+  /**
+   * Updates the database and recreates the composite indexes.
+   */
+  @Test public void update() {
+    set(MainOptions.COMPOSITEINDEX, "order[@customer,@status]");
+    execute(new CreateDB(NAME, DOC));
+    query("insert node attribute status { 'open' } into //order[id = 4]");
+    assertFalse(context.data().meta.composites);
+    check("//order[@customer = 'a'][@status = 'open']/id/string()", "1\n4", empty(ACCESS));
+
+    execute(new Optimize());
+    assertTrue(context.data().meta.composites);
+    composite("//order[@customer = 'a'][@status = 'open']/id/string()", "1\n4");
+
+    execute(new Close());
+    execute(new Open(NAME));
+    composite("//order[@customer = 'a'][@status = 'open']/id/string()", "1\n4");
+
+    query(_DB_OPTIMIZE.args(NAME, false, " { 'compositeindex': '' }"));
+    assertFalse(context.data().meta.composites);
+    check("//order[@customer = 'a'][@status = 'open']/id/string()", "1\n4", empty(ACCESS));
+  }
+
+  /**
+   * Checks if a query is rewritten for composite index access and returns the expected result.
+   * @param query query
+   * @param result expected result
+   */
+  private static void composite(final String query, final Object result) {
+    check(query, result, exists(ACCESS));
+  }
+}
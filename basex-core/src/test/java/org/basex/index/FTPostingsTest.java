@@ -0,0 +1,86 @@
+package org.basex.index;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.query.expr.ft.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the block-encoded posting lists of the full-text index.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class FTPostingsTest extends SandboxTest {
+  /** Query for creating the test document (rare and common tokens). */
+  private static final String DOC = "<xml>{ for $i in 1 to 30000 return <t>{"
+      + "string-join(('common', if($i mod 997 = 0) then 'rare' else (), 'w' || $i mod 7), ' ')"
+      + "}</t> }</xml>";
+
+  /**
+   * Initialize test.
+   */
+  @BeforeEach public void before() {
+    set(MainOptions.FTINDEX, true);
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.SPLITSIZE, 0);
+  }
+
+  /**
+   * Queries a single index structure.
+   */
+  @Test public void single() {
+    execute(new CreateDB(NAME));
+    query("db:add('" + NAME + "', " + DOC + ", 'doc.xml')");
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    check();
+  }
+
+  /**
+   * Queries an index structure that has been merged from partial indexes.
+   */
+  @Test public void splits() {
+    set(MainOptions.SPLITSIZE, 20000);
+    single();
+  }
+
+  /**
+   * Queries an updatable index structure.
+   */
+  @Test public void updatable() {
+    set(MainOptions.UPDINDEX, true);
+    single();
+    query("insert node <t>common rare w0</t> into /xml");
+    query("count(//t[text() contains text 'rare' ftand 'w0'])", 5);
+    execute(new Optimize());
+    check("count(//t[text() contains text 'common rare w0'])", 5, exists(FTIndexAccess.class));
+  }
+
+  /**
+   * Runs conjunctive queries on rare and common tokens.
+   */
+  private static void check() {
+    check("count(//t[text() contains text 'rare'])", 30, exists(FTIndexAccess.class));
+    check("count(//t[text() contains text 'rare' ftand 'common'])", 30,
+        exists(FTIndexAccess.class));
+    check("count(//t[text() contains text 'common' ftand 'rare' ftand 'w0'])", 4,
+        exists(FTIndexAccess.class));
+    check("count(//t[text() contains text 'common w3'])", 4281, exists(FTIndexAccess.class));
+    check("count(//t[text() contains text 'common rare'])", 30, exists(FTIndexAccess.class));
+    check("count(//t[text() contains text { 'w0', 'rare' } all words])", 4,
+        exists(FTIndexAccess.class));
+    check("(//t[text() contains text 'rare' ftand 'w1'])[1] ! count(preceding-sibling::t)",
+        4984, exists(FTIndexAccess.class));
+  }
+}
@@ -0,0 +1,123 @@
+package org.basex.index;
+
+import static org.basex.query.func.Function.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the incremental update of the full-text index ({@link MainOptions#UPDINDEX}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class FTUpdateTest extends SandboxTest {
+  /** Query for checking if the full-text index is up-to-date. */
+  private static final String FTINDEX = _DB_INFO.args(NAME) + "//ftindex/text()";
+
+  /**
+   * Initialize test.
+   */
+  @BeforeEach public void before() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<xml><a>one two</a><a>two three</a><b>two</b></xml>"));
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.FTINCLUDE, "");
+    set(MainOptions.JOURNAL, false);
+  }
+
+  /**
+   * Inserts, replaces and deletes nodes.
+   */
+  @Test public void update() {
+    query("insert node <a>three four</a> into /xml");
+    query(FTINDEX, true);
+    query(search("three"), "two three\nthree four");
+    query(search("four"), "three four");
+
+    query("replace value of node /xml/a[1] with 'five three'");
+    query(search("one"), "");
+    query(search("three"), "five three\ntwo three\nthree four");
+    query(search("t.*", "{ 'wildcards': true() }"), "five three\ntwo three\ntwo\nthree four");
+    query(search("fuor", "{ 'fuzzy': true() }"), "three four");
+
+    query("delete node /xml/a[. contains text 'two']");
+    query(search("two"), "two");
+    query("//text()[. contains text 'three'] => count()", 2);
+    query(_FT_TOKENS.args(NAME) + " ! (. || @count)", "two1\nfive1\nfour1\nthree2");
+    query(FTINDEX, true);
+  }
+
+  /**
+   * Renames elements that are included in the index.
+   */
+  @Test public void rename() {
+    set(MainOptions.FTINCLUDE, "a");
+    execute(new CreateDB(NAME, "<xml><a>one two</a><a>two three</a><b>two</b></xml>"));
+    query(search("two"), "one two\ntwo three");
+    query("rename node /xml/a[1] as 'b'");
+    query(search("two"), "two three");
+    query("rename node /xml/b[1] as 'a'");
+    query(search("two"), "one two\ntwo three");
+    query(FTINDEX, true);
+  }
+
+  /**
+   * Reopens a database with updates that have not been merged with the main index.
+   */
+  @Test public void reopen() {
+    for(final boolean journal : new boolean[] { false, true }) {
+      set(MainOptions.JOURNAL, journal);
+      before();
+      query("insert node <a>four</a> into /xml");
+      query("delete node /xml/b");
+      execute(new Close());
+      execute(new Open(NAME));
+      query(search("two"), "one two\ntwo three");
+      query(search("four"), "four");
+      query(FTINDEX, true);
+    }
+  }
+
+  /**
+   * Merges a large number of updates with the main index.
+   */
+  @Test public void merge() {
+    query("insert node (1 to 40000) ! <a>x{ . mod 100 } y</a> into /xml");
+    query("delete node /xml/a[1]");
+    execute(new Flush());
+    query(search("x7") + " => count()", 400);
+    query(search("y") + " => count()", 40000);
+    query(search("two"), "two three\ntwo");
+
+    query("delete node /xml/a[. contains text 'x7']");
+    execute(new Close());
+    execute(new Open(NAME));
+    query(search("x7") + " => count()", 0);
+    query(search("y") + " => count()", 39600);
+    query(FTINDEX, true);
+  }
+
+  /**
+   * Returns a query that performs an index-based full-text search.
+   * @param terms search terms
+   * @param options options
+   * @return query
+   */
+  private static String search(final String terms, final String... options) {
+    return (options.length == 0 ? _FT_SEARCH.args(NAME, terms) :
+      _FT_SEARCH.args(NAME, terms, " " + options[0])) + " ! string()";
+  }
+}
@@ -69,6 +69,43 @@ public final class IndexCacheTest {
     assertNull(cache.get(key));
   }
 
+  /** Test for method {@link IndexCache#ids(byte[], int[])}. */
+  @Test public void testIds() {
+    final byte[] key = token("keyIds");
+    final int[] ids = { 1, 3, 5 };
+    assertNull(cache.ids(key));
+    cache.ids(key, ids);
+    assertSame(ids, cache.ids(key));
+
+    // cached IDs are invalidated if the index entry changes or is deleted
+    cache.add(key, 3, 12L);
+    assertNull(cache.ids(key));
+    cache.ids(key, ids);
+    cache.add(key, 3, 12L);
+    assertSame(ids, cache.ids(key));
+    cache.add(key, 4, 12L);
+    assertNull(cache.ids(key));
+    cache.ids(key, ids);
+    cache.delete(key);
+    assertNull(cache.ids(key));
+  }
+
+  /** Test for method {@link IndexCache#ids(byte[], int[])}: eviction of unused results. */
+  @Test public void testEvict() {
+    final byte[] hot = token("keyHot");
+    final int[] ids = new int[1000];
+    cache.ids(hot, ids);
+    for(int i = 0; i < 4000; ++i) {
+      cache.ids(token("keyEvict" + i), ids);
+      assertSame(ids, cache.ids(hot));
+    }
+    int cached = 0;
+    for(int i = 0; i < 4000; ++i) {
+      if(cache.ids(token("keyEvict" + i)) != null) cached++;
+    }
+    assertTrue(cached < 1000, "Too many cached results: " + cached);
+  }
+
   /**
    * Test that new records can be continuously added without hitting
    * {@link OutOfMemoryError}.
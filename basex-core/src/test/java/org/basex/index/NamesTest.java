@@ -0,0 +1,77 @@
+package org.basex.index;
+
+import static org.basex.util.Token.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.index.name.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the name indexes of opened databases ({@link Names}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class NamesTest extends SandboxTest {
+  /** Number of distinct names. */
+  private static final int SIZE = 5000;
+
+  /**
+   * Creates and opens the test database.
+   */
+  @BeforeEach public void before() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 0; i < SIZE; i++) sb.append("<e").append(i).append(" a").append(i).append("=''/>");
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+    execute(new Close());
+    execute(new Open(NAME));
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Looks up names.
+   */
+  @Test public void lookup() {
+    final Names names = context.data().elemNames;
+    assertEquals(SIZE + 1, names.size());
+    for(int i = 1; i <= names.size(); i++) assertEquals(i, names.index(names.key(i)));
+    assertEquals(0, names.index(token("e" + SIZE)));
+    assertEquals(0, names.index(token("")));
+    assertEquals(0, names.index(token("f1")));
+    assertTrue(names.contains(token("xml")));
+
+    query("count(//*[@a1234])", 1);
+    query("name(//e4999)", "e4999");
+  }
+
+  /**
+   * Adds names.
+   */
+  @Test public void add() {
+    final Names names = context.data().elemNames;
+    final int e1 = names.index(token("e1"));
+    query("insert node <e1 a1=''/> into /xml");
+    assertEquals(SIZE + 1, names.size());
+
+    query("insert node <new/> into /xml");
+    assertEquals(SIZE + 2, names.size());
+    assertEquals(e1, names.index(token("e1")));
+    assertEquals(SIZE + 2, names.index(token("new")));
+
+    execute(new Close());
+    execute(new Open(NAME));
+    final Names read = context.data().elemNames;
+    assertEquals(SIZE + 2, read.size());
+    assertEquals(e1, read.index(token("e1")));
+    query("count(/xml/(e1, new))", 3);
+  }
+}
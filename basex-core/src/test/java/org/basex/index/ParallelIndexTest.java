@@ -0,0 +1,108 @@
+package org.basex.index;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for building index structures in parallel ({@link MainOptions#BUILDTHREADS}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelIndexTest extends SandboxTest {
+  /** Test document. */
+  private static final String DOC;
+
+  static {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 1; i <= 105000; i++) {
+      sb.append("<a id='").append(i % 997).append("'>x").append(i % 1009).append(" y");
+      sb.append(i % 13).append("</a>");
+    }
+    DOC = sb.append("</xml>").toString();
+  }
+
+  /** Query for returning index entries and results of index-based queries. */
+  private static final String ENTRIES = "string-join(("
+      + _INDEX_TEXTS.args(NAME) + " ! (. || ':' || @count),"
+      + _INDEX_ATTRIBUTES.args(NAME) + " ! (. || ':' || @count),"
+      + _INDEX_TOKENS.args(NAME) + " ! (. || ':' || @count),"
+      + _DB_TEXT.args(NAME, "x5 y5") + " ! " + _DB_NODE_PRE.args(" .") + ","
+      + _DB_ATTRIBUTE.args(NAME, "17") + " ! " + _DB_NODE_PRE.args(" .") + ","
+      + _DB_TOKEN.args(NAME, "42") + " ! " + _DB_NODE_PRE.args(" .") + "), ' ')";
+
+  /**
+   * Initialize test.
+   */
+  @BeforeEach public void before() {
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.TOKENINCLUDE, "id");
+    set(MainOptions.SPLITSIZE, 1);
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.BUILDTHREADS, 1);
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.TOKENINCLUDE, "");
+    set(MainOptions.SPLITSIZE, 0);
+    set(MainOptions.UPDINDEX, false);
+  }
+
+  /**
+   * Creates a database with index structures.
+   */
+  @Test public void create() {
+    final String expected = create(1);
+    assertEquals(expected, create(4));
+  }
+
+  /**
+   * Creates a database with updatable index structures.
+   */
+  @Test public void updindex() {
+    set(MainOptions.UPDINDEX, true);
+    final String expected = create(1);
+    assertEquals(expected, create(3));
+
+    query(_DB_TEXT.args(NAME, "x5 y5") + " => count()", 9);
+    query("delete node " + _DB_TEXT.args(NAME, "x5 y5") + "[1]/..");
+    query(_DB_TEXT.args(NAME, "x5 y5") + " => count()", 8);
+  }
+
+  /**
+   * Rebuilds all index structures.
+   */
+  @Test public void optimize() {
+    final String expected = create(1);
+    set(MainOptions.BUILDTHREADS, 4);
+    set(MainOptions.FTINDEX, true);
+    execute(new OptimizeAll());
+    assertEquals(expected, query(ENTRIES));
+    query("count(//a[text() contains text 'x1008'])", 104);
+    execute(new CreateIndex(CmdIndex.TEXT));
+    assertEquals(expected, query(ENTRIES));
+  }
+
+  /**
+   * Creates the database and returns the index entries.
+   * @param threads number of threads
+   * @return index entries
+   */
+  private static String create(final int threads) {
+    set(MainOptions.BUILDTHREADS, threads);
+    execute(new CreateDB(NAME, DOC));
+    return query(ENTRIES);
+  }
+}
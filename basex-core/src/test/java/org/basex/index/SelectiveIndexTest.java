@@ -7,6 +7,8 @@ import java.util.*;
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.Test;
 
@@ -30,7 +32,7 @@ public final class SelectiveIndexTest extends SandboxTest {
     map().forEach((key, value) -> {
       set(MainOptions.TEXTINCLUDE, key);
       execute(new CreateDB(NAME, FILE));
-      final int size = context.data().textIndex.size();
+      final int size = context.data().valueIndex(IndexType.TEXT).size();
       assertEquals(value, size, "TextIndex: \"" + key + "\": ");
     });
   }
@@ -41,7 +43,7 @@ public final class SelectiveIndexTest extends SandboxTest {
       map().forEach((key, value) -> {
         set(MainOptions.ATTRINCLUDE, key);
         execute(new CreateDB(NAME, FILE));
-        final int size = context.data().attrIndex.size();
+        final int size = context.data().valueIndex(IndexType.ATTRIBUTE).size();
         assertEquals(value, size, "AttrIndex: \"" + key + "\": ");
       });
     } finally {
@@ -56,7 +58,7 @@ public final class SelectiveIndexTest extends SandboxTest {
       map().forEach((key, value) -> {
         set(MainOptions.TOKENINCLUDE, key);
         execute(new CreateDB(NAME, FILE));
-        final int size = context.data().tokenIndex.size();
+        final int size = context.data().valueIndex(IndexType.TOKEN).size();
         assertEquals(value, size, "TokenIndex: \"" + key + "\": ");
       });
     } finally {
@@ -72,7 +74,8 @@ public final class SelectiveIndexTest extends SandboxTest {
       map().forEach((key, value) -> {
         set(MainOptions.FTINCLUDE, key);
         execute(new CreateDB(NAME, FILE));
-        assertEquals((int) value, context.data().ftIndex.size(), "FTIndex: \"" + key + "\": ");
+        final int size = context.data().valueIndex(IndexType.FULLTEXT).size();
+        assertEquals((int) value, size, "FTIndex: \"" + key + "\": ");
       });
     } finally {
       set(MainOptions.FTINCLUDE, "");
@@ -144,6 +147,50 @@ public final class SelectiveIndexTest extends SandboxTest {
     }
   }
 
+  /** Tests path entries. */
+  @Test public void paths() {
+    final String file = "<catalog><item sku='A1'><name>X</name></item>" +
+        "<item sku='B2'><name>Y</name></item><other sku='A1'><name>X</name></other></catalog>";
+    final String access = Util.className(ValueAccess.class);
+    try {
+      // only matching nodes are indexed; no rewrite, as some attributes are not indexed
+      set(MainOptions.ATTRINCLUDE, "/catalog/item/@sku");
+      set(MainOptions.TEXTINCLUDE, "/catalog/item/name, /catalog/*/x");
+      execute(new CreateDB(NAME, file));
+      assertEquals(2, context.data().valueIndex(IndexType.ATTRIBUTE).size());
+      assertEquals(2, context.data().valueIndex(IndexType.TEXT).size());
+      query("count(db:attribute('" + NAME + "', 'A1'))", 1);
+      query("count(db:text('" + NAME + "', 'X'))", 1);
+      check("//item[@sku = 'A1']/name/string()", "X", empty(access));
+      check("//*[name = 'X']/@sku/string()", "A1\nA1", empty(access));
+
+      // all nodes with the targeted names are indexed
+      set(MainOptions.ATTRINCLUDE, "/catalog/*/@sku");
+      set(MainOptions.TEXTINCLUDE, "/*/*/name");
+      execute(new CreateDB(NAME, file));
+      query("count(db:attribute('" + NAME + "', 'A1'))", 2);
+      check("//item[@sku = 'A1']/name/string()", "X", exists(access));
+      check("//*[name = 'X']/@sku/string()", "A1\nA1", exists(access));
+
+      // invalid and non-matching paths
+      set(MainOptions.ATTRINCLUDE, "/catalog//@sku, /@sku, /catalog/@sku/x");
+      execute(new CreateDB(NAME, file));
+      assertEquals(0, context.data().valueIndex(IndexType.ATTRIBUTE).size());
+
+      // incremental updates: only nodes on matching paths are added
+      set(MainOptions.UPDINDEX, true);
+      set(MainOptions.ATTRINCLUDE, "/catalog/item/@sku");
+      execute(new CreateDB(NAME, file));
+      query("insert nodes (<item sku='C3'/>, <other sku='D4'/>) into /catalog");
+      query("count(db:attribute('" + NAME + "', ('C3', 'D4')))", 1);
+      check("//*[@sku = 'D4']/name()", "other", empty(access));
+    } finally {
+      set(MainOptions.UPDINDEX, false);
+      set(MainOptions.ATTRINCLUDE, "");
+      set(MainOptions.TEXTINCLUDE, "");
+    }
+  }
+
   /**
    * Returns a map with name tests.
    * @return map
@@ -0,0 +1,125 @@
+package org.basex.index;
+
+import static org.basex.util.Token.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.index.query.*;
+import org.basex.index.stats.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the histograms and distinct values of the statistics ({@link Stats}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class StatsTest extends SandboxTest {
+  /** Number of records. */
+  private static final int SIZE = 2000;
+
+  /**
+   * Creates the test database.
+   */
+  @BeforeEach public void before() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 0; i < SIZE; i++) {
+      // skewed numbers: 90% of the values are between 0 and 9
+      sb.append("<r><n>").append(i < 1800 ? i % 10 : i).append("</n><s>s").append(i).
+        append("</s><c>c").append(i % 5).append("</c></r>");
+    }
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Numeric values.
+   */
+  @Test public void numbers() {
+    final Stats stats = stats("n");
+    assertEquals(SIZE, stats.size());
+    assertBetween(150, 300, stats.distinct());
+    assertEquals(0.9, stats.selectivity(0, 9), 0.1);
+    assertEquals(0.05, stats.selectivity(1900, 1999), 0.1);
+    assertEquals(0, stats.selectivity(3000, 4000));
+    assertTrue(Double.isNaN(stats.selectivity(token("a"), true, token("b"), true)));
+  }
+
+  /**
+   * Strings and categories.
+   */
+  @Test public void strings() {
+    final Stats stats = stats("s");
+    assertEquals(SIZE, stats.size());
+    assertBetween(1500, 2600, stats.distinct());
+    assertEquals(0.555, stats.selectivity(token("s1"), true, token("s2"), false), 0.15);
+    assertEquals(0, stats.selectivity(token("t"), true, token("u"), true));
+
+    final Stats cats = stats("c");
+    assertEquals(5, cats.distinct());
+    assertEquals(0.4, cats.selectivity(token("c0"), true, token("c1"), true));
+    assertEquals(0.2, cats.selectivity(token("c0"), true, token("c1"), false));
+  }
+
+  /**
+   * Statistics are persisted.
+   */
+  @Test public void persist() {
+    final Stats stats = stats("n");
+    final int distinct = stats.distinct();
+    final double selectivity = stats.selectivity(0, 9);
+
+    execute(new Close());
+    execute(new Open(NAME));
+    final Stats read = stats("n");
+    assertEquals(SIZE, read.size());
+    assertEquals(distinct, read.distinct());
+    assertEquals(selectivity, read.selectivity(0, 9));
+
+    // statistics are recreated when the database is optimized
+    query("insert node <r><n>5</n></r> into /xml");
+    execute(new Optimize());
+    assertEquals(SIZE + 1, stats("n").size());
+  }
+
+  /**
+   * Costs of string range requests.
+   */
+  @Test public void costs() {
+    final Data data = context.data();
+    final int results = data.costs(new StringRange(IndexType.TEXT, token("c0"), true,
+        token("c0"), true)).results();
+    // 400 results, and a fallback estimate for the numbers
+    assertBetween(SIZE / 5, SIZE / 2, results);
+    assertTrue(results < data.meta.size / 10);
+  }
+
+  /**
+   * Returns the statistics of the specified element.
+   * @param name name of element
+   * @return statistics
+   */
+  private static Stats stats(final String name) {
+    final Data data = context.data();
+    return data.elemNames.stats(data.elemNames.index(token(name)));
+  }
+
+  /**
+   * Checks if a value is within the specified bounds.
+   * @param min minimum
+   * @param max maximum
+   * @param value value
+   */
+  private static void assertBetween(final int min, final int max, final int value) {
+    assertTrue(value >= min && value <= max, value + " is not within [" + min + ", " + max + ']');
+  }
+}
@@ -0,0 +1,119 @@
+package org.basex.index;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the trigram index ({@link MainOptions#TRIGRAMINDEX}).
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class TrigramsTest extends SandboxTest {
+  /** Test document. */
+  private static final String DOC = "<xml>" +
+      "<a id='x1'>abcdef</a><a id='x22'>bcdefg</a><a id='y1'>abc def</a>" +
+      "<a id='z'>défi défi</a><a id='abc'>xabcxabcab</a><b>abcdef</b>" +
+      "</xml>";
+  /** Name of the index access class. */
+  private static final String ACCESS = Util.className(TrigramAccess.class);
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.TRIGRAMINDEX, false);
+  }
+
+  /**
+   * Substring searches.
+   */
+  @Test public void substrings() {
+    set(MainOptions.TRIGRAMINDEX, true);
+    execute(new CreateDB(NAME, DOC));
+    assertTrue(context.data().meta.trigramindex);
+    query(_DB_PROPERTY.args(NAME, "trigramindex"), true);
+
+    trigrams("//a[contains(., 'bcde')]/@id/string()", "x1\nx22");
+    trigrams("//a[contains(text(), 'cde')]/@id/string()", "x1\nx22");
+    trigrams("//text()[contains(., 'abc')]/string()", "abcdef\nabc def\nxabcxabcab\nabcdef");
+    trigrams("//a[starts-with(., 'abc')]/@id/string()", "x1\ny1");
+    trigrams("//a[ends-with(., 'def')]/@id/string()", "x1\ny1");
+    trigrams("//a[contains(., 'défi')]/@id/string()", "z");
+    trigrams("//a[contains(@id, 'x22')]/string()", "bcdefg");
+    trigrams("//@id[starts-with(., 'abc')]/string()", "abc");
+
+    // no results: trigram does not exist, or candidates are no results
+    check("//a[contains(., 'xyz')]", "", empty());
+    check("//a[contains(., 'abcabc')]", "", empty());
+    trigrams("//a[ends-with(., 'bcd')]", "");
+
+    // no rewriting: search string is too short, collation is specified
+    check("//a[contains(., 'bc')]/@id/string()", "x1\nx22\ny1\nabc", empty(ACCESS));
+    check("//a[contains(., 'bcd', 'http://www.w3.org/2013/collation/UCA')]/@id/string()",
+        "x1\nx22", empty(ACCESS));
+  }
+
+  /**
+   * Regular expressions.
+   */
+  @Test public void regex() {
+    set(MainOptions.TRIGRAMINDEX, true);
+    execute(new CreateDB(NAME, DOC));
+
+    trigrams("//a[matches(., 'bcd')]/@id/string()", "x1\nx22");
+    check("//a[matches(., 'a.c', 'q')]", "", empty());
+    trigrams("//a[matches(., 'bcd.?ef')]/@id/string()", "x1\nx22");
+    trigrams("//a[matches(., '^abc')]/@id/string()", "x1\ny1");
+    trigrams("//a[matches(., 'ab+cde[ef]*$')]/@id/string()", "x1");
+    trigrams("//a[matches(., 'a(bc)?def')]/@id/string()", "x1");
+    trigrams("//a[matches(., 'x(abc)+')]/@id/string()", "abc");
+    trigrams("//a[matches(., 'a\\.*bcde', 's')]/@id/string()", "x1");
+
+    // no rewriting: no literal string with three characters, case-insensitive search
+    check("//a[matches(., 'ab?cd')]/@id/string()", "x1", empty(ACCESS));
+    check("//a[matches(., 'abc|xyz')]/@id/string()", "x1\ny1\nabc", empty(ACCESS));
+    check("//a[matches(., 'ABC', 'i')]/@id/string()", "x1\ny1\nabc", empty(ACCESS));
+  }
+
+  /**
+   * Updates the database and recreates the trigram index.
+   */
+  @Test public void update() {
+    set(MainOptions.TRIGRAMINDEX, true);
+    execute(new CreateDB(NAME, DOC));
+    query("insert node <a id='new'>xyzzy</a> into /xml");
+    assertFalse(context.data().meta.trigramindex);
+    check("//a[contains(., 'yzz')]/@id/string()", "new", empty(ACCESS));
+
+    execute(new Optimize());
+    assertTrue(context.data().meta.trigramindex);
+    trigrams("//a[contains(., 'yzz')]/@id/string()", "new");
+
+    execute(new Close());
+    execute(new Open(NAME));
+    trigrams("//a[contains(., 'yzz')]/@id/string()", "new");
+
+    query(_DB_OPTIMIZE.args(NAME, false, " { 'trigramindex': false() }"));
+    assertFalse(context.data().meta.trigramindex);
+    check("//a[contains(., 'yzz')]/@id/string()", "new", empty(ACCESS));
+  }
+
+  /**
+   * Checks if a query is rewritten for trigram index access and returns the expected result.
+   * @param query query
+   * @param result expected result
+   */
+  private static void trigrams(final String query, final Object result) {
+    check(query, result, exists(ACCESS));
+  }
+}
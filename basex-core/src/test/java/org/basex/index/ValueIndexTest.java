@@ -14,6 +14,7 @@ import org.basex.index.query.*;
 import org.basex.index.value.*;
 import org.basex.util.hash.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.*;
 import org.junit.jupiter.params.provider.*;
 
@@ -119,6 +120,22 @@ public final class ValueIndexTest extends SandboxTest {
     valueIndexTest(IndexType.TOKEN, tokens, paramSet);
   }
 
+  /**
+   * Tests if cached index results are invalidated by updates.
+   */
+  @Test public void cachedResults() {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, "<xml><a id='x'/><a id='y'/></xml>"));
+    for(int i = 0; i < 2; i++) query("count(//a[@id = 'x'])", 1);
+    query("insert node <a id='x'/> as first into /xml");
+    for(int i = 0; i < 2; i++) query("//a[@id = 'x'] ! count(preceding::*)", "0\n1");
+    query("delete node //a[@id = 'y']");
+    query("count(//a[@id = 'y'])", 0);
+    query("replace value of node //a[@id = 'x'][1]/@id with 'y'");
+    query("count(//a[@id = 'x'])", 1);
+    query("count(//a[@id = 'y'])", 1);
+  }
+
   /**
    * Tests the index: fetch results for different tokens, compare whether the right node was
    * returned and verify against the expected result size.
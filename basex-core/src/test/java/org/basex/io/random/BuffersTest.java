@@ -0,0 +1,71 @@
+package org.basex.io.random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for class {@link Buffers}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class BuffersTest {
+  /**
+   * Tests the replacement of buffers that have not been referenced recently.
+   */
+  @Test public void replace() {
+    final Buffers buffers = new Buffers(4);
+    for(int b = 0; b < 4; b++) assertTrue(load(buffers, b));
+    for(int b = 0; b < 4; b++) assertFalse(load(buffers, b));
+
+    // all buffers are referenced: first buffer is replaced
+    assertTrue(load(buffers, 4));
+    assertTrue(load(buffers, 0));
+    // referenced buffer is skipped by the clock hand
+    assertFalse(load(buffers, 2));
+    assertTrue(load(buffers, 5));
+    assertFalse(load(buffers, 2));
+    assertFalse(load(buffers, 5));
+  }
+
+  /**
+   * Tests if the assigned buffers always match the requested block positions.
+   */
+  @Test public void random() {
+    for(final int size : new int[] { 1, 3, 16, 100 }) {
+      final Buffers buffers = new Buffers(size);
+      final Random rnd = new Random(size);
+      for(int i = 0; i < 100_000; i++) {
+        final long pos = rnd.nextInt(size * 2);
+        load(buffers, pos);
+        assertEquals(pos, buffers.current().pos);
+      }
+    }
+  }
+
+  /**
+   * Tests if a sequence of blocks that fits into the buffers is never reloaded.
+   */
+  @Test public void hits() {
+    final Buffers buffers = new Buffers(64);
+    for(int b = 0; b < 64; b++) assertTrue(load(buffers, b << 12));
+    for(int i = 0; i < 10; i++) {
+      for(int b = 63; b >= 0; b--) assertFalse(load(buffers, b << 12));
+    }
+  }
+
+  /**
+   * Chooses a buffer and assigns the block position.
+   * @param buffers buffers
+   * @param pos block position
+   * @return {@code true} if the block had to be loaded
+   */
+  private static boolean load(final Buffers buffers, final long pos) {
+    if(!buffers.cursor(pos)) return false;
+    buffers.current().pos = pos;
+    return true;
+  }
+}
@@ -0,0 +1,121 @@
+package org.basex.io.random;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for class {@link CompressedAccess}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class CompressedAccessTest extends SandboxTest {
+  /** Test file. */
+  private static final IOFile FILE = new IOFile(sandbox(), NAME);
+  /** Decompressed file. */
+  private static final IOFile TARGET = new IOFile(sandbox(), NAME + IO.TMPSUFFIX);
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    FILE.delete();
+    TARGET.delete();
+    execute(new DropDB(NAME));
+    set(MainOptions.COMPRESSTEXTS, false);
+  }
+
+  /**
+   * Reads tokens from a compressed file, including tokens that span several blocks.
+   * @throws IOException I/O exception
+   */
+  @Test public void read() throws IOException {
+    final Random rnd = new Random(0);
+    final LongList offsets = new LongList();
+    final ArrayList<byte[]> tokens = new ArrayList<>();
+    try(DataAccess da = new DataAccess(FILE)) {
+      for(int t = 0; t < 2000; t++) {
+        final byte[] token = new byte[rnd.nextInt(t % 100 == 0 ? 200_000 : 200)];
+        for(int b = 0; b < token.length; b++) token[b] = (byte) ('a' + rnd.nextInt(4));
+        final long offset = da.length();
+        da.writeToken(offset, token);
+        offsets.add(offset);
+        tokens.add(token);
+      }
+    }
+    final byte[] plain = FILE.read();
+
+    CompressedAccess.compress(FILE);
+    assertTrue(FILE.length() < plain.length);
+    try(CompressedAccess ca = new CompressedAccess(FILE)) {
+      assertEquals(plain.length, ca.length());
+      // read tokens in random order
+      for(int i = 0; i < 10_000; i++) {
+        final int t = rnd.nextInt(tokens.size());
+        final byte[] token = tokens.get(t);
+        assertEquals(token.length, ca.readNumAt(offsets.get(t)));
+        assertArrayEquals(token, ca.readTokenAt(offsets.get(t)));
+      }
+      // read tokens concurrently
+      IntStream.range(0, 10_000).parallel().forEach(i -> {
+        final int t = i * 7 % tokens.size();
+        assertArrayEquals(tokens.get(t), ca.readTokenAt(offsets.get(t)));
+      });
+    }
+
+    CompressedAccess.decompress(FILE, TARGET);
+    assertArrayEquals(plain, TARGET.read());
+  }
+
+  /**
+   * Compresses an empty file.
+   * @throws IOException I/O exception
+   */
+  @Test public void emptyFile() throws IOException {
+    FILE.write(Token.EMPTY);
+    CompressedAccess.compress(FILE);
+    try(CompressedAccess ca = new CompressedAccess(FILE)) {
+      assertEquals(0, ca.length());
+    }
+    CompressedAccess.decompress(FILE, TARGET);
+    assertEquals(0, TARGET.length());
+  }
+
+  /**
+   * Creates, queries and updates a database with compressed texts.
+   */
+  @Test public void database() {
+    set(MainOptions.COMPRESSTEXTS, true);
+    final String text = "log entry ".repeat(100);
+    execute(new CreateDB(NAME, "<logs>" + ("<log id='" + text + "'>" + text + "</log>").
+        repeat(1000) + "</logs>"));
+    query(_DB_PROPERTY.args(NAME, "compresstexts"), true);
+    query("count(//log[. = '" + text + "'])", 1000);
+    query("count(//log[@id = '" + text + "'])", 1000);
+
+    // texts are decompressed before the first update
+    execute(new Put("x.xml", "<logs><log id='a'>" + text + "</log></logs>"));
+    query("count(//log[. = '" + text + "'])", 1001);
+    query("//log[@id = 'a'] = '" + text + "'", true);
+
+    // compress texts again
+    execute(new Close());
+    execute(new Open(NAME));
+    execute(new OptimizeAll());
+    query("count(//log[. = '" + text + "'])", 1001);
+    query(_DB_PROPERTY.args(NAME, "compresstexts"), true);
+  }
+}
@@ -182,6 +182,54 @@ public final class DataAccessTest {
     assertEquals(STR, Token.string(da.readToken()));
   }
 
+  /**
+   * Test method for {@link DataAccess#readNumAt(long)} and {@link DataAccess#readTokenAt(long)}.
+   */
+  @Test public void testReadAt() {
+    readAt();
+  }
+
+  /**
+   * Test method for {@link DataAccess#readNumAt(long)} and {@link DataAccess#readTokenAt(long)},
+   * using a memory-mapped file.
+   * @throws IOException I/O exception
+   */
+  @Test public void testReadAtMapped() throws IOException {
+    da.close();
+    Prop.mmap = true;
+    try {
+      da = new DataAccess(file);
+      readAt();
+
+      // mapping is invalidated by updates and restored when the file is flushed
+      final String str = STR + STR;
+      da.writeToken(BLOCK_BOUNDARY_POS, Token.token(str));
+      assertEquals(str, Token.string(da.readTokenAt(BLOCK_BOUNDARY_POS)));
+      da.flush();
+      assertEquals(str, Token.string(da.readTokenAt(BLOCK_BOUNDARY_POS)));
+      assertEquals(STR, Token.string(da.readTokenAt(0L)));
+    } finally {
+      Prop.mmap = false;
+    }
+  }
+
+  /**
+   * Tests positional reads.
+   */
+  private void readAt() {
+    long off = STR_BIN.length + BYTE_BIN.length + LONG_BIN.length + INT_BIN.length;
+    assertEquals(CINT5, da.readNumAt(off));
+    off += CINT5_BIN.length;
+    assertEquals(CINT4, da.readNumAt(off));
+    off += CINT4_BIN.length;
+    assertEquals(CINT2, da.readNumAt(off));
+    off += CINT2_BIN.length;
+    assertEquals(CINT1, da.readNumAt(off));
+
+    assertEquals(STR, Token.string(da.readTokenAt(0L)));
+    assertEquals(STR, Token.string(da.readTokenAt(BLOCK_BOUNDARY_POS)));
+  }
+
   /** Test method for {@link DataAccess#readBytes(long, int)}. */
   @Test public void testReadBytesLongInt() {
     final byte[] bytes = Token.token(STR);
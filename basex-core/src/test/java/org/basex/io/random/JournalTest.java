@@ -0,0 +1,115 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the write-ahead {@link Journal}.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class JournalTest extends SandboxTest {
+  /** Name of the copied database. */
+  private static final String COPY = NAME + "copy";
+
+  /**
+   * Initialize test.
+   */
+  @BeforeEach public void before() {
+    set(MainOptions.JOURNAL, true);
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, "<xml/>"));
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    execute(new DropDB(COPY));
+    set(MainOptions.JOURNAL, false);
+    set(MainOptions.UPDINDEX, false);
+  }
+
+  /**
+   * Updates a database and reopens it.
+   */
+  @Test public void update() {
+    query("insert node (1 to 10) ! <a>{ . }</a> into /xml");
+    assertTrue(journal(NAME).exists());
+    query("count(//a)", 10);
+
+    execute(new Close());
+    assertFalse(journal(NAME).exists());
+    execute(new Open(NAME));
+    query("count(//a)", 10);
+    query("//a[text() = '5'] ! string()", 5);
+
+    // disable journaling
+    set(MainOptions.JOURNAL, false);
+    query("delete node //a[. > 5]");
+    assertFalse(journal(NAME).exists());
+    query("count(//a)", 5);
+  }
+
+  /**
+   * Simulates a crash by copying the files of an opened database, and restores the copy.
+   * @throws IOException I/O exception
+   */
+  @Test public void replay() throws IOException {
+    // exceed buffer size to enforce write operations before the commit
+    query("insert node (1 to 50000) ! <a>{ . }</a> into /xml");
+    query("for $a in //a[. mod 1000 = 0] return replace value of node $a with 'x'");
+    query("delete node //a[. = ('1', '2', '3')]");
+    query("insert node <b>text</b> as first into /xml");
+    copy();
+
+    execute(new Open(COPY));
+    assertFalse(journal(COPY).exists());
+    query("count(//a)", 49997);
+    query("count(//a[. = 'x'])", 50);
+    query("count(//a[text() = '4'])", 1);
+    query("/xml/*[1] ! string()", "text");
+
+    // incomplete records are ignored
+    execute(new Open(NAME));
+    query("delete node //b");
+    copy();
+    try(RandomAccessFile raf = new RandomAccessFile(journal(COPY).file(), "rw")) {
+      raf.setLength(raf.length() - 1);
+    }
+    execute(new Open(COPY));
+    query("count(/xml/b)", 1);
+    query("count(//a)", 49997);
+  }
+
+  /**
+   * Copies the currently opened database without closing it.
+   * @throws IOException I/O exception
+   */
+  private static void copy() throws IOException {
+    execute(new DropDB(COPY));
+    final IOFile source = context.soptions.dbPath(NAME), target = context.soptions.dbPath(COPY);
+    for(final IOFile file : source.children()) file.copyTo(new IOFile(target, file.name()));
+    assertTrue(journal(COPY).exists());
+  }
+
+  /**
+   * Returns the journal file of a database.
+   * @param db name of database
+   * @return journal file
+   */
+  private static IOFile journal(final String db) {
+    return new IOFile(context.soptions.dbPath(db), DATAJRN + IO.BASEXSUFFIX);
+  }
+}
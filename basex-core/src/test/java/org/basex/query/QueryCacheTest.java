@@ -0,0 +1,127 @@
+package org.basex.query;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the cache of compiled query plans.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCacheTest extends SandboxTest {
+  /** Enables the cache. */
+  @BeforeEach public void init() {
+    context.soptions.set(StaticOptions.QUERYCACHE, 4);
+    context.queries.clear();
+  }
+
+  /** Disables the cache. */
+  @AfterEach public void finish() {
+    context.soptions.set(StaticOptions.QUERYCACHE, 0);
+    context.queries.clear();
+  }
+
+  /** Cached plans with different external values. */
+  @Test public void externals() {
+    final String query = "declare variable $x external; xs:integer($x) * 2";
+    assertEquals("2", execute(new XQuery(query).bind("x", "1")));
+    assertEquals("4", execute(new XQuery(query).bind("x", "2")));
+    assertEquals("6", execute(new XQuery(query).bind("x", "3")));
+    assertEquals(1, stat("entries"));
+    assertEquals(1, stat("misses"));
+    assertEquals(2, stat("hits"));
+
+    final String dflt = "declare variable $x as xs:integer external := 5; "
+        + "declare variable $y := $x + 1; $y";
+    assertEquals("6", execute(new XQuery(dflt)));
+    assertEquals("2", execute(new XQuery(dflt).bind("x", "1")));
+    assertEquals("6", execute(new XQuery(dflt)));
+    assertEquals(4, stat("hits"));
+
+    final String empty = "declare variable $x external; $x";
+    assertEquals("a", execute(new XQuery(empty).bind("x", "a")));
+    error(empty, VAREMPTY_X);
+  }
+
+  /** Serialization parameters and options declared in the query. */
+  @Test public void declarations() {
+    final String query = "declare option output:method 'text'; "
+        + "declare option db:inlinelimit '0'; "
+        + "declare function local:f($a) { $a, 'x' }; local:f(<a>b</a>)";
+    assertEquals("bx", execute(new XQuery(query)));
+    assertEquals("bx", execute(new XQuery(query)));
+    assertEquals(1, stat("hits"));
+  }
+
+  /** Invalidation after updates. */
+  @Test public void invalidate() {
+    query("1 + count(<a/>/*)", 1);
+    query("1 + count(<a/>/*)", 1);
+    assertEquals(1, stat("hits"));
+
+    execute(new CreateDB(NAME, "<x/>"));
+    execute(new Close());
+    query("1 + count(<a/>/*)", 1);
+    assertEquals(1, stat("invalidations"));
+    assertEquals(1, stat("hits"));
+    execute(new DropDB(NAME));
+  }
+
+  /** Queries that are not cached. */
+  @Test public void uncached() {
+    execute(new CreateDB(NAME, "<x/>"));
+    execute(new Close());
+    query(_DB_GET.args(NAME) + " ! name(*)", "x");
+    query("update:output(1)", 1);
+    assertEquals(0, stat("entries"));
+
+    execute(new Open(NAME));
+    query("name(*)", "x");
+    assertEquals(0, stat("entries"));
+    execute(new DropDB(NAME));
+  }
+
+  /** Values of the dynamic context are not cached. */
+  @Test public void dynamic() {
+    final String query = "string(current-dateTime())";
+    final String result = query(query);
+    Performance.sleep(10);
+    assertNotEquals(result, query(query));
+
+    final String global = "declare variable $t := current-time(); string($t)";
+    final String time = query(global);
+    Performance.sleep(10);
+    assertNotEquals(time, query(global));
+    assertEquals(0, stat("entries"));
+  }
+
+  /** Eviction of least recently used entries. */
+  @Test public void evict() {
+    for(int i = 0; i < 6; i++) query(i + " + count(<a/>/*)", i);
+    assertEquals(4, stat("entries"));
+    assertEquals(2, stat("evictions"));
+  }
+
+  /**
+   * Returns a statistics entry of the cache.
+   * @param key key
+   * @return value
+   */
+  private static long stat(final String key) {
+    try {
+      return ((Itr) context.queries.info().get(Str.get(key))).itr();
+    } catch(final QueryException ex) {
+      throw new AssertionError(ex);
+    }
+  }
+}
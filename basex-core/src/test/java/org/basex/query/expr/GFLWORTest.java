@@ -5,6 +5,7 @@ import static org.basex.query.func.Function.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.query.expr.constr.*;
 import org.basex.query.expr.gflwor.*;
 import org.basex.query.up.expr.*;
@@ -537,6 +538,104 @@ public final class GFLWORTest extends SandboxTest {
     check("for $i in 1 to 1 trace 'x' return $i", 1, exists(Trace.class));
   }
 
+  /** Order by clauses with a limited number of results. */
+  @Test public void orderByLimit() {
+    final String limited = "OrderBy[@max = 3]";
+    check("(for $i in (5, 3, 8, 1, 9, 2) order by string($i) return $i)[position() <= 3]",
+        "1\n2\n3", exists(limited));
+    check("subsequence(for $i in (5, 3, 8, 1, 9, 2) order by -$i return $i, 2, 2)",
+        "8\n5", exists(limited));
+    check("(for $i in (5, 3, 8, 1, 9, 2) order by string($i) descending return $i)[3]",
+        "5", exists(limited));
+    check("head(for $i in 1 to 10 order by $i mod 3 return $i)", 3, exists("OrderBy[@max = 1]"));
+
+    // stable sort
+    query("(for $i in 1 to 10 order by $i mod 3 return $i)[position() <= 4]", "3\n6\n9\n1");
+    query("(for $i in 1 to 10 order by $i mod 3 descending return $i)[position() <= 4]",
+        "2\n5\n8\n1");
+    // empty keys
+    query("head(for $i in 1 to 5 order by (if($i = 2) then () else $i) descending "
+        + "empty least return $i)", 5);
+    query("head(for $i in 1 to 5 order by (if($i = 2) then () else $i) descending "
+        + "empty greatest return $i)", 2);
+    error("head(for $i in (1, <a>a</a> ! string(), 2) order by $i return $i)", CMPTYPES_X_X_X_X);
+
+    // no limit: multiple results per tuple, or results are processed further
+    check("(for $i in 1 to 5 order by -$i return ($i, $i))[position() <= 3]",
+        "5\n5\n4", empty(limited));
+    check("(for $i in 1 to 5 order by -$i count $c return $i)[position() <= 3]",
+        "5\n4\n3", empty(limited));
+  }
+
+  /** Order by clauses with extracted keys and spilled tuples. */
+  @Test public void orderBySpill() {
+    final String[] queries = {
+      "for $i in 1 to 100 order by $i mod 7, -$i return $i",
+      "for $i in 1 to 100 order by string($i) descending return $i",
+      "for $i in 1 to 100 order by ($i mod 5) * 1.5e0 empty greatest, $i mod 3 "
+        + "return ($i, 'x' || $i)",
+      "for $i in 1 to 100 let $d := if($i mod 4) then $i mod 9 else () "
+        + "order by $d empty greatest, xs:untypedAtomic($i mod 2) return $i",
+      "for $i in 1 to 100 let $e := <e>{ $i }</e> order by $i mod 3 return $e"
+    };
+    final String[] results = new String[queries.length];
+    for(int q = 0; q < queries.length; q++) results[q] = query(queries[q]);
+
+    set(MainOptions.SORTSPILL, 10);
+    try {
+      for(int q = 0; q < queries.length; q++) query(queries[q], results[q]);
+      query("(for $i in 1 to 100 order by $i mod 2, $i descending return $i)[position() <= 2]",
+          "100\n98");
+    } finally {
+      set(MainOptions.SORTSPILL, MainOptions.SORTSPILL.value());
+    }
+
+    // mixed numeric keys
+    query("for $i in (1, 2.5e0, 2, 1e0, xs:decimal('1.5')) order by $i return $i",
+        "1\n1\n1.5\n2\n2.5");
+  }
+
+  /** Join clauses. */
+  @Test public void join() {
+    final String xml = "let $x := <x>{ (1 to 20) ! <b id='{ . mod 7 }'>{ . }</b> }</x> ";
+    // equality comparison
+    check(xml + "for $a in 1 to 4 for $b in $x/b where string($a) = $b/@id "
+        + "return $a || ':' || $b", "1:1\n1:8\n1:15\n2:2\n2:9\n2:16\n3:3\n3:10\n3:17\n"
+        + "4:4\n4:11\n4:18", exists(Join.class));
+    check(xml + "for $a in (2, 9, 1) for $b in $x/b where $b = string($a) return $a",
+        "2\n9\n1", exists(Join.class));
+    // multiple keys
+    check(xml + "for $a in 1 to 30 for $b in $x/b where string($a mod 7) = $b/@id "
+        + "where string($a) = $b return string($b)", "1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n11\n12\n13"
+        + "\n14\n15\n16\n17\n18\n19\n20", exists(Join.class));
+    // sequences: existential comparison, no duplicates
+    check(xml + "for $a in 1 to 3 for $b in $x/b where ($a, $a + 3) ! string() = $b/@id "
+        + "return string($b)", "1\n4\n8\n11\n15\n18\n2\n5\n9\n12\n16\n19\n3\n6\n10\n13\n17\n20",
+        exists(Join.class));
+    // range comparison
+    check(xml + "for $a in (3, 1, 2) for $b in $x/b ! xs:integer(.) where $a >= $b "
+        + "return $a * 10 + $b", "31\n32\n33\n11\n21\n22", exists(Join.class));
+    check(xml + "for $a in (18, 20) for $b in $x/b ! xs:integer(.) where $b > $a "
+        + "return $b", "19\n20", exists(Join.class));
+    // inlined function, repeated evaluation
+    check("declare function local:f($x, $n) { for $a in 1 to $n for $b in $x/b "
+        + "where string($a) = $b/@id return string($b) }; " + xml
+        + "return for $i in 1 to 2 return local:f($x, $i)",
+        "1\n8\n15\n1\n8\n15\n2\n9\n16", exists(Join.class));
+    // empty inner sequence
+    check(xml + "for $a in 1 to 4 for $b in $x/c where string($a) = $b/@id return $b",
+        "", exists(Join.class));
+
+    // no join: inner sequence depends on outer variable, or comparison cannot be hashed
+    check(xml + "for $a in 1 to 4 for $b in $x/b[. > $a] where string($a) = $b/@id "
+        + "return string($b)", "8\n15\n9\n16\n10\n17\n11\n18", empty(Join.class));
+    check(xml + "for $a in 1 to 2 for $b in $x/b where $a = $b return string($b)",
+        "1\n2", empty(Join.class));
+    // no join: comparison is guarded by a preceding where clause
+    check("for $a in (1, 2, 3) for $b in ('1', 'x', '3') where $b castable as xs:integer "
+        + "where xs:integer($b) = $a return $b", "1\n3", empty(Join.class));
+  }
+
   /** Do not flatten nested FLWOR expressions with while clauses. */
   @Test public void gh2634() {
     query("for $max in (1 to 10) return (for $a in 0 to $max while $a < 1 return $a)",
@@ -0,0 +1,110 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.query.expr.gflwor.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the parallel evaluation of FLWOR expressions and simple maps.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelTest extends SandboxTest {
+  /** Parallelized expression. */
+  private static final String PARALLEL = "Extension[@parallel = 'true']";
+
+  /** FLWOR expressions. */
+  @Test public void flwor() {
+    check("sum(for $i in 1 to count(<a/>/*) + 100000 return $i * 2)",
+        10000100000L, empty(PARALLEL));
+    check("(# basex:parallel #) { sum(for $i in 1 to count(<a/>/*) + 100000 return $i * 2) }",
+        10000100000L, empty(PARALLEL));
+
+    check("sum((# basex:parallel #) { for $i in 1 to count(<a/>/*) + 100000 return $i * 2 })",
+        10000100000L, exists(PARALLEL));
+    check("string-join((# basex:parallel #) { "
+        + "for $i in 1 to count(<a/>/*) + 10000 return string($i) }) = "
+        + "string-join((1 to 10000) ! string())",
+        true, exists(PARALLEL));
+    check("(# basex:parallel #) { "
+        + "for $i at $p in (1 to count(<a/>/*) + 5) ! (. * 3) let $j := $i + $p "
+        + "where $j mod 2 = 0 for $k in 1 to 2 return $j * $k }",
+        "4\n8\n8\n16\n12\n24\n16\n32\n20\n40", exists(PARALLEL));
+    check("count((# basex:parallel #) { for $a in 1 to count(<a/>/*) + 1000 "
+        + "for $b in (1 to 1000) ! string() where string($a) = $b return $b })",
+        1000, exists(PARALLEL), exists(Join.class));
+  }
+
+  /** Group by clauses. */
+  @Test public void groupBy() {
+    check("(# basex:parallel #) { for $i in 1 to count(<a/>/*) + 10 "
+        + "let $s := string($i) group by $g := $i mod 3 return $g || ':' || string-join($s, ',') }",
+        "1:1,4,7,10\n2:2,5,8\n0:3,6,9", exists(PARALLEL));
+    check("((# basex:parallel #) { for $i in 1 to count(<a/>/*) + 100000 "
+        + "group by $a := $i mod 7, $b := $i mod 2 order by $a descending, $b "
+        + "return $a * 10 + $b })[. < 40]", "30\n31\n20\n21\n10\n11\n0\n1", exists(PARALLEL));
+    check("let $seq := (1 to count(<a/>/*) + 100000) ! string(. mod 100) return "
+        + "deep-equal((# basex:parallel #) { for $s in $seq group by $s return count($s) }, "
+        + "for $s in $seq group by $s return count($s))",
+        true, exists(PARALLEL));
+    check("(# basex:parallel #) { for $s in ('a', 'B', 'b', 'A', ())[count(<a/>/*) + 1 to 5] "
+        + "group by $k := $s collation '?lang=de;strength=primary' return count($s) }",
+        "2\n2", exists(PARALLEL));
+    check("(# basex:parallel #) { for $i in 1 to count(<a/>/*) + 4 "
+        + "group by $k := ($i[. > 2] ! 'x') return count($i) }", "2\n2", exists(PARALLEL));
+  }
+
+  /** Simple maps. */
+  @Test public void simpleMap() {
+    check("sum((# basex:parallel #) { (1 to count(<a/>/*) + 100000) ! (. * 2) })",
+        10000100000L, exists(PARALLEL));
+    check("(# basex:parallel #) { (1 to count(<a/>/*) + 3) ! (., last()) ! string() }",
+        "1\n3\n2\n3\n3\n3", exists(PARALLEL));
+  }
+
+  /** Local variables and focus of the enclosing expression. */
+  @Test public void variables() {
+    check("declare function local:f($n, $m) { "
+        + "(# basex:parallel #) { for $i in 1 to $n return $i * $m } }; "
+        + "sum(local:f(count(<a/>/*) + 1000, count(<a><b/></a>/*) + 2))",
+        1501500, exists(PARALLEL));
+    check("<x>3</x> ! (let $a := xs:integer(.) + count(<a/>/*) return "
+        + "(# basex:parallel #) { (1 to $a) ! (. + $a) })",
+        "4\n5\n6", exists(PARALLEL));
+    check("<x>3</x> ! ((# basex:parallel #) { for $i in 1 to xs:integer(.) "
+        + "return $i + xs:integer(.) })", "4\n5\n6", exists(PARALLEL));
+
+    execute(new CreateDB(NAME, "<xml>" + "<a>1</a>".repeat(1000) + "</xml>"));
+    check("sum((# basex:parallel #) { for $a in //a return xs:integer($a) + 1 })",
+        2000, exists(PARALLEL));
+    execute(new DropDB(NAME));
+  }
+
+  /** Expressions that cannot be parallelized. */
+  @Test public void sequential() {
+    check("(# basex:parallel #) { for $i in 1 to count(<a/>/*) + 3 "
+        + "order by $i descending return $i }", "3\n2\n1", empty(PARALLEL));
+    check("(# basex:parallel #) { for $i in 1 to count(<a/>/*) + 3 "
+        + "return random:integer(1) }", "0\n0\n0", empty(PARALLEL));
+    check("(# basex:parallel #) { (1 to count(<a/>/*) + 3) ! random:integer(1) }",
+        "0\n0\n0", empty(PARALLEL));
+    check("(# basex:parallel #) { 1 + count(<a/>/*) }", 1, empty(PARALLEL));
+    check("(# basex:parallel #) { for $i in (1, 5, 2, 1)[count(<a/>/*) + 1 to 4] "
+        + "while $i < 3 return $i }", 1, empty(PARALLEL));
+    check("sum((# basex:parallel #) { (1 to count(<a/>/*) + 100) ! (. * 2) ! (. + position()) })",
+        15150, empty(PARALLEL));
+  }
+
+  /** Errors. */
+  @Test public void error() {
+    error("(# basex:parallel #) { for $i in 1 to count(<a/>/*) + 100000 "
+        + "return if($i = 5000) then error() else $i }", FUNERR1);
+    error("(# basex:parallel #) { (1 to count(<a/>/*) + 1000) ! xs:integer(string(. - 500)) "
+        + "! (1 div .) }", DIVZERO_X);
+  }
+}
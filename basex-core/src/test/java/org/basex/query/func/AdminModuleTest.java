@@ -40,6 +40,14 @@ public final class AdminModuleTest extends SandboxTest {
     error(func.args("2001-01-01"), WHICHRES_X);
   }
 
+  /** Test method. */
+  @Test public void queryCache() {
+    final Function func = _ADMIN_QUERY_CACHE;
+    // query plans are not cached by default
+    query(func.args() + "?entries", 0);
+    query("map:keys(" + func.args() + ")", "entries\nhits\nmisses\nevictions\ninvalidations");
+  }
+
   /** Test method. */
   @Test public void sessions() {
     final Function func = _ADMIN_SESSIONS;
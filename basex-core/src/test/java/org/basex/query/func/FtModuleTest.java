@@ -304,6 +304,30 @@ public final class FtModuleTest extends SandboxTest {
     error(func.args(NAME, "x", " 1"), INVTYPE_X);
   }
 
+  /** Test method. */
+  @Test public void searchLimit() {
+    final Function func = _FT_SEARCH;
+    query(func.args(NAME, "exercise", " { 'limit': 1 }"), "Exercise 1");
+    query(func.args(NAME, "exercise", " { 'limit': 0 }"), "");
+    query(func.args(NAME, "XML", " { 'limit': 1 }"), "XML");
+    query(func.args(NAME, "XML", " { 'limit': 5 }"), "XML\nDatabases and XML");
+
+    // texts with different lengths and numbers of occurrences
+    execute(new CreateDB(NAME, "<xml>{ for $i in 1 to 2000 return <t>{"
+        + "string-join((('a') ! (1 to $i mod 5 + 1) ! 'a', 'b', (1 to $i mod 13) ! 'c'), ' ')"
+        + "}</t> }</xml>"));
+    execute(new CreateIndex(CmdIndex.FULLTEXT));
+    for(final String terms : new String[] { "a", "b", "c", "a b", "c a" }) {
+      for(final int limit : new int[] { 1, 7, 100, 3000 }) {
+        final String expected = "(for $n in " + func.args(NAME, terms, " { 'mode': 'all words' }")
+            + " order by ft:score($n) descending, db:node-pre($n)"
+            + " return $n)[position() <= " + limit + "]/self::node() ! db:node-pre(.)";
+        query(func.args(NAME, terms, " { 'mode': 'all words', 'limit': " + limit + " }")
+            + " ! db:node-pre(.)", query(expected));
+      }
+    }
+  }
+
   /** Test method. */
   @Test public void thesaurus() {
     final Function func = _FT_THESAURUS;
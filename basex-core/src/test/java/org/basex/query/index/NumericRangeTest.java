@@ -0,0 +1,86 @@
+package org.basex.query.index;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests if numeric range queries are correctly evaluated with(out) the index.
+ *
+ * @author BaseX Team, BSD License
+ * @author Christian Gruen
+ */
+public final class NumericRangeTest extends SandboxTest {
+  /**
+   * Initialize test.
+   */
+  @BeforeEach public void before() {
+    final TokenBuilder tb = new TokenBuilder().add("<xml>");
+    for(int i = -500; i < 1500; i++) {
+      tb.add("<n v='").addInt(i % 700).add("'>").addInt(i).add("</n>");
+      if(i % 7 == 0) tb.add("<n v='").addInt(i).add("e0'>").addInt(i).add(".5</n>");
+      if(i % 100 == 0) tb.add("<s w='x'>text").addInt(i).add("</s>");
+    }
+    execute(new CreateDB(NAME, tb.add("</xml>").toString()));
+  }
+
+  /**
+   * Finalize test.
+   */
+  @AfterEach public void after() {
+    execute(new DropDB(NAME));
+    set(MainOptions.UPDINDEX, false);
+  }
+
+  /**
+   * Texts.
+   */
+  @Test public void text() {
+    test("count(//n[text() >= 100 and text() <= 199])", 114);
+    test("count(//n[text() > 100 and text() < 199])", 112);
+    test("count(//n[text() >= -10.5 and text() <= 10])", 24);
+    test("count(//n[text() >= 1499 and text() <= 1e10])", 1);
+    test("count(//n[text() >= -1e10 and text() <= -499.5])", 1);
+    test("sum(//n[text() >= 1000 and text() <= 1002])", 4004.5);
+  }
+
+  /**
+   * Attributes.
+   */
+  @Test public void attribute() {
+    test("count(//n[@v >= 0 and @v <= 9])", 32);
+    test("count(//n[@v >= 600 and @v <= 800])", 229);
+    test("count(//n[@v >= -100 and @v <= -0])", 118);
+  }
+
+  /**
+   * Range queries on updatable indexes, which scan all index entries.
+   */
+  @Test public void updindex() {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, "<xml><n>1</n><n>2</n><n>3.5</n><s>x</s></xml>"));
+    query("count(//n[text() >= 2 and text() <= 4])", 2);
+    query("insert node <n>3</n> into /xml");
+    query("count(//n[text() >= 2 and text() <= 4])", 3);
+  }
+
+  /**
+   * Tests a query with and without index.
+   * @param query query
+   * @param result expected result
+   */
+  private static void test(final String query, final Object result) {
+    final String range = Util.className(RangeAccess.class);
+    execute(new CreateIndex(CmdIndex.TEXT));
+    execute(new CreateIndex(CmdIndex.ATTRIBUTE));
+    check(query, result, exists(range));
+    execute(new DropIndex(CmdIndex.TEXT));
+    execute(new DropIndex(CmdIndex.ATTRIBUTE));
+    check(query, result, empty(range));
+  }
+}